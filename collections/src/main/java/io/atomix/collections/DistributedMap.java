@@ -20,8 +20,13 @@ import io.atomix.catalyst.buffer.BufferOutput;
 import io.atomix.catalyst.concurrent.Listener;
 import io.atomix.catalyst.serializer.CatalystSerializable;
 import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.catalyst.util.Assert;
+import io.atomix.catalyst.util.ConfigurationException;
+import io.atomix.collections.internal.FilterEvent;
+import io.atomix.collections.internal.MapCache;
 import io.atomix.collections.internal.MapCommands;
 import io.atomix.collections.internal.MapEntry;
+import io.atomix.collections.internal.PagedIterator;
 import io.atomix.collections.util.DistributedMapFactory;
 import io.atomix.copycat.client.CopycatClient;
 import io.atomix.resource.AbstractResource;
@@ -30,13 +35,20 @@ import io.atomix.resource.Resource;
 import io.atomix.resource.ResourceTypeInfo;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -64,6 +76,18 @@ import java.util.function.Consumer;
  * In addition to supporting normal {@link java.util.Map} methods, this implementation supports values
  * with TTLs. When a key is set with a TTL, the value will expire and be automatically evicted from the map
  * some time after the TTL.
+ * <h3>Key order</h3>
+ * By default, map keys are not stored in any particular order. To support range queries like
+ * {@link #subMap(Object, Object)} and {@link #prefix(String, int)}, the map can be configured to store keys in
+ * {@link Order#NATURAL natural} order via the {@link Config map configuration}. Range queries are evaluated on
+ * the server, so only matching entries are transferred to the client.
+ * <pre>
+ *   {@code
+ *   DistributedMap.Config config = new DistributedMap.Config()
+ *     .withKeyOrder(DistributedMap.Order.NATURAL);
+ *   DistributedMap<String, String> map = atomix.getMap("foo", config).get();
+ *   }
+ * </pre>
  *
  * @param <K> The map key type.
  * @param <V> The map entry type.
@@ -72,6 +96,347 @@ import java.util.function.Consumer;
 @ResourceTypeInfo(id = -11, factory = DistributedMapFactory.class)
 public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>> {
 
+  /**
+   * Distributed map configuration.
+   */
+  public static class Config extends Resource.Config {
+    public Config() {
+    }
+
+    public Config(Properties defaults) {
+      super(defaults);
+    }
+
+    /**
+     * Sets the map key order.
+     * <p>
+     * When keys are stored in {@link Order#NATURAL natural} order, the map supports range queries like
+     * {@link DistributedMap#subMap(Object, Object)} and {@link DistributedMap#prefix(String, int)} that are
+     * evaluated on the server so that only matching entries are returned to the client. All keys in a
+     * naturally ordered map must be mutually {@link Comparable}.
+     *
+     * @param order The map key order.
+     * @return The map configuration.
+     */
+    public Config withKeyOrder(Order order) {
+      setProperty("order", Assert.notNull(order, "order").name().toLowerCase());
+      return this;
+    }
+
+    /**
+     * Returns the map key order.
+     *
+     * @return The map key order.
+     */
+    public Order getKeyOrder() {
+      return Order.valueOf(getProperty("order", Order.NONE.name().toLowerCase()).toUpperCase());
+    }
+
+    /**
+     * Enables the value index.
+     * <p>
+     * When the value index is enabled, each replica maintains a count of the keys mapped to each distinct value
+     * so that {@link DistributedMap#containsValue(Object)} completes in constant time rather than scanning the map.
+     * The index costs memory on each replica in proportion to the number of distinct values in the map. The
+     * estimated overhead is reported by {@link Stats#valueIndexBytes()}.
+     *
+     * @return The map configuration.
+     */
+    public Config withValueIndex() {
+      return withValueIndex(true);
+    }
+
+    /**
+     * Sets whether to enable the value index.
+     *
+     * @param enabled Whether to enable the value index.
+     * @return The map configuration.
+     * @see #withValueIndex()
+     */
+    public Config withValueIndex(boolean enabled) {
+      setProperty("index.values", String.valueOf(enabled));
+      return this;
+    }
+
+    /**
+     * Returns whether the value index is enabled.
+     *
+     * @return Whether the value index is enabled.
+     */
+    public boolean isValueIndexEnabled() {
+      return Boolean.parseBoolean(getProperty("index.values", "false"));
+    }
+
+    /**
+     * Adds a secondary index over an attribute of the map's values.
+     * <p>
+     * Each replica instantiates the {@code extractor} class via its public no-argument constructor and maintains
+     * the index as entries are added, updated, removed and expired. {@link DistributedMap#query(EntryPredicate, int)
+     * Queries} with an {@link IndexPredicate#equalTo(String, Object) index predicate} for the index read matching
+     * keys from the index rather than scanning the map. The extractor class must be on the classpath of every
+     * replica.
+     *
+     * @param name The index name.
+     * @param extractor The class of the function that extracts the indexed attribute from a value.
+     * @return The map configuration.
+     */
+    public Config withIndex(String name, Class<? extends ValueExtractor> extractor) {
+      setProperty(String.format("indexes.%s.extractor", Assert.notNull(name, "name")), Assert.notNull(extractor, "extractor").getName());
+      return this;
+    }
+
+    /**
+     * Adds a sorted secondary index over an attribute of the map's values.
+     * <p>
+     * Sorted indexes hold attributes in natural order and serve {@link IndexPredicate#between(String, Object, Object)
+     * range} predicates in addition to equality predicates. The attributes extracted from values must be mutually
+     * {@link Comparable}. Values whose attributes are not comparable are not indexed.
+     *
+     * @param name The index name.
+     * @param extractor The class of the function that extracts the indexed attribute from a value.
+     * @return The map configuration.
+     * @see #withIndex(String, Class)
+     */
+    public Config withSortedIndex(String name, Class<? extends ValueExtractor> extractor) {
+      withIndex(name, extractor);
+      setProperty(String.format("indexes.%s.sorted", name), String.valueOf(true));
+      return this;
+    }
+
+    /**
+     * Returns the names of the map's secondary indexes.
+     *
+     * @return The names of the map's secondary indexes.
+     */
+    public Set<String> getIndexes() {
+      Set<String> indexes = new TreeSet<>();
+      for (String property : stringPropertyNames()) {
+        if (property.startsWith("indexes.") && property.endsWith(".extractor")) {
+          indexes.add(property.substring("indexes.".length(), property.length() - ".extractor".length()));
+        }
+      }
+      return indexes;
+    }
+
+    /**
+     * Returns the extractor class for the given secondary index.
+     *
+     * @param name The index name.
+     * @return The class of the function that extracts the indexed attribute from a value.
+     * @throws ConfigurationException if the index is unknown or the extractor class cannot be loaded
+     */
+    @SuppressWarnings("unchecked")
+    public Class<? extends ValueExtractor> getIndexExtractor(String name) {
+      String extractor = getProperty(String.format("indexes.%s.extractor", name));
+      if (extractor == null)
+        throw new ConfigurationException("unknown index: %s", name);
+      try {
+        return (Class<? extends ValueExtractor>) Class.forName(extractor);
+      } catch (ClassNotFoundException e) {
+        throw new ConfigurationException(e, "failed to load index extractor: %s", extractor);
+      }
+    }
+
+    /**
+     * Returns whether the given secondary index is sorted.
+     *
+     * @param name The index name.
+     * @return Whether the index is sorted.
+     */
+    public boolean isIndexSorted(String name) {
+      return Boolean.parseBoolean(getProperty(String.format("indexes.%s.sorted", name), "false"));
+    }
+
+    /**
+     * Sets where replicas store the map's values.
+     * <p>
+     * When values are stored {@link ValueStorage#OFF_HEAP off-heap}, each replica serializes values into slabs
+     * of direct memory and keeps only the keys and the locations of their values on the heap. Values are
+     * deserialized each time they're read, trading CPU for a heap that doesn't grow with the size of the map's
+     * values. Off-heap storage requires commits to be released once applied, so it also
+     * {@link #withSnapshots() enables snapshots}. The direct memory reserved by a replica is reported by
+     * {@link Stats#offHeapBytes()}.
+     *
+     * @param storage The value storage.
+     * @return The map configuration.
+     */
+    public Config withValueStorage(ValueStorage storage) {
+      setProperty("storage.values", Assert.notNull(storage, "storage").name().toLowerCase());
+      if (storage == ValueStorage.OFF_HEAP) {
+        withSnapshots();
+      }
+      return this;
+    }
+
+    /**
+     * Returns where replicas store the map's values.
+     *
+     * @return The value storage.
+     */
+    public ValueStorage getValueStorage() {
+      return ValueStorage.valueOf(getProperty("storage.values", ValueStorage.HEAP.name().toLowerCase()).toUpperCase());
+    }
+
+    /**
+     * Sets the size of the slabs in which off-heap values are stored.
+     * <p>
+     * Values larger than a slab are stored in a slab of their own.
+     *
+     * @param slabSize The slab size in bytes.
+     * @return The map configuration.
+     * @throws IllegalArgumentException if {@code slabSize} is not positive
+     */
+    public Config withOffHeapSlabSize(int slabSize) {
+      setProperty("storage.slab-size", String.valueOf(Assert.argNot(slabSize, slabSize <= 0, "slabSize must be positive")));
+      return this;
+    }
+
+    /**
+     * Returns the size of the slabs in which off-heap values are stored.
+     *
+     * @return The slab size in bytes.
+     */
+    public int getOffHeapSlabSize() {
+      return Integer.parseInt(getProperty("storage.slab-size", String.valueOf(1024 * 1024)));
+    }
+
+    /**
+     * Sets the maximum number of entries in the map.
+     * <p>
+     * When a write would grow the map beyond the limit, replicas evict entries according to the
+     * {@link #withEvictionPolicy(EvictionPolicy) eviction policy} until the map is within its bounds again. The
+     * entry being written is never evicted by its own write. Each eviction is published as a
+     * {@link Events#REMOVE remove} event for which {@link EntryEvent#isEvicted()} is {@code true} and is counted in
+     * {@link Stats#evictionCount()}.
+     *
+     * @param maxEntries The maximum number of entries in the map, or {@code 0} for no limit.
+     * @return The map configuration.
+     * @throws IllegalArgumentException if {@code maxEntries} is negative
+     */
+    public Config withMaxEntries(int maxEntries) {
+      setProperty("eviction.max-entries", String.valueOf(Assert.argNot(maxEntries, maxEntries < 0, "maxEntries cannot be negative")));
+      return this;
+    }
+
+    /**
+     * Returns the maximum number of entries in the map.
+     *
+     * @return The maximum number of entries in the map, or {@code 0} for no limit.
+     */
+    public int getMaxEntries() {
+      return Integer.parseInt(getProperty("eviction.max-entries", "0"));
+    }
+
+    /**
+     * Sets the maximum size of the map's entries in bytes.
+     * <p>
+     * The size of an entry is the size of its serialized key and value. Replicas serialize each entry they store
+     * to measure it, so the limit costs CPU on every write.
+     *
+     * @param maxBytes The maximum size of the map's entries in bytes, or {@code 0} for no limit.
+     * @return The map configuration.
+     * @throws IllegalArgumentException if {@code maxBytes} is negative
+     * @see #withMaxEntries(int)
+     */
+    public Config withMaxBytes(long maxBytes) {
+      setProperty("eviction.max-bytes", String.valueOf(Assert.argNot(maxBytes, maxBytes < 0, "maxBytes cannot be negative")));
+      return this;
+    }
+
+    /**
+     * Returns the maximum size of the map's entries in bytes.
+     *
+     * @return The maximum size of the map's entries in bytes, or {@code 0} for no limit.
+     */
+    public long getMaxBytes() {
+      return Long.parseLong(getProperty("eviction.max-bytes", "0"));
+    }
+
+    /**
+     * Sets the policy by which entries are evicted from a bounded map.
+     * <p>
+     * Eviction must be identical on every replica, so policies order entries only by the writes applied to
+     * the map. Reads are not replicated and don't affect eviction. Unlike {@link EvictionPolicy#LRU LRU}, the
+     * {@link EvictionPolicy#FIFO FIFO} and {@link EvictionPolicy#LFU LFU} policies depend on writes whose commits
+     * may have been compacted from the log, so selecting either also {@link #withSnapshots() enables snapshots}.
+     *
+     * @param policy The eviction policy.
+     * @return The map configuration.
+     */
+    public Config withEvictionPolicy(EvictionPolicy policy) {
+      setProperty("eviction.policy", Assert.notNull(policy, "policy").name().toLowerCase());
+      if (policy != EvictionPolicy.LRU) {
+        withSnapshots();
+      }
+      return this;
+    }
+
+    /**
+     * Returns the policy by which entries are evicted from a bounded map.
+     *
+     * @return The eviction policy.
+     */
+    public EvictionPolicy getEvictionPolicy() {
+      return EvictionPolicy.valueOf(getProperty("eviction.policy", EvictionPolicy.LRU.name().toLowerCase()).toUpperCase());
+    }
+  }
+
+  /**
+   * Represents the order of keys in a map.
+   */
+  public enum Order {
+
+    /**
+     * Indicates that keys should be stored in natural order.
+     */
+    NATURAL,
+
+    /**
+     * Indicates that no order is required for keys.
+     */
+    NONE
+
+  }
+
+  /**
+   * Represents where replicas store a map's values.
+   */
+  public enum ValueStorage {
+
+    /**
+     * Indicates that values should be stored as objects on the heap.
+     */
+    HEAP,
+
+    /**
+     * Indicates that values should be stored serialized in direct memory.
+     */
+    OFF_HEAP
+
+  }
+
+  /**
+   * Represents the policy by which entries are evicted from a bounded map.
+   */
+  public enum EvictionPolicy {
+
+    /**
+     * Indicates that the entry that was written least recently should be evicted.
+     */
+    LRU,
+
+    /**
+     * Indicates that the entry that was written least often should be evicted.
+     */
+    LFU,
+
+    /**
+     * Indicates that the entry that was inserted first should be evicted.
+     */
+    FIFO
+
+  }
+
   /**
    * Distributed map options.
    */
@@ -87,9 +452,10 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
      * Enables the local map cache.
      * <p>
      * When local caching is enabled, the {@link DistributedMap} will update a local in-memory map each
-     * time a change event is received. The instance will hold the full map in memory and will service
-     * all {@link ReadConsistency#LOCAL} reads from the local map. Thus, this feature should be used with
-     * caution. <em>Do not enable caching on large maps.</em>
+     * time a change event is received and will service {@link ReadConsistency#LOCAL} reads from the local
+     * map, reading keys that are not cached through to the cluster. By default, the cache is unbounded and
+     * will eventually hold the full map in memory. <em>To cache large maps, bound the cache via
+     * {@link #withLocalCacheSize(int)}.</em>
      *
      * @return The map options.
      */
@@ -101,9 +467,10 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
      * Sets whether to enable local caching.
      * <p>
      * When local caching is enabled, the {@link DistributedMap} will update a local in-memory map each
-     * time a change event is received. The instance will hold the full map in memory and will service
-     * all {@link ReadConsistency#LOCAL} reads from the local map. Thus, this feature should be used with
-     * caution. <em>Do not enable caching on large maps.</em>
+     * time a change event is received and will service {@link ReadConsistency#LOCAL} reads from the local
+     * map, reading keys that are not cached through to the cluster. By default, the cache is unbounded and
+     * will eventually hold the full map in memory. <em>To cache large maps, bound the cache via
+     * {@link #withLocalCacheSize(int)}.</em>
      *
      * @param enableCache Whether to enable local caching.
      * @return The map options.
@@ -124,11 +491,90 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
     public boolean isLocalCache() {
       return Boolean.parseBoolean(getProperty("cache", "false"));
     }
+
+    /**
+     * Sets the maximum number of entries to hold in the local cache.
+     * <p>
+     * When the local cache is bounded, the cache holds only a subset of the map. {@link ReadConsistency#LOCAL}
+     * reads of a key that is not cached are read through to the cluster and the result is added to the cache,
+     * evicting other entries according to the {@link #withLocalCachePolicy(MapCache.Policy) cache policy} once
+     * the cache is full. Change events update only keys that are already cached. A maximum size of {@code 0}
+     * indicates the cache is unbounded.
+     *
+     * @param maxSize The maximum number of entries to hold in the local cache.
+     * @return The map options.
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    public Options withLocalCacheSize(int maxSize) {
+      Assert.argNot(maxSize < 0, "maxSize cannot be negative");
+      setProperty("cache.size", String.valueOf(maxSize));
+      return this;
+    }
+
+    /**
+     * Returns the maximum number of entries to hold in the local cache.
+     *
+     * @return The maximum number of entries to hold in the local cache, or {@code 0} if the cache is unbounded.
+     */
+    public int getLocalCacheSize() {
+      return Integer.parseInt(getProperty("cache.size", "0"));
+    }
+
+    /**
+     * Sets the local cache eviction policy.
+     * <p>
+     * The eviction policy applies only to bounded caches. Defaults to {@link MapCache.Policy#TINY_LFU}.
+     *
+     * @param policy The local cache eviction policy.
+     * @return The map options.
+     * @throws NullPointerException if {@code policy} is {@code null}
+     */
+    public Options withLocalCachePolicy(MapCache.Policy policy) {
+      setProperty("cache.policy", Assert.notNull(policy, "policy").name());
+      return this;
+    }
+
+    /**
+     * Returns the local cache eviction policy.
+     *
+     * @return The local cache eviction policy.
+     */
+    public MapCache.Policy getLocalCachePolicy() {
+      return MapCache.Policy.valueOf(getProperty("cache.policy", MapCache.Policy.TINY_LFU.name()));
+    }
+
+    /**
+     * Sets the maximum number of entries or keys to submit in a single bulk operation.
+     * <p>
+     * Bulk operations like {@link DistributedMap#putAll(Map)} and {@link DistributedMap#getAll(Collection)}
+     * are split into commands of at most {@code maxSize} entries each. Each command is applied atomically, but
+     * a bulk operation that is split into several commands is not. Defaults to {@code 1000}.
+     *
+     * @param maxSize The maximum number of entries or keys to submit in a single bulk operation.
+     * @return The map options.
+     * @throws IllegalArgumentException if {@code maxSize} is not positive
+     */
+    public Options withMaxBulkSize(int maxSize) {
+      Assert.argNot(maxSize <= 0, "maxSize must be positive");
+      setProperty("bulk.size", String.valueOf(maxSize));
+      return this;
+    }
+
+    /**
+     * Returns the maximum number of entries or keys to submit in a single bulk operation.
+     *
+     * @return The maximum number of entries or keys to submit in a single bulk operation.
+     */
+    public int getMaxBulkSize() {
+      return Integer.parseInt(getProperty("bulk.size", "1000"));
+    }
   }
 
   private final Options options;
-  private final Map<K, V> cache;
+  private final MapCache<K, V> cache;
   private final Map<K, Map<Integer, Set<Consumer>>> eventListeners = new ConcurrentHashMap<>();
+  private final Map<Long, Consumer> filterListeners = new ConcurrentHashMap<>();
+  private final AtomicLong filterListenerId = new AtomicLong();
 
   public DistributedMap(CopycatClient client) {
     this(client, new Options());
@@ -138,17 +584,36 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
     super(client, options);
     this.options = new Options(options);
     if (this.options.isLocalCache()) {
-      this.cache = new ConcurrentHashMap<>();
+      this.cache = new MapCache<>(this.options.getLocalCacheSize(), this.options.getLocalCachePolicy());
     } else {
       this.cache = null;
     }
   }
 
+  @Override
+  public Config config() {
+    return new Config(super.config());
+  }
+
   @Override
   public Options options() {
     return options;
   }
 
+  /**
+   * Returns statistics for the local cache.
+   * <p>
+   * If local caching is not {@link Options#withLocalCache() enabled} for the map, all statistics are {@code 0}.
+   *
+   * @return Statistics for the local cache.
+   */
+  public CacheStats cacheStats() {
+    if (cache == null) {
+      return new CacheStats(0, 0, 0, 0);
+    }
+    return new CacheStats(cache.size(), cache.hits(), cache.misses(), cache.evictions());
+  }
+
   /**
    * Returns {@code true} if the map is empty.
    * <p>
@@ -230,7 +695,7 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
    * @return A completable future to be completed with a boolean value indicating whether the map is empty.
    */
   public CompletableFuture<Boolean> isEmpty(ReadConsistency consistency) {
-    return client.submit(new MapCommands.IsEmpty(consistency.level()));
+    return submit(new MapCommands.IsEmpty(consistency.level()), consistency);
   }
 
   /**
@@ -310,7 +775,7 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
    * @return A completable future to be completed with the number of entries in the map.
    */
   public CompletableFuture<Integer> size(ReadConsistency consistency) {
-    return client.submit(new MapCommands.Size(consistency.level()));
+    return submit(new MapCommands.Size(consistency.level()), consistency);
   }
 
   /**
@@ -398,7 +863,7 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
    * @throws NullPointerException if {@code key} is {@code null}
    */
   public CompletableFuture<Boolean> containsKey(Object key, ReadConsistency consistency) {
-    return client.submit(new MapCommands.ContainsKey(key, consistency.level()));
+    return submit(new MapCommands.ContainsKey(key, consistency.level()), consistency);
   }
 
   /**
@@ -486,7 +951,7 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
    * @throws NullPointerException if {@code key} is {@code null}
    */
   public CompletableFuture<Boolean> containsValue(Object value, ReadConsistency consistency) {
-    return client.submit(new MapCommands.ContainsValue(value, consistency.level()));
+    return submit(new MapCommands.ContainsValue(value, consistency.level()), consistency);
   }
 
   /**
@@ -573,9 +1038,76 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
   @SuppressWarnings("unchecked")
   public CompletableFuture<V> get(Object key, ReadConsistency consistency) {
     if (consistency == ReadConsistency.LOCAL && cache != null) {
-      return CompletableFuture.completedFuture(cache.get(key));
+      V value = cache.get(key);
+      if (value != null) {
+        return CompletableFuture.completedFuture(value);
+      }
+
+      // Read through to the cluster on a cache miss. The entry version guards against loading a value that
+      // is older than a change received while the read was outstanding.
+      return readThrough(key, consistency).thenApply(result -> result != null ? result.value() : null);
+    }
+    return submit(new MapCommands.Get(key, consistency.level()), consistency).thenApply(result -> (V) result);
+  }
+
+  /**
+   * Gets the value and version of {@code key}.
+   * <p>
+   * The version of an entry is the index of the commit that last wrote it. Versions increase monotonically
+   * across all keys in the map, so a larger version always indicates a more recent write. Versions can be
+   * passed to {@link #replaceIfVersion(Object, long, Object)} and {@link #removeIfVersion(Object, long)} to
+   * update an entry optimistically without sending its current value to the cluster.
+   * <pre>
+   *   {@code
+   *   DistributedMap.Versioned<String> versioned = map.getWithVersion("key").join();
+   *   map.replaceIfVersion("key", versioned.version(), "Hello world again!").join();
+   *   }
+   * </pre>
+   *
+   * @param key The key to get.
+   * @return A completable future to be completed with the value and version or {@code null} if the key is not present.
+   * @throws NullPointerException if {@code key} is {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<Versioned<V>> getWithVersion(Object key) {
+    return client.submit(new MapCommands.GetWithVersion(key)).thenApply(result -> (Versioned<V>) result);
+  }
+
+  /**
+   * Gets the value and version of {@code key}.
+   * <p>
+   * When the {@link Options#withLocalCache() local cache} is enabled, {@link ReadConsistency#LOCAL} reads are
+   * served from the cache if the cached entry's version is known.
+   *
+   * @param key The key to get.
+   * @param consistency The read consistency level.
+   * @return A completable future to be completed with the value and version or {@code null} if the key is not present.
+   * @throws NullPointerException if {@code key} is {@code null}
+   * @see #getWithVersion(Object)
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<Versioned<V>> getWithVersion(Object key, ReadConsistency consistency) {
+    if (consistency == ReadConsistency.LOCAL && cache != null) {
+      Versioned<V> value = cache.getVersioned(key);
+      if (value != null && value.version() > 0) {
+        return CompletableFuture.completedFuture(value);
+      }
+      return readThrough(key, consistency);
     }
-    return client.submit(new MapCommands.Get(key, consistency.level())).thenApply(result -> (V) result);
+    return submit(new MapCommands.GetWithVersion(key, consistency.level()), consistency).thenApply(result -> (Versioned<V>) result);
+  }
+
+  /**
+   * Reads a key through to the cluster and loads the result into the cache.
+   */
+  @SuppressWarnings("unchecked")
+  private CompletableFuture<Versioned<V>> readThrough(Object key, ReadConsistency consistency) {
+    long sequence = cache.begin();
+    return submit(new MapCommands.GetWithVersion(key, consistency.level()), consistency).whenComplete((result, error) -> {
+      if (error == null)
+        cache.load((K) key, (Versioned<V>) result, sequence);
+      cache.end();
+    }).thenApply(result -> (Versioned<V>) result);
   }
 
   /**
@@ -670,9 +1202,12 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
   @SuppressWarnings("unchecked")
   public CompletableFuture<V> getOrDefault(Object key, V defaultValue, ReadConsistency consistency) {
     if (consistency == ReadConsistency.LOCAL && cache != null) {
-      return CompletableFuture.completedFuture(cache.getOrDefault(key, defaultValue));
+      V value = cache.get(key);
+      if (value != null) {
+        return CompletableFuture.completedFuture(value);
+      }
     }
-    return client.submit(new MapCommands.GetOrDefault(key, defaultValue, consistency.level())).thenApply(result -> (V) result);
+    return submit(new MapCommands.GetOrDefault(key, defaultValue, consistency.level()), consistency).thenApply(result -> (V) result);
   }
 
   /**
@@ -820,9 +1355,263 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
   }
 
   /**
-   * Removes a the value for the given {@code key} from the map.
+   * Puts all of the given entries in the map.
    * <p>
-   * If no value for the given {@code key} is present in the map, the returned {@link CompletableFuture} will
+   * Any previous values associated with the given keys will be overridden. The entries are submitted to the
+   * cluster in as few commands as the {@link Options#withMaxBulkSize(int) maximum bulk size} allows. All the
+   * entries in a single command are applied atomically, and listeners receive the resulting events in a
+   * single batch.
+   * <p>
+   * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
+   * or to be notified in a separate thread once the operation completes. To block until the operation completes,
+   * use the {@link CompletableFuture#join()} method to block the calling thread:
+   * <pre>
+   *   {@code
+   *   map.putAll(entries).join();
+   *   }
+   * </pre>
+   * Alternatively, to execute the operation asynchronous and be notified once the operation is complete in a different
+   * thread, use one of the many completable future callbacks:
+   * <pre>
+   *   {@code
+   *   map.putAll(entries).thenRun(() -> {
+   *     ...
+   *   });
+   *   }
+   * </pre>
+   *
+   * @param entries The entries to put.
+   * @return A completable future to be completed once the entries have been put.
+   * @throws NullPointerException if {@code entries} or any of its keys is {@code null}
+   */
+  public CompletableFuture<Void> putAll(Map<? extends K, ? extends V> entries) {
+    return putAll(split(entries), 0);
+  }
+
+  /**
+   * Puts all of the given entries in the map with a time-to-live.
+   * <p>
+   * Any previous values associated with the given keys will be overridden. The entries are submitted to the
+   * cluster in as few commands as the {@link Options#withMaxBulkSize(int) maximum bulk size} allows. All the
+   * entries in a single command are applied atomically, and listeners receive the resulting events in a
+   * single batch.
+   * <p>
+   * The entries will remain in the map until the provided {@link Duration} of time has elapsed or they are
+   * overridden by more recent put operations.
+   *
+   * @param entries The entries to put.
+   * @param ttl The duration after which to expire the entries.
+   * @return A completable future to be completed once the entries have been put.
+   * @throws NullPointerException if {@code entries} or any of its keys is {@code null}
+   */
+  public CompletableFuture<Void> putAll(Map<? extends K, ? extends V> entries, Duration ttl) {
+    return putAll(split(entries), ttl.toMillis());
+  }
+
+  /**
+   * Submits put all commands for the given chunks of entries.
+   */
+  private CompletableFuture<Void> putAll(List<Map<Object, Object>> chunks, long ttl) {
+    CompletableFuture[] futures = new CompletableFuture[chunks.size()];
+    for (int i = 0; i < chunks.size(); i++) {
+      futures[i] = client.submit(new MapCommands.PutAll(chunks.get(i), ttl));
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
+  /**
+   * Puts each of the given entries in the map if its key does not exist.
+   * <p>
+   * The entries are submitted to the cluster in as few commands as the
+   * {@link Options#withMaxBulkSize(int) maximum bulk size} allows. All the entries in a single command are
+   * applied atomically, and listeners receive the resulting events in a single batch.
+   *
+   * @param entries The entries to put.
+   * @return A completable future to be completed with the current entries for keys that were already present.
+   * @throws NullPointerException if {@code entries} or any of its keys is {@code null}
+   */
+  public CompletableFuture<Map<K, V>> putAllIfAbsent(Map<? extends K, ? extends V> entries) {
+    return putAllIfAbsent(split(entries), 0);
+  }
+
+  /**
+   * Puts each of the given entries in the map with a time-to-live if its key does not exist.
+   * <p>
+   * The entries are submitted to the cluster in as few commands as the
+   * {@link Options#withMaxBulkSize(int) maximum bulk size} allows. All the entries in a single command are
+   * applied atomically, and listeners receive the resulting events in a single batch.
+   *
+   * @param entries The entries to put.
+   * @param ttl The duration after which to expire the entries.
+   * @return A completable future to be completed with the current entries for keys that were already present.
+   * @throws NullPointerException if {@code entries} or any of its keys is {@code null}
+   */
+  public CompletableFuture<Map<K, V>> putAllIfAbsent(Map<? extends K, ? extends V> entries, Duration ttl) {
+    return putAllIfAbsent(split(entries), ttl.toMillis());
+  }
+
+  /**
+   * Submits put all if absent commands for the given chunks of entries.
+   */
+  private CompletableFuture<Map<K, V>> putAllIfAbsent(List<Map<Object, Object>> chunks, long ttl) {
+    List<CompletableFuture<Map<Object, Object>>> futures = new ArrayList<>(chunks.size());
+    for (Map<Object, Object> chunk : chunks) {
+      futures.add(client.submit(new MapCommands.PutAllIfAbsent(chunk, ttl)));
+    }
+    return merge(futures);
+  }
+
+  /**
+   * Gets the values for the given keys.
+   * <p>
+   * The keys are submitted to the cluster in as few queries as the
+   * {@link Options#withMaxBulkSize(int) maximum bulk size} allows. Keys that are not present in the map
+   * are omitted from the result.
+   *
+   * @param keys The keys to get.
+   * @return A completable future to be completed with the entries for keys that are present in the map.
+   * @throws NullPointerException if {@code keys} or any key is {@code null}
+   */
+  public CompletableFuture<Map<K, V>> getAll(Collection<?> keys) {
+    List<CompletableFuture<Map<Object, Object>>> futures = new ArrayList<>();
+    for (Collection<Object> chunk : split(keys)) {
+      futures.add(client.submit(new MapCommands.GetAll(chunk)));
+    }
+    return merge(futures);
+  }
+
+  /**
+   * Gets the values for the given keys.
+   * <p>
+   * The keys are submitted to the cluster in as few queries as the
+   * {@link Options#withMaxBulkSize(int) maximum bulk size} allows. Keys that are not present in the map
+   * are omitted from the result. When the {@link Options#withLocalCache() local cache} is enabled,
+   * {@link ReadConsistency#LOCAL} reads are served from the cache and only keys that are not cached are read
+   * through to the cluster.
+   *
+   * @param keys The keys to get.
+   * @param consistency The read consistency level.
+   * @return A completable future to be completed with the entries for keys that are present in the map.
+   * @throws NullPointerException if {@code keys} or any key is {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<Map<K, V>> getAll(Collection<?> keys, ReadConsistency consistency) {
+    if (consistency == ReadConsistency.LOCAL && cache != null) {
+      Map<K, V> hits = new HashMap<>();
+      List<Object> misses = new ArrayList<>();
+      for (Object key : Assert.notNull(keys, "keys")) {
+        V value = cache.get(key);
+        if (value != null) {
+          hits.put((K) key, value);
+        } else {
+          misses.add(key);
+        }
+      }
+
+      // Read misses through to the cluster. The cache guards against loading values whose keys were
+      // changed by events received while the read was outstanding.
+      long sequence = cache.begin();
+      return readAll(split(misses), consistency).whenComplete((entries, error) -> {
+        if (error == null) {
+          for (Map.Entry<K, V> entry : entries.entrySet()) {
+            cache.load(entry.getKey(), entry.getValue(), sequence);
+          }
+        }
+        cache.end();
+      }).thenApply(entries -> {
+        entries.putAll(hits);
+        return entries;
+      });
+    }
+    return readAll(split(keys), consistency);
+  }
+
+  /**
+   * Submits get all queries for the given chunks of keys.
+   */
+  private CompletableFuture<Map<K, V>> readAll(List<Collection<Object>> chunks, ReadConsistency consistency) {
+    List<CompletableFuture<Map<Object, Object>>> futures = new ArrayList<>(chunks.size());
+    for (Collection<Object> chunk : chunks) {
+      futures.add(submit(new MapCommands.GetAll(chunk, consistency.level()), consistency));
+    }
+    return merge(futures);
+  }
+
+  /**
+   * Removes the values for the given keys from the map.
+   * <p>
+   * The keys are submitted to the cluster in as few commands as the
+   * {@link Options#withMaxBulkSize(int) maximum bulk size} allows. All the keys in a single command are
+   * removed atomically, and listeners receive the resulting events in a single batch.
+   *
+   * @param keys The keys to remove.
+   * @return A completable future to be completed with the entries that were removed from the map.
+   * @throws NullPointerException if {@code keys} or any key is {@code null}
+   */
+  public CompletableFuture<Map<K, V>> removeAll(Collection<?> keys) {
+    List<CompletableFuture<Map<Object, Object>>> futures = new ArrayList<>();
+    for (Collection<Object> chunk : split(keys)) {
+      futures.add(client.submit(new MapCommands.RemoveAll(chunk)));
+    }
+    return merge(futures);
+  }
+
+  /**
+   * Splits the given entries into chunks of at most the maximum bulk size.
+   */
+  private List<Map<Object, Object>> split(Map<? extends K, ? extends V> entries) {
+    Assert.notNull(entries, "entries");
+    int maxSize = options.getMaxBulkSize();
+    List<Map<Object, Object>> chunks = new ArrayList<>();
+    Map<Object, Object> chunk = null;
+    for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+      if (chunk == null || chunk.size() == maxSize) {
+        chunk = new LinkedHashMap<>();
+        chunks.add(chunk);
+      }
+      chunk.put(Assert.notNull(entry.getKey(), "key"), entry.getValue());
+    }
+    return chunks;
+  }
+
+  /**
+   * Splits the given keys into chunks of at most the maximum bulk size.
+   */
+  private List<Collection<Object>> split(Collection<?> keys) {
+    Assert.notNull(keys, "keys");
+    int maxSize = options.getMaxBulkSize();
+    List<Collection<Object>> chunks = new ArrayList<>();
+    Collection<Object> chunk = null;
+    for (Object key : keys) {
+      if (chunk == null || chunk.size() == maxSize) {
+        chunk = new ArrayList<>();
+        chunks.add(chunk);
+      }
+      chunk.add(Assert.notNull(key, "key"));
+    }
+    return chunks;
+  }
+
+  /**
+   * Merges the results of bulk operations into a single map.
+   */
+  @SuppressWarnings("unchecked")
+  private CompletableFuture<Map<K, V>> merge(List<CompletableFuture<Map<Object, Object>>> futures) {
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).thenApply(v -> {
+      Map<K, V> entries = new HashMap<>();
+      for (CompletableFuture<Map<Object, Object>> future : futures) {
+        for (Map.Entry<Object, Object> entry : future.join().entrySet()) {
+          entries.put((K) entry.getKey(), (V) entry.getValue());
+        }
+      }
+      return entries;
+    });
+  }
+
+  /**
+   * Removes a the value for the given {@code key} from the map.
+   * <p>
+   * If no value for the given {@code key} is present in the map, the returned {@link CompletableFuture} will
    * be completed {@code null}. If a value is present, that value will be removed from the distributed map and the
    * returned future will be completed with that value. If the previous value was set with a TTL, the TTL will
    * be cancelled.
@@ -1041,9 +1830,143 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
     return client.submit(new MapCommands.ReplaceIfPresent(key, oldValue, newValue, ttl.toMillis()));
   }
 
+  /**
+   * Computes a new value for the given {@code key} with an entry processor.
+   * <p>
+   * The {@code processor} is sent to the cluster and applied by the map state machine to the key's current value,
+   * or {@code null} if the key is not present, so the read and write of the entry happen atomically in a single
+   * command regardless of how many clients update the key concurrently. If the processor returns {@code null},
+   * the key is removed. The new value keeps any TTL of the previous value.
+   * <p>
+   * Entry processors can only be used by maps whose {@link Resource.Config#withSnapshots() snapshots} are enabled,
+   * since a processor's result depends on the value it was applied to. Otherwise, the command fails with a
+   * {@link ConfigurationException}.
+   * <p>
+   * The processor class must be serializable and registered with the same serializable type ID on all clients
+   * and replicas. See {@link EntryProcessor} for details.
+   * <pre>
+   *   {@code
+   *   long count = map.compute("count", new Increment(1)).join();
+   *   }
+   * </pre>
+   *
+   * @param key       The key for which to compute a value.
+   * @param processor The entry processor with which to compute the value.
+   * @return A completable future to be completed with the new value for the key or {@code null} if the key was removed.
+   * @throws NullPointerException if {@code key} or {@code processor} is {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<V> compute(K key, EntryProcessor<? super K, V> processor) {
+    return client.submit(new MapCommands.Compute(key, MapCommands.Compute.Mode.ALWAYS, processor)).thenApply(result -> (V) result);
+  }
+
+  /**
+   * Computes a new value for the given {@code key} with an entry processor if the key is present.
+   * <p>
+   * If the key is present, the {@code processor} is applied by the map state machine to the key's current value.
+   * If the processor returns {@code null}, the key is removed.
+   *
+   * @param key       The key for which to compute a value.
+   * @param processor The entry processor with which to compute the value.
+   * @return A completable future to be completed with the new value for the key or {@code null} if the key is absent.
+   * @throws NullPointerException if {@code key} or {@code processor} is {@code null}
+   * @see #compute(Object, EntryProcessor)
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<V> computeIfPresent(K key, EntryProcessor<? super K, V> processor) {
+    return client.submit(new MapCommands.Compute(key, MapCommands.Compute.Mode.IF_PRESENT, processor)).thenApply(result -> (V) result);
+  }
+
+  /**
+   * Computes a value for the given {@code key} with an entry processor if the key is absent.
+   * <p>
+   * If the key is absent, the {@code processor} is applied by the map state machine with a {@code null} value and
+   * the key is set to the result unless the result is {@code null}.
+   *
+   * @param key       The key for which to compute a value.
+   * @param processor The entry processor with which to compute the value.
+   * @return A completable future to be completed with the current or computed value for the key.
+   * @throws NullPointerException if {@code key} or {@code processor} is {@code null}
+   * @see #compute(Object, EntryProcessor)
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<V> computeIfAbsent(K key, EntryProcessor<? super K, V> processor) {
+    return client.submit(new MapCommands.Compute(key, MapCommands.Compute.Mode.IF_ABSENT, processor)).thenApply(result -> (V) result);
+  }
+
+  /**
+   * Merges the given {@code value} into the value for the given {@code key}.
+   * <p>
+   * If the key is absent, the key is set to the given {@code value}. Otherwise, the {@code function} is applied by
+   * the map state machine to the key's current value and the given {@code value}, and the key is set to the result.
+   * If the function returns {@code null}, the key is removed. Like {@link #compute(Object, EntryProcessor)}, the
+   * merge is applied atomically in a single command, keeps any TTL of the previous value and requires snapshots
+   * to be enabled.
+   * <pre>
+   *   {@code
+   *   map.merge("words", "foo", new Concat(",")).join();
+   *   }
+   * </pre>
+   *
+   * @param key      The key into which to merge the value.
+   * @param value    The value to merge.
+   * @param function The function with which to merge the value.
+   * @return A completable future to be completed with the new value for the key or {@code null} if the key was removed.
+   * @throws NullPointerException if {@code key}, {@code value} or {@code function} is {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<V> merge(K key, V value, MergeFunction<V> function) {
+    return client.submit(new MapCommands.Merge(key, value, function)).thenApply(result -> (V) result);
+  }
+
+  /**
+   * Replaces the value of {@code key} if its current {@link #getWithVersion(Object) version} matches the given version.
+   * <p>
+   * Unlike {@link #replace(Object, Object, Object)}, the check compares only the entry's version, so the current
+   * value doesn't have to be sent to the cluster or compared with {@code equals}.
+   *
+   * @param key The key to replace.
+   * @param version The expected version of the entry.
+   * @param value The value with which to replace the entry.
+   * @return A completable future to be completed with a boolean indicating whether the value was replaced.
+   * @throws NullPointerException if {@code key} is {@code null}
+   */
+  public CompletableFuture<Boolean> replaceIfVersion(K key, long version, V value) {
+    return client.submit(new MapCommands.ReplaceIfVersion(key, version, value));
+  }
+
+  /**
+   * Replaces the value of {@code key} with a time-to-live if its current version matches the given version.
+   *
+   * @param key The key to replace.
+   * @param version The expected version of the entry.
+   * @param value The value with which to replace the entry.
+   * @param ttl The duration after which to expire the key.
+   * @return A completable future to be completed with a boolean indicating whether the value was replaced.
+   * @throws NullPointerException if {@code key} is {@code null}
+   * @see #replaceIfVersion(Object, long, Object)
+   */
+  public CompletableFuture<Boolean> replaceIfVersion(K key, long version, V value, Duration ttl) {
+    return client.submit(new MapCommands.ReplaceIfVersion(key, version, value, ttl.toMillis()));
+  }
+
+  /**
+   * Removes {@code key} if its current {@link #getWithVersion(Object) version} matches the given version.
+   *
+   * @param key The key to remove.
+   * @param version The expected version of the entry.
+   * @return A completable future to be completed with a boolean indicating whether the key was removed.
+   * @throws NullPointerException if {@code key} is {@code null}
+   */
+  public CompletableFuture<Boolean> removeIfVersion(K key, long version) {
+    return client.submit(new MapCommands.RemoveIfVersion(key, version));
+  }
+
   /**
    * Reads the set of all keys in the map.
    * <p>
+   * The full result is returned in a single response. To read large maps, use {@link #keyIterator()}.
+   * <p>
    * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
    * or to be notified in a separate thread once the operation completes. To block until the operation completes,
    * use the {@link CompletableFuture#get()} or {@link CompletableFuture#join()} method to block the calling thread:
@@ -1075,6 +1998,8 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
   /**
    * Reads the set of all keys in the map.
    * <p>
+   * The full result is returned in a single response. To read large maps, use {@link #keyIterator()}.
+   * <p>
    * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
    * or to be notified in a separate thread once the operation completes. To block until the operation completes,
    * use the {@link CompletableFuture#get()} or {@link CompletableFuture#join()} method to block the calling thread:
@@ -1096,24 +2021,26 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
    *   }
    * </pre>
    * <p>
-   * If the provided {@link ReadConsistency} is {@link ReadConsistency#LOCAL} and local caching is enabled for
-   * the map, reads will be serviced via the cache. Otherwise, reads will fall back to {@link ReadConsistency#SEQUENTIAL}
-   * if the cache is not enabled.
+   * If the provided {@link ReadConsistency} is {@link ReadConsistency#LOCAL} and an unbounded local cache is enabled
+   * for the map, reads will be serviced via the cache. Otherwise, reads will fall back to {@link ReadConsistency#SEQUENTIAL}
+   * if the cache is not enabled or is {@link Options#withLocalCacheSize(int) bounded}.
    *
    * @param consistency The read consistency level.
    * @return A completable future to be completed with the result once complete.
    */
   @SuppressWarnings("unchecked")
   public CompletableFuture<Set<K>> keySet(ReadConsistency consistency) {
-    if (consistency == ReadConsistency.LOCAL && cache != null) {
+    if (consistency == ReadConsistency.LOCAL && cache != null && !cache.isBounded()) {
       return CompletableFuture.completedFuture(cache.keySet());
     }
-    return client.submit(new MapCommands.KeySet(consistency.level())).thenApply(keys -> (Set<K>) keys);
+    return submit(new MapCommands.KeySet(consistency.level()), consistency).thenApply(keys -> (Set<K>) keys);
   }
 
   /**
    * Reads the collection of all values in the map.
    * <p>
+   * The full result is returned in a single response. To read large maps, use {@link #valueIterator()}.
+   * <p>
    * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
    * or to be notified in a separate thread once the operation completes. To block until the operation completes,
    * use the {@link CompletableFuture#get()} or {@link CompletableFuture#join()} method to block the calling thread:
@@ -1145,6 +2072,8 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
   /**
    * Reads the collection of all values in the map.
    * <p>
+   * The full result is returned in a single response. To read large maps, use {@link #valueIterator()}.
+   * <p>
    * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
    * or to be notified in a separate thread once the operation completes. To block until the operation completes,
    * use the {@link CompletableFuture#get()} or {@link CompletableFuture#join()} method to block the calling thread:
@@ -1166,24 +2095,26 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
    *   }
    * </pre>
    * <p>
-   * If the provided {@link ReadConsistency} is {@link ReadConsistency#LOCAL} and local caching is enabled for
-   * the map, reads will be serviced via the cache. Otherwise, reads will fall back to {@link ReadConsistency#SEQUENTIAL}
-   * if the cache is not enabled.
+   * If the provided {@link ReadConsistency} is {@link ReadConsistency#LOCAL} and an unbounded local cache is enabled
+   * for the map, reads will be serviced via the cache. Otherwise, reads will fall back to {@link ReadConsistency#SEQUENTIAL}
+   * if the cache is not enabled or is {@link Options#withLocalCacheSize(int) bounded}.
    *
    * @param consistency The read consistency level.
    * @return A completable future to be completed with the result once complete.
    */
   @SuppressWarnings("unchecked")
   public CompletableFuture<Collection<V>> values(ReadConsistency consistency) {
-    if (consistency == ReadConsistency.LOCAL && cache != null) {
+    if (consistency == ReadConsistency.LOCAL && cache != null && !cache.isBounded()) {
       return CompletableFuture.completedFuture(cache.values());
     }
-    return client.submit(new MapCommands.Values(consistency.level())).thenApply(values -> (Collection<V>) values);
+    return submit(new MapCommands.Values(consistency.level()), consistency).thenApply(values -> (Collection<V>) values);
   }
 
   /**
    * Reads the set of all entries in the map.
    * <p>
+   * The full result is returned in a single response. To read large maps, use {@link #entryIterator()}.
+   * <p>
    * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
    * or to be notified in a separate thread once the operation completes. To block until the operation completes,
    * use the {@link CompletableFuture#get()} or {@link CompletableFuture#join()} method to block the calling thread:
@@ -1215,6 +2146,8 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
   /**
    * Reads the set of all entries in the map.
    * <p>
+   * The full result is returned in a single response. To read large maps, use {@link #entryIterator()}.
+   * <p>
    * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
    * or to be notified in a separate thread once the operation completes. To block until the operation completes,
    * use the {@link CompletableFuture#get()} or {@link CompletableFuture#join()} method to block the calling thread:
@@ -1236,112 +2169,559 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
    *   }
    * </pre>
    * <p>
-   * If the provided {@link ReadConsistency} is {@link ReadConsistency#LOCAL} and local caching is enabled for
-   * the map, reads will be serviced via the cache. Otherwise, reads will fall back to {@link ReadConsistency#SEQUENTIAL}
-   * if the cache is not enabled.
+   * If the provided {@link ReadConsistency} is {@link ReadConsistency#LOCAL} and an unbounded local cache is enabled
+   * for the map, reads will be serviced via the cache. Otherwise, reads will fall back to {@link ReadConsistency#SEQUENTIAL}
+   * if the cache is not enabled or is {@link Options#withLocalCacheSize(int) bounded}.
    *
    * @param consistency The read consistency level.
    * @return A completable future to be completed with the result once complete.
    */
   @SuppressWarnings("unchecked")
   public CompletableFuture<Set<Map.Entry<K, V>>> entrySet(ReadConsistency consistency) {
-    if (consistency == ReadConsistency.LOCAL && cache != null) {
+    if (consistency == ReadConsistency.LOCAL && cache != null && !cache.isBounded()) {
       return CompletableFuture.completedFuture(cache.entrySet());
     }
-    return client.submit(new MapCommands.EntrySet(consistency.level())).thenApply(entries -> (Set<Map.Entry<K, V>>) entries);
+    return submit(new MapCommands.EntrySet(consistency.level()), consistency).thenApply(entries -> (Set<Map.Entry<K, V>>) entries);
   }
 
   /**
-   * Removes all entries from the map.
+   * Returns an iterator over the keys in the map.
    * <p>
-   * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
-   * or to be notified in a separate thread once the operation completes. To block until the operation completes,
-   * use the {@link CompletableFuture#join()} method to block the calling thread:
+   * The iterator reads the map from the cluster in pages of {@code 1000} keys, so neither the cluster nor
+   * the client needs to hold a copy of the full map in memory. See {@link #keyIterator(int)} for details.
+   *
+   * @return A completable future to be completed with the iterator once the first page has been read.
+   */
+  public CompletableFuture<Iterator<K>> keyIterator() {
+    return keyIterator(PagedIterator.DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Returns an iterator over the keys in the map, reading the map in pages of the given size.
+   * <p>
+   * The iterator reads the map from the cluster in pages of {@code pageSize} keys, so neither the cluster
+   * nor the client needs to hold a copy of the full map in memory. The iterator is weakly consistent: it returns
+   * each key that remains in the map throughout the iteration exactly once, and may or may not return keys that
+   * are added or removed during the iteration. Keys of maps with {@link Order#NATURAL ordered} keys are
+   * returned in key order.
+   * <p>
+   * Once the first page has been read, {@link Iterator#hasNext()} may block while the next page is read, so the
+   * iterator must not be used on the client's event thread.
    * <pre>
    *   {@code
-   *   map.clear().join();
+   *   Iterator<K> iterator = map.keyIterator(100).join();
+   *   while (iterator.hasNext()) {
+   *     K key = iterator.next();
    *   }
-   * </pre>
-   * Alternatively, to execute the operation asynchronous and be notified once the operation is complete in a different
-   * thread, use one of the many completable future callbacks:
-   * <pre>
-   *   {@code
-   *   map.clear().thenRun(() -> {
-   *     ...
-   *   });
    *   }
    * </pre>
    *
-   * @return A completable future to be completed once the operation is complete.
+   * @param pageSize The maximum number of keys to read in each page.
+   * @return A completable future to be completed with the iterator once the first page has been read.
+   * @throws IllegalArgumentException if {@code pageSize} is not positive
    */
-  public CompletableFuture<Void> clear() {
-    return client.submit(new MapCommands.Clear());
+  public CompletableFuture<Iterator<K>> keyIterator(int pageSize) {
+    return iterator(MapCommands.Cursor.Type.KEYS, pageSize);
   }
 
   /**
-   * Registers a new event listener for the given event type.
+   * Returns an iterator over the values in the map.
    * <p>
-   * Resource implementations should use this method to register event listeners for non-lifecycle
-   * resource events. Calling this method will cause the local session to be automatically registered
-   * with the state machine to listen for new events published in the state machine via the
-   * {@code notify} method.
+   * The iterator reads the map from the cluster in pages of {@code 1000} values, so neither the cluster nor
+   * the client needs to hold a copy of the full map in memory. See {@link #valueIterator(int)} for details.
    *
-   * @param type     The event type for which to register the event listener.
-   * @param callback The event listener callback.
-   * @param <T>      The event type.
-   * @return A completable future to be completed once the event listener has been registered.
+   * @return A completable future to be completed with the iterator once the first page has been read.
    */
-  protected synchronized <T extends Event> CompletableFuture<Listener<T>> onEvent(K key, EventType type, Consumer<T> callback) {
-    Map<Integer, Set<Consumer>> keyListeners = this.eventListeners.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
-    Set<Consumer> eventListeners = keyListeners.computeIfAbsent(type.id(), id -> new CopyOnWriteArraySet<>());
-    eventListeners.add(callback);
-    return client.submit(new MapCommands.KeyListen(type.id(), key)).whenComplete((result, error) -> {
-      if (error != null) {
-        synchronized (this) {
-          eventListeners.remove(callback);
-          if (eventListeners.isEmpty()) {
-            keyListeners.remove(type.id());
-            if (keyListeners.isEmpty()) {
-              this.eventListeners.remove(key);
-            }
-            client.submit(new MapCommands.KeyUnlisten(type.id(), key));
-          }
-        }
-      }
-    }).<Listener<T>>thenApply(v -> new Listener<T>() {
-      @Override
-      public void accept(T event) {
-        callback.accept(event);
-      }
-
-      @Override
-      public void close() {
-        synchronized (this) {
-          eventListeners.remove(callback);
-          if (eventListeners.isEmpty()) {
-            keyListeners.remove(type.id());
-            if (keyListeners.isEmpty()) {
-              DistributedMap.this.eventListeners.remove(key);
-            }
-            client.submit(new MapCommands.KeyUnlisten(type.id(), key));
-          }
-        }
-      }
-    });
+  public CompletableFuture<Iterator<V>> valueIterator() {
+    return valueIterator(PagedIterator.DEFAULT_PAGE_SIZE);
   }
 
   /**
-   * Registers a {@link #put(Object, Object)} event listener.
+   * Returns an iterator over the values in the map, reading the map in pages of the given size.
+   * <p>
+   * The iterator reads the map from the cluster in pages of {@code pageSize} values, so neither the cluster
+   * nor the client needs to hold a copy of the full map in memory. The iterator is weakly consistent: it returns
+   * each key that remains in the map throughout the iteration exactly once, and may or may not return keys that
+   * are added or removed during the iteration. Values of maps with {@link Order#NATURAL ordered} keys are
+   * returned in key order.
+   * <p>
+   * Once the first page has been read, {@link Iterator#hasNext()} may block while the next page is read, so the
+   * iterator must not be used on the client's event thread.
+   * <pre>
+   *   {@code
+   *   Iterator<V> iterator = map.valueIterator(100).join();
+   *   while (iterator.hasNext()) {
+   *     V value = iterator.next();
+   *   }
+   *   }
+   * </pre>
    *
-   * @param callback The put event callback.
-   * @return The event listener context.
+   * @param pageSize The maximum number of values to read in each page.
+   * @return A completable future to be completed with the iterator once the first page has been read.
+   * @throws IllegalArgumentException if {@code pageSize} is not positive
    */
-  public CompletableFuture<Listener<EntryEvent<K, V>>> onAdd(Consumer<EntryEvent<K, V>> callback) {
-    return onEvent(Events.ADD, callback);
+  public CompletableFuture<Iterator<V>> valueIterator(int pageSize) {
+    return iterator(MapCommands.Cursor.Type.VALUES, pageSize);
   }
 
   /**
-   * Registers a {@link #put(Object, Object)} event listener.
+   * Returns an iterator over the entries in the map.
+   * <p>
+   * The iterator reads the map from the cluster in pages of {@code 1000} entries, so neither the cluster nor
+   * the client needs to hold a copy of the full map in memory. See {@link #entryIterator(int)} for details.
+   *
+   * @return A completable future to be completed with the iterator once the first page has been read.
+   */
+  public CompletableFuture<Iterator<Map.Entry<K, V>>> entryIterator() {
+    return entryIterator(PagedIterator.DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Returns an iterator over the entries in the map, reading the map in pages of the given size.
+   * <p>
+   * The iterator reads the map from the cluster in pages of {@code pageSize} entries, so neither the cluster
+   * nor the client needs to hold a copy of the full map in memory. The iterator is weakly consistent: it returns
+   * each key that remains in the map throughout the iteration exactly once, and may or may not return keys that
+   * are added or removed during the iteration. Entries of maps with {@link Order#NATURAL ordered} keys are
+   * returned in key order.
+   * <p>
+   * Once the first page has been read, {@link Iterator#hasNext()} may block while the next page is read, so the
+   * iterator must not be used on the client's event thread.
+   * <pre>
+   *   {@code
+   *   Iterator<Map.Entry<K, V>> iterator = map.entryIterator(100).join();
+   *   while (iterator.hasNext()) {
+   *     Map.Entry<K, V> entry = iterator.next();
+   *   }
+   *   }
+   * </pre>
+   *
+   * @param pageSize The maximum number of entries to read in each page.
+   * @return A completable future to be completed with the iterator once the first page has been read.
+   * @throws IllegalArgumentException if {@code pageSize} is not positive
+   */
+  public CompletableFuture<Iterator<Map.Entry<K, V>>> entryIterator(int pageSize) {
+    return iterator(MapCommands.Cursor.Type.ENTRIES, pageSize);
+  }
+
+  /**
+   * Opens a paged iterator over items of the given type.
+   */
+  private <T> CompletableFuture<Iterator<T>> iterator(MapCommands.Cursor.Type type, int pageSize) {
+    Assert.argNot(pageSize <= 0, "pageSize must be positive");
+    return PagedIterator.open(position -> client.submit(new MapCommands.Cursor(type, position, pageSize)));
+  }
+
+  /**
+   * Reads the entries whose keys range from {@code fromKey}, inclusive, to {@code toKey}, exclusive.
+   * <p>
+   * The range is evaluated on the server, so only the matching entries are returned to the client. Entries in
+   * the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order.
+   *
+   * @param fromKey The low key of the range, inclusive.
+   * @param toKey The high key of the range, exclusive.
+   * @return A completable future to be completed with the entries in the range.
+   * @throws NullPointerException if {@code fromKey} or {@code toKey} is {@code null}
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> subMap(K fromKey, K toKey) {
+    return subMap(fromKey, true, toKey, false, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Reads up to {@code limit} entries whose keys range from {@code fromKey} to {@code toKey}.
+   * <p>
+   * The range is evaluated on the server, so only the matching entries are returned to the client. Entries in
+   * the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order.
+   *
+   * @param fromKey The low key of the range.
+   * @param fromInclusive Whether to include {@code fromKey} in the range.
+   * @param toKey The high key of the range.
+   * @param toInclusive Whether to include {@code toKey} in the range.
+   * @param limit The maximum number of entries to read.
+   * @return A completable future to be completed with the entries in the range.
+   * @throws NullPointerException if {@code fromKey} or {@code toKey} is {@code null}
+   * @throws IllegalArgumentException if {@code limit} is not positive
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive, int limit) {
+    Assert.notNull(fromKey, "fromKey");
+    Assert.notNull(toKey, "toKey");
+    return range(new MapCommands.Range(fromKey, fromInclusive, toKey, toInclusive, limit));
+  }
+
+  /**
+   * Reads up to {@code limit} entries whose keys range from {@code fromKey} to {@code toKey}.
+   * <p>
+   * The range is evaluated on the server, so only the matching entries are returned to the client. Entries in
+   * the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order.
+   *
+   * @param fromKey The low key of the range.
+   * @param fromInclusive Whether to include {@code fromKey} in the range.
+   * @param toKey The high key of the range.
+   * @param toInclusive Whether to include {@code toKey} in the range.
+   * @param limit The maximum number of entries to read.
+   * @param consistency The read consistency level.
+   * @return A completable future to be completed with the entries in the range.
+   * @throws NullPointerException if {@code fromKey} or {@code toKey} is {@code null}
+   * @throws IllegalArgumentException if {@code limit} is not positive
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive, int limit, ReadConsistency consistency) {
+    Assert.notNull(fromKey, "fromKey");
+    Assert.notNull(toKey, "toKey");
+    return range(new MapCommands.Range(fromKey, fromInclusive, toKey, toInclusive, limit, consistency.level()), consistency);
+  }
+
+  /**
+   * Reads the entries whose keys are less than {@code toKey}.
+   * <p>
+   * The range is evaluated on the server, so only the matching entries are returned to the client. Entries in
+   * the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order.
+   *
+   * @param toKey The high key of the range, exclusive.
+   * @return A completable future to be completed with the entries in the range.
+   * @throws NullPointerException if {@code toKey} is {@code null}
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> headMap(K toKey) {
+    return headMap(toKey, false, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Reads up to {@code limit} entries whose keys are less than (or equal to, if {@code inclusive} is
+   * {@code true}) {@code toKey}.
+   * <p>
+   * The range is evaluated on the server, so only the matching entries are returned to the client. Entries in
+   * the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order.
+   *
+   * @param toKey The high key of the range.
+   * @param inclusive Whether to include {@code toKey} in the range.
+   * @param limit The maximum number of entries to read.
+   * @return A completable future to be completed with the entries in the range.
+   * @throws NullPointerException if {@code toKey} is {@code null}
+   * @throws IllegalArgumentException if {@code limit} is not positive
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> headMap(K toKey, boolean inclusive, int limit) {
+    return range(new MapCommands.Range(null, false, Assert.notNull(toKey, "toKey"), inclusive, limit));
+  }
+
+  /**
+   * Reads the entries whose keys are greater than or equal to {@code fromKey}.
+   * <p>
+   * The range is evaluated on the server, so only the matching entries are returned to the client. Entries in
+   * the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order.
+   *
+   * @param fromKey The low key of the range, inclusive.
+   * @return A completable future to be completed with the entries in the range.
+   * @throws NullPointerException if {@code fromKey} is {@code null}
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> tailMap(K fromKey) {
+    return tailMap(fromKey, true, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Reads up to {@code limit} entries whose keys are greater than (or equal to, if {@code inclusive} is
+   * {@code true}) {@code fromKey}.
+   * <p>
+   * The range is evaluated on the server, so only the matching entries are returned to the client. Entries in
+   * the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order.
+   *
+   * @param fromKey The low key of the range.
+   * @param inclusive Whether to include {@code fromKey} in the range.
+   * @param limit The maximum number of entries to read.
+   * @return A completable future to be completed with the entries in the range.
+   * @throws NullPointerException if {@code fromKey} is {@code null}
+   * @throws IllegalArgumentException if {@code limit} is not positive
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> tailMap(K fromKey, boolean inclusive, int limit) {
+    return range(new MapCommands.Range(Assert.notNull(fromKey, "fromKey"), inclusive, null, false, limit));
+  }
+
+  /**
+   * Reads up to {@code limit} entries whose keys start with the given prefix.
+   * <p>
+   * The prefix scan is evaluated on the server, so only the matching entries are returned to the client. Entries
+   * in the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order and its keys must be {@link String}s.
+   * <pre>
+   *   {@code
+   *   map.prefix("tenant/123/", 100).thenAccept(entries -> {
+   *     ...
+   *   });
+   *   }
+   * </pre>
+   *
+   * @param prefix The key prefix.
+   * @param limit The maximum number of entries to read.
+   * @return A completable future to be completed with the entries whose keys start with the prefix.
+   * @throws NullPointerException if {@code prefix} is {@code null}
+   * @throws IllegalArgumentException if {@code limit} is not positive
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> prefix(String prefix, int limit) {
+    return range(new MapCommands.Prefix(prefix, limit));
+  }
+
+  /**
+   * Reads up to {@code limit} entries whose keys start with the given prefix.
+   * <p>
+   * The prefix scan is evaluated on the server, so only the matching entries are returned to the client. Entries
+   * in the returned map are iterated in key order. The map must be {@link Config#withKeyOrder(Order) configured}
+   * with {@link Order#NATURAL natural} key order and its keys must be {@link String}s.
+   *
+   * @param prefix The key prefix.
+   * @param limit The maximum number of entries to read.
+   * @param consistency The read consistency level.
+   * @return A completable future to be completed with the entries whose keys start with the prefix.
+   * @throws NullPointerException if {@code prefix} is {@code null}
+   * @throws IllegalArgumentException if {@code limit} is not positive
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  public CompletableFuture<Map<K, V>> prefix(String prefix, int limit, ReadConsistency consistency) {
+    return range(new MapCommands.Prefix(prefix, limit, consistency.level()), consistency);
+  }
+
+  /**
+   * Reads the lowest key in the map.
+   * <p>
+   * The map must be {@link Config#withKeyOrder(Order) configured} with {@link Order#NATURAL natural} key order.
+   *
+   * @return A completable future to be completed with the lowest key or {@code null} if the map is empty.
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<K> firstKey() {
+    checkOrdered();
+    return client.submit(new MapCommands.FirstKey()).thenApply(key -> (K) key);
+  }
+
+  /**
+   * Reads the highest key in the map.
+   * <p>
+   * The map must be {@link Config#withKeyOrder(Order) configured} with {@link Order#NATURAL natural} key order.
+   *
+   * @return A completable future to be completed with the highest key or {@code null} if the map is empty.
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<K> lastKey() {
+    checkOrdered();
+    return client.submit(new MapCommands.LastKey()).thenApply(key -> (K) key);
+  }
+
+  /**
+   * Reads the entry with the greatest key less than or equal to the given key.
+   * <p>
+   * The map must be {@link Config#withKeyOrder(Order) configured} with {@link Order#NATURAL natural} key order.
+   *
+   * @param key The key to search for.
+   * @return A completable future to be completed with the matching entry or {@code null} if there is no such key.
+   * @throws NullPointerException if {@code key} is {@code null}
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<Map.Entry<K, V>> floorEntry(K key) {
+    checkOrdered();
+    return client.submit(new MapCommands.FloorEntry(key)).thenApply(entry -> (Map.Entry<K, V>) (Map.Entry) entry);
+  }
+
+  /**
+   * Reads the entry with the least key greater than or equal to the given key.
+   * <p>
+   * The map must be {@link Config#withKeyOrder(Order) configured} with {@link Order#NATURAL natural} key order.
+   *
+   * @param key The key to search for.
+   * @return A completable future to be completed with the matching entry or {@code null} if there is no such key.
+   * @throws NullPointerException if {@code key} is {@code null}
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<Map.Entry<K, V>> ceilingEntry(K key) {
+    checkOrdered();
+    return client.submit(new MapCommands.CeilingEntry(key)).thenApply(entry -> (Map.Entry<K, V>) (Map.Entry) entry);
+  }
+
+  /**
+   * Submits a range query and collects the resulting entries in key order.
+   */
+  private CompletableFuture<Map<K, V>> range(MapCommands.MapQuery<List<Map.Entry<Object, Object>>> query) {
+    checkOrdered();
+    return client.submit(query).thenApply(this::toMap);
+  }
+
+  /**
+   * Submits a range query with the given consistency and collects the resulting entries in key order.
+   */
+  private CompletableFuture<Map<K, V>> range(MapCommands.MapQuery<List<Map.Entry<Object, Object>>> query, ReadConsistency consistency) {
+    checkOrdered();
+    return submit(query, consistency).thenApply(this::toMap);
+  }
+
+  /**
+   * Converts a list of entries to a map that preserves their order.
+   */
+  @SuppressWarnings("unchecked")
+  private Map<K, V> toMap(List<Map.Entry<Object, Object>> entries) {
+    Map<K, V> map = new LinkedHashMap<>(entries.size());
+    for (Map.Entry<Object, Object> entry : entries) {
+      map.put((K) entry.getKey(), (V) entry.getValue());
+    }
+    return map;
+  }
+
+  /**
+   * Reads up to {@code limit} entries that match the given predicate.
+   * <p>
+   * The predicate is evaluated on the server, so only matching entries are returned to the client. If the
+   * predicate is an {@link IndexPredicate}, matching keys are read from the named
+   * {@link Config#withIndex(String, Class) secondary index}. Otherwise, the predicate is serialized and sent to
+   * the cluster, where the map is scanned until {@code limit} matching entries have been found. Predicate classes
+   * must be registered with the serializer on all clients and replicas like {@link EntryProcessor entry processors}.
+   * <pre>
+   *   {@code
+   *   Map<String, User> admins = map.query(IndexPredicate.equalTo("role", "admin"), 100).join();
+   *   }
+   * </pre>
+   *
+   * @param predicate The predicate with which to filter entries.
+   * @param limit The maximum number of entries to read.
+   * @return A completable future to be completed with the matching entries.
+   * @throws NullPointerException if {@code predicate} is {@code null}
+   * @throws IllegalArgumentException if {@code limit} is not positive
+   */
+  public CompletableFuture<Map<K, V>> query(EntryPredicate<? super K, ? super V> predicate, int limit) {
+    return client.submit(new MapCommands.Filter(predicate, limit)).thenApply(this::toMap);
+  }
+
+  /**
+   * Reads up to {@code limit} entries that match the given predicate.
+   *
+   * @param predicate The predicate with which to filter entries.
+   * @param limit The maximum number of entries to read.
+   * @param consistency The read consistency level.
+   * @return A completable future to be completed with the matching entries.
+   * @throws NullPointerException if {@code predicate} is {@code null}
+   * @throws IllegalArgumentException if {@code limit} is not positive
+   * @see #query(EntryPredicate, int)
+   */
+  public CompletableFuture<Map<K, V>> query(EntryPredicate<? super K, ? super V> predicate, int limit, ReadConsistency consistency) {
+    return submit(new MapCommands.Filter(predicate, limit, consistency.level()), consistency).thenApply(this::toMap);
+  }
+
+  /**
+   * Checks that the map's keys are ordered.
+   */
+  private void checkOrdered() {
+    if (config().getKeyOrder() != Order.NATURAL)
+      throw new IllegalStateException("map keys are not ordered");
+  }
+
+  /**
+   * Removes all entries from the map.
+   * <p>
+   * This method returns a {@link CompletableFuture} which can be used to block until the operation completes
+   * or to be notified in a separate thread once the operation completes. To block until the operation completes,
+   * use the {@link CompletableFuture#join()} method to block the calling thread:
+   * <pre>
+   *   {@code
+   *   map.clear().join();
+   *   }
+   * </pre>
+   * Alternatively, to execute the operation asynchronous and be notified once the operation is complete in a different
+   * thread, use one of the many completable future callbacks:
+   * <pre>
+   *   {@code
+   *   map.clear().thenRun(() -> {
+   *     ...
+   *   });
+   *   }
+   * </pre>
+   *
+   * @return A completable future to be completed once the operation is complete.
+   */
+  public CompletableFuture<Void> clear() {
+    CompletableFuture<Void> future = client.submit(new MapCommands.Clear());
+    if (cache != null) {
+      return future.thenRun(cache::clear);
+    }
+    return future;
+  }
+
+  /**
+   * Registers a new event listener for the given event type.
+   * <p>
+   * Resource implementations should use this method to register event listeners for non-lifecycle
+   * resource events. Calling this method will cause the local session to be automatically registered
+   * with the state machine to listen for new events published in the state machine via the
+   * {@code notify} method.
+   *
+   * @param type     The event type for which to register the event listener.
+   * @param callback The event listener callback.
+   * @param <T>      The event type.
+   * @return A completable future to be completed once the event listener has been registered.
+   */
+  protected synchronized <T extends Event> CompletableFuture<Listener<T>> onEvent(K key, EventType type, Consumer<T> callback) {
+    Map<Integer, Set<Consumer>> keyListeners = this.eventListeners.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    Set<Consumer> eventListeners = keyListeners.computeIfAbsent(type.id(), id -> new CopyOnWriteArraySet<>());
+    eventListeners.add(callback);
+    return client.submit(new MapCommands.KeyListen(type.id(), key)).whenComplete((result, error) -> {
+      if (error != null) {
+        synchronized (this) {
+          eventListeners.remove(callback);
+          if (eventListeners.isEmpty()) {
+            keyListeners.remove(type.id());
+            if (keyListeners.isEmpty()) {
+              this.eventListeners.remove(key);
+            }
+            client.submit(new MapCommands.KeyUnlisten(type.id(), key));
+          }
+        }
+      }
+    }).<Listener<T>>thenApply(v -> new Listener<T>() {
+      @Override
+      public void accept(T event) {
+        callback.accept(event);
+      }
+
+      @Override
+      public void close() {
+        synchronized (this) {
+          eventListeners.remove(callback);
+          if (eventListeners.isEmpty()) {
+            keyListeners.remove(type.id());
+            if (keyListeners.isEmpty()) {
+              DistributedMap.this.eventListeners.remove(key);
+            }
+            client.submit(new MapCommands.KeyUnlisten(type.id(), key));
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Registers a {@link #put(Object, Object)} event listener.
+   *
+   * @param callback The put event callback.
+   * @return The event listener context.
+   */
+  public CompletableFuture<Listener<EntryEvent<K, V>>> onAdd(Consumer<EntryEvent<K, V>> callback) {
+    return onEvent(Events.ADD, callback);
+  }
+
+  /**
+   * Registers a {@link #put(Object, Object)} event listener.
    *
    * @param callback The put event callback.
    * @return The event listener context.
@@ -1351,96 +2731,747 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
   }
 
   /**
-   * Registers a {@link #put(Object, Object)} event listener.
-   *
-   * @param callback The put event listener callback.
-   * @return The event listener context.
+   * Registers a {@link #put(Object, Object)} event listener.
+   *
+   * @param callback The put event listener callback.
+   * @return The event listener context.
+   */
+  public CompletableFuture<Listener<EntryEvent<K, V>>> onUpdate(Consumer<EntryEvent<K, V>> callback) {
+    return onEvent(Events.UPDATE, callback);
+  }
+
+  /**
+   * Registers a {@link #put(Object, Object)} event listener.
+   *
+   * @param callback The put event listener callback.
+   * @return The event listener context.
+   */
+  public CompletableFuture<Listener<EntryEvent<K, V>>> onUpdate(K key, Consumer<EntryEvent<K, V>> callback) {
+    return onEvent(key, Events.UPDATE, callback);
+  }
+
+  /**
+   * Registers a {@link #remove(Object)} event listener.
+   *
+   * @param callback The remove event listener callback.
+   * @return The event listener context.
+   */
+  public CompletableFuture<Listener<EntryEvent<K, V>>> onRemove(Consumer<EntryEvent<K, V>> callback) {
+    return onEvent(Events.REMOVE, callback);
+  }
+
+  /**
+   * Registers a {@link #remove(Object)} event listener.
+   *
+   * @param callback The remove event listener callback.
+   * @return The event listener context.
+   */
+  public CompletableFuture<Listener<EntryEvent<K, V>>> onRemove(K key, Consumer<EntryEvent<K, V>> callback) {
+    return onEvent(key, Events.REMOVE, callback);
+  }
+
+  /**
+   * Registers an event listener for entries that match the given filter.
+   * <p>
+   * The filter is sent to the cluster and evaluated by the map state machine before events are published,
+   * so only events for matching entries are sent to this client. Filters may be {@link KeyPrefix key prefixes},
+   * {@link KeyRange key ranges} or any registered {@link EntryPredicate}. Predicates are evaluated against the
+   * entry's new value for add and update events and the removed value for remove events.
+   *
+   * @param filter The filter with which to match entries.
+   * @param type The event type for which to listen.
+   * @param callback The event listener callback.
+   * @return A completable future to be completed once the event listener has been registered.
+   */
+  protected <T extends Event> CompletableFuture<Listener<T>> onEvent(EntryPredicate<? super K, ? super V> filter, EventType type, Consumer<T> callback) {
+    long id = filterListenerId.incrementAndGet();
+    filterListeners.put(id, callback);
+    return client.submit(new MapCommands.FilterListen(id, type.id(), filter)).whenComplete((result, error) -> {
+      if (error != null) {
+        filterListeners.remove(id);
+      }
+    }).<Listener<T>>thenApply(v -> new Listener<T>() {
+      @Override
+      public void accept(T event) {
+        callback.accept(event);
+      }
+
+      @Override
+      public void close() {
+        if (filterListeners.remove(id) != null) {
+          client.submit(new MapCommands.FilterUnlisten(id));
+        }
+      }
+    });
+  }
+
+  /**
+   * Registers a {@link #put(Object, Object)} event listener for entries that match the given filter.
+   *
+   * @param filter The filter with which to match entries.
+   * @param callback The put event callback.
+   * @return The event listener context.
+   * @see #onEvent(EntryPredicate, EventType, Consumer)
+   */
+  public CompletableFuture<Listener<EntryEvent<K, V>>> onAdd(EntryPredicate<? super K, ? super V> filter, Consumer<EntryEvent<K, V>> callback) {
+    return onEvent(filter, Events.ADD, callback);
+  }
+
+  /**
+   * Registers a {@link #put(Object, Object)} event listener for entries that match the given filter.
+   *
+   * @param filter The filter with which to match entries.
+   * @param callback The put event listener callback.
+   * @return The event listener context.
+   * @see #onEvent(EntryPredicate, EventType, Consumer)
+   */
+  public CompletableFuture<Listener<EntryEvent<K, V>>> onUpdate(EntryPredicate<? super K, ? super V> filter, Consumer<EntryEvent<K, V>> callback) {
+    return onEvent(filter, Events.UPDATE, callback);
+  }
+
+  /**
+   * Registers a {@link #remove(Object)} event listener for entries that match the given filter.
+   *
+   * @param filter The filter with which to match entries.
+   * @param callback The remove event listener callback.
+   * @return The event listener context.
+   * @see #onEvent(EntryPredicate, EventType, Consumer)
+   */
+  public CompletableFuture<Listener<EntryEvent<K, V>>> onRemove(EntryPredicate<? super K, ? super V> filter, Consumer<EntryEvent<K, V>> callback) {
+    return onEvent(filter, Events.REMOVE, callback);
+  }
+
+  @Override
+  public CompletableFuture<DistributedMap<K, V>> open() {
+    CompletableFuture<DistributedMap<K, V>> future = super.open().thenApply(m -> {
+      client.<EntryEvent>onEvent("key", this::onEvent);
+      client.<FilterEvent>onEvent("filter", this::onFilterEvent);
+      return this;
+    });
+
+    if (options.isLocalCache()) {
+      return future.thenCompose(v -> onAdd(this::onAdd))
+        .thenCompose(v -> onUpdate(this::onUpdate))
+        .thenCompose(v -> onRemove(this::onRemove))
+        .thenApply(v -> this);
+    }
+    return future;
+  }
+
+  /**
+   * Handles an event from the cluster.
+   */
+  @SuppressWarnings("unchecked")
+  private void onEvent(EntryEvent event) {
+    Map<Integer, Set<Consumer>> keyListeners = eventListeners.get(event.entry.getKey());
+    if (keyListeners != null) {
+      Set<Consumer> eventListeners = keyListeners.get(event.type.id());
+      if (eventListeners != null) {
+        for (Consumer listener : eventListeners) {
+          listener.accept(event);
+        }
+      }
+    }
+  }
+
+  /**
+   * Handles a filtered event from the cluster.
+   */
+  @SuppressWarnings("unchecked")
+  private void onFilterEvent(FilterEvent event) {
+    Consumer listener = filterListeners.get(event.listener());
+    if (listener != null) {
+      listener.accept(event.event());
+    }
+  }
+
+  /**
+   * Updates the cache when an entry is added to the map.
+   */
+  private void onAdd(EntryEvent<K, V> event) {
+    cache.update(event.entry.getKey(), event.entry.getValue(), event.version);
+  }
+
+  /**
+   * Updates the cache when an entry is updated in the map.
+   */
+  private void onUpdate(EntryEvent<K, V> event) {
+    cache.update(event.entry.getKey(), event.entry.getValue(), event.version);
+  }
+
+  /**
+   * Updates the cache when an entry is removed from the map.
+   */
+  private void onRemove(EntryEvent<K, V> event) {
+    cache.invalidate(event.entry.getKey(), event.version);
+  }
+
+  /**
+   * Reads statistics about the map's state on the cluster.
+   *
+   * @return A completable future to be completed with the map statistics.
+   */
+  public CompletableFuture<Stats> stats() {
+    return client.submit(new MapCommands.Stats());
+  }
+
+  /**
+   * Reads statistics about the map's state on the cluster.
+   *
+   * @param consistency The read consistency level.
+   * @return A completable future to be completed with the map statistics.
+   */
+  public CompletableFuture<Stats> stats(ReadConsistency consistency) {
+    return submit(new MapCommands.Stats(consistency.level()), consistency);
+  }
+
+  /**
+   * Function that computes a new value for a map entry on the cluster.
+   * <p>
+   * Entry processors are serialized and sent to the cluster with {@link #compute(Object, EntryProcessor) compute}
+   * commands and applied by the map state machine on each replica. Processors must be deterministic, must not
+   * block, and should not keep state between invocations. Since processors are resolved on replicas by their
+   * serializable type, the processor class must be on the classpath of every replica and should be registered
+   * with the same type ID on all clients and replicas:
+   * <pre>
+   *   {@code
+   *   public class Increment implements DistributedMap.EntryProcessor<String, Long>, CatalystSerializable {
+   *     private long delta;
+   *
+   *     public Long process(String key, Long value) {
+   *       return value != null ? value + delta : delta;
+   *     }
+   *     ...
+   *   }
+   *
+   *   atomix.serializer().register(Increment.class, 100);
+   *   }
+   * </pre>
+   *
+   * @param <K> The map key type.
+   * @param <V> The map value type.
+   */
+  @FunctionalInterface
+  public interface EntryProcessor<K, V> {
+
+    /**
+     * Computes a new value for an entry.
+     *
+     * @param key The entry key.
+     * @param value The current entry value or {@code null} if the key is not present.
+     * @return The new entry value or {@code null} to remove the entry.
+     */
+    V process(K key, V value);
+  }
+
+  /**
+   * Function that extracts an indexed attribute from a map value.
+   * <p>
+   * Extractors are instantiated on each replica from the class {@link Config#withIndex(String, Class) configured}
+   * for an index and must have a public no-argument constructor. Extractors must be deterministic and should
+   * return {@code null} for values that should not be indexed.
+   *
+   * @param <V> The map value type.
+   * @param <T> The indexed attribute type.
+   */
+  @FunctionalInterface
+  public interface ValueExtractor<V, T> {
+
+    /**
+     * Extracts the indexed attribute from a value.
+     *
+     * @param value The map value.
+     * @return The indexed attribute or {@code null} if the value should not be indexed.
+     */
+    T extract(V value);
+  }
+
+  /**
+   * Predicate over map entries evaluated on the cluster.
+   * <p>
+   * Predicates are serialized and evaluated on replicas like {@link EntryProcessor entry processors}.
+   *
+   * @param <K> The map key type.
+   * @param <V> The map value type.
+   */
+  @FunctionalInterface
+  public interface EntryPredicate<K, V> {
+
+    /**
+     * Tests whether an entry matches the predicate.
+     *
+     * @param key The entry key.
+     * @param value The entry value.
+     * @return Whether the entry matches the predicate.
+     */
+    boolean test(K key, V value);
+  }
+
+  /**
+   * Predicate matching entries whose keys start with a prefix.
+   * <p>
+   * Keys that are not {@link String}s never match. Like all {@link EntryPredicate}s, key prefixes can be used to
+   * {@link #query(EntryPredicate, int) query} the map and to {@link #onAdd(EntryPredicate, Consumer) filter} events.
+   */
+  public static class KeyPrefix implements EntryPredicate<Object, Object>, CatalystSerializable {
+    private String prefix;
+
+    public KeyPrefix() {
+    }
+
+    public KeyPrefix(String prefix) {
+      this.prefix = Assert.notNull(prefix, "prefix");
+    }
+
+    /**
+     * Returns the key prefix.
+     *
+     * @return The key prefix.
+     */
+    public String prefix() {
+      return prefix;
+    }
+
+    @Override
+    public boolean test(Object key, Object value) {
+      return key instanceof String && ((String) key).startsWith(prefix);
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeString(prefix);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      prefix = buffer.readString();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[prefix=%s]", getClass().getSimpleName(), prefix);
+    }
+  }
+
+  /**
+   * Predicate matching entries whose keys are in a range.
+   * <p>
+   * Keys are compared in natural order, so the bounds must be {@link Comparable} with the map's keys. Keys that
+   * can't be compared with the bounds never match.
    */
-  public CompletableFuture<Listener<EntryEvent<K, V>>> onUpdate(Consumer<EntryEvent<K, V>> callback) {
-    return onEvent(Events.UPDATE, callback);
+  public static class KeyRange implements EntryPredicate<Object, Object>, CatalystSerializable {
+    private Object from;
+    private Object to;
+
+    public KeyRange() {
+    }
+
+    /**
+     * @param from The inclusive lower bound or {@code null} for no lower bound.
+     * @param to The exclusive upper bound or {@code null} for no upper bound.
+     */
+    public KeyRange(Object from, Object to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * Returns the inclusive lower bound.
+     *
+     * @return The inclusive lower bound or {@code null} for no lower bound.
+     */
+    public Object from() {
+      return from;
+    }
+
+    /**
+     * Returns the exclusive upper bound.
+     *
+     * @return The exclusive upper bound or {@code null} for no upper bound.
+     */
+    public Object to() {
+      return to;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean test(Object key, Object value) {
+      try {
+        return (from == null || ((Comparable) from).compareTo(key) <= 0)
+          && (to == null || ((Comparable) to).compareTo(key) > 0);
+      } catch (ClassCastException e) {
+        return false;
+      }
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      serializer.writeObject(from, buffer);
+      serializer.writeObject(to, buffer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      from = serializer.readObject(buffer);
+      to = serializer.readObject(buffer);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[from=%s, to=%s]", getClass().getSimpleName(), from, to);
+    }
   }
 
   /**
-   * Registers a {@link #put(Object, Object)} event listener.
-   *
-   * @param callback The put event listener callback.
-   * @return The event listener context.
+   * Predicate over the attribute held in a {@link Config#withIndex(String, Class) secondary index}.
+   * <p>
+   * Index predicates are evaluated against the named index on the cluster rather than by scanning the map.
+   * Querying an index that is not configured for the map fails with an {@link IllegalArgumentException}.
    */
-  public CompletableFuture<Listener<EntryEvent<K, V>>> onUpdate(K key, Consumer<EntryEvent<K, V>> callback) {
-    return onEvent(key, Events.UPDATE, callback);
+  public static class IndexPredicate implements EntryPredicate<Object, Object>, CatalystSerializable {
+
+    /**
+     * Returns a predicate matching entries whose indexed attribute equals the given value.
+     *
+     * @param index The index name.
+     * @param value The attribute value.
+     * @return The index predicate.
+     */
+    public static IndexPredicate equalTo(String index, Object value) {
+      return new IndexPredicate(index, Assert.notNull(value, "value"), null, null);
+    }
+
+    /**
+     * Returns a predicate matching entries whose indexed attribute is in the given range.
+     * <p>
+     * Range predicates can only be evaluated against {@link Config#withSortedIndex(String, Class) sorted} indexes.
+     * Matching entries are returned in attribute order.
+     *
+     * @param index The index name.
+     * @param from The inclusive lower bound or {@code null} for no lower bound.
+     * @param to The exclusive upper bound or {@code null} for no upper bound.
+     * @return The index predicate.
+     */
+    public static IndexPredicate between(String index, Object from, Object to) {
+      return new IndexPredicate(index, null, from, to);
+    }
+
+    private String index;
+    private Object value;
+    private Object from;
+    private Object to;
+
+    public IndexPredicate() {
+    }
+
+    private IndexPredicate(String index, Object value, Object from, Object to) {
+      this.index = Assert.notNull(index, "index");
+      this.value = value;
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * Returns the index name.
+     *
+     * @return The index name.
+     */
+    public String index() {
+      return index;
+    }
+
+    /**
+     * Returns the attribute value to match, or {@code null} if this is a range predicate.
+     *
+     * @return The attribute value to match.
+     */
+    public Object value() {
+      return value;
+    }
+
+    /**
+     * Returns the inclusive lower bound of a range predicate.
+     *
+     * @return The inclusive lower bound or {@code null} for no lower bound.
+     */
+    public Object from() {
+      return from;
+    }
+
+    /**
+     * Returns the exclusive upper bound of a range predicate.
+     *
+     * @return The exclusive upper bound or {@code null} for no upper bound.
+     */
+    public Object to() {
+      return to;
+    }
+
+    /**
+     * Index predicates are evaluated against the index and cannot test entries directly.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean test(Object key, Object value) {
+      throw new UnsupportedOperationException("index predicates are evaluated against the index");
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeString(index);
+      serializer.writeObject(value, buffer);
+      serializer.writeObject(from, buffer);
+      serializer.writeObject(to, buffer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      index = buffer.readString();
+      value = serializer.readObject(buffer);
+      from = serializer.readObject(buffer);
+      to = serializer.readObject(buffer);
+    }
+
+    @Override
+    public String toString() {
+      if (value != null) {
+        return String.format("%s[index=%s, value=%s]", getClass().getSimpleName(), index, value);
+      }
+      return String.format("%s[index=%s, from=%s, to=%s]", getClass().getSimpleName(), index, from, to);
+    }
   }
 
   /**
-   * Registers a {@link #remove(Object)} event listener.
+   * Function that merges a value into a map entry on the cluster.
+   * <p>
+   * Merge functions are serialized and applied on replicas like {@link EntryProcessor entry processors} and
+   * must likewise be deterministic and registered on all clients and replicas.
    *
-   * @param callback The remove event listener callback.
-   * @return The event listener context.
+   * @param <V> The map value type.
    */
-  public CompletableFuture<Listener<EntryEvent<K, V>>> onRemove(Consumer<EntryEvent<K, V>> callback) {
-    return onEvent(Events.REMOVE, callback);
+  @FunctionalInterface
+  public interface MergeFunction<V> {
+
+    /**
+     * Merges a value into an entry.
+     *
+     * @param oldValue The current entry value.
+     * @param value The value to merge.
+     * @return The new entry value or {@code null} to remove the entry.
+     */
+    V merge(V oldValue, V value);
   }
 
   /**
-   * Registers a {@link #remove(Object)} event listener.
+   * Map value with the version of the entry that holds it.
    *
-   * @param callback The remove event listener callback.
-   * @return The event listener context.
+   * @param <V> The map value type.
    */
-  public CompletableFuture<Listener<EntryEvent<K, V>>> onRemove(K key, Consumer<EntryEvent<K, V>> callback) {
-    return onEvent(key, Events.REMOVE, callback);
-  }
+  public static class Versioned<V> implements CatalystSerializable {
+    private V value;
+    private long version;
 
-  @Override
-  public CompletableFuture<DistributedMap<K, V>> open() {
-    CompletableFuture<DistributedMap<K, V>> future = super.open().thenApply(m -> {
-      client.<EntryEvent>onEvent("key", this::onEvent);
-      return this;
-    });
+    public Versioned() {
+    }
 
-    if (options.isLocalCache()) {
-      return future.thenCompose(v -> onAdd(this::onAdd))
-        .thenCompose(v -> onUpdate(this::onUpdate))
-        .thenCompose(v -> onRemove(this::onRemove))
-        .thenApply(v -> this);
+    public Versioned(V value, long version) {
+      this.value = value;
+      this.version = version;
     }
-    return future;
-  }
 
-  /**
-   * Handles an event from the cluster.
-   */
-  @SuppressWarnings("unchecked")
-  private void onEvent(EntryEvent event) {
-    Map<Integer, Set<Consumer>> keyListeners = eventListeners.get(event.entry.getKey());
-    if (keyListeners != null) {
-      Set<Consumer> eventListeners = keyListeners.get(event.type.id());
-      if (eventListeners != null) {
-        for (Consumer listener : eventListeners) {
-          listener.accept(event);
-        }
-      }
+    /**
+     * Returns the value.
+     *
+     * @return The value.
+     */
+    public V value() {
+      return value;
     }
-  }
 
-  /**
-   * Updates the cache when an entry is added to the map.
-   */
-  private void onAdd(EntryEvent<K, V> event) {
-    cache.put(event.entry.getKey(), event.entry.getValue());
+    /**
+     * Returns the entry version.
+     * <p>
+     * The version is the index of the commit that last wrote the entry.
+     *
+     * @return The entry version.
+     */
+    public long version() {
+      return version;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      serializer.writeObject(value, buffer);
+      buffer.writeLong(version);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      value = serializer.readObject(buffer);
+      version = buffer.readLong();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[value=%s, version=%d]", getClass().getSimpleName(), value, version);
+    }
   }
 
   /**
-   * Updates the cache when an entry is updated in the map.
+   * Map statistics.
+   * <p>
+   * Statistics are computed by the replica that serves the {@link #stats()} query.
    */
-  private void onUpdate(EntryEvent<K, V> event) {
-    cache.put(event.entry.getKey(), event.entry.getValue());
+  public static class Stats implements CatalystSerializable {
+    private int size;
+    private int valueIndexSize;
+    private long valueIndexBytes;
+    private long offHeapBytes;
+    private long evictionCount;
+
+    public Stats() {
+    }
+
+    public Stats(int size, int valueIndexSize, long valueIndexBytes) {
+      this(size, valueIndexSize, valueIndexBytes, 0, 0);
+    }
+
+    public Stats(int size, int valueIndexSize, long valueIndexBytes, long offHeapBytes, long evictionCount) {
+      this.size = size;
+      this.valueIndexSize = valueIndexSize;
+      this.valueIndexBytes = valueIndexBytes;
+      this.offHeapBytes = offHeapBytes;
+      this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return The number of entries in the map.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns the number of distinct values in the {@link Config#withValueIndex() value index}.
+     *
+     * @return The number of distinct values in the value index, or {@code 0} if the index is disabled.
+     */
+    public int valueIndexSize() {
+      return valueIndexSize;
+    }
+
+    /**
+     * Returns the estimated memory overhead of the {@link Config#withValueIndex() value index} in bytes.
+     * <p>
+     * The estimate covers the index's own structures. Values are shared with the map and are not counted.
+     *
+     * @return The estimated memory overhead of the value index, or {@code 0} if the index is disabled.
+     */
+    public long valueIndexBytes() {
+      return valueIndexBytes;
+    }
+
+    /**
+     * Returns the number of bytes of direct memory reserved for {@link Config#withValueStorage(ValueStorage)
+     * off-heap} values.
+     * <p>
+     * Memory is reserved in whole slabs, so the reserved bytes include space freed by values that were
+     * overwritten or removed until their slab is compacted or released.
+     *
+     * @return The number of bytes of direct memory reserved for values, or {@code 0} if values are stored on the heap.
+     */
+    public long offHeapBytes() {
+      return offHeapBytes;
+    }
+
+    /**
+     * Returns the number of entries evicted from a {@link Config#withMaxEntries(int) bounded} map.
+     *
+     * @return The number of entries evicted from the map.
+     */
+    public long evictionCount() {
+      return evictionCount;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeInt(size).writeInt(valueIndexSize).writeLong(valueIndexBytes).writeLong(offHeapBytes).writeLong(evictionCount);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      size = buffer.readInt();
+      valueIndexSize = buffer.readInt();
+      valueIndexBytes = buffer.readLong();
+      offHeapBytes = buffer.readLong();
+      evictionCount = buffer.readLong();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[size=%d, valueIndexSize=%d, valueIndexBytes=%d, offHeapBytes=%d, evictionCount=%d]", getClass().getSimpleName(), size, valueIndexSize, valueIndexBytes, offHeapBytes, evictionCount);
+    }
   }
 
   /**
-   * Updates the cache when an entry is removed from the map.
+   * Local cache statistics.
    */
-  private void onRemove(EntryEvent<K, V> event) {
-    cache.remove(event.entry.getKey());
+  public static class CacheStats {
+    private final int size;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public CacheStats(int size, long hitCount, long missCount, long evictionCount) {
+      this.size = size;
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+      this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Returns the number of entries in the local cache.
+     *
+     * @return The number of entries in the local cache.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns the number of {@link ReadConsistency#LOCAL} reads served by the local cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long hitCount() {
+      return hitCount;
+    }
+
+    /**
+     * Returns the number of {@link ReadConsistency#LOCAL} reads that were read through to the cluster.
+     *
+     * @return The number of cache misses.
+     */
+    public long missCount() {
+      return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted from the local cache.
+     *
+     * @return The number of cache evictions.
+     */
+    public long evictionCount() {
+      return evictionCount;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[size=%d, hits=%d, misses=%d, evictions=%d]", getClass().getSimpleName(), size, hitCount, missCount, evictionCount);
+    }
   }
 
   /**
@@ -1478,13 +3509,25 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
   public static class EntryEvent<K, V> implements Event, CatalystSerializable {
     private EventType type;
     private Map.Entry<K, V> entry;
+    private long version;
+    private boolean evicted;
 
     public EntryEvent() {
     }
 
     public EntryEvent(EventType type, Map.Entry<K, V> entry) {
+      this(type, entry, 0);
+    }
+
+    public EntryEvent(EventType type, Map.Entry<K, V> entry, long version) {
+      this(type, entry, version, false);
+    }
+
+    public EntryEvent(EventType type, Map.Entry<K, V> entry, long version, boolean evicted) {
       this.type = type;
       this.entry = entry;
+      this.version = version;
+      this.evicted = evicted;
     }
 
     @Override
@@ -1501,11 +3544,35 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
       return entry;
     }
 
+    /**
+     * Returns the version at which the change occurred.
+     * <p>
+     * For add and update events, this is the {@link Versioned#version() version} of the new entry. For remove
+     * events, it's the index at which the entry was removed. Clients can compare event versions with the
+     * versions of entries they've read to skip stale changes.
+     *
+     * @return The version at which the change occurred.
+     */
+    public long version() {
+      return version;
+    }
+
+    /**
+     * Returns whether the entry was evicted from a {@link Config#withMaxEntries(int) bounded} map.
+     *
+     * @return Whether the entry was evicted. Always {@code false} for add and update events.
+     */
+    public boolean isEvicted() {
+      return evicted;
+    }
+
     @Override
     public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
       buffer.writeByte(type.id());
       serializer.writeObject(entry.getKey(), buffer);
       serializer.writeObject(entry.getValue(), buffer);
+      buffer.writeLong(version);
+      buffer.writeBoolean(evicted);
     }
 
     @Override
@@ -1514,6 +3581,8 @@ public class DistributedMap<K, V> extends AbstractResource<DistributedMap<K, V>>
       K key = serializer.readObject(buffer);
       V value = serializer.readObject(buffer);
       entry = new MapEntry<>(key, value);
+      version = buffer.readLong();
+      evicted = buffer.readBoolean();
     }
   }
 
@@ -143,7 +143,7 @@ public class DistributedMultiMap<K, V> extends AbstractResource<DistributedMulti
    * @return A completable future to be completed with a boolean value indicating whether the map is empty.
    */
   public CompletableFuture<Boolean> isEmpty(ReadConsistency consistency) {
-    return client.submit(new MultiMapCommands.IsEmpty(consistency.level()));
+    return submit(new MultiMapCommands.IsEmpty(consistency.level()), consistency);
   }
 
   /**
@@ -162,7 +162,7 @@ public class DistributedMultiMap<K, V> extends AbstractResource<DistributedMulti
    * @return A completable future to be completed with the number of entries in the map.
    */
   public CompletableFuture<Integer> size(ReadConsistency consistency) {
-    return client.submit(new MultiMapCommands.Size(consistency.level()));
+    return submit(new MultiMapCommands.Size(consistency.level()), consistency);
   }
 
   /**
@@ -183,7 +183,7 @@ public class DistributedMultiMap<K, V> extends AbstractResource<DistributedMulti
    * @return A completable future to be completed with the number of entries in the map.
    */
   public CompletableFuture<Integer> size(K key, ReadConsistency consistency) {
-    return client.submit(new MultiMapCommands.Size(key, consistency.level()));
+    return submit(new MultiMapCommands.Size(key, consistency.level()), consistency);
   }
 
   /**
@@ -204,7 +204,7 @@ public class DistributedMultiMap<K, V> extends AbstractResource<DistributedMulti
    * @return A completable future to be completed with the result once complete.
    */
   public CompletableFuture<Boolean> containsKey(K key, ReadConsistency consistency) {
-    return client.submit(new MultiMapCommands.ContainsKey(key, consistency.level()));
+    return submit(new MultiMapCommands.ContainsKey(key, consistency.level()), consistency);
   }
 
   /**
@@ -227,7 +227,7 @@ public class DistributedMultiMap<K, V> extends AbstractResource<DistributedMulti
    * @return A completable future to be completed with the result once complete.
    */
   public CompletableFuture<Boolean> containsEntry(K key, V value, ReadConsistency consistency) {
-    return client.submit(new MultiMapCommands.ContainsEntry(key, value, consistency.level()));
+    return submit(new MultiMapCommands.ContainsEntry(key, value, consistency.level()), consistency);
   }
 
   /**
@@ -248,7 +248,7 @@ public class DistributedMultiMap<K, V> extends AbstractResource<DistributedMulti
    * @return A completable future to be completed with the result once complete.
    */
   public CompletableFuture<Boolean> containsValue(V value, ReadConsistency consistency) {
-    return client.submit(new MultiMapCommands.ContainsValue(value, consistency.level()));
+    return submit(new MultiMapCommands.ContainsValue(value, consistency.level()), consistency);
   }
 
   /**
@@ -271,7 +271,7 @@ public class DistributedMultiMap<K, V> extends AbstractResource<DistributedMulti
    */
   @SuppressWarnings("unchecked")
   public CompletableFuture<Collection<V>> get(K key, ReadConsistency consistency) {
-    return client.submit(new MultiMapCommands.Get(key, consistency.level())).thenApply(result -> result);
+    return submit(new MultiMapCommands.Get(key, consistency.level()), consistency).thenApply(result -> result);
   }
 
   /**
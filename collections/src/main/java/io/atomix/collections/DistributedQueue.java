@@ -20,15 +20,28 @@ import io.atomix.catalyst.buffer.BufferOutput;
 import io.atomix.catalyst.concurrent.Listener;
 import io.atomix.catalyst.serializer.CatalystSerializable;
 import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.catalyst.util.Assert;
+import io.atomix.catalyst.util.ConfigurationException;
+import io.atomix.collections.internal.PutEvent;
 import io.atomix.collections.internal.QueueCommands;
+import io.atomix.collections.internal.TakeEvent;
 import io.atomix.collections.util.DistributedQueueFactory;
 import io.atomix.copycat.client.CopycatClient;
 import io.atomix.resource.AbstractResource;
 import io.atomix.resource.ReadConsistency;
+import io.atomix.resource.Resource;
 import io.atomix.resource.ResourceTypeInfo;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -57,6 +70,47 @@ import java.util.function.Consumer;
  * Queues support relaxed consistency levels for some read operations line {@link #size(ReadConsistency)}
  * and {@link #contains(Object, ReadConsistency)}. By default, read operations on a queue are linearizable
  * but require some level of communication between nodes.
+ * <p>
+ * Consumers can wait for values to be added to an empty queue with {@link #take()} and {@link #poll(Duration)}.
+ * Waiting consumers are registered with the replicated state machine, and values added to the queue while
+ * consumers are waiting are handed directly to the consumer that has been waiting the longest, so consumers
+ * don't need to repeatedly poll the cluster. Waiting consumers can only be used by queues whose
+ * {@link Resource.Config#withSnapshots() snapshots} are enabled.
+ * <p>
+ * Values can be added and removed in batches with {@link #offerAll(Collection)}, {@link #poll(int)} and
+ * {@link #drainTo(Collection, int)}. Each batch is applied to the replicated state machine as a single
+ * operation, so moving many values into or out of a queue doesn't cost a replicated operation per value.
+ * <p>
+ * For at-least-once processing, consumers can {@link #lease(int, Duration) lease} values instead of removing them.
+ * Leased values are held in flight by the cluster until the consumer {@link #ack(long) acknowledges} them. If the
+ * consumer {@link #nack(long) rejects} a value, fails to acknowledge it within the visibility timeout, or its
+ * session expires, the value is returned to the head of the queue to be redelivered. Leases can only be used by
+ * queues whose {@link Resource.Config#withSnapshots() snapshots} are enabled.
+ * <pre>
+ *   {@code
+ *   queue.lease(10, Duration.ofSeconds(30)).thenAccept(tasks -> {
+ *     for (DistributedQueue.Task<String> task : tasks) {
+ *       process(task.value());
+ *       queue.ack(task.id());
+ *     }
+ *   });
+ *   }
+ * </pre>
+ * <p>
+ * Queues can be bounded by a {@link Config#withCapacity(int) capacity} to apply backpressure to producers. Offers
+ * to a full queue fail, while {@link #put(Object)} and {@link #put(Object, Duration)} wait for space to free up.
+ * Waiting producers are registered with the replicated state machine and admitted in the order in which they began
+ * waiting as consumers remove or acknowledge values, so producers don't need to repeatedly retry offers.
+ * <p>
+ * By default, values are removed in the order in which they were added. Queues can instead be configured to
+ * order values by {@link Order#PRIORITY priority} or to hold values until a {@link Order#DELAY delay} expires:
+ * <pre>
+ *   {@code
+ *   DistributedQueue.Config config = new DistributedQueue.Config()
+ *     .withComparator(TaskPriorityComparator.class);
+ *   DistributedQueue<Task> queue = atomix.getQueue("tasks", config).get();
+ *   }
+ * </pre>
  *
  * @param <T> The queue value type.
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
@@ -64,10 +118,185 @@ import java.util.function.Consumer;
 @ResourceTypeInfo(id=-14, factory=DistributedQueueFactory.class)
 public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
 
+  /**
+   * Distributed queue configuration.
+   */
+  public static class Config extends Resource.Config {
+    public Config() {
+    }
+
+    public Config(Properties defaults) {
+      super(defaults);
+    }
+
+    /**
+     * Sets the queue order.
+     * <p>
+     * {@link Order#PRIORITY Priority} queues remove values in the order defined by the
+     * {@link #withComparator(Class) comparator}, or in natural order if no comparator is configured. Values
+     * that compare equal are removed in the order in which they were added. {@link Order#DELAY Delay} queues
+     * accept values {@link DistributedQueue#offer(Object, Duration) offered with a delay} and hold them until the
+     * delay expires.
+     *
+     * @param order The queue order.
+     * @return The queue configuration.
+     */
+    public Config withOrder(Order order) {
+      setProperty("order", Assert.notNull(order, "order").name().toLowerCase());
+      return this;
+    }
+
+    /**
+     * Returns the queue order.
+     *
+     * @return The queue order.
+     */
+    public Order getOrder() {
+      return Order.valueOf(getProperty("order", Order.FIFO.name().toLowerCase()).toUpperCase());
+    }
+
+    /**
+     * Sets the comparator by which a priority queue orders its values.
+     * <p>
+     * Each replica instantiates the {@code comparator} class via its public no-argument constructor, so the class
+     * must be on the classpath of every replica. Setting a comparator sets the queue {@link #withOrder(Order) order}
+     * to {@link Order#PRIORITY}.
+     *
+     * @param comparator The class of the comparator by which to order values.
+     * @return The queue configuration.
+     */
+    public Config withComparator(Class<? extends Comparator> comparator) {
+      setProperty("order.comparator", Assert.notNull(comparator, "comparator").getName());
+      return withOrder(Order.PRIORITY);
+    }
+
+    /**
+     * Returns the comparator by which a priority queue orders its values.
+     *
+     * @return The class of the comparator by which to order values, or {@code null} if values are ordered naturally.
+     * @throws ConfigurationException if the comparator class cannot be loaded
+     */
+    @SuppressWarnings("unchecked")
+    public Class<? extends Comparator> getComparator() {
+      String comparator = getProperty("order.comparator");
+      if (comparator == null)
+        return null;
+      try {
+        return (Class<? extends Comparator>) Class.forName(comparator);
+      } catch (ClassNotFoundException e) {
+        throw new ConfigurationException(e, "failed to load comparator: %s", comparator);
+      }
+    }
+
+    /**
+     * Enables the value index.
+     * <p>
+     * When the value index is enabled, each replica links the queue's values into chains of equal values found
+     * through a hash table so that {@link DistributedQueue#contains(Object)} and {@link DistributedQueue#remove(Object)}
+     * complete in constant time rather than scanning the queue. The index costs memory on each replica in proportion
+     * to the number of values and distinct values in the queue. The estimated overhead is reported by
+     * {@link Stats#valueIndexBytes()}. The value index is not supported by {@link Order#PRIORITY priority} queues.
+     *
+     * @return The queue configuration.
+     */
+    public Config withValueIndex() {
+      return withValueIndex(true);
+    }
+
+    /**
+     * Sets whether to enable the value index.
+     *
+     * @param enabled Whether to enable the value index.
+     * @return The queue configuration.
+     * @see #withValueIndex()
+     */
+    public Config withValueIndex(boolean enabled) {
+      setProperty("index.values", String.valueOf(enabled));
+      return this;
+    }
+
+    /**
+     * Returns whether the value index is enabled.
+     *
+     * @return Whether the value index is enabled.
+     */
+    public boolean isValueIndexEnabled() {
+      return Boolean.parseBoolean(getProperty("index.values", "false"));
+    }
+
+    /**
+     * Sets the capacity of the queue.
+     * <p>
+     * The capacity limits the depth of the queue: the number of values held in the queue,
+     * {@link DistributedQueue#lease(int, Duration) in flight} and {@link DistributedQueue#offer(Object, Duration)
+     * delayed}. Once the depth reaches the capacity, {@link DistributedQueue#add(Object)},
+     * {@link DistributedQueue#offer(Object)} and {@link DistributedQueue#offerAll(Collection)} return {@code false}
+     * without adding values, and {@link DistributedQueue#put(Object)} waits until values are removed or acknowledged.
+     * Values handed directly to consumers {@link DistributedQueue#take() waiting} on the queue don't count against
+     * the capacity.
+     *
+     * @param capacity The capacity of the queue, or {@code 0} for no limit.
+     * @return The queue configuration.
+     * @throws IllegalArgumentException if {@code capacity} is negative
+     */
+    public Config withCapacity(int capacity) {
+      setProperty("capacity", String.valueOf(Assert.argNot(capacity, capacity < 0, "capacity cannot be negative")));
+      return this;
+    }
+
+    /**
+     * Returns the capacity of the queue.
+     *
+     * @return The capacity of the queue, or {@code 0} for no limit.
+     */
+    public int getCapacity() {
+      return Integer.parseInt(getProperty("capacity", "0"));
+    }
+  }
+
+  /**
+   * Queue order.
+   */
+  public enum Order {
+    /**
+     * Values are removed in the order in which they were added.
+     */
+    FIFO,
+
+    /**
+     * Values are removed in priority order.
+     */
+    PRIORITY,
+
+    /**
+     * Values may be delayed and are removed in the order in which they became visible.
+     */
+    DELAY
+  }
+
+  private final Map<Long, CompletableFuture<T>> takes = new ConcurrentHashMap<>();
+  private final AtomicLong takeId = new AtomicLong();
+  private final Map<Long, CompletableFuture<Boolean>> puts = new ConcurrentHashMap<>();
+  private final AtomicLong putId = new AtomicLong();
+
   public DistributedQueue(CopycatClient client, Properties options) {
     super(client, options);
   }
 
+  @Override
+  public Config config() {
+    return new Config(super.config());
+  }
+
+  @Override
+  public CompletableFuture<DistributedQueue<T>> open() {
+    return super.open().thenApply(q -> {
+      client.<TakeEvent>onEvent("take", this::onTake);
+      client.<PutEvent>onEvent("put", this::onPut);
+      return this;
+    });
+  }
+
   /**
    * Adds a value to the set.
    *
@@ -88,6 +317,101 @@ public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
     return client.submit(new QueueCommands.Offer(value));
   }
 
+  /**
+   * Adds a value to the queue once the given delay has expired.
+   * <p>
+   * The value is held by the cluster and becomes visible to consumers once the delay has expired according to
+   * the replicated state machine's clock. Delayed values are not counted by {@link #size()} until they're visible.
+   * Values become visible in the order of their expiration and are handed directly to consumers
+   * {@link #take() waiting} on the queue.
+   *
+   * @param value The value to add.
+   * @param delay The delay after which the value becomes visible.
+   * @return A completable future to be completed with the result once complete.
+   * @throws IllegalStateException if the queue's {@link Config#withOrder(Order) order} is not {@link Order#DELAY}
+   */
+  public CompletableFuture<Boolean> offer(T value, Duration delay) {
+    Assert.notNull(delay, "delay");
+    if (config().getOrder() != Order.DELAY)
+      throw new IllegalStateException("queue does not support delayed values");
+    return client.submit(new QueueCommands.Offer(value, Math.max(delay.toMillis(), 0)));
+  }
+
+  /**
+   * Adds a value to the queue, waiting for space to become available if the queue is full.
+   * <p>
+   * The returned future will not be completed until the value has been added to a queue with a
+   * {@link Config#withCapacity(int) capacity}. Waiting producers are admitted in the order in which they began
+   * waiting. If the queue is unbounded, this method behaves like {@link #offer(Object)}.
+   *
+   * @param value The value to add.
+   * @return A completable future to be completed once the value has been added.
+   */
+  public CompletableFuture<Void> put(T value) {
+    return put(value, 0).thenApply(added -> null);
+  }
+
+  /**
+   * Adds a value to the queue, waiting up to the given timeout for space to become available if the queue is full.
+   * <p>
+   * If no space becomes available before the timeout expires, the value is not added and the returned future will
+   * be completed with {@code false}. The timeout is enforced by the cluster, so the future may be completed some
+   * time after the timeout expires if the client is disconnected from the cluster. If the timeout is zero or
+   * negative, this method behaves like {@link #offer(Object)}.
+   *
+   * @param value The value to add.
+   * @param timeout The maximum amount of time to wait for space in the queue.
+   * @return A completable future to be completed with a boolean indicating whether the value was added.
+   */
+  public CompletableFuture<Boolean> put(T value, Duration timeout) {
+    Assert.notNull(timeout, "timeout");
+    if (timeout.isZero() || timeout.isNegative())
+      return offer(value);
+    return put(value, Math.max(timeout.toMillis(), 1));
+  }
+
+  /**
+   * Submits a put command, registering a future to be completed by a put event if the queue is full.
+   */
+  private CompletableFuture<Boolean> put(T value, long timeout) {
+    long id = putId.incrementAndGet();
+    CompletableFuture<Boolean> future = new CompletableFuture<>();
+    puts.put(id, future);
+    client.submit(new QueueCommands.Put(value, id, timeout)).whenComplete((result, error) -> {
+      if (error != null) {
+        puts.remove(id);
+        future.completeExceptionally(error);
+      } else if (result != null) {
+        puts.remove(id);
+        future.complete(result);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Handles a put event from the cluster.
+   */
+  private void onPut(PutEvent event) {
+    CompletableFuture<Boolean> future = puts.remove(event.producer());
+    if (future != null) {
+      future.complete(event.added());
+    }
+  }
+
+  /**
+   * Adds all the given values to the queue in a single operation.
+   * <p>
+   * Values are added to the queue in the order in which they're returned by the collection's iterator.
+   * Add event listeners are called once for each added value.
+   *
+   * @param values The values to add.
+   * @return A completable future to be completed with a boolean indicating whether the queue changed.
+   */
+  public CompletableFuture<Boolean> offerAll(Collection<? extends T> values) {
+    return client.submit(new QueueCommands.OfferAll(values));
+  }
+
   /**
    * Removes a value from the queue.
    *
@@ -108,6 +432,144 @@ public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
     return client.submit(new QueueCommands.Poll()).thenApply(v -> (T) v);
   }
 
+  /**
+   * Removes up to the given number of values from the head of the queue in a single operation.
+   *
+   * @param max The maximum number of values to remove.
+   * @return A completable future to be completed with the removed values in queue order.
+   * @throws IllegalArgumentException if {@code max} is not positive
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<List<T>> poll(int max) {
+    return client.submit(new QueueCommands.Drain(max)).thenApply(values -> (List<T>) values);
+  }
+
+  /**
+   * Removes up to the given number of values from the head of the queue in a single operation and adds them
+   * to the given collection.
+   *
+   * @param collection The collection to which to add the removed values.
+   * @param max The maximum number of values to remove.
+   * @return A completable future to be completed with the number of values removed.
+   * @throws IllegalArgumentException if {@code max} is not positive
+   */
+  public CompletableFuture<Integer> drainTo(Collection<? super T> collection, int max) {
+    Assert.notNull(collection, "collection");
+    return poll(max).thenApply(values -> {
+      collection.addAll(values);
+      return values.size();
+    });
+  }
+
+  /**
+   * Leases up to the given number of values from the head of the queue.
+   * <p>
+   * Leased values are removed from the queue and held in flight until they're {@link #ack(long) acknowledged}.
+   * If a leased value is not acknowledged before the visibility timeout expires, if it's {@link #nack(long)
+   * rejected}, or if this client's session expires, the value is returned to the head of the queue and will be
+   * delivered again. The number of times a value has been delivered is reported by {@link Task#deliveries()}.
+   * <p>
+   * Leases require the queue's {@link Resource.Config#withSnapshots() snapshots} to be enabled, since the position
+   * of a returned value can't be recovered from a compacted log. Otherwise, the command fails with a
+   * {@link ConfigurationException}.
+   *
+   * @param max The maximum number of values to lease.
+   * @param visibilityTimeout The time after which unacknowledged values are returned to the queue.
+   * @return A completable future to be completed with the leased values in queue order.
+   * @throws IllegalArgumentException if {@code max} is not positive or exceeds {@link QueueCommands.Lease#MAX_SIZE},
+   *         or if the visibility timeout is not positive
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<List<Task<T>>> lease(int max, Duration visibilityTimeout) {
+    Assert.notNull(visibilityTimeout, "visibilityTimeout");
+    return client.submit(new QueueCommands.Lease(max, visibilityTimeout.toMillis()))
+      .thenApply(tasks -> (List) tasks);
+  }
+
+  /**
+   * Acknowledges a leased value, permanently removing it from the queue.
+   *
+   * @param id The {@link Task#id() ID} of the leased value.
+   * @return A completable future to be completed with a boolean indicating whether the value was still in flight.
+   */
+  public CompletableFuture<Boolean> ack(long id) {
+    return client.submit(new QueueCommands.Ack(id));
+  }
+
+  /**
+   * Rejects a leased value, returning it to the head of the queue to be redelivered.
+   *
+   * @param id The {@link Task#id() ID} of the leased value.
+   * @return A completable future to be completed with a boolean indicating whether the value was still in flight.
+   */
+  public CompletableFuture<Boolean> nack(long id) {
+    return client.submit(new QueueCommands.Nack(id));
+  }
+
+  /**
+   * Removes a value from the queue, waiting up to the given timeout for a value to be added if the queue is empty.
+   * <p>
+   * If no value is added to the queue before the timeout expires, the returned future will be completed with
+   * {@code null}. The timeout is enforced by the cluster, so the future may be completed some time after the
+   * timeout expires if the client is disconnected from the cluster. If the timeout is zero or negative, this
+   * method behaves like {@link #poll()}. Otherwise, like {@link #take()}, it requires snapshots to be enabled.
+   *
+   * @param timeout The maximum amount of time to wait for a value.
+   * @return A completable future to be completed with the removed value or {@code null} if the timeout expired.
+   */
+  public CompletableFuture<T> poll(Duration timeout) {
+    Assert.notNull(timeout, "timeout");
+    if (timeout.isZero() || timeout.isNegative())
+      return poll();
+    return take(Math.max(timeout.toMillis(), 1));
+  }
+
+  /**
+   * Removes a value from the queue, waiting for a value to be added if the queue is empty.
+   * <p>
+   * The returned future will not be completed until a value is available. Waiting consumers are served in the
+   * order in which they began waiting.
+   * <p>
+   * Takes require the queue's {@link Resource.Config#withSnapshots() snapshots} to be enabled, since values handed
+   * to waiting consumers aren't held in the log. Otherwise, the command fails with a {@link ConfigurationException}.
+   *
+   * @return A completable future to be completed with the removed value.
+   */
+  public CompletableFuture<T> take() {
+    return take(0);
+  }
+
+  /**
+   * Submits a take command, registering a future to be completed by a take event if the queue is empty.
+   */
+  @SuppressWarnings("unchecked")
+  private CompletableFuture<T> take(long timeout) {
+    long id = takeId.incrementAndGet();
+    CompletableFuture<T> future = new CompletableFuture<>();
+    takes.put(id, future);
+    client.submit(new QueueCommands.Take(id, timeout)).whenComplete((result, error) -> {
+      if (error != null) {
+        takes.remove(id);
+        future.completeExceptionally(error);
+      } else if (result != null) {
+        takes.remove(id);
+        future.complete((T) result);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Handles a take event from the cluster.
+   */
+  @SuppressWarnings("unchecked")
+  private void onTake(TakeEvent event) {
+    CompletableFuture<T> future = takes.remove(event.waiter());
+    if (future != null) {
+      future.complete((T) event.value());
+    }
+  }
+
   /**
    * Removes a value from the queue.
    *
@@ -156,7 +618,7 @@ public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
    * @return A completable future to be completed with the result once complete.
    */
   public CompletableFuture<Boolean> contains(Object value, ReadConsistency consistency) {
-    return client.submit(new QueueCommands.Contains(value, consistency.level()));
+    return submit(new QueueCommands.Contains(value, consistency.level()), consistency);
   }
 
   /**
@@ -175,7 +637,7 @@ public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
    * @return A completable future to be completed with the set count.
    */
   public CompletableFuture<Integer> size(ReadConsistency consistency) {
-    return client.submit(new QueueCommands.Size(consistency.level()));
+    return submit(new QueueCommands.Size(consistency.level()), consistency);
   }
 
   /**
@@ -194,7 +656,26 @@ public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
    * @return A completable future to be completed with a boolean value indicating whether the set is empty.
    */
   public CompletableFuture<Boolean> isEmpty(ReadConsistency consistency) {
-    return client.submit(new QueueCommands.IsEmpty(consistency.level()));
+    return submit(new QueueCommands.IsEmpty(consistency.level()), consistency);
+  }
+
+  /**
+   * Gets queue statistics.
+   *
+   * @return A completable future to be completed with the queue statistics.
+   */
+  public CompletableFuture<Stats> stats() {
+    return client.submit(new QueueCommands.Stats());
+  }
+
+  /**
+   * Gets queue statistics.
+   *
+   * @param consistency The read consistency level.
+   * @return A completable future to be completed with the queue statistics.
+   */
+  public CompletableFuture<Stats> stats(ReadConsistency consistency) {
+    return submit(new QueueCommands.Stats(consistency.level()), consistency);
   }
 
   /**
@@ -213,7 +694,7 @@ public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
    * @return A completable future to be completed once the listener has been registered with the cluster.
    */
   public CompletableFuture<Listener<ValueEvent<T>>> onAdd(Consumer<ValueEvent<T>> callback) {
-    return onEvent(Events.ADD, callback);
+    return onValueEvent(Events.ADD, callback);
   }
 
   /**
@@ -223,7 +704,31 @@ public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
    * @return A completable future to be completed once the listener has been registered with the cluster.
    */
   public CompletableFuture<Listener<ValueEvent<T>>> onRemove(Consumer<ValueEvent<T>> callback) {
-    return onEvent(Events.REMOVE, callback);
+    return onValueEvent(Events.REMOVE, callback);
+  }
+
+  /**
+   * Registers a value event listener that is called once for each value of a batched event.
+   */
+  @SuppressWarnings("unchecked")
+  private CompletableFuture<Listener<ValueEvent<T>>> onValueEvent(Events type, Consumer<ValueEvent<T>> callback) {
+    return onEvent(type, unbatch(callback)).thenApply(listener -> (Listener) listener);
+  }
+
+  /**
+   * Returns a consumer that splits batched events into value events.
+   */
+  @SuppressWarnings("unchecked")
+  private Consumer<Event> unbatch(Consumer<ValueEvent<T>> callback) {
+    return event -> {
+      if (event instanceof ValuesEvent) {
+        for (T value : ((ValuesEvent<T>) event).values()) {
+          callback.accept(new ValueEvent<>(event.type(), value));
+        }
+      } else {
+        callback.accept((ValueEvent<T>) event);
+      }
+    };
   }
 
   /**
@@ -288,4 +793,275 @@ public class DistributedQueue<T> extends AbstractResource<DistributedQueue<T>> {
     }
   }
 
+  /**
+   * Queue event for a batch of values added or removed by a single operation.
+   */
+  public static class ValuesEvent<T> implements Event, CatalystSerializable {
+    private EventType type;
+    private List<T> values;
+
+    public ValuesEvent() {
+    }
+
+    public ValuesEvent(EventType type, List<T> values) {
+      this.type = type;
+      this.values = values;
+    }
+
+    @Override
+    public EventType type() {
+      return type;
+    }
+
+    /**
+     * Returns the event values in queue order.
+     *
+     * @return The event values.
+     */
+    public List<T> values() {
+      return values;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeByte(type.id());
+      buffer.writeInt(values.size());
+      for (T value : values) {
+        serializer.writeObject(value, buffer);
+      }
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      type = Events.values()[buffer.readByte()];
+      int size = buffer.readInt();
+      values = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(serializer.readObject(buffer));
+      }
+    }
+  }
+
+  /**
+   * Value {@link #lease(int, Duration) leased} from the queue.
+   */
+  public static class Task<T> implements CatalystSerializable {
+    private long id;
+    private T value;
+    private int deliveries;
+
+    public Task() {
+    }
+
+    public Task(long id, T value, int deliveries) {
+      this.id = id;
+      this.value = value;
+      this.deliveries = deliveries;
+    }
+
+    /**
+     * Returns the ID with which to {@link #ack(long) acknowledge} or {@link #nack(long) reject} the value.
+     *
+     * @return The leased value ID.
+     */
+    public long id() {
+      return id;
+    }
+
+    /**
+     * Returns the leased value.
+     *
+     * @return The leased value.
+     */
+    public T value() {
+      return value;
+    }
+
+    /**
+     * Returns the number of times the value has been leased, including this lease.
+     *
+     * @return The number of times the value has been leased.
+     */
+    public int deliveries() {
+      return deliveries;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeLong(id).writeInt(deliveries);
+      serializer.writeObject(value, buffer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      id = buffer.readLong();
+      deliveries = buffer.readInt();
+      value = serializer.readObject(buffer);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[id=%d, value=%s, deliveries=%d]", getClass().getSimpleName(), id, value, deliveries);
+    }
+  }
+
+  /**
+   * Queue statistics.
+   * <p>
+   * Statistics are computed by the replica that serves the {@link #stats()} query.
+   */
+  public static class Stats implements CatalystSerializable {
+    private int size;
+    private int inFlight;
+    private long deliveries;
+    private long redeliveries;
+    private int delayed;
+    private long valueIndexBytes;
+    private int capacity;
+    private int blocked;
+
+    public Stats() {
+    }
+
+    public Stats(int size, int inFlight, long deliveries, long redeliveries) {
+      this(size, inFlight, deliveries, redeliveries, 0);
+    }
+
+    public Stats(int size, int inFlight, long deliveries, long redeliveries, int delayed) {
+      this(size, inFlight, deliveries, redeliveries, delayed, 0);
+    }
+
+    public Stats(int size, int inFlight, long deliveries, long redeliveries, int delayed, long valueIndexBytes) {
+      this(size, inFlight, deliveries, redeliveries, delayed, valueIndexBytes, 0, 0);
+    }
+
+    public Stats(int size, int inFlight, long deliveries, long redeliveries, int delayed, long valueIndexBytes, int capacity, int blocked) {
+      this.size = size;
+      this.inFlight = inFlight;
+      this.deliveries = deliveries;
+      this.redeliveries = redeliveries;
+      this.delayed = delayed;
+      this.valueIndexBytes = valueIndexBytes;
+      this.capacity = capacity;
+      this.blocked = blocked;
+    }
+
+    /**
+     * Returns the number of values in the queue, excluding values in flight.
+     *
+     * @return The number of values in the queue.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns the number of {@link #lease(int, Duration) leased} values that have not been acknowledged.
+     *
+     * @return The number of values in flight.
+     */
+    public int inFlight() {
+      return inFlight;
+    }
+
+    /**
+     * Returns the total number of values leased from the queue, including redeliveries.
+     *
+     * @return The total number of values leased from the queue.
+     */
+    public long deliveries() {
+      return deliveries;
+    }
+
+    /**
+     * Returns the number of leases of values that had been leased before.
+     *
+     * @return The number of redelivered values.
+     */
+    public long redeliveries() {
+      return redeliveries;
+    }
+
+    /**
+     * Returns the fraction of leased values that were redeliveries.
+     *
+     * @return The redelivery rate, or {@code 0} if no values have been leased.
+     */
+    public double redeliveryRate() {
+      return deliveries > 0 ? (double) redeliveries / deliveries : 0;
+    }
+
+    /**
+     * Returns the number of {@link #offer(Object, Duration) delayed} values that are not yet visible.
+     *
+     * @return The number of delayed values.
+     */
+    public int delayed() {
+      return delayed;
+    }
+
+    /**
+     * Returns the estimated memory overhead of the {@link Config#withValueIndex() value index} in bytes.
+     * <p>
+     * The estimate covers the index's own structures. Values are shared with the queue and are not counted.
+     *
+     * @return The estimated memory overhead of the value index, or {@code 0} if the index is disabled.
+     */
+    public long valueIndexBytes() {
+      return valueIndexBytes;
+    }
+
+    /**
+     * Returns the depth of the queue.
+     * <p>
+     * The depth is the number of values held by the queue, including values in flight and delayed values, and
+     * is the number that is limited by the queue's {@link Config#withCapacity(int) capacity}.
+     *
+     * @return The depth of the queue.
+     */
+    public int depth() {
+      return size + inFlight + delayed;
+    }
+
+    /**
+     * Returns the capacity of the queue.
+     *
+     * @return The capacity of the queue, or {@code 0} if the queue is unbounded.
+     */
+    public int capacity() {
+      return capacity;
+    }
+
+    /**
+     * Returns the number of producers {@link #put(Object) waiting} for space in the queue.
+     *
+     * @return The number of waiting producers.
+     */
+    public int blocked() {
+      return blocked;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeInt(size).writeInt(inFlight).writeLong(deliveries).writeLong(redeliveries).writeInt(delayed).writeLong(valueIndexBytes).writeInt(capacity).writeInt(blocked);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      size = buffer.readInt();
+      inFlight = buffer.readInt();
+      deliveries = buffer.readLong();
+      redeliveries = buffer.readLong();
+      delayed = buffer.readInt();
+      valueIndexBytes = buffer.readLong();
+      capacity = buffer.readInt();
+      blocked = buffer.readInt();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[size=%d, inFlight=%d, deliveries=%d, redeliveries=%d, delayed=%d, valueIndexBytes=%d, capacity=%d, blocked=%d]", getClass().getSimpleName(), size, inFlight, deliveries, redeliveries, delayed, valueIndexBytes, capacity, blocked);
+    }
+  }
+
 }
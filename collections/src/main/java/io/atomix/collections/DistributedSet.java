@@ -18,7 +18,6 @@ package io.atomix.collections;
 import java.time.Duration;
 import java.util.Iterator;
 import java.util.Properties;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -27,6 +26,8 @@ import io.atomix.catalyst.buffer.BufferOutput;
 import io.atomix.catalyst.concurrent.Listener;
 import io.atomix.catalyst.serializer.CatalystSerializable;
 import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.catalyst.util.Assert;
+import io.atomix.collections.internal.PagedIterator;
 import io.atomix.collections.internal.SetCommands;
 import io.atomix.collections.util.DistributedSetFactory;
 import io.atomix.copycat.client.CopycatClient;
@@ -113,7 +114,7 @@ public class DistributedSet<T> extends AbstractResource<DistributedSet<T>> {
    * @return A completable future to be completed with the result once complete.
    */
   public CompletableFuture<Boolean> contains(Object value, ReadConsistency consistency) {
-    return client.submit(new SetCommands.Contains(value, consistency.level()));
+    return submit(new SetCommands.Contains(value, consistency.level()), consistency);
   }
 
   /**
@@ -132,7 +133,7 @@ public class DistributedSet<T> extends AbstractResource<DistributedSet<T>> {
    * @return A completable future to be completed with the set count.
    */
   public CompletableFuture<Integer> size(ReadConsistency consistency) {
-    return client.submit(new SetCommands.Size(consistency.level()));
+    return submit(new SetCommands.Size(consistency.level()), consistency);
   }
 
   /**
@@ -151,16 +152,40 @@ public class DistributedSet<T> extends AbstractResource<DistributedSet<T>> {
    * @return A completable future to be completed with a boolean value indicating whether the set is empty.
    */
   public CompletableFuture<Boolean> isEmpty(ReadConsistency consistency) {
-    return client.submit(new SetCommands.IsEmpty(consistency.level()));
+    return submit(new SetCommands.IsEmpty(consistency.level()), consistency);
   }
 
   /**
    * Returns an Iterator over the values in the set.
-   * 
+   * <p>
+   * The iterator reads the set from the cluster in pages of {@code 1000} values, so neither the cluster nor the
+   * client needs to hold a copy of the full set in memory. The iterator is weakly consistent: it returns each value
+   * that remains in the set throughout the iteration exactly once, and may or may not return values that are added
+   * or removed during the iteration. Once the first page has been read, {@link Iterator#hasNext()} may block while
+   * the next page is read, so the iterator must not be used on the client's event thread.
+   *
    * @return A CompletableFuture to be completed when the iterator is available
    */
   public CompletableFuture<Iterator<T>> iterator() {
-    return client.submit(new SetCommands.Iterator<T>()).thenApply(keys -> ((Set<T>)keys).iterator());
+    return iterator(PagedIterator.DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Returns an Iterator over the values in the set, reading the set in pages of the given size.
+   * <p>
+   * The iterator reads the set from the cluster in pages of {@code pageSize} values, so neither the cluster nor
+   * the client needs to hold a copy of the full set in memory. The iterator is weakly consistent: it returns each
+   * value that remains in the set throughout the iteration exactly once, and may or may not return values that are
+   * added or removed during the iteration. Once the first page has been read, {@link Iterator#hasNext()} may block
+   * while the next page is read, so the iterator must not be used on the client's event thread.
+   *
+   * @param pageSize The maximum number of values to read in each page.
+   * @return A CompletableFuture to be completed when the iterator is available
+   * @throws IllegalArgumentException if {@code pageSize} is not positive
+   */
+  public CompletableFuture<Iterator<T>> iterator(int pageSize) {
+    Assert.argNot(pageSize <= 0, "pageSize must be positive");
+    return PagedIterator.open(position -> client.submit(new SetCommands.Cursor(position, pageSize)));
   }
 
   /**
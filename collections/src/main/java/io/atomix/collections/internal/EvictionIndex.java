@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.util.Assert;
+import io.atomix.collections.DistributedMap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Index of the order in which the keys of a bounded map state machine are evicted.
+ * <p>
+ * The index is updated only by writes, so every replica that applies the same commands holds the same order.
+ * {@link DistributedMap.EvictionPolicy#FIFO FIFO} indexes evict keys in the order in which they were inserted,
+ * {@link DistributedMap.EvictionPolicy#LRU LRU} indexes evict the key that was written least recently, and
+ * {@link DistributedMap.EvictionPolicy#LFU LFU} indexes evict the key that was written least often, breaking ties
+ * by the order in which keys reached their write count.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class EvictionIndex {
+  private final DistributedMap.EvictionPolicy policy;
+  private final Map<Object, Integer> keys = new LinkedHashMap<>();
+  private final TreeMap<Integer, Set<Object>> frequencies;
+
+  public EvictionIndex(DistributedMap.EvictionPolicy policy) {
+    this.policy = Assert.notNull(policy, "policy");
+    this.frequencies = policy == DistributedMap.EvictionPolicy.LFU ? new TreeMap<>() : null;
+  }
+
+  /**
+   * Returns the eviction policy.
+   *
+   * @return The eviction policy.
+   */
+  public DistributedMap.EvictionPolicy policy() {
+    return policy;
+  }
+
+  /**
+   * Returns the number of keys in the index.
+   *
+   * @return The number of keys in the index.
+   */
+  public int size() {
+    return keys.size();
+  }
+
+  /**
+   * Adds a key to the index with the given write count.
+   * <p>
+   * This method should be used to restore keys from a snapshot in the order in which they were
+   * {@link #forEach(ObjIntConsumer) iterated}.
+   *
+   * @param key The key to add.
+   * @param count The number of times the key was written.
+   */
+  public void add(Object key, int count) {
+    keys.put(key, count);
+    if (frequencies != null) {
+      frequencies.computeIfAbsent(count, c -> new LinkedHashSet<>()).add(key);
+    }
+  }
+
+  /**
+   * Records a write to a key, adding the key if it's not present.
+   *
+   * @param key The written key.
+   */
+  public void write(Object key) {
+    Integer count = keys.get(key);
+    if (count == null) {
+      add(key, 1);
+      return;
+    }
+
+    switch (policy) {
+      case LRU:
+        keys.remove(key);
+        keys.put(key, count + 1);
+        break;
+      case LFU:
+        unlink(key, count);
+        add(key, count + 1);
+        break;
+      default:
+        keys.put(key, count + 1);
+        break;
+    }
+  }
+
+  /**
+   * Removes a key from the index.
+   *
+   * @param key The key to remove.
+   */
+  public void remove(Object key) {
+    Integer count = keys.remove(key);
+    if (count != null && frequencies != null) {
+      unlink(key, count);
+    }
+  }
+
+  /**
+   * Removes a key from its frequency bucket.
+   */
+  private void unlink(Object key, int count) {
+    Set<Object> bucket = frequencies.get(count);
+    bucket.remove(key);
+    if (bucket.isEmpty()) {
+      frequencies.remove(count);
+    }
+  }
+
+  /**
+   * Returns the next key to evict.
+   *
+   * @param exclude A key that must not be evicted.
+   * @return The next key to evict or {@code null} if no key other than {@code exclude} is present.
+   */
+  public Object victim(Object exclude) {
+    Iterator<Object> iterator = frequencies != null ? new LfuIterator() : keys.keySet().iterator();
+    while (iterator.hasNext()) {
+      Object key = iterator.next();
+      if (!key.equals(exclude)) {
+        return key;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Iterates over keys and their write counts in eviction order.
+   *
+   * @param consumer The consumer to which to pass each key and its write count.
+   */
+  public void forEach(ObjIntConsumer<Object> consumer) {
+    if (frequencies != null) {
+      for (Map.Entry<Integer, Set<Object>> bucket : frequencies.entrySet()) {
+        for (Object key : bucket.getValue()) {
+          consumer.accept(key, bucket.getKey());
+        }
+      }
+    } else {
+      for (Map.Entry<Object, Integer> entry : keys.entrySet()) {
+        consumer.accept(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Removes all keys from the index.
+   */
+  public void clear() {
+    keys.clear();
+    if (frequencies != null) {
+      frequencies.clear();
+    }
+  }
+
+  /**
+   * Iterates over keys in order of increasing write count.
+   */
+  private class LfuIterator implements Iterator<Object> {
+    private final Iterator<Set<Object>> buckets = frequencies.values().iterator();
+    private Iterator<Object> bucket;
+
+    @Override
+    public boolean hasNext() {
+      while ((bucket == null || !bucket.hasNext()) && buckets.hasNext()) {
+        bucket = buckets.next().iterator();
+      }
+      return bucket != null && bucket.hasNext();
+    }
+
+    @Override
+    public Object next() {
+      hasNext();
+      return bucket.next();
+    }
+  }
+
+}
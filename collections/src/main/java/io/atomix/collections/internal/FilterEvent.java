@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.catalyst.util.Assert;
+import io.atomix.collections.DistributedMap;
+
+/**
+ * Entry event published to a filtered map listener.
+ * <p>
+ * The event carries the client-assigned ID of the listener whose filter matched the entry so that the client can
+ * dispatch the event without evaluating the filter itself.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class FilterEvent implements CatalystSerializable {
+  private long listener;
+  private DistributedMap.EntryEvent event;
+
+  public FilterEvent() {
+  }
+
+  public FilterEvent(long listener, DistributedMap.EntryEvent event) {
+    this.listener = listener;
+    this.event = Assert.notNull(event, "event");
+  }
+
+  /**
+   * Returns the ID of the listener whose filter matched the entry.
+   *
+   * @return The listener ID.
+   */
+  public long listener() {
+    return listener;
+  }
+
+  /**
+   * Returns the entry event.
+   *
+   * @return The entry event.
+   */
+  public DistributedMap.EntryEvent event() {
+    return event;
+  }
+
+  @Override
+  public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+    buffer.writeLong(listener);
+    serializer.writeObject(event, buffer);
+  }
+
+  @Override
+  public void readObject(BufferInput<?> buffer, Serializer serializer) {
+    listener = buffer.readLong();
+    event = serializer.readObject(buffer);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[listener=%d, event=%s]", getClass().getSimpleName(), listener, event);
+  }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.util.Assert;
+
+import java.util.AbstractQueue;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * FIFO queue indexed by a key extracted from each element.
+ * <p>
+ * Elements are held in a doubly linked list in queue order. Each node is also linked into a chain of the nodes
+ * that share its key, and the head of each chain is found through a hash map. Because elements are only added at
+ * the head or the tail of the queue, each chain stays in queue order, so {@link #containsKey(Object)} and
+ * {@link #removeFirst(Object)} run in constant time regardless of the size of the queue. The index costs memory in
+ * proportion to the number of elements and distinct keys, which is estimated by {@link #indexBytes()}.
+ * The queue is not thread safe.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class IndexedQueue<E> extends AbstractQueue<E> {
+
+  /**
+   * Estimated size of a chain: a hash map node, its share of the table and the chain object.
+   */
+  private static final int CHAIN_BYTES = 72;
+
+  /**
+   * Estimated size of the chain links of a node.
+   */
+  private static final int LINK_BYTES = 16;
+
+  private final Function<E, Object> key;
+  private final Map<Object, Chain<E>> index = new HashMap<>();
+  private Node<E> head;
+  private Node<E> tail;
+  private int size;
+
+  /**
+   * @param key The function that extracts the key by which to index an element.
+   */
+  public IndexedQueue(Function<E, Object> key) {
+    this.key = Assert.notNull(key, "key");
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the estimated memory overhead of the index in bytes.
+   * <p>
+   * The estimate covers the hash map and the links that chain elements with equal keys. The queue's own links
+   * and the elements are not counted.
+   *
+   * @return The estimated memory overhead of the index.
+   */
+  public long indexBytes() {
+    return (long) index.size() * CHAIN_BYTES + (long) size * LINK_BYTES;
+  }
+
+  @Override
+  public boolean offer(E element) {
+    Node<E> node = new Node<>(element, key.apply(element));
+    if (tail == null) {
+      head = tail = node;
+    } else {
+      tail.next = node;
+      node.prev = tail;
+      tail = node;
+    }
+
+    Chain<E> chain = index.computeIfAbsent(node.key, k -> new Chain<>());
+    if (chain.tail == null) {
+      chain.head = chain.tail = node;
+    } else {
+      chain.tail.nextEqual = node;
+      node.prevEqual = chain.tail;
+      chain.tail = node;
+    }
+    size++;
+    return true;
+  }
+
+  /**
+   * Adds an element to the head of the queue.
+   *
+   * @param element The element to add.
+   */
+  public void addFirst(E element) {
+    Node<E> node = new Node<>(element, key.apply(element));
+    if (head == null) {
+      head = tail = node;
+    } else {
+      head.prev = node;
+      node.next = head;
+      head = node;
+    }
+
+    Chain<E> chain = index.computeIfAbsent(node.key, k -> new Chain<>());
+    if (chain.head == null) {
+      chain.head = chain.tail = node;
+    } else {
+      chain.head.prevEqual = node;
+      node.nextEqual = chain.head;
+      chain.head = node;
+    }
+    size++;
+  }
+
+  @Override
+  public E poll() {
+    if (head == null)
+      return null;
+    Node<E> node = head;
+    unlink(node);
+    return node.element;
+  }
+
+  @Override
+  public E peek() {
+    return head != null ? head.element : null;
+  }
+
+  /**
+   * Returns whether the queue contains an element with the given key.
+   *
+   * @param key The key to look up.
+   * @return Whether the queue contains an element with the given key.
+   */
+  public boolean containsKey(Object key) {
+    return index.containsKey(key);
+  }
+
+  /**
+   * Removes the element nearest the head of the queue with the given key.
+   *
+   * @param key The key of the element to remove.
+   * @return The removed element or {@code null} if the queue contains no element with the given key.
+   */
+  public E removeFirst(Object key) {
+    Chain<E> chain = index.get(key);
+    if (chain == null)
+      return null;
+    Node<E> node = chain.head;
+    unlink(node);
+    return node.element;
+  }
+
+  @Override
+  public void clear() {
+    head = tail = null;
+    index.clear();
+    size = 0;
+  }
+
+  /**
+   * Unlinks a node from the queue and from its chain.
+   */
+  private void unlink(Node<E> node) {
+    if (node.prev != null) {
+      node.prev.next = node.next;
+    } else {
+      head = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    } else {
+      tail = node.prev;
+    }
+
+    Chain<E> chain = index.get(node.key);
+    if (node.prevEqual != null) {
+      node.prevEqual.nextEqual = node.nextEqual;
+    } else {
+      chain.head = node.nextEqual;
+    }
+    if (node.nextEqual != null) {
+      node.nextEqual.prevEqual = node.prevEqual;
+    } else {
+      chain.tail = node.prevEqual;
+    }
+    if (chain.head == null) {
+      index.remove(node.key);
+    }
+
+    node.prev = node.next = node.prevEqual = node.nextEqual = null;
+    size--;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private Node<E> next = head;
+      private Node<E> last;
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public E next() {
+        if (next == null)
+          throw new NoSuchElementException();
+        last = next;
+        next = next.next;
+        return last.element;
+      }
+
+      @Override
+      public void remove() {
+        if (last == null)
+          throw new IllegalStateException();
+        unlink(last);
+        last = null;
+      }
+    };
+  }
+
+  /**
+   * Queue node.
+   */
+  private static final class Node<E> {
+    private final E element;
+    private final Object key;
+    private Node<E> prev;
+    private Node<E> next;
+    private Node<E> prevEqual;
+    private Node<E> nextEqual;
+
+    private Node(E element, Object key) {
+      this.element = element;
+      this.key = key;
+    }
+  }
+
+  /**
+   * Chain of the nodes that share a key, in queue order.
+   */
+  private static final class Chain<E> {
+    private Node<E> head;
+    private Node<E> tail;
+  }
+
+}
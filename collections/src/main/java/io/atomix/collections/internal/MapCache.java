@@ -0,0 +1,577 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.util.Assert;
+import io.atomix.collections.DistributedMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local map cache.
+ * <p>
+ * The cache holds a subset of the entries of a distributed map on the client. When the cache is unbounded,
+ * every entry that is written to the cache is retained. When the cache is bounded, entries are evicted
+ * according to the configured {@link Policy} once the number of cached entries exceeds the maximum size.
+ * <p>
+ * The cache does not store {@code null} values, so a {@code null} result from {@link #get(Object)} always
+ * indicates a cache miss. All methods are synchronized since the cache is updated both by event threads
+ * and by threads completing read-through queries.
+ * <p>
+ * Each cached value carries the {@link DistributedMap.Versioned#version() version} of the entry it was read
+ * from, or {@code 0} if the version is unknown. Changes with a version no greater than that of the cached
+ * entry are stale and are skipped.
+ * <p>
+ * Values read through to the cluster are loaded between {@link #begin()} and {@link #end()}. While reads are
+ * outstanding, the cache records the highest entry version of each changed key so that a read result can only
+ * be loaded if it's newer than every change to its key received while it was in flight. Results without an
+ * entry version are loaded only if their key wasn't changed since the read began. Changes to other keys don't
+ * prevent a result from being loaded.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class MapCache<K, V> {
+
+  /**
+   * Cache eviction policy.
+   */
+  public enum Policy {
+
+    /**
+     * Evicts the least recently used entry.
+     */
+    LRU,
+
+    /**
+     * Evicts entries via a W-TinyLFU policy.
+     * <p>
+     * New entries are admitted to a small LRU window. Entries evicted from the window are only admitted to
+     * the main segmented LRU region if they have been accessed more frequently than the entry they would
+     * replace, as estimated by a count-min sketch. This prevents one-off scans from flushing frequently
+     * read entries from the cache.
+     */
+    TINY_LFU
+
+  }
+
+  private final int maxSize;
+  private final FrequencySketch sketch;
+  private final LinkedHashMap<K, DistributedMap.Versioned<V>> window = new LinkedHashMap<>(16, .75f, true);
+  private final LinkedHashMap<K, DistributedMap.Versioned<V>> probation = new LinkedHashMap<>(16, .75f, true);
+  private final LinkedHashMap<K, DistributedMap.Versioned<V>> protect = new LinkedHashMap<>(16, .75f, true);
+  private final int windowMax;
+  private final int protectMax;
+  private long sequence;
+  private long cleared;
+  private int reads;
+  private final Map<Object, Change> changes = new HashMap<>();
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Creates an unbounded cache.
+   */
+  public MapCache() {
+    this(0, Policy.LRU);
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param maxSize The maximum number of entries to cache, or {@code 0} for an unbounded cache.
+   * @param policy The cache eviction policy.
+   */
+  public MapCache(int maxSize, Policy policy) {
+    this.maxSize = Assert.argNot(maxSize, maxSize < 0, "maxSize cannot be negative");
+    Assert.notNull(policy, "policy");
+    if (maxSize > 0 && policy == Policy.TINY_LFU) {
+      this.sketch = new FrequencySketch(maxSize);
+      this.windowMax = Math.max(1, maxSize / 100);
+      this.protectMax = (maxSize - windowMax) * 4 / 5;
+    } else {
+      this.sketch = null;
+      this.windowMax = maxSize;
+      this.protectMax = 0;
+    }
+  }
+
+  /**
+   * Returns a boolean indicating whether the cache is bounded.
+   *
+   * @return Indicates whether the cache is bounded.
+   */
+  public boolean isBounded() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Returns the cached value for the given key, recording a hit or a miss.
+   *
+   * @param key The key to look up.
+   * @return The cached value or {@code null} if the key is not cached.
+   */
+  public synchronized V get(Object key) {
+    DistributedMap.Versioned<V> value = getVersioned(key);
+    return value != null ? value.value() : null;
+  }
+
+  /**
+   * Returns the cached value and its version for the given key, recording a hit or a miss.
+   *
+   * @param key The key to look up.
+   * @return The cached value and its version or {@code null} if the key is not cached.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized DistributedMap.Versioned<V> getVersioned(Object key) {
+    if (sketch != null)
+      sketch.increment(key);
+
+    DistributedMap.Versioned<V> value = window.get(key);
+    if (value == null && sketch != null) {
+      value = protect.get(key);
+      if (value == null) {
+        value = probation.remove(key);
+        if (value != null) {
+          promote((K) key, value);
+        }
+      }
+    }
+
+    if (value != null) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return value;
+  }
+
+  /**
+   * Begins reading through to the cluster.
+   * <p>
+   * Changes received until the matching call to {@link #end()} are tracked per key so that a stale read result
+   * cannot overwrite a more recent change when it's {@link #load(Object, DistributedMap.Versioned, long) loaded}.
+   *
+   * @return The read sequence to pass to {@link #load(Object, DistributedMap.Versioned, long)}.
+   */
+  public synchronized long begin() {
+    reads++;
+    return sequence;
+  }
+
+  /**
+   * Ends a read started by {@link #begin()}, whether or not it succeeded.
+   */
+  public synchronized void end() {
+    if (--reads == 0) {
+      changes.clear();
+    }
+  }
+
+  /**
+   * Loads a value read from the cluster into the cache.
+   *
+   * @param key The key to load.
+   * @param value The value to load.
+   * @param sequence The read sequence returned by {@link #begin()} before the value was read.
+   */
+  public synchronized void load(K key, V value, long sequence) {
+    load(key, new DistributedMap.Versioned<>(value, 0), sequence);
+  }
+
+  /**
+   * Loads a value and its entry version read from the cluster into the cache.
+   * <p>
+   * The value is skipped if the cache was cleared or its key was changed at an equal or newer entry version
+   * since the read began, or if the cached entry for the key is at least as new.
+   *
+   * @param key The key to load.
+   * @param value The value and entry version to load, or {@code null} if the key is not present.
+   * @param sequence The read sequence returned by {@link #begin()} before the value was read.
+   */
+  public synchronized void load(K key, DistributedMap.Versioned<V> value, long sequence) {
+    if (value == null || value.value() == null || sequence < cleared) {
+      return;
+    }
+
+    Change change = changes.get(key);
+    if (change != null && (value.version() == 0 ? change.sequence > sequence : change.version >= value.version())) {
+      return;
+    }
+
+    if (!isStale(key, value.version())) {
+      put(key, value);
+    }
+  }
+
+  /**
+   * Records a change to a key while reads are outstanding.
+   */
+  private void change(Object key, long entryVersion) {
+    sequence++;
+    if (reads > 0) {
+      Change change = changes.computeIfAbsent(key, k -> new Change());
+      change.sequence = sequence;
+      change.version = Math.max(change.version, entryVersion > 0 ? entryVersion : Long.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Updates the cache with a changed value.
+   * <p>
+   * Unbounded caches mirror every change. Bounded caches only update keys that are already cached. Changes
+   * whose entry version is no greater than the version of the cached entry are skipped.
+   *
+   * @param key The changed key.
+   * @param value The changed value.
+   * @param entryVersion The version of the changed entry, or {@code 0} if unknown.
+   */
+  public synchronized void update(K key, V value, long entryVersion) {
+    change(key, entryVersion);
+    if (isStale(key, entryVersion)) {
+      return;
+    }
+    if (value == null) {
+      remove(key);
+    } else if (maxSize == 0 || contains(key)) {
+      put(key, new DistributedMap.Versioned<>(value, entryVersion));
+    }
+  }
+
+  /**
+   * Invalidates a key in the cache.
+   *
+   * @param key The key to invalidate.
+   */
+  public synchronized void invalidate(Object key) {
+    invalidate(key, 0);
+  }
+
+  /**
+   * Invalidates a key in the cache unless the cached entry is newer than the change.
+   *
+   * @param key The key to invalidate.
+   * @param entryVersion The version at which the key was changed, or {@code 0} if unknown.
+   */
+  public synchronized void invalidate(Object key, long entryVersion) {
+    change(key, entryVersion);
+    if (!isStale(key, entryVersion)) {
+      remove(key);
+    }
+  }
+
+  /**
+   * Returns whether a change with the given entry version is older than the cached entry for the key.
+   */
+  private boolean isStale(Object key, long entryVersion) {
+    if (entryVersion == 0)
+      return false;
+    DistributedMap.Versioned<V> cached = peek(key);
+    return cached != null && cached.version() >= entryVersion;
+  }
+
+  /**
+   * Invalidates all keys in the cache.
+   */
+  public synchronized void clear() {
+    cleared = ++sequence;
+    window.clear();
+    probation.clear();
+    protect.clear();
+  }
+
+  /**
+   * Returns the number of cached entries.
+   *
+   * @return The number of cached entries.
+   */
+  public synchronized int size() {
+    return window.size() + probation.size() + protect.size();
+  }
+
+  /**
+   * Returns the number of reads that were served by the cache.
+   *
+   * @return The number of cache hits.
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of reads that were not served by the cache.
+   *
+   * @return The number of cache misses.
+   */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of entries evicted from the cache.
+   *
+   * @return The number of cache evictions.
+   */
+  public synchronized long evictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns a copy of the set of cached keys.
+   *
+   * @return A copy of the set of cached keys.
+   */
+  public synchronized Set<K> keySet() {
+    Set<K> keys = new HashSet<>(window.keySet());
+    keys.addAll(probation.keySet());
+    keys.addAll(protect.keySet());
+    return keys;
+  }
+
+  /**
+   * Returns a copy of the cached values.
+   *
+   * @return A copy of the cached values.
+   */
+  public synchronized Collection<V> values() {
+    Collection<V> values = new ArrayList<>(size());
+    for (DistributedMap.Versioned<V> value : window.values()) {
+      values.add(value.value());
+    }
+    for (DistributedMap.Versioned<V> value : probation.values()) {
+      values.add(value.value());
+    }
+    for (DistributedMap.Versioned<V> value : protect.values()) {
+      values.add(value.value());
+    }
+    return values;
+  }
+
+  /**
+   * Returns a copy of the set of cached entries.
+   *
+   * @return A copy of the set of cached entries.
+   */
+  public synchronized Set<Map.Entry<K, V>> entrySet() {
+    Map<K, V> entries = new HashMap<>(size());
+    for (Map<K, DistributedMap.Versioned<V>> segment : Arrays.asList(window, probation, protect)) {
+      for (Map.Entry<K, DistributedMap.Versioned<V>> entry : segment.entrySet()) {
+        entries.put(entry.getKey(), entry.getValue().value());
+      }
+    }
+    return entries.entrySet();
+  }
+
+  /**
+   * Returns whether the given key is cached without affecting its recency.
+   */
+  private boolean contains(Object key) {
+    return window.containsKey(key) || probation.containsKey(key) || protect.containsKey(key);
+  }
+
+  /**
+   * Returns the cached entry for the given key without recording a hit or a miss.
+   */
+  private DistributedMap.Versioned<V> peek(Object key) {
+    DistributedMap.Versioned<V> value = window.get(key);
+    if (value == null)
+      value = probation.get(key);
+    if (value == null)
+      value = protect.get(key);
+    return value;
+  }
+
+  /**
+   * Removes the given key from all cache segments.
+   */
+  private void remove(Object key) {
+    if (window.remove(key) == null && probation.remove(key) == null) {
+      protect.remove(key);
+    }
+  }
+
+  /**
+   * Puts a value in the cache, evicting entries if necessary.
+   */
+  private void put(K key, DistributedMap.Versioned<V> value) {
+    if (sketch == null) {
+      window.put(key, value);
+      if (maxSize > 0 && window.size() > maxSize) {
+        evict(window);
+      }
+      return;
+    }
+
+    sketch.increment(key);
+    if (protect.containsKey(key)) {
+      protect.put(key, value);
+    } else if (probation.remove(key) != null) {
+      promote(key, value);
+    } else {
+      window.put(key, value);
+      if (window.size() > windowMax) {
+        admit();
+      }
+    }
+  }
+
+  /**
+   * Promotes a probationary entry to the protected segment.
+   */
+  private void promote(K key, DistributedMap.Versioned<V> value) {
+    protect.put(key, value);
+    if (protect.size() > protectMax) {
+      Iterator<Map.Entry<K, DistributedMap.Versioned<V>>> iterator = protect.entrySet().iterator();
+      Map.Entry<K, DistributedMap.Versioned<V>> demoted = iterator.next();
+      iterator.remove();
+      probation.put(demoted.getKey(), demoted.getValue());
+    }
+  }
+
+  /**
+   * Moves the eldest window entry into the main region if it is accessed more frequently than the
+   * main region's eviction victim.
+   */
+  private void admit() {
+    Iterator<Map.Entry<K, DistributedMap.Versioned<V>>> iterator = window.entrySet().iterator();
+    Map.Entry<K, DistributedMap.Versioned<V>> candidate = iterator.next();
+    iterator.remove();
+
+    if (probation.size() + protect.size() < maxSize - windowMax) {
+      probation.put(candidate.getKey(), candidate.getValue());
+      return;
+    }
+
+    LinkedHashMap<K, DistributedMap.Versioned<V>> victims = probation.isEmpty() ? protect : probation;
+    if (!victims.isEmpty() && sketch.frequency(candidate.getKey()) > sketch.frequency(victims.keySet().iterator().next())) {
+      evict(victims);
+      probation.put(candidate.getKey(), candidate.getValue());
+    } else {
+      evictions++;
+    }
+  }
+
+  /**
+   * Evicts the eldest entry from the given segment.
+   */
+  private void evict(LinkedHashMap<K, DistributedMap.Versioned<V>> segment) {
+    Iterator<K> iterator = segment.keySet().iterator();
+    iterator.next();
+    iterator.remove();
+    evictions++;
+  }
+
+  /**
+   * Change to a key received while reads were outstanding.
+   */
+  private static final class Change {
+    private long sequence;
+    private long version;
+  }
+
+  /**
+   * Count-min sketch of 4-bit access frequencies.
+   * <p>
+   * Each key is counted in four rows of the sketch, and its estimated frequency is the minimum of those
+   * counters. Counters are halved once the number of increments reaches ten times the cache size so that
+   * the sketch favors recent access patterns.
+   */
+  private static final class FrequencySketch {
+    private static final long[] SEEDS = new long[]{0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    private FrequencySketch(int maxSize) {
+      int size = Integer.highestOneBit(Math.max(maxSize, 16) - 1) << 1;
+      this.table = new long[size];
+      this.mask = size - 1;
+      this.sampleSize = 10 * Math.max(maxSize, 16);
+    }
+
+    /**
+     * Returns the estimated frequency of the given key.
+     */
+    private int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+        int offset = offset(hash, i);
+        frequency = Math.min(frequency, (int) ((table[index(hash, i)] >>> offset) & 0xfL));
+      }
+      return frequency;
+    }
+
+    /**
+     * Increments the frequency of the given key.
+     */
+    private void increment(Object key) {
+      int hash = spread(key.hashCode());
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        int index = index(hash, i);
+        int offset = offset(hash, i);
+        if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+          table[index] += 1L << offset;
+          added = true;
+        }
+      }
+
+      if (added && ++additions == sampleSize) {
+        for (int i = 0; i < table.length; i++) {
+          table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+      }
+    }
+
+    /**
+     * Returns the table index of the counter for the given row.
+     */
+    private int index(int hash, int row) {
+      long h = (hash + SEEDS[row]) * SEEDS[row];
+      h += h >>> 32;
+      return (int) h & mask;
+    }
+
+    /**
+     * Returns the bit offset of the counter for the given row within its table entry.
+     */
+    private int offset(int hash, int row) {
+      return ((row << 2) + ((hash >>> (row << 3)) & 3)) << 2;
+    }
+
+    /**
+     * Spreads the bits of a hash code.
+     */
+    private static int spread(int hash) {
+      hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+      hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+      return (hash >>> 16) ^ hash;
+    }
+  }
+
+}
@@ -25,8 +25,13 @@ import io.atomix.catalyst.util.Assert;
 import io.atomix.collections.DistributedMap;
 import io.atomix.copycat.Command;
 import io.atomix.copycat.Query;
+import io.atomix.resource.internal.OperationCodes;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -469,6 +474,412 @@ public class MapCommands {
     }
   }
 
+  /**
+   * Get with version query.
+   */
+  public static class GetWithVersion extends KeyQuery<DistributedMap.Versioned> {
+    public GetWithVersion() {
+    }
+
+    public GetWithVersion(Object key) {
+      super(key);
+    }
+
+    public GetWithVersion(Object key, ConsistencyLevel consistency) {
+      super(key, consistency);
+    }
+  }
+
+  /**
+   * Replace if version command.
+   */
+  public static class ReplaceIfVersion extends TtlCommand<Boolean> {
+    private long version;
+
+    public ReplaceIfVersion() {
+    }
+
+    public ReplaceIfVersion(Object key, long version, Object value) {
+      this(key, version, value, 0);
+    }
+
+    public ReplaceIfVersion(Object key, long version, Object value, long ttl) {
+      super(key, value, ttl);
+      this.version = version;
+    }
+
+    /**
+     * Returns the expected entry version.
+     *
+     * @return The expected entry version.
+     */
+    public long version() {
+      return version;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      buffer.writeLong(version);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      version = buffer.readLong();
+    }
+  }
+
+  /**
+   * Remove if version command.
+   */
+  public static class RemoveIfVersion extends KeyCommand<Boolean> {
+    private long version;
+
+    public RemoveIfVersion() {
+    }
+
+    public RemoveIfVersion(Object key, long version) {
+      super(key);
+      this.version = version;
+    }
+
+    /**
+     * Returns the expected entry version.
+     *
+     * @return The expected entry version.
+     */
+    public long version() {
+      return version;
+    }
+
+    @Override
+    public CompactionMode compaction() {
+      return CompactionMode.SEQUENTIAL;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      buffer.writeLong(version);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      version = buffer.readLong();
+    }
+  }
+
+  /**
+   * Compute command.
+   * <p>
+   * The command carries an {@link DistributedMap.EntryProcessor entry processor} that's applied to the entry
+   * by the state machine, so the read and write of the entry happen atomically in a single command.
+   */
+  public static class Compute extends KeyCommand<Object> {
+
+    /**
+     * Compute mode.
+     */
+    public enum Mode {
+      /**
+       * Always applies the processor.
+       */
+      ALWAYS,
+
+      /**
+       * Applies the processor only if the key is present.
+       */
+      IF_PRESENT,
+
+      /**
+       * Applies the processor only if the key is absent.
+       */
+      IF_ABSENT
+    }
+
+    private Mode mode;
+    private DistributedMap.EntryProcessor processor;
+
+    public Compute() {
+    }
+
+    public Compute(Object key, Mode mode, DistributedMap.EntryProcessor processor) {
+      super(key);
+      this.mode = Assert.notNull(mode, "mode");
+      this.processor = Assert.notNull(processor, "processor");
+    }
+
+    /**
+     * Returns the compute mode.
+     *
+     * @return The compute mode.
+     */
+    public Mode mode() {
+      return mode;
+    }
+
+    /**
+     * Returns the entry processor.
+     *
+     * @return The entry processor.
+     */
+    public DistributedMap.EntryProcessor processor() {
+      return processor;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      buffer.writeByte(mode.ordinal());
+      serializer.writeObject(processor, buffer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      mode = Mode.values()[buffer.readByte()];
+      processor = serializer.readObject(buffer);
+    }
+  }
+
+  /**
+   * Merge command.
+   */
+  public static class Merge extends KeyValueCommand<Object> {
+    private DistributedMap.MergeFunction function;
+
+    public Merge() {
+    }
+
+    public Merge(Object key, Object value, DistributedMap.MergeFunction function) {
+      super(key, Assert.notNull(value, "value"));
+      this.function = Assert.notNull(function, "function");
+    }
+
+    /**
+     * Returns the merge function.
+     *
+     * @return The merge function.
+     */
+    public DistributedMap.MergeFunction function() {
+      return function;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      serializer.writeObject(function, buffer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      function = serializer.readObject(buffer);
+    }
+  }
+
+  /**
+   * Abstract bulk entries command.
+   */
+  public static abstract class EntriesCommand<V> extends MapCommand<V> {
+    protected Map<Object, Object> entries;
+    protected long ttl;
+
+    public EntriesCommand() {
+    }
+
+    public EntriesCommand(Map<Object, Object> entries, long ttl) {
+      this.entries = Assert.notNull(entries, "entries");
+      for (Object key : entries.keySet()) {
+        Assert.notNull(key, "key");
+      }
+      this.ttl = ttl;
+    }
+
+    @Override
+    public CompactionMode compaction() {
+      return ttl > 0 ? CompactionMode.EXPIRING : CompactionMode.QUORUM;
+    }
+
+    /**
+     * Returns the entries.
+     */
+    public Map<Object, Object> entries() {
+      return entries;
+    }
+
+    /**
+     * Returns the time to live in milliseconds.
+     *
+     * @return The time to live in milliseconds.
+     */
+    public long ttl() {
+      return ttl;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeInt(entries.size());
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+        serializer.writeObject(entry.getKey(), buffer);
+        serializer.writeObject(entry.getValue(), buffer);
+      }
+      buffer.writeLong(ttl);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      int size = buffer.readInt();
+      entries = new LinkedHashMap<>(size);
+      for (int i = 0; i < size; i++) {
+        entries.put(serializer.readObject(buffer), serializer.readObject(buffer));
+      }
+      ttl = buffer.readLong();
+    }
+  }
+
+  /**
+   * Put all command.
+   */
+  public static class PutAll extends EntriesCommand<Void> {
+    public PutAll() {
+    }
+
+    public PutAll(Map<Object, Object> entries) {
+      this(entries, 0);
+    }
+
+    public PutAll(Map<Object, Object> entries, long ttl) {
+      super(entries, ttl);
+    }
+  }
+
+  /**
+   * Put all if absent command.
+   * <p>
+   * Returns the current entries for keys that were already present in the map.
+   */
+  public static class PutAllIfAbsent extends EntriesCommand<Map<Object, Object>> {
+    public PutAllIfAbsent() {
+    }
+
+    public PutAllIfAbsent(Map<Object, Object> entries) {
+      this(entries, 0);
+    }
+
+    public PutAllIfAbsent(Map<Object, Object> entries, long ttl) {
+      super(entries, ttl);
+    }
+  }
+
+  /**
+   * Get all query.
+   * <p>
+   * Returns the entries for keys that are present in the map.
+   */
+  public static class GetAll extends MapQuery<Map<Object, Object>> {
+    protected Collection<Object> keys;
+
+    public GetAll() {
+    }
+
+    public GetAll(Collection<Object> keys) {
+      this(keys, null);
+    }
+
+    public GetAll(Collection<Object> keys, ConsistencyLevel consistency) {
+      super(consistency);
+      this.keys = checkKeys(keys);
+    }
+
+    /**
+     * Returns the keys.
+     */
+    public Collection<Object> keys() {
+      return keys;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      writeKeys(keys, buffer, serializer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      keys = readKeys(buffer, serializer);
+    }
+  }
+
+  /**
+   * Remove all command.
+   * <p>
+   * Returns the entries that were removed from the map.
+   */
+  public static class RemoveAll extends MapCommand<Map<Object, Object>> {
+    protected Collection<Object> keys;
+
+    public RemoveAll() {
+    }
+
+    public RemoveAll(Collection<Object> keys) {
+      this.keys = checkKeys(keys);
+    }
+
+    /**
+     * Returns the keys.
+     */
+    public Collection<Object> keys() {
+      return keys;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      writeKeys(keys, buffer, serializer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      keys = readKeys(buffer, serializer);
+    }
+  }
+
+  /**
+   * Validates a collection of keys.
+   */
+  private static Collection<Object> checkKeys(Collection<Object> keys) {
+    Assert.notNull(keys, "keys");
+    for (Object key : keys) {
+      Assert.notNull(key, "key");
+    }
+    return keys;
+  }
+
+  /**
+   * Writes a collection of keys.
+   */
+  private static void writeKeys(Collection<Object> keys, BufferOutput<?> buffer, Serializer serializer) {
+    buffer.writeInt(keys.size());
+    for (Object key : keys) {
+      serializer.writeObject(key, buffer);
+    }
+  }
+
+  /**
+   * Reads a collection of keys.
+   */
+  private static Collection<Object> readKeys(BufferInput<?> buffer, Serializer serializer) {
+    int size = buffer.readInt();
+    List<Object> keys = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      keys.add(serializer.readObject(buffer));
+    }
+    return keys;
+  }
+
   /**
    * Is empty query.
    */
@@ -493,6 +904,18 @@ public class MapCommands {
     }
   }
 
+  /**
+   * Stats query.
+   */
+  public static class Stats extends MapQuery<DistributedMap.Stats> {
+    public Stats() {
+    }
+
+    public Stats(ConsistencyLevel consistency) {
+      super(consistency);
+    }
+  }
+
   /**
    * Values query.
    */
@@ -529,6 +952,319 @@ public class MapCommands {
     }
   }
 
+  /**
+   * Cursor query.
+   * <p>
+   * Returns a {@link Page} of up to {@code limit} keys, values or entries following the given resume token.
+   */
+  public static class Cursor extends MapQuery<Page> {
+
+    /**
+     * Cursor item type.
+     */
+    public enum Type {
+      KEYS,
+      VALUES,
+      ENTRIES
+    }
+
+    protected Type type;
+    protected Object position;
+    protected int limit;
+
+    public Cursor() {
+    }
+
+    public Cursor(Type type, Object position, int limit) {
+      this(type, position, limit, null);
+    }
+
+    public Cursor(Type type, Object position, int limit, ConsistencyLevel consistency) {
+      super(consistency);
+      this.type = Assert.notNull(type, "type");
+      this.position = position;
+      this.limit = Assert.argNot(limit, limit <= 0, "limit must be positive");
+    }
+
+    /**
+     * Returns the cursor item type.
+     */
+    public Type type() {
+      return type;
+    }
+
+    /**
+     * Returns the token from which to resume reading, or {@code null} to read the first page.
+     */
+    public Object position() {
+      return position;
+    }
+
+    /**
+     * Returns the maximum number of items to return.
+     */
+    public int limit() {
+      return limit;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      buffer.writeByte(type.ordinal());
+      serializer.writeObject(position, buffer);
+      buffer.writeInt(limit);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      type = Type.values()[buffer.readByte()];
+      position = serializer.readObject(buffer);
+      limit = buffer.readInt();
+    }
+  }
+
+  /**
+   * Key range query.
+   * <p>
+   * Returns up to {@code limit} entries whose keys fall between the given bounds in key order. A {@code null}
+   * bound indicates the range is unbounded on that side.
+   */
+  public static class Range extends MapQuery<List<Map.Entry<Object, Object>>> {
+    protected Object fromKey;
+    protected boolean fromInclusive;
+    protected Object toKey;
+    protected boolean toInclusive;
+    protected int limit;
+
+    public Range() {
+    }
+
+    public Range(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive, int limit) {
+      this(fromKey, fromInclusive, toKey, toInclusive, limit, null);
+    }
+
+    public Range(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive, int limit, ConsistencyLevel consistency) {
+      super(consistency);
+      this.fromKey = fromKey;
+      this.fromInclusive = fromInclusive;
+      this.toKey = toKey;
+      this.toInclusive = toInclusive;
+      this.limit = Assert.argNot(limit, limit <= 0, "limit must be positive");
+    }
+
+    /**
+     * Returns the low key or {@code null} if the range has no lower bound.
+     */
+    public Object fromKey() {
+      return fromKey;
+    }
+
+    /**
+     * Returns whether the low key is included in the range.
+     */
+    public boolean fromInclusive() {
+      return fromInclusive;
+    }
+
+    /**
+     * Returns the high key or {@code null} if the range has no upper bound.
+     */
+    public Object toKey() {
+      return toKey;
+    }
+
+    /**
+     * Returns whether the high key is included in the range.
+     */
+    public boolean toInclusive() {
+      return toInclusive;
+    }
+
+    /**
+     * Returns the maximum number of entries to return.
+     */
+    public int limit() {
+      return limit;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      serializer.writeObject(fromKey, buffer);
+      buffer.writeBoolean(fromInclusive);
+      serializer.writeObject(toKey, buffer);
+      buffer.writeBoolean(toInclusive);
+      buffer.writeInt(limit);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      fromKey = serializer.readObject(buffer);
+      fromInclusive = buffer.readBoolean();
+      toKey = serializer.readObject(buffer);
+      toInclusive = buffer.readBoolean();
+      limit = buffer.readInt();
+    }
+  }
+
+  /**
+   * Key prefix query.
+   * <p>
+   * Returns up to {@code limit} entries whose {@link String} keys start with the given prefix in key order.
+   */
+  public static class Prefix extends MapQuery<List<Map.Entry<Object, Object>>> {
+    protected String prefix;
+    protected int limit;
+
+    public Prefix() {
+    }
+
+    public Prefix(String prefix, int limit) {
+      this(prefix, limit, null);
+    }
+
+    public Prefix(String prefix, int limit, ConsistencyLevel consistency) {
+      super(consistency);
+      this.prefix = Assert.notNull(prefix, "prefix");
+      this.limit = Assert.argNot(limit, limit <= 0, "limit must be positive");
+    }
+
+    /**
+     * Returns the key prefix.
+     */
+    public String prefix() {
+      return prefix;
+    }
+
+    /**
+     * Returns the maximum number of entries to return.
+     */
+    public int limit() {
+      return limit;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      buffer.writeString(prefix);
+      buffer.writeInt(limit);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      prefix = buffer.readString();
+      limit = buffer.readInt();
+    }
+  }
+
+  /**
+   * Predicate query.
+   */
+  public static class Filter extends MapQuery<List<Map.Entry<Object, Object>>> {
+    protected DistributedMap.EntryPredicate predicate;
+    protected int limit;
+
+    public Filter() {
+    }
+
+    public Filter(DistributedMap.EntryPredicate predicate, int limit) {
+      this(predicate, limit, null);
+    }
+
+    public Filter(DistributedMap.EntryPredicate predicate, int limit, ConsistencyLevel consistency) {
+      super(consistency);
+      this.predicate = Assert.notNull(predicate, "predicate");
+      this.limit = Assert.argNot(limit, limit <= 0, "limit must be positive");
+    }
+
+    /**
+     * Returns the entry predicate.
+     */
+    public DistributedMap.EntryPredicate predicate() {
+      return predicate;
+    }
+
+    /**
+     * Returns the maximum number of entries to return.
+     */
+    public int limit() {
+      return limit;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      serializer.writeObject(predicate, buffer);
+      buffer.writeInt(limit);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      predicate = serializer.readObject(buffer);
+      limit = buffer.readInt();
+    }
+  }
+
+  /**
+   * First key query.
+   */
+  public static class FirstKey extends MapQuery<Object> {
+    public FirstKey() {
+    }
+
+    public FirstKey(ConsistencyLevel consistency) {
+      super(consistency);
+    }
+  }
+
+  /**
+   * Last key query.
+   */
+  public static class LastKey extends MapQuery<Object> {
+    public LastKey() {
+    }
+
+    public LastKey(ConsistencyLevel consistency) {
+      super(consistency);
+    }
+  }
+
+  /**
+   * Floor entry query.
+   */
+  public static class FloorEntry extends KeyQuery<Map.Entry<Object, Object>> {
+    public FloorEntry() {
+    }
+
+    public FloorEntry(Object key) {
+      super(key);
+    }
+
+    public FloorEntry(Object key, ConsistencyLevel consistency) {
+      super(key, consistency);
+    }
+  }
+
+  /**
+   * Ceiling entry query.
+   */
+  public static class CeilingEntry extends KeyQuery<Map.Entry<Object, Object>> {
+    public CeilingEntry() {
+    }
+
+    public CeilingEntry(Object key) {
+      super(key);
+    }
+
+    public CeilingEntry(Object key, ConsistencyLevel consistency) {
+      super(key, consistency);
+    }
+  }
+
   /**
    * Clear command.
    */
@@ -619,31 +1355,163 @@ public class MapCommands {
     }
   }
 
+  /**
+   * Filtered listener command.
+   */
+  public static abstract class FilterCommand extends MapCommand<Void> {
+    private long listener;
+
+    protected FilterCommand() {
+    }
+
+    protected FilterCommand(long listener) {
+      this.listener = listener;
+    }
+
+    /**
+     * Returns the client-assigned listener ID.
+     *
+     * @return The client-assigned listener ID.
+     */
+    public long listener() {
+      return listener;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeLong(listener);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      listener = buffer.readLong();
+    }
+  }
+
+  /**
+   * Map filtered listen command.
+   */
+  public static class FilterListen extends FilterCommand {
+    private int event;
+    private DistributedMap.EntryPredicate filter;
+
+    public FilterListen() {
+    }
+
+    public FilterListen(long listener, int event, DistributedMap.EntryPredicate filter) {
+      super(listener);
+      this.event = event;
+      this.filter = Assert.notNull(filter, "filter");
+    }
+
+    /**
+     * Returns the event type for which to listen.
+     *
+     * @return The event type for which to listen.
+     */
+    public int event() {
+      return event;
+    }
+
+    /**
+     * Returns the filter with which to match entries.
+     *
+     * @return The filter with which to match entries.
+     */
+    public DistributedMap.EntryPredicate filter() {
+      return filter;
+    }
+
+    @Override
+    public CompactionMode compaction() {
+      return CompactionMode.QUORUM;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      buffer.writeByte(event);
+      serializer.writeObject(filter, buffer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      event = buffer.readByte();
+      filter = serializer.readObject(buffer);
+    }
+  }
+
+  /**
+   * Map filtered unlisten command.
+   */
+  public static class FilterUnlisten extends FilterCommand {
+    public FilterUnlisten() {
+    }
+
+    public FilterUnlisten(long listener) {
+      super(listener);
+    }
+
+    @Override
+    public CompactionMode compaction() {
+      return CompactionMode.TOMBSTONE;
+    }
+  }
+
   /**
    * Map command type resolver.
    */
   public static class TypeResolver implements SerializableTypeResolver {
     @Override
     public void resolve(SerializerRegistry registry) {
-      registry.register(ContainsKey.class, -65);
-      registry.register(ContainsValue.class, -66);
-      registry.register(Put.class, -67);
-      registry.register(PutIfAbsent.class, -68);
-      registry.register(Get.class, -69);
-      registry.register(GetOrDefault.class, -70);
-      registry.register(Remove.class, -71);
-      registry.register(RemoveIfPresent.class, -72);
-      registry.register(Replace.class, -73);
-      registry.register(ReplaceIfPresent.class, -74);
-      registry.register(Values.class, -155);
-      registry.register(KeySet.class, -156);
-      registry.register(EntrySet.class, -157);
-      registry.register(IsEmpty.class, -75);
-      registry.register(Size.class, -76);
-      registry.register(Clear.class, -77);
+      OperationCodes.register(registry, ContainsKey.class, -65);
+      OperationCodes.register(registry, ContainsValue.class, -66);
+      OperationCodes.register(registry, Put.class, -67);
+      OperationCodes.register(registry, PutIfAbsent.class, -68);
+      OperationCodes.register(registry, Get.class, -69);
+      OperationCodes.register(registry, GetOrDefault.class, -70);
+      OperationCodes.register(registry, Remove.class, -71);
+      OperationCodes.register(registry, RemoveIfPresent.class, -72);
+      OperationCodes.register(registry, Replace.class, -73);
+      OperationCodes.register(registry, ReplaceIfPresent.class, -74);
+      OperationCodes.register(registry, Values.class, -155);
+      OperationCodes.register(registry, KeySet.class, -156);
+      OperationCodes.register(registry, EntrySet.class, -157);
+      OperationCodes.register(registry, IsEmpty.class, -75);
+      OperationCodes.register(registry, Size.class, -76);
+      OperationCodes.register(registry, Clear.class, -77);
+      OperationCodes.register(registry, Range.class, -146);
+      OperationCodes.register(registry, Prefix.class, -147);
+      OperationCodes.register(registry, FirstKey.class, -148);
+      OperationCodes.register(registry, LastKey.class, -149);
+      OperationCodes.register(registry, FloorEntry.class, -150);
+      OperationCodes.register(registry, CeilingEntry.class, -151);
+      OperationCodes.register(registry, PutAll.class, -107);
+      OperationCodes.register(registry, PutAllIfAbsent.class, -108);
+      OperationCodes.register(registry, GetAll.class, -109);
+      OperationCodes.register(registry, RemoveAll.class, -123);
+      OperationCodes.register(registry, GetWithVersion.class, -160);
+      OperationCodes.register(registry, ReplaceIfVersion.class, -161);
+      OperationCodes.register(registry, RemoveIfVersion.class, -162);
+      registry.register(DistributedMap.Versioned.class, -163);
+      OperationCodes.register(registry, Compute.class, -133);
+      OperationCodes.register(registry, Merge.class, -134);
+      OperationCodes.register(registry, Filter.class, -135);
+      registry.register(DistributedMap.IndexPredicate.class, -136);
+      registry.register(DistributedMap.KeyPrefix.class, -141);
+      registry.register(DistributedMap.KeyRange.class, -142);
+      OperationCodes.register(registry, FilterListen.class, -152);
+      OperationCodes.register(registry, FilterUnlisten.class, -153);
+      registry.register(FilterEvent.class, -154);
+      OperationCodes.register(registry, Cursor.class, -126);
+      registry.register(Page.class, -124);
+      registry.register(PositionIndex.Position.class, -125);
+      OperationCodes.register(registry, Stats.class, -128);
+      registry.register(DistributedMap.Stats.class, -129);
       registry.register(DistributedMap.EntryEvent.class, -78);
-      registry.register(KeyListen.class, -168);
-      registry.register(KeyUnlisten.class, -169);
+      OperationCodes.register(registry, KeyListen.class, -168);
+      OperationCodes.register(registry, KeyUnlisten.class, -169);
     }
   }
 
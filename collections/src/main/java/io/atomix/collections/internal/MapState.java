@@ -15,11 +15,18 @@
  */
 package io.atomix.collections.internal;
 
+import io.atomix.catalyst.buffer.HeapBuffer;
 import io.atomix.catalyst.concurrent.Scheduled;
+import io.atomix.catalyst.util.ConfigurationException;
+import io.atomix.collections.DistributedMap;
 import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.Snapshottable;
 import io.atomix.copycat.server.session.ServerSession;
+import io.atomix.copycat.server.storage.snapshot.SnapshotReader;
+import io.atomix.copycat.server.storage.snapshot.SnapshotWriter;
 import io.atomix.resource.ResourceStateMachine;
 
+import java.io.ByteArrayOutputStream;
 import java.time.Duration;
 import java.util.*;
 
@@ -28,30 +35,250 @@ import static io.atomix.collections.DistributedMap.Events;
 
 /**
  * Map state machine.
+ * <p>
+ * By default, the map retains the commits that make up its entries and listeners. When snapshots are
+ * {@link #isSnapshotEnabled() enabled}, keys and values are copied out of commits, commits are released
+ * once applied, and the map's entries and listeners are persisted in snapshots instead.
+ * <p>
+ * Maps whose keys are not ordered track the {@link PositionIndex position} at which each key was inserted so
+ * that cursors can read the map in pages. Ordered maps resume cursors from the last key read instead.
+ * <p>
+ * When the {@link DistributedMap.Config#withValueIndex() value index} is enabled, the state machine counts the
+ * keys mapped to each distinct non-null value so that {@link #containsValue(Commit)} doesn't scan the map.
+ * {@link DistributedMap.Config#withIndex(String, Class) Secondary indexes} are maintained alongside the value index
+ * whenever a key is stored or discarded, and are rebuilt from the map's entries when a snapshot is installed.
+ * <p>
+ * When values are stored {@link DistributedMap.ValueStorage#OFF_HEAP off-heap}, each value is serialized into an
+ * {@link OffHeapStore} as it's stored and deserialized each time it's read, so the map holds only keys and slots
+ * on the heap. Off-heap storage requires snapshots to be enabled, since retained commits would otherwise keep
+ * every value on the heap regardless.
+ * <p>
+ * Maps bounded by {@link DistributedMap.Config#withMaxEntries(int) entries} or {@link DistributedMap.Config#withMaxBytes(long)
+ * bytes} evict entries in the order held by an {@link EvictionIndex} whenever a write leaves the map over its bounds.
+ * The index is updated only by commands, so all replicas evict the same entries. Without snapshots, a replica
+ * recovering from a compacted log sees only the last write to each key, so only the LRU policy, which orders keys
+ * by their last write, is supported.
+ * <p>
+ * In addition to key listeners, sessions can register filtered listeners whose {@link DistributedMap.EntryPredicate
+ * filters} are evaluated against each event before it's published, so sessions receive only the events they match.
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
-public class MapState extends ResourceStateMachine {
-  private final Map<Object, Value> map = new HashMap<>();
-  private final Map<Object, Map<Integer, Map<Long, Commit<MapCommands.KeyListen>>>> listeners = new HashMap<>();
+public class MapState extends ResourceStateMachine implements Snapshottable {
+
+  /**
+   * Estimated size of a value index entry: a hash map node, its share of the table and a boxed count.
+   */
+  private static final int VALUE_INDEX_ENTRY_BYTES = 64;
+
+  private final Map<Object, Value> map;
+  private final OffHeapStore offHeap;
+  private final EvictionIndex eviction;
+  private final int maxEntries;
+  private final long maxBytes;
+  private long bytes;
+  private long evictions;
+  private final PositionIndex positions;
+  private final Map<Object, Integer> values;
+  private final Map<String, SecondaryIndex> indexes = new LinkedHashMap<>();
+  private final Map<Object, Map<Integer, Map<Long, Listener>>> listeners = new HashMap<>();
+  private final Map<Integer, Map<Long, Map<Long, FilterListener>>> filters = new HashMap<>();
 
   public MapState(Properties config) {
     super(config);
+    DistributedMap.Config mapConfig = new DistributedMap.Config(config);
+    this.map = mapConfig.getKeyOrder() == DistributedMap.Order.NATURAL ? new TreeMap<>() : new HashMap<>();
+    this.positions = map instanceof NavigableMap ? null : new PositionIndex();
+    if (mapConfig.getValueStorage() == DistributedMap.ValueStorage.OFF_HEAP) {
+      if (!isSnapshotEnabled())
+        throw new ConfigurationException("off-heap value storage requires snapshots to be enabled");
+      this.offHeap = new OffHeapStore(mapConfig.getOffHeapSlabSize());
+    } else {
+      this.offHeap = null;
+    }
+    this.maxEntries = mapConfig.getMaxEntries();
+    this.maxBytes = mapConfig.getMaxBytes();
+    if (maxEntries > 0 || maxBytes > 0) {
+      if (mapConfig.getEvictionPolicy() != DistributedMap.EvictionPolicy.LRU && !isSnapshotEnabled())
+        throw new ConfigurationException("%s eviction requires snapshots to be enabled", mapConfig.getEvictionPolicy());
+      this.eviction = new EvictionIndex(mapConfig.getEvictionPolicy());
+    } else {
+      this.eviction = null;
+    }
+    this.values = mapConfig.isValueIndexEnabled() ? new HashMap<>() : null;
+    for (String name : mapConfig.getIndexes()) {
+      indexes.put(name, new SecondaryIndex(name, extractor(mapConfig.getIndexExtractor(name)), mapConfig.isIndexSorted(name)));
+    }
+  }
+
+  /**
+   * Serializes a value to be stored off-heap.
+   */
+  private byte[] serialize(Object value) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    executor.serializer().writeObject(value, output);
+    return output.toByteArray();
+  }
+
+  /**
+   * Deserializes a value stored off-heap.
+   */
+  private Object deserialize(byte[] bytes) {
+    return executor.serializer().readObject(HeapBuffer.wrap(bytes));
+  }
+
+  /**
+   * Instantiates a secondary index extractor.
+   */
+  private static DistributedMap.ValueExtractor extractor(Class<? extends DistributedMap.ValueExtractor> type) {
+    try {
+      return type.newInstance();
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new ConfigurationException(e, "failed to instantiate index extractor: %s", type.getName());
+    }
+  }
+
+  @Override
+  public void snapshot(SnapshotWriter writer) {
+    if (!isSnapshotEnabled())
+      return;
+
+    writer.writeInt(map.size());
+    for (Map.Entry<Object, Value> entry : map.entrySet()) {
+      Value value = entry.getValue();
+      writer.writeObject(entry.getKey());
+      writer.writeObject(value.value());
+      writer.writeLong(value.index);
+      writer.writeLong(value.expire);
+      if (positions != null) {
+        writer.writeLong(value.position.index());
+        writer.writeInt(value.position.offset());
+      }
+    }
+
+    List<Object> keys = new ArrayList<>();
+    List<Integer> events = new ArrayList<>();
+    List<Long> sessions = new ArrayList<>();
+    for (Map.Entry<Object, Map<Integer, Map<Long, Listener>>> keyEntry : listeners.entrySet()) {
+      for (Map.Entry<Integer, Map<Long, Listener>> eventEntry : keyEntry.getValue().entrySet()) {
+        for (Long session : eventEntry.getValue().keySet()) {
+          keys.add(keyEntry.getKey());
+          events.add(eventEntry.getKey());
+          sessions.add(session);
+        }
+      }
+    }
+
+    writer.writeInt(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      writer.writeObject(keys.get(i));
+      writer.writeInt(events.get(i));
+      writer.writeLong(sessions.get(i));
+    }
+
+    List<FilterListener> filterListeners = new ArrayList<>();
+    for (Map<Long, Map<Long, FilterListener>> eventFilters : filters.values()) {
+      for (Map<Long, FilterListener> sessionFilters : eventFilters.values()) {
+        filterListeners.addAll(sessionFilters.values());
+      }
+    }
+
+    writer.writeInt(filterListeners.size());
+    for (FilterListener listener : filterListeners) {
+      writer.writeLong(listener.session.id());
+      writer.writeLong(listener.id);
+      writer.writeInt(listener.event);
+      writer.writeObject(listener.filter);
+    }
+
+    if (eviction != null) {
+      writer.writeLong(evictions);
+      writer.writeInt(eviction.size());
+      eviction.forEach((key, count) -> {
+        writer.writeObject(key);
+        writer.writeInt(count);
+      });
+    }
+  }
+
+  @Override
+  public void install(SnapshotReader reader) {
+    if (!isSnapshotEnabled())
+      return;
+
+    delete();
+    listeners.clear();
+    filters.clear();
+
+    long now = executor.context().clock().millis();
+    int size = reader.readInt();
+    for (int i = 0; i < size; i++) {
+      Object key = reader.readObject();
+      Object value = reader.readObject();
+      long index = reader.readLong();
+      long expire = reader.readLong();
+      Scheduled timer = expire > 0 ? schedule(key, Math.max(expire - now, 0)) : null;
+      Value entry = new Value(value, index, expire, null, timer);
+      if (positions != null) {
+        entry.position = new PositionIndex.Position(reader.readLong(), reader.readInt());
+        positions.put(entry.position, key);
+      }
+      map.put(key, entry);
+      index(key, value);
+      if (maxBytes > 0) {
+        entry.size = sizeOf(key, entry);
+        bytes += entry.size;
+      }
+    }
+
+    int listenerCount = reader.readInt();
+    for (int i = 0; i < listenerCount; i++) {
+      Object key = reader.readObject();
+      int event = reader.readInt();
+      ServerSession session = executor.context().sessions().session(reader.readLong());
+      if (session != null && session.state().active()) {
+        listeners.computeIfAbsent(key, k -> new HashMap<>())
+          .computeIfAbsent(event, e -> new HashMap<>())
+          .put(session.id(), new Listener(session, null));
+      }
+    }
+
+    int filterCount = reader.readInt();
+    for (int i = 0; i < filterCount; i++) {
+      ServerSession session = executor.context().sessions().session(reader.readLong());
+      long id = reader.readLong();
+      int event = reader.readInt();
+      DistributedMap.EntryPredicate filter = reader.readObject();
+      if (session != null && session.state().active()) {
+        filters.computeIfAbsent(event, e -> new HashMap<>())
+          .computeIfAbsent(session.id(), s -> new HashMap<>())
+          .put(id, new FilterListener(session, id, event, filter, null));
+      }
+    }
+
+    if (eviction != null) {
+      evictions = reader.readLong();
+      int evictionCount = reader.readInt();
+      for (int i = 0; i < evictionCount; i++) {
+        Object key = reader.readObject();
+        eviction.add(key, reader.readInt());
+      }
+    }
   }
 
   @Override
   public void close(ServerSession session) {
     // Remove the session from event listeners.
-    Iterator<Map.Entry<Object, Map<Integer, Map<Long, Commit<MapCommands.KeyListen>>>>> keyIterator = listeners.entrySet().iterator();
+    Iterator<Map.Entry<Object, Map<Integer, Map<Long, Listener>>>> keyIterator = listeners.entrySet().iterator();
     while (keyIterator.hasNext()) {
-      Map.Entry<Object, Map<Integer, Map<Long, Commit<MapCommands.KeyListen>>>> keyEntry = keyIterator.next();
-      Iterator<Map.Entry<Integer, Map<Long, Commit<MapCommands.KeyListen>>>> eventIterator = keyEntry.getValue().entrySet().iterator();
+      Map.Entry<Object, Map<Integer, Map<Long, Listener>>> keyEntry = keyIterator.next();
+      Iterator<Map.Entry<Integer, Map<Long, Listener>>> eventIterator = keyEntry.getValue().entrySet().iterator();
       while (eventIterator.hasNext()) {
-        Map.Entry<Integer, Map<Long, Commit<MapCommands.KeyListen>>> eventEntry = eventIterator.next();
-        Map<Long, Commit<MapCommands.KeyListen>> sessions = eventEntry.getValue();
-        Commit<MapCommands.KeyListen> commit = sessions.remove(session.id());
-        if (commit != null) {
-          commit.release();
+        Map.Entry<Integer, Map<Long, Listener>> eventEntry = eventIterator.next();
+        Map<Long, Listener> sessions = eventEntry.getValue();
+        Listener listener = sessions.remove(session.id());
+        if (listener != null) {
+          listener.close();
           if (sessions.isEmpty()) {
             eventIterator.remove();
           }
@@ -61,6 +288,29 @@ public class MapState extends ResourceStateMachine {
         keyIterator.remove();
       }
     }
+
+    // Remove the session from filtered listeners.
+    Iterator<Map<Long, Map<Long, FilterListener>>> filterIterator = filters.values().iterator();
+    while (filterIterator.hasNext()) {
+      Map<Long, Map<Long, FilterListener>> eventFilters = filterIterator.next();
+      Map<Long, FilterListener> sessionFilters = eventFilters.remove(session.id());
+      if (sessionFilters != null) {
+        sessionFilters.values().forEach(FilterListener::close);
+        if (eventFilters.isEmpty()) {
+          filterIterator.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Notifies clients of a change to an entry.
+   * <p>
+   * The event is stamped with the index of the operation that caused the change, which is the version of the
+   * entry for add and update events.
+   */
+  private void notify(Events type, Object key, Object value) {
+    notify(new EntryEvent<>(type, new MapEntry<>(key, value), executor.context().index()));
   }
 
   /**
@@ -69,12 +319,23 @@ public class MapState extends ResourceStateMachine {
    * @param event The entry event.
    */
   protected void notify(EntryEvent event) {
-    Map<Integer, Map<Long, Commit<MapCommands.KeyListen>>> keyListeners = listeners.get(event.entry().getKey());
+    Map<Integer, Map<Long, Listener>> keyListeners = listeners.get(event.entry().getKey());
     if (keyListeners != null) {
-      Map<Long, Commit<MapCommands.KeyListen>> eventListeners = keyListeners.get(event.type().id());
+      Map<Long, Listener> eventListeners = keyListeners.get(event.type().id());
       if (eventListeners != null) {
-        for (Commit<MapCommands.KeyListen> listener : eventListeners.values()) {
-          listener.session().publish("key", event);
+        for (Listener listener : eventListeners.values()) {
+          publish(listener.session, "key", event);
+        }
+      }
+    }
+
+    Map<Long, Map<Long, FilterListener>> eventFilters = filters.get(event.type().id());
+    if (eventFilters != null) {
+      for (Map<Long, FilterListener> sessionFilters : eventFilters.values()) {
+        for (FilterListener listener : sessionFilters.values()) {
+          if (listener.matches(event)) {
+            publish(listener.session, "filter", new FilterEvent(listener.id, event));
+          }
         }
       }
     }
@@ -85,10 +346,10 @@ public class MapState extends ResourceStateMachine {
    * Registers a key change listener.
    */
   public void listen(Commit<MapCommands.KeyListen> commit) {
-    Map<Integer, Map<Long, Commit<MapCommands.KeyListen>>> listeners = this.listeners.computeIfAbsent(commit.command().key(), k -> new HashMap<>());
-    Map<Long, Commit<MapCommands.KeyListen>> sessions = listeners.computeIfAbsent(commit.command().event(), e -> new HashMap<>());
+    Map<Integer, Map<Long, Listener>> listeners = this.listeners.computeIfAbsent(commit.command().key(), k -> new HashMap<>());
+    Map<Long, Listener> sessions = listeners.computeIfAbsent(commit.command().event(), e -> new HashMap<>());
     if (!sessions.containsKey(commit.session().id())) {
-      sessions.put(commit.session().id(), commit);
+      sessions.put(commit.session().id(), new Listener(commit.session(), retain(commit)));
     } else {
       commit.release();
     }
@@ -99,13 +360,13 @@ public class MapState extends ResourceStateMachine {
    */
   public void unlisten(Commit<MapCommands.KeyUnlisten> commit) {
     try {
-      Map<Integer, Map<Long, Commit<MapCommands.KeyListen>>> listeners = this.listeners.get(commit.command().key());
+      Map<Integer, Map<Long, Listener>> listeners = this.listeners.get(commit.command().key());
       if (listeners != null) {
-        Map<Long, Commit<MapCommands.KeyListen>> sessions = listeners.get(commit.command().event());
+        Map<Long, Listener> sessions = listeners.get(commit.command().event());
         if (sessions != null) {
-          Commit<MapCommands.KeyListen> listen = sessions.remove(commit.session().id());
-          if (listen != null) {
-            listen.release();
+          Listener listener = sessions.remove(commit.session().id());
+          if (listener != null) {
+            listener.close();
             if (sessions.isEmpty()) {
               listeners.remove(commit.command().event());
               if (listeners.isEmpty()) {
@@ -120,6 +381,211 @@ public class MapState extends ResourceStateMachine {
     }
   }
 
+  /**
+   * Registers a filtered listener.
+   */
+  public void listenFiltered(Commit<MapCommands.FilterListen> commit) {
+    final long id = commit.operation().listener();
+    final int event = commit.operation().event();
+    final DistributedMap.EntryPredicate filter = commit.operation().filter();
+    Map<Long, FilterListener> sessionFilters = filters.computeIfAbsent(event, e -> new HashMap<>())
+      .computeIfAbsent(commit.session().id(), s -> new HashMap<>());
+    if (!sessionFilters.containsKey(id)) {
+      sessionFilters.put(id, new FilterListener(commit.session(), id, event, filter, retain(commit)));
+    } else {
+      commit.release();
+    }
+  }
+
+  /**
+   * Unregisters a filtered listener.
+   */
+  public void unlistenFiltered(Commit<MapCommands.FilterUnlisten> commit) {
+    try {
+      Iterator<Map<Long, Map<Long, FilterListener>>> iterator = filters.values().iterator();
+      while (iterator.hasNext()) {
+        Map<Long, Map<Long, FilterListener>> eventFilters = iterator.next();
+        Map<Long, FilterListener> sessionFilters = eventFilters.get(commit.session().id());
+        if (sessionFilters != null) {
+          FilterListener listener = sessionFilters.remove(commit.operation().listener());
+          if (listener != null) {
+            listener.close();
+            if (sessionFilters.isEmpty()) {
+              eventFilters.remove(commit.session().id());
+              if (eventFilters.isEmpty()) {
+                iterator.remove();
+              }
+            }
+            break;
+          }
+        }
+      }
+    } finally {
+      commit.release();
+    }
+  }
+
+  /**
+   * Creates a map value from the given commit.
+   * <p>
+   * The commit is {@link #retain(Commit) retained} by the value, so callers must not access the commit
+   * once the value has been created.
+   */
+  private Value value(Commit<? extends MapCommands.TtlCommand> commit) {
+    final Object key = commit.operation().key();
+    final Object value = commit.operation().value();
+    final long ttl = commit.operation().ttl();
+    final long index = commit.index();
+    return value(key, value, index, ttl, retain(commit));
+  }
+
+  /**
+   * Creates a map value backed by the given commit.
+   */
+  private Value value(Object key, Object value, long index, long ttl, Commit<?> commit) {
+    final long expire = ttl > 0 ? executor.context().clock().millis() + ttl : 0;
+    final Scheduled timer = ttl > 0 ? schedule(key, ttl) : null;
+    return new Value(value, index, expire, commit, timer);
+  }
+
+  /**
+   * Acquires a reference to a bulk commit for a single map value.
+   * <p>
+   * Each value created by a bulk command holds its own reference to the command's commit, so the commit is
+   * released only once all of its values have been overwritten, removed or expired. When snapshots are
+   * {@link #isSnapshotEnabled() enabled}, no reference is acquired and {@code null} is returned.
+   */
+  private Commit<?> acquire(Commit<?> commit) {
+    return isSnapshotEnabled() ? null : commit.acquire();
+  }
+
+  /**
+   * Schedules the expiration of a key.
+   */
+  private Scheduled schedule(Object key, long delay) {
+    return executor.schedule(Duration.ofMillis(delay), () -> {
+      Value removed = discard(key);
+      if (removed != null) {
+        notify(Events.REMOVE, key, removed.value());
+        removed.close();
+      }
+    });
+  }
+
+  /**
+   * Stores a value in the map, keeping the position of any previous value for the key.
+   *
+   * @return The previous value for the key or {@code null} if the key was not present.
+   */
+  private Value store(Object key, Value value) {
+    final Value previous = map.put(key, value);
+    if (positions != null) {
+      value.position = previous != null ? previous.position : positions.add(key, value.index);
+    }
+    if (isIndexed()) {
+      if (previous != null) {
+        unindex(key, previous.value());
+      }
+      index(key, value.value());
+    }
+    if (eviction != null) {
+      if (maxBytes > 0) {
+        value.size = sizeOf(key, value);
+        bytes += value.size - (previous != null ? previous.size : 0);
+      }
+      eviction.write(key);
+      evict(key);
+    }
+    return previous;
+  }
+
+  /**
+   * Returns the serialized size of an entry.
+   */
+  private int sizeOf(Object key, Value value) {
+    return serialize(key).length + (value.slot != null ? value.slot.length() : serialize(value.value).length);
+  }
+
+  /**
+   * Evicts entries until the map is within its bounds.
+   *
+   * @param key The key that was just written, which is never evicted.
+   */
+  private void evict(Object key) {
+    while ((maxEntries > 0 && map.size() > maxEntries) || (maxBytes > 0 && bytes > maxBytes)) {
+      Object victim = eviction.victim(key);
+      if (victim == null)
+        break;
+
+      Value value = discard(victim);
+      value.close();
+      evictions++;
+      notify(new EntryEvent<>(Events.REMOVE, new MapEntry<>(victim, value.value()), executor.context().index(), true));
+    }
+  }
+
+  /**
+   * Removes a value and its position from the map.
+   *
+   * @return The removed value or {@code null} if the key was not present.
+   */
+  private Value discard(Object key) {
+    final Value value = map.remove(key);
+    if (value != null) {
+      if (positions != null) {
+        positions.remove(value.position);
+      }
+      if (isIndexed()) {
+        unindex(key, value.value());
+      }
+      if (eviction != null) {
+        eviction.remove(key);
+        bytes -= value.size;
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Returns whether the value index or any secondary indexes are enabled.
+   * <p>
+   * Callers check this before reading values to index so that off-heap values are only deserialized when needed.
+   */
+  private boolean isIndexed() {
+    return values != null || !indexes.isEmpty();
+  }
+
+  /**
+   * Adds a key's value to the value index if enabled and to the secondary indexes.
+   */
+  private void index(Object key, Object value) {
+    if (values != null && value != null) {
+      values.merge(value, 1, Integer::sum);
+    }
+    for (SecondaryIndex index : indexes.values()) {
+      index.add(key, value);
+    }
+  }
+
+  /**
+   * Removes a key's value from the value index if enabled and from the secondary indexes.
+   */
+  private void unindex(Object key, Object value) {
+    if (values != null && value != null) {
+      values.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null);
+    }
+    for (SecondaryIndex index : indexes.values()) {
+      index.remove(key, value);
+    }
+  }
+
+  /**
+   * Returns a boolean indicating whether the given values are equal.
+   */
+  private static boolean equals(Object value1, Object value2) {
+    return (value1 == null && value2 == null) || (value1 != null && value1.equals(value2));
+  }
+
   /**
    * Handles a contains key commit.
    */
@@ -136,8 +602,11 @@ public class MapState extends ResourceStateMachine {
    */
   public boolean containsValue(Commit<MapCommands.ContainsValue> commit) {
     try {
+      if (values != null) {
+        return values.containsKey(commit.operation().value());
+      }
       for (Value value : map.values()) {
-        if (value.commit.operation().value().equals(commit.operation().value())) {
+        if (commit.operation().value().equals(value.value())) {
           return true;
         }
       }
@@ -153,7 +622,19 @@ public class MapState extends ResourceStateMachine {
   public Object get(Commit<MapCommands.Get> commit) {
     try {
       Value value = map.get(commit.operation().key());
-      return value != null ? value.commit.operation().value() : null;
+      return value != null ? value.value() : null;
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a get with version commit.
+   */
+  public DistributedMap.Versioned getWithVersion(Commit<MapCommands.GetWithVersion> commit) {
+    try {
+      Value value = map.get(commit.operation().key());
+      return value != null ? new DistributedMap.Versioned<>(value.value(), value.index) : null;
     } finally {
       commit.close();
     }
@@ -165,7 +646,7 @@ public class MapState extends ResourceStateMachine {
   public Object getOrDefault(Commit<MapCommands.GetOrDefault> commit) {
     try {
       Value value = map.get(commit.operation().key());
-      return value != null ? value.commit.operation().value() : commit.operation().defaultValue();
+      return value != null ? value.value() : commit.operation().defaultValue();
     } finally {
       commit.close();
     }
@@ -175,66 +656,33 @@ public class MapState extends ResourceStateMachine {
    * Handles a put commit.
    */
   public Object put(Commit<MapCommands.Put> commit) {
-    try {
-      final Object key = commit.command().key();
-      final long ttl = commit.command().ttl();
-
-      final Scheduled timer = ttl > 0 ? executor.schedule(Duration.ofMillis(ttl), () -> {
-        Value removed = map.remove(key);
-        if (removed != null) {
-          notify(new EntryEvent<>(Events.REMOVE, new MapEntry<>(key, removed.commit.command().value())));
-          removed.commit.close();
-        }
-      }) : null;
-
-      Value value = map.put(key, new Value(commit, timer));
-      if (value != null) {
-        try {
-          if (value.timer != null)
-            value.timer.cancel();
-          notify(new EntryEvent<>(Events.UPDATE, new MapEntry<>(key, commit.operation().value())));
-          return value.commit.operation().value();
-        } finally {
-          value.commit.close();
-        }
-      } else {
-        notify(new EntryEvent<>(Events.ADD, new MapEntry<>(key, commit.operation().value())));
-      }
-      return null;
-    } catch (Exception e) {
-      commit.close();
-      throw e;
+    final Object key = commit.command().key();
+    final Value value = value(commit);
+    final Value previous = store(key, value);
+    if (previous != null) {
+      previous.close();
+      notify(Events.UPDATE, key, value.value());
+      return previous.value();
+    } else {
+      notify(Events.ADD, key, value.value());
     }
+    return null;
   }
 
   /**
    * Handles a put if absent commit.
    */
   public Object putIfAbsent(Commit<MapCommands.PutIfAbsent> commit) {
-    try {
-      final Object key = commit.command().key();
-      final long ttl = commit.command().ttl();
-
-      final Value value = map.get(key);
-      if (value == null) {
-        final Scheduled timer = ttl > 0 ? executor.schedule(Duration.ofMillis(ttl), () -> {
-          Value removed = map.remove(key);
-          if (removed != null) {
-            notify(new EntryEvent<>(Events.REMOVE, new MapEntry<>(key, removed.commit.command().value())));
-            removed.commit.close();
-          }
-        }) : null;
-
-        map.put(key, new Value(commit, timer));
-        notify(new EntryEvent<>(Events.ADD, new MapEntry<>(key, commit.command().value())));
-        return null;
-      } else {
-        commit.close();
-        return value.commit.command().value();
-      }
-    } catch (Exception e) {
+    final Object key = commit.command().key();
+    final Value previous = map.get(key);
+    if (previous == null) {
+      final Value value = value(commit);
+      store(key, value);
+      notify(Events.ADD, key, value.value());
+      return null;
+    } else {
       commit.close();
-      throw e;
+      return previous.value();
     }
   }
 
@@ -243,16 +691,12 @@ public class MapState extends ResourceStateMachine {
    */
   public Object remove(Commit<MapCommands.Remove> commit) {
     try {
-      Value value = map.remove(commit.operation().key());
+      final Object key = commit.operation().key();
+      final Value value = discard(key);
       if (value != null) {
-        try {
-          if (value.timer != null)
-            value.timer.cancel();
-          notify(new EntryEvent<>(Events.REMOVE, new MapEntry<>(value.commit.operation().key(), value.commit.operation().value())));
-          return value.commit.operation().value();
-        } finally {
-          value.commit.close();
-        }
+        value.close();
+        notify(Events.REMOVE, key, value.value());
+        return value.value();
       }
       return null;
     } finally {
@@ -265,20 +709,35 @@ public class MapState extends ResourceStateMachine {
    */
   public boolean removeIfPresent(Commit<MapCommands.RemoveIfPresent> commit) {
     try {
-      Value value = map.get(commit.operation().key());
-      if (value == null || ((value.commit.operation().value() == null && commit.operation().value() != null)
-        || (value.commit.operation().value() != null && !value.commit.operation().value().equals(commit.operation().value())))) {
+      final Object key = commit.operation().key();
+      final Value value = map.get(key);
+      if (value == null || !equals(value.value(), commit.operation().value())) {
         return false;
       } else {
-        try {
-          map.remove(commit.operation().key());
-          if (value.timer != null)
-            value.timer.cancel();
-          notify(new EntryEvent<>(Events.REMOVE, new MapEntry<>(value.commit.operation().key(), value.commit.operation().value())));
-          return true;
-        } finally {
-          value.commit.close();
-        }
+        discard(key);
+        value.close();
+        notify(Events.REMOVE, key, value.value());
+        return true;
+      }
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a remove if version commit.
+   */
+  public boolean removeIfVersion(Commit<MapCommands.RemoveIfVersion> commit) {
+    try {
+      final Object key = commit.operation().key();
+      final Value value = map.get(key);
+      if (value == null || value.index != commit.operation().version()) {
+        return false;
+      } else {
+        discard(key);
+        value.close();
+        notify(Events.REMOVE, key, value.value());
+        return true;
       }
     } finally {
       commit.close();
@@ -289,29 +748,14 @@ public class MapState extends ResourceStateMachine {
    * Handles a replace commit.
    */
   public Object replace(Commit<MapCommands.Replace> commit) {
-    Value value = map.get(commit.operation().key());
-    if (value != null) {
-      try {
-        final Object key = commit.command().key();
-        final long ttl = commit.command().ttl();
-
-        if (value.timer != null)
-          value.timer.cancel();
-
-        final Scheduled timer = ttl > 0 ? executor.schedule(Duration.ofMillis(ttl), () -> {
-          Value removed = map.remove(key);
-          if (removed != null) {
-            notify(new EntryEvent<>(Events.REMOVE, new MapEntry<>(key, removed.commit.command().value())));
-            removed.commit.close();
-          }
-        }) : null;
-
-        map.put(key, new Value(commit, timer));
-        notify(new EntryEvent<>(Events.UPDATE, new MapEntry<>(key, commit.command().value())));
-        return value.commit.operation().value();
-      } finally {
-        value.commit.close();
-      }
+    final Object key = commit.command().key();
+    final Value previous = map.get(key);
+    if (previous != null) {
+      previous.close();
+      final Value value = value(commit);
+      store(key, value);
+      notify(Events.UPDATE, key, value.value());
+      return previous.value();
     } else {
       commit.close();
     }
@@ -323,35 +767,239 @@ public class MapState extends ResourceStateMachine {
    */
   public boolean replaceIfPresent(Commit<MapCommands.ReplaceIfPresent> commit) {
     final Object key = commit.command().key();
+    final Value previous = map.get(key);
+    if (previous == null) {
+      commit.close();
+      return false;
+    }
+
+    if (equals(previous.value(), commit.operation().replace())) {
+      previous.close();
+      final Value value = value(commit);
+      store(key, value);
+      notify(Events.UPDATE, key, value.value());
+      return true;
+    } else {
+      commit.close();
+    }
+    return false;
+  }
 
-    Value value = map.get(key);
-    if (value == null) {
+  /**
+   * Handles a replace if version commit.
+   */
+  public boolean replaceIfVersion(Commit<MapCommands.ReplaceIfVersion> commit) {
+    final Object key = commit.command().key();
+    final Value previous = map.get(key);
+    if (previous == null || previous.index != commit.operation().version()) {
       commit.close();
       return false;
     }
 
-    if ((value.commit.operation().value() == null && commit.operation().replace() == null)
-      || (value.commit.operation().value() != null && value.commit.operation().value().equals(commit.operation().replace()))) {
-      if (value.timer != null)
-        value.timer.cancel();
+    previous.close();
+    final Value value = value(commit);
+    store(key, value);
+    notify(Events.UPDATE, key, value.value());
+    return true;
+  }
+
+  /**
+   * Handles a compute commit.
+   * <p>
+   * The entry processor is applied to the current value of the key, or {@code null} if the key is absent.
+   * A {@code null} result removes the key.
+   */
+  @SuppressWarnings("unchecked")
+  public Object compute(Commit<MapCommands.Compute> commit) {
+    requireSnapshots(commit);
+    final Object key = commit.operation().key();
+    final Value previous = map.get(key);
+    final MapCommands.Compute.Mode mode = commit.operation().mode();
+    if ((mode == MapCommands.Compute.Mode.IF_PRESENT && previous == null)
+      || (mode == MapCommands.Compute.Mode.IF_ABSENT && previous != null)) {
+      commit.close();
+      return previous != null ? previous.value() : null;
+    }
+
+    final Object result;
+    try {
+      result = commit.operation().processor().process(key, previous != null ? previous.value() : null);
+    } catch (RuntimeException e) {
+      commit.close();
+      throw e;
+    }
+    return update(key, previous, result, commit);
+  }
+
+  /**
+   * Handles a merge commit.
+   * <p>
+   * If the key is absent, the key is set to the command value. Otherwise, the merge function is applied to the
+   * current value and the command value. A {@code null} result removes the key.
+   */
+  @SuppressWarnings("unchecked")
+  public Object merge(Commit<MapCommands.Merge> commit) {
+    requireSnapshots(commit);
+    final Object key = commit.operation().key();
+    final Value previous = map.get(key);
+
+    final Object current = previous != null ? previous.value() : null;
+    final Object result;
+    try {
+      result = current == null
+        ? commit.operation().value()
+        : commit.operation().function().merge(current, commit.operation().value());
+    } catch (RuntimeException e) {
+      commit.close();
+      throw e;
+    }
+    return update(key, previous, result, commit);
+  }
+
+  /**
+   * Closes and rejects an entry processor commit if snapshots are not {@link #isSnapshotEnabled() enabled}.
+   * <p>
+   * A processor's commit can only be replayed on the value it was applied to, so without snapshots every value
+   * computed for a key would have to retain the commits of all the values before it.
+   */
+  private void requireSnapshots(Commit<?> commit) {
+    if (!isSnapshotEnabled()) {
+      commit.close();
+      throw new ConfigurationException("entry processors require snapshots to be enabled");
+    }
+  }
 
-      final long ttl = commit.command().ttl();
-      final Scheduled timer = ttl > 0 ? executor.schedule(Duration.ofMillis(ttl), () -> {
-        Value removed = map.remove(key);
-        if (removed != null) {
-          notify(new EntryEvent<>(Events.REMOVE, new MapEntry<>(key, removed.commit.command().value())));
-          removed.commit.close();
+  /**
+   * Applies the result of an entry processor to a key.
+   * <p>
+   * The new value keeps the expiration time and timer of the previous value, if any.
+   *
+   * @return The new value for the key.
+   */
+  private Object update(Object key, Value previous, Object result, Commit<?> commit) {
+    if (result == null) {
+      commit.close();
+      if (previous != null) {
+        discard(key);
+        previous.close();
+        notify(Events.REMOVE, key, previous.value());
+      }
+      return null;
+    }
+
+    final long index = commit.index();
+    final Value value = previous != null
+      ? new Value(result, index, previous.expire, retain(commit), previous.timer)
+      : new Value(result, index, 0, retain(commit), null);
+    store(key, value);
+    if (previous != null) {
+      previous.free();
+    }
+    notify(previous != null ? Events.UPDATE : Events.ADD, key, value.value());
+    return result;
+  }
+
+  /**
+   * Handles a put all commit.
+   * <p>
+   * The commit is released rather than closed once applied since each value holds its own reference to it.
+   */
+  public void putAll(Commit<MapCommands.PutAll> commit) {
+    try {
+      final long index = commit.index();
+      final long ttl = commit.operation().ttl();
+      for (Map.Entry<Object, Object> entry : commit.operation().entries().entrySet()) {
+        final Object key = entry.getKey();
+        final Value value = value(key, entry.getValue(), index, ttl, acquire(commit));
+        final Value previous = store(key, value);
+        if (previous != null) {
+          previous.close();
+          notify(Events.UPDATE, key, value.value());
+        } else {
+          notify(Events.ADD, key, value.value());
         }
-      }) : null;
+      }
+    } finally {
+      commit.release();
+    }
+  }
 
-      map.put(key, new Value(commit, timer));
-      notify(new EntryEvent<>(Events.UPDATE, new MapEntry<>(key, commit.operation().value())));
-      value.commit.close();
-      return true;
-    } else {
+  /**
+   * Handles a put all if absent commit.
+   * <p>
+   * The commit is released rather than closed once applied since each value holds its own reference to it.
+   */
+  public Map<Object, Object> putAllIfAbsent(Commit<MapCommands.PutAllIfAbsent> commit) {
+    try {
+      final long index = commit.index();
+      final long ttl = commit.operation().ttl();
+      final Map<Object, Object> present = new HashMap<>();
+      for (Map.Entry<Object, Object> entry : commit.operation().entries().entrySet()) {
+        final Object key = entry.getKey();
+        final Value previous = map.get(key);
+        if (previous == null) {
+          final Value value = value(key, entry.getValue(), index, ttl, acquire(commit));
+          store(key, value);
+          notify(Events.ADD, key, value.value());
+        } else {
+          present.put(key, previous.value());
+        }
+      }
+      return present;
+    } finally {
+      commit.release();
+    }
+  }
+
+  /**
+   * Handles a get all query.
+   */
+  public Map<Object, Object> getAll(Commit<MapCommands.GetAll> commit) {
+    try {
+      final Map<Object, Object> entries = new HashMap<>();
+      for (Object key : commit.operation().keys()) {
+        final Value value = map.get(key);
+        if (value != null) {
+          entries.put(key, value.value());
+        }
+      }
+      return entries;
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a remove all commit.
+   */
+  public Map<Object, Object> removeAll(Commit<MapCommands.RemoveAll> commit) {
+    try {
+      final Map<Object, Object> removed = new HashMap<>();
+      for (Object key : commit.operation().keys()) {
+        final Value value = discard(key);
+        if (value != null) {
+          value.close();
+          notify(Events.REMOVE, key, value.value());
+          removed.put(key, value.value());
+        }
+      }
+      return removed;
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a stats query.
+   */
+  public DistributedMap.Stats stats(Commit<MapCommands.Stats> commit) {
+    try {
+      int valueIndexSize = values != null ? values.size() : 0;
+      long offHeapBytes = offHeap != null ? offHeap.bytes() : 0;
+      return new DistributedMap.Stats(map.size(), valueIndexSize, (long) valueIndexSize * VALUE_INDEX_ENTRY_BYTES, offHeapBytes, evictions);
+    } finally {
       commit.close();
     }
-    return false;
   }
 
   /**
@@ -361,7 +1009,7 @@ public class MapState extends ResourceStateMachine {
     try {
       Collection<Object> values = new ArrayList<>();
       for (Value value : map.values()) {
-        values.add(value.commit.operation().value());
+        values.add(value.value());
       }
       return values;
     } finally {
@@ -387,7 +1035,7 @@ public class MapState extends ResourceStateMachine {
     try {
       Set<Map.Entry<Object, Object>> entries = new HashSet<>();
       for (Map.Entry<Object, Value> entry : map.entrySet()) {
-        entries.add(new MapEntry<>(entry.getKey(), entry.getValue().commit.operation().value()));
+        entries.add(new MapEntry<>(entry.getKey(), entry.getValue().value()));
       }
       return entries;
     } finally {
@@ -417,6 +1065,224 @@ public class MapState extends ResourceStateMachine {
     }
   }
 
+  /**
+   * Handles a cursor query.
+   */
+  public Page cursor(Commit<MapCommands.Cursor> commit) {
+    try {
+      final MapCommands.Cursor cursor = commit.operation();
+      final List<Object> items = new ArrayList<>(Math.min(cursor.limit(), map.size()));
+      Object last = null;
+      if (positions == null) {
+        NavigableMap<Object, Value> map = navigable();
+        if (cursor.position() != null) {
+          map = map.tailMap(cursor.position(), false);
+        }
+
+        Iterator<Map.Entry<Object, Value>> iterator = map.entrySet().iterator();
+        while (items.size() < cursor.limit() && iterator.hasNext()) {
+          Map.Entry<Object, Value> entry = iterator.next();
+          items.add(item(cursor.type(), entry.getKey(), entry.getValue()));
+          last = entry.getKey();
+        }
+        return new Page(items, iterator.hasNext() ? last : null);
+      } else {
+        Iterator<Map.Entry<PositionIndex.Position, Object>> iterator = positions.after((PositionIndex.Position) cursor.position()).entrySet().iterator();
+        while (items.size() < cursor.limit() && iterator.hasNext()) {
+          Map.Entry<PositionIndex.Position, Object> entry = iterator.next();
+          items.add(item(cursor.type(), entry.getValue(), map.get(entry.getValue())));
+          last = entry.getKey();
+        }
+        return new Page(items, iterator.hasNext() ? last : null);
+      }
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Returns the cursor item of the given type for an entry.
+   */
+  private static Object item(MapCommands.Cursor.Type type, Object key, Value value) {
+    switch (type) {
+      case KEYS:
+        return key;
+      case VALUES:
+        return value.value();
+      default:
+        return new MapEntry<>(key, value.value());
+    }
+  }
+
+  /**
+   * Returns the map as a navigable map.
+   *
+   * @throws IllegalStateException if the map's keys are not ordered
+   */
+  private NavigableMap<Object, Value> navigable() {
+    if (!(map instanceof NavigableMap))
+      throw new IllegalStateException("map keys are not ordered");
+    return (NavigableMap<Object, Value>) map;
+  }
+
+  /**
+   * Copies up to {@code limit} entries from the given map.
+   */
+  private static List<Map.Entry<Object, Object>> entries(Map<Object, Value> map, int limit) {
+    List<Map.Entry<Object, Object>> entries = new ArrayList<>(Math.min(map.size(), limit));
+    for (Map.Entry<Object, Value> entry : map.entrySet()) {
+      if (entries.size() == limit)
+        break;
+      entries.add(new MapEntry<>(entry.getKey(), entry.getValue().value()));
+    }
+    return entries;
+  }
+
+  /**
+   * Handles a predicate query.
+   * <p>
+   * Index predicates are evaluated against the named secondary index. Other predicates are evaluated by scanning
+   * the map until the query's limit is reached.
+   */
+  @SuppressWarnings("unchecked")
+  public List<Map.Entry<Object, Object>> filter(Commit<MapCommands.Filter> commit) {
+    try {
+      final DistributedMap.EntryPredicate predicate = commit.operation().predicate();
+      final int limit = commit.operation().limit();
+      final List<Map.Entry<Object, Object>> entries = new ArrayList<>();
+      if (predicate instanceof DistributedMap.IndexPredicate) {
+        DistributedMap.IndexPredicate indexPredicate = (DistributedMap.IndexPredicate) predicate;
+        SecondaryIndex index = indexes.get(indexPredicate.index());
+        if (index == null)
+          throw new IllegalArgumentException("unknown index: " + indexPredicate.index());
+
+        if (indexPredicate.value() != null) {
+          collect(index.equalTo(indexPredicate.value()), entries, limit);
+        } else {
+          for (Set<Object> keys : index.range(indexPredicate.from(), indexPredicate.to())) {
+            if (!collect(keys, entries, limit))
+              break;
+          }
+        }
+      } else {
+        for (Map.Entry<Object, Value> entry : map.entrySet()) {
+          if (predicate.test(entry.getKey(), entry.getValue().value())) {
+            entries.add(new MapEntry<>(entry.getKey(), entry.getValue().value()));
+            if (entries.size() == limit)
+              break;
+          }
+        }
+      }
+      return entries;
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Adds the entries for the given keys to a query result.
+   *
+   * @return Whether the result has fewer than {@code limit} entries.
+   */
+  private boolean collect(Collection<Object> keys, List<Map.Entry<Object, Object>> entries, int limit) {
+    for (Object key : keys) {
+      if (entries.size() == limit)
+        return false;
+      Value value = map.get(key);
+      if (value != null) {
+        entries.add(new MapEntry<>(key, value.value()));
+      }
+    }
+    return entries.size() < limit;
+  }
+
+  /**
+   * Handles a key range query.
+   */
+  public List<Map.Entry<Object, Object>> range(Commit<MapCommands.Range> commit) {
+    try {
+      NavigableMap<Object, Value> map = navigable();
+      MapCommands.Range range = commit.operation();
+      if (range.fromKey() != null && range.toKey() != null) {
+        map = map.subMap(range.fromKey(), range.fromInclusive(), range.toKey(), range.toInclusive());
+      } else if (range.fromKey() != null) {
+        map = map.tailMap(range.fromKey(), range.fromInclusive());
+      } else if (range.toKey() != null) {
+        map = map.headMap(range.toKey(), range.toInclusive());
+      }
+      return entries(map, range.limit());
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a key prefix query.
+   */
+  public List<Map.Entry<Object, Object>> prefix(Commit<MapCommands.Prefix> commit) {
+    try {
+      String prefix = commit.operation().prefix();
+      int limit = commit.operation().limit();
+      List<Map.Entry<Object, Object>> entries = new ArrayList<>();
+      for (Map.Entry<Object, Value> entry : navigable().tailMap(prefix, true).entrySet()) {
+        if (entries.size() == limit || !(entry.getKey() instanceof String) || !((String) entry.getKey()).startsWith(prefix))
+          break;
+        entries.add(new MapEntry<>(entry.getKey(), entry.getValue().value()));
+      }
+      return entries;
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a first key query.
+   */
+  public Object firstKey(Commit<MapCommands.FirstKey> commit) {
+    try {
+      NavigableMap<Object, Value> map = navigable();
+      return map.isEmpty() ? null : map.firstKey();
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a last key query.
+   */
+  public Object lastKey(Commit<MapCommands.LastKey> commit) {
+    try {
+      NavigableMap<Object, Value> map = navigable();
+      return map.isEmpty() ? null : map.lastKey();
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a floor entry query.
+   */
+  public Map.Entry<Object, Object> floorEntry(Commit<MapCommands.FloorEntry> commit) {
+    try {
+      Map.Entry<Object, Value> entry = navigable().floorEntry(commit.operation().key());
+      return entry != null ? new MapEntry<>(entry.getKey(), entry.getValue().value()) : null;
+    } finally {
+      commit.close();
+    }
+  }
+
+  /**
+   * Handles a ceiling entry query.
+   */
+  public Map.Entry<Object, Object> ceilingEntry(Commit<MapCommands.CeilingEntry> commit) {
+    try {
+      Map.Entry<Object, Value> entry = navigable().ceilingEntry(commit.operation().key());
+      return entry != null ? new MapEntry<>(entry.getKey(), entry.getValue().value()) : null;
+    } finally {
+      commit.close();
+    }
+  }
+
   /**
    * Handles a clear commit.
    */
@@ -433,25 +1299,172 @@ public class MapState extends ResourceStateMachine {
     Iterator<Map.Entry<Object, Value>> iterator = map.entrySet().iterator();
     while (iterator.hasNext()) {
       Map.Entry<Object, Value> entry = iterator.next();
-      Value value = entry.getValue();
-      if (value.timer != null)
-        value.timer.cancel();
-      value.commit.close();
+      entry.getValue().destroy();
       iterator.remove();
     }
+    if (positions != null) {
+      positions.clear();
+    }
+    if (values != null) {
+      values.clear();
+    }
+    indexes.values().forEach(SecondaryIndex::clear);
+    if (eviction != null) {
+      eviction.clear();
+      bytes = 0;
+    }
   }
 
   /**
    * Map value.
+   * <p>
+   * Values created by bulk commands share a single commit, with each value holding its own reference to it.
+   * Values are stored in the
+   * {@link OffHeapStore} when off-heap storage is enabled, in which case the value holds only its slot.
    */
-  private static class Value {
-    private final Commit<? extends MapCommands.TtlCommand> commit;
+  private class Value {
+    private Object value;
+    private OffHeapStore.Slot slot;
+    private int size;
+    private final long index;
+    private final long expire;
+    private final Commit<?> commit;
     private final Scheduled timer;
+    private PositionIndex.Position position;
 
-    private Value(Commit<? extends MapCommands.TtlCommand> commit, Scheduled timer) {
+    private Value(Object value, long index, long expire, Commit<?> commit, Scheduled timer) {
+      if (offHeap != null && value != null) {
+        this.slot = offHeap.write(serialize(value));
+      } else {
+        this.value = value;
+      }
+      this.index = index;
+      this.expire = expire;
       this.commit = commit;
       this.timer = timer;
     }
+
+    /**
+     * Returns the value, deserializing it if it's stored off-heap.
+     */
+    private Object value() {
+      return slot != null ? deserialize(offHeap.read(slot)) : value;
+    }
+
+    /**
+     * Cancels the value's expiration timer if set.
+     */
+    private void cancel() {
+      if (timer != null)
+        timer.cancel();
+    }
+
+    /**
+     * Cancels the value's expiration timer and releases its commit if retained.
+     */
+    private void close() {
+      cancel();
+      release();
+    }
+
+    /**
+     * Releases the value's reference to its commit if retained.
+     * <p>
+     * Values stored off-heap are read back onto the heap and their record is freed, so released values can still
+     * be read.
+     */
+    private void release() {
+      if (slot != null) {
+        value = value();
+        offHeap.free(slot);
+        slot = null;
+      }
+      if (commit != null)
+        commit.release();
+    }
+
+    /**
+     * Frees the value's off-heap record without reading it back and releases its commit if retained, leaving
+     * its expiration timer to the value that replaced it. The value must not be read once freed.
+     */
+    private void free() {
+      if (slot != null) {
+        offHeap.free(slot);
+        slot = null;
+      }
+      release();
+    }
+
+    /**
+     * Cancels the value's expiration timer and frees it. The value must not be read once destroyed.
+     */
+    private void destroy() {
+      cancel();
+      free();
+    }
+  }
+
+  /**
+   * Filtered listener.
+   */
+  private static class FilterListener {
+    private final ServerSession session;
+    private final long id;
+    private final int event;
+    private final DistributedMap.EntryPredicate filter;
+    private final Commit<MapCommands.FilterListen> commit;
+
+    private FilterListener(ServerSession session, long id, int event, DistributedMap.EntryPredicate filter, Commit<MapCommands.FilterListen> commit) {
+      this.session = session;
+      this.id = id;
+      this.event = event;
+      this.filter = filter;
+      this.commit = commit;
+    }
+
+    /**
+     * Returns whether the listener's filter matches the entry of the given event.
+     * <p>
+     * A filter that fails to evaluate doesn't match, so that a faulty filter can't fail the command that
+     * triggered the event.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean matches(EntryEvent event) {
+      try {
+        return filter.test(event.entry().getKey(), event.entry().getValue());
+      } catch (RuntimeException e) {
+        return false;
+      }
+    }
+
+    /**
+     * Releases the listener's commit if retained.
+     */
+    private void close() {
+      if (commit != null)
+        commit.release();
+    }
+  }
+
+  /**
+   * Key listener.
+   */
+  private static class Listener {
+    private final ServerSession session;
+    private final Commit<MapCommands.KeyListen> commit;
+
+    private Listener(ServerSession session, Commit<MapCommands.KeyListen> commit) {
+      this.session = session;
+      this.commit = commit;
+    }
+
+    /**
+     * Releases the listener's commit if retained.
+     */
+    private void close() {
+      if (commit != null)
+        commit.release();
+    }
   }
 
 }
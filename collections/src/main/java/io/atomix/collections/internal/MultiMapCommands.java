@@ -24,6 +24,7 @@ import io.atomix.catalyst.serializer.SerializerRegistry;
 import io.atomix.catalyst.util.Assert;
 import io.atomix.copycat.Command;
 import io.atomix.copycat.Query;
+import io.atomix.resource.internal.OperationCodes;
 
 import java.util.Collection;
 
@@ -497,16 +498,16 @@ public class MultiMapCommands {
   public static class TypeResolver implements SerializableTypeResolver {
     @Override
     public void resolve(SerializerRegistry registry) {
-      registry.register(ContainsKey.class, -80);
-      registry.register(ContainsEntry.class, -81);
-      registry.register(ContainsValue.class, -82);
-      registry.register(Put.class, -83);
-      registry.register(Get.class, -84);
-      registry.register(Remove.class, -85);
-      registry.register(RemoveValue.class, -86);
-      registry.register(IsEmpty.class, -87);
-      registry.register(Size.class, -88);
-      registry.register(Clear.class, -89);
+      OperationCodes.register(registry, ContainsKey.class, -80);
+      OperationCodes.register(registry, ContainsEntry.class, -81);
+      OperationCodes.register(registry, ContainsValue.class, -82);
+      OperationCodes.register(registry, Put.class, -83);
+      OperationCodes.register(registry, Get.class, -84);
+      OperationCodes.register(registry, Remove.class, -85);
+      OperationCodes.register(registry, RemoveValue.class, -86);
+      OperationCodes.register(registry, IsEmpty.class, -87);
+      OperationCodes.register(registry, Size.class, -88);
+      OperationCodes.register(registry, Clear.class, -89);
     }
   }
 
@@ -18,6 +18,9 @@ package io.atomix.collections.internal;
 import io.atomix.catalyst.concurrent.Scheduled;
 import io.atomix.collections.DistributedMultiMap;
 import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.Snapshottable;
+import io.atomix.copycat.server.storage.snapshot.SnapshotReader;
+import io.atomix.copycat.server.storage.snapshot.SnapshotWriter;
 import io.atomix.resource.ResourceStateMachine;
 
 import java.time.Duration;
@@ -28,9 +31,8 @@ import java.util.*;
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
-public class MultiMapState extends ResourceStateMachine {
-  private final Map<Object, Map<Object, Commit<? extends MultiMapCommands.TtlCommand>>> map = new HashMap<>();
-  private final Map<Long, Scheduled> timers = new HashMap<>();
+public class MultiMapState extends ResourceStateMachine implements Snapshottable {
+  private final Map<Object, Map<Object, Value>> map = new HashMap<>();
   private final DistributedMultiMap.Order order;
 
   public MultiMapState(Properties properties) {
@@ -38,10 +40,49 @@ public class MultiMapState extends ResourceStateMachine {
     this.order = DistributedMultiMap.Order.valueOf(config.getProperty("order", DistributedMultiMap.Order.INSERT.name().toLowerCase()).toUpperCase());
   }
 
+  @Override
+  public void snapshot(SnapshotWriter writer) {
+    if (!isSnapshotEnabled())
+      return;
+
+    writer.writeInt(map.size());
+    for (Map.Entry<Object, Map<Object, Value>> entry : map.entrySet()) {
+      writer.writeObject(entry.getKey());
+      writer.writeInt(entry.getValue().size());
+      for (Map.Entry<Object, Value> value : entry.getValue().entrySet()) {
+        writer.writeObject(value.getKey());
+        writer.writeLong(value.getValue().expire);
+      }
+    }
+  }
+
+  @Override
+  public void install(SnapshotReader reader) {
+    if (!isSnapshotEnabled())
+      return;
+
+    delete();
+
+    long now = executor.context().clock().millis();
+    int keys = reader.readInt();
+    for (int i = 0; i < keys; i++) {
+      Object key = reader.readObject();
+      Map<Object, Value> values = createValueMap();
+      int size = reader.readInt();
+      for (int j = 0; j < size; j++) {
+        Object value = reader.readObject();
+        long expire = reader.readLong();
+        Scheduled timer = expire > 0 ? schedule(key, value, Math.max(expire - now, 0)) : null;
+        values.put(value, new Value(expire, null, timer));
+      }
+      map.put(key, values);
+    }
+  }
+
   /**
    * Creates a new value map.
    */
-  private Map<Object, Commit<? extends MultiMapCommands.TtlCommand>> createValueMap() {
+  private Map<Object, Value> createValueMap() {
     switch (order) {
       case NONE:
         return new HashMap<>();
@@ -54,6 +95,23 @@ public class MultiMapState extends ResourceStateMachine {
     }
   }
 
+  /**
+   * Schedules the expiration of a key value.
+   */
+  private Scheduled schedule(Object key, Object value, long delay) {
+    return executor.schedule(Duration.ofMillis(delay), () -> {
+      Map<Object, Value> values = map.get(key);
+      if (values != null) {
+        Value removed = values.remove(value);
+        if (removed != null) {
+          removed.close();
+          if (values.isEmpty())
+            map.remove(key);
+        }
+      }
+    });
+  }
+
   /**
    * Handles a contains key commit.
    */
@@ -70,16 +128,11 @@ public class MultiMapState extends ResourceStateMachine {
    */
   public Collection get(Commit<MultiMapCommands.Get> commit) {
     try {
-      Map<Object, Commit<? extends MultiMapCommands.TtlCommand>> values = map.get(commit.operation().key());
+      Map<Object, Value> values = map.get(commit.operation().key());
       if (values == null) {
         return Collections.EMPTY_LIST;
       }
-
-      Collection<Object> results = new ArrayList<>(values.size());
-      for (Commit<? extends MultiMapCommands.TtlCommand> value : values.values()) {
-        results.add(value.operation().value());
-      }
-      return results;
+      return new ArrayList<>(values.keySet());
     } finally {
       commit.close();
     }
@@ -89,28 +142,24 @@ public class MultiMapState extends ResourceStateMachine {
    * Handles a put commit.
    */
   public boolean put(Commit<MultiMapCommands.Put> commit) {
-    try {
-      Map<Object, Commit<? extends MultiMapCommands.TtlCommand>> values = map.get(commit.operation().key());
-      if (values == null) {
-        values = createValueMap();
-        map.put(commit.operation().key(), values);
-      }
+    final Object key = commit.operation().key();
+    final Object value = commit.operation().value();
 
-      final Map<Object, Commit<? extends MultiMapCommands.TtlCommand>> keyValues = values;
-      if (!values.containsKey(commit.operation().value())) {
-        Scheduled timer = commit.operation().ttl() > 0 ? executor.schedule(Duration.ofMillis(commit.operation().ttl()), () -> {
-          keyValues.remove(commit.operation().value()).close();
-        }) : null;
-        values.put(commit.operation().value(), commit);
-        timers.put(commit.index(), timer);
-        return true;
-      } else {
-        commit.close();
-        return false;
-      }
-    } catch (Exception e) {
+    Map<Object, Value> values = map.get(key);
+    if (values == null) {
+      values = createValueMap();
+      map.put(key, values);
+    }
+
+    if (!values.containsKey(value)) {
+      final long ttl = commit.operation().ttl();
+      final long expire = ttl > 0 ? executor.context().clock().millis() + ttl : 0;
+      final Scheduled timer = ttl > 0 ? schedule(key, value, ttl) : null;
+      values.put(value, new Value(expire, retain(commit), timer));
+      return true;
+    } else {
       commit.close();
-      throw e;
+      return false;
     }
   }
 
@@ -120,35 +169,28 @@ public class MultiMapState extends ResourceStateMachine {
   public Object remove(Commit<MultiMapCommands.Remove> commit) {
     try {
       if (commit.operation().value() != null) {
-        Map<Object, Commit<? extends MultiMapCommands.TtlCommand>> values = map.get(commit.operation().key());
+        Map<Object, Value> values = map.get(commit.operation().key());
         if (values == null) {
           return false;
         }
 
-        Commit<? extends MultiMapCommands.TtlCommand> previous = values.remove(commit.operation().value());
+        Value previous = values.remove(commit.operation().value());
         if (previous == null) {
           return false;
         }
 
-        Scheduled timer = timers.remove(previous.index());
-        if (timer != null)
-          timer.cancel();
-
         previous.close();
 
         if (values.isEmpty())
           map.remove(commit.operation().key());
         return true;
       } else {
-        Map<Object, Commit<? extends MultiMapCommands.TtlCommand>> values = map.remove(commit.operation().key());
+        Map<Object, Value> values = map.remove(commit.operation().key());
         if (values != null) {
           Collection<Object> results = new ArrayList<>(values.size());
-          for (Commit<? extends MultiMapCommands.TtlCommand> value : values.values()) {
-            Scheduled timer = timers.remove(value.index());
-            if (timer != null)
-              timer.cancel();
-            results.add(value.operation().value());
-            value.close();
+          for (Map.Entry<Object, Value> entry : values.entrySet()) {
+            entry.getValue().close();
+            results.add(entry.getKey());
           }
           return results;
         }
@@ -164,17 +206,14 @@ public class MultiMapState extends ResourceStateMachine {
    */
   public void removeValue(Commit<MultiMapCommands.RemoveValue> commit) {
     try {
-      Iterator<Map.Entry<Object, Map<Object, Commit<? extends MultiMapCommands.TtlCommand>>>> outerIterator = map.entrySet().iterator();
+      Iterator<Map.Entry<Object, Map<Object, Value>>> outerIterator = map.entrySet().iterator();
       while (outerIterator.hasNext()) {
-        Map<Object, Commit<? extends MultiMapCommands.TtlCommand>> map = outerIterator.next().getValue();
-        Iterator<Map.Entry<Object, Commit<? extends MultiMapCommands.TtlCommand>>> innerIterator = map.entrySet().iterator();
+        Map<Object, Value> map = outerIterator.next().getValue();
+        Iterator<Map.Entry<Object, Value>> innerIterator = map.entrySet().iterator();
         while (innerIterator.hasNext()) {
-          Map.Entry<Object, Commit<? extends MultiMapCommands.TtlCommand>> entry = innerIterator.next();
-          if ((entry.getValue().operation().value() == null && commit.operation().value() == null)
-            || (entry.getValue().operation().value() != null && commit.operation().value() != null && entry.getValue().operation().value().equals(commit.operation().value()))) {
-            Scheduled timer = timers.remove(entry.getValue().index());
-            if (timer != null)
-              timer.cancel();
+          Map.Entry<Object, Value> entry = innerIterator.next();
+          if ((entry.getKey() == null && commit.operation().value() == null)
+            || (entry.getKey() != null && commit.operation().value() != null && entry.getKey().equals(commit.operation().value()))) {
             entry.getValue().close();
             innerIterator.remove();
           }
@@ -195,11 +234,11 @@ public class MultiMapState extends ResourceStateMachine {
   public int size(Commit<MultiMapCommands.Size> commit) {
     try {
       if (commit.operation().key() != null) {
-        Map<Object, Commit<? extends MultiMapCommands.TtlCommand>> values = map.get(commit.operation().key());
+        Map<Object, Value> values = map.get(commit.operation().key());
         return values != null ? values.size() : 0;
       } else {
         int size = 0;
-        for (Map.Entry<Object, Map<Object, Commit<? extends MultiMapCommands.TtlCommand>>> entry : map.entrySet()) {
+        for (Map.Entry<Object, Map<Object, Value>> entry : map.entrySet()) {
           size += entry.getValue().size();
         }
         return size;
@@ -233,17 +272,39 @@ public class MultiMapState extends ResourceStateMachine {
 
   @Override
   public void delete() {
-    Iterator<Map.Entry<Object, Map<Object, Commit<? extends MultiMapCommands.TtlCommand>>>> iterator = map.entrySet().iterator();
+    Iterator<Map.Entry<Object, Map<Object, Value>>> iterator = map.entrySet().iterator();
     while (iterator.hasNext()) {
-      Map.Entry<Object, Map<Object, Commit<? extends MultiMapCommands.TtlCommand>>> entry = iterator.next();
-      for (Commit<? extends MultiMapCommands.TtlCommand> value : entry.getValue().values()) {
-        Scheduled timer = timers.remove(value.index());
-        if (timer != null)
-          timer.cancel();
+      Map.Entry<Object, Map<Object, Value>> entry = iterator.next();
+      for (Value value : entry.getValue().values()) {
         value.close();
       }
       iterator.remove();
     }
   }
 
+  /**
+   * Multi-map value.
+   */
+  private static class Value {
+    private final long expire;
+    private final Commit<? extends MultiMapCommands.TtlCommand> commit;
+    private final Scheduled timer;
+
+    private Value(long expire, Commit<? extends MultiMapCommands.TtlCommand> commit, Scheduled timer) {
+      this.expire = expire;
+      this.commit = commit;
+      this.timer = timer;
+    }
+
+    /**
+     * Cancels the value's expiration timer and closes its commit if retained.
+     */
+    private void close() {
+      if (timer != null)
+        timer.cancel();
+      if (commit != null)
+        commit.close();
+    }
+  }
+
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.buffer.Bytes;
+import io.atomix.catalyst.buffer.DirectBytes;
+import io.atomix.catalyst.util.Assert;
+
+/**
+ * Off-heap store for serialized values.
+ * <p>
+ * The store appends records to direct memory slabs of a fixed size and returns an on-heap {@link Slot} for each
+ * record. Records larger than a slab are stored in a dedicated slab of their own. Freed records are not reused in
+ * place. Instead, each slab counts its live bytes and is released once all its records have been freed. When the
+ * live bytes of a full slab fall below a quarter of its size, its remaining records are moved to the current slab
+ * so that a few long-lived records can't pin a mostly empty slab. Slots are updated in place when their records
+ * are moved, so holders of a slot never see a stale offset.
+ * <p>
+ * Slab memory is allocated with {@link DirectBytes} and is reclaimed by the JVM once a released slab is no
+ * longer referenced, so the direct memory limit of the JVM must allow for the store's {@link #bytes() size}.
+ * The store is not thread safe.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class OffHeapStore {
+  private final int slabSize;
+  private Slab current;
+  private long bytes;
+  private long liveBytes;
+
+  /**
+   * @param slabSize The size of each slab in bytes.
+   */
+  public OffHeapStore(int slabSize) {
+    this.slabSize = Assert.argNot(slabSize, slabSize <= 0, "slabSize must be positive");
+  }
+
+  /**
+   * Returns the number of bytes of direct memory reserved by the store's slabs.
+   *
+   * @return The number of bytes of direct memory reserved by the store.
+   */
+  public long bytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns the number of bytes held by live records.
+   *
+   * @return The number of bytes held by live records.
+   */
+  public long liveBytes() {
+    return liveBytes;
+  }
+
+  /**
+   * Writes a record to the store.
+   *
+   * @param record The record to write.
+   * @return The slot holding the record.
+   */
+  public Slot write(byte[] record) {
+    Assert.notNull(record, "record");
+    Slot slot = new Slot(record.length);
+    append(slot, record);
+    liveBytes += record.length;
+    return slot;
+  }
+
+  /**
+   * Appends a record to the current slab, allocating a new slab if necessary.
+   */
+  private void append(Slot slot, byte[] record) {
+    Slab slab;
+    if (record.length > slabSize) {
+      slab = allocate(record.length);
+    } else {
+      if (current == null || current.position + record.length > current.size) {
+        if (current != null && current.live == 0) {
+          release(current);
+        }
+        current = allocate(slabSize);
+      }
+      slab = current;
+    }
+    slab.bytes.write(slab.position, record, 0, record.length);
+    slot.offset = slab.position;
+    slab.position += record.length;
+    slab.add(slot);
+  }
+
+  /**
+   * Allocates a slab of the given size.
+   */
+  private Slab allocate(int size) {
+    bytes += size;
+    return new Slab(size);
+  }
+
+  /**
+   * Reads a record from the store.
+   *
+   * @param slot The slot holding the record.
+   * @return The record.
+   * @throws IllegalStateException if the slot has been freed
+   */
+  public byte[] read(Slot slot) {
+    Slab slab = slot.slab;
+    if (slab == null)
+      throw new IllegalStateException("slot has been freed");
+    byte[] record = new byte[slot.length];
+    slab.bytes.read(slot.offset, record, 0, slot.length);
+    return record;
+  }
+
+  /**
+   * Frees a record.
+   * <p>
+   * Freeing a slot more than once has no effect.
+   *
+   * @param slot The slot holding the record.
+   */
+  public void free(Slot slot) {
+    Slab slab = slot.slab;
+    if (slab == null)
+      return;
+
+    slab.remove(slot);
+    liveBytes -= slot.length;
+    if (slab == current)
+      return;
+
+    if (slab.live == 0) {
+      release(slab);
+    } else if (slab.live < slab.size / 4) {
+      compact(slab);
+    }
+  }
+
+  /**
+   * Moves the remaining records of a slab to the current slab and releases it.
+   */
+  private void compact(Slab slab) {
+    Slot slot = slab.head;
+    while (slot != null) {
+      Slot next = slot.next;
+      byte[] record = read(slot);
+      slab.remove(slot);
+      append(slot, record);
+      slot = next;
+    }
+    release(slab);
+  }
+
+  /**
+   * Releases a slab.
+   * <p>
+   * Slabs are backed by direct byte buffers, so the slab's memory is reclaimed once it's no longer referenced.
+   */
+  private void release(Slab slab) {
+    bytes -= slab.size;
+    slab.bytes.close();
+  }
+
+  /**
+   * Slab of direct memory holding a doubly linked list of the slots of its live records.
+   */
+  private static final class Slab {
+    private final int size;
+    private final Bytes bytes;
+    private int position;
+    private int live;
+    private Slot head;
+    private Slot tail;
+
+    private Slab(int size) {
+      this.size = size;
+      this.bytes = DirectBytes.allocate(size);
+    }
+
+    /**
+     * Links a slot to the slab.
+     */
+    private void add(Slot slot) {
+      slot.slab = this;
+      live += slot.length;
+      if (tail == null) {
+        head = tail = slot;
+      } else {
+        tail.next = slot;
+        slot.prev = tail;
+        tail = slot;
+      }
+    }
+
+    /**
+     * Unlinks a slot from the slab.
+     */
+    private void remove(Slot slot) {
+      if (slot.prev != null) {
+        slot.prev.next = slot.next;
+      } else {
+        head = slot.next;
+      }
+      if (slot.next != null) {
+        slot.next.prev = slot.prev;
+      } else {
+        tail = slot.prev;
+      }
+      slot.prev = null;
+      slot.next = null;
+      slot.slab = null;
+      live -= slot.length;
+    }
+  }
+
+  /**
+   * On-heap handle to a record in the store.
+   */
+  public static final class Slot {
+    private final int length;
+    private Slab slab;
+    private int offset;
+    private Slot prev;
+    private Slot next;
+
+    private Slot(int length) {
+      this.length = length;
+    }
+
+    /**
+     * Returns the length of the record in bytes.
+     *
+     * @return The length of the record in bytes.
+     */
+    public int length() {
+      return length;
+    }
+  }
+
+}
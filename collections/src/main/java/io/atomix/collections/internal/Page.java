@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.catalyst.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page of items read by a collection cursor.
+ * <p>
+ * Each page carries an opaque resume token from which the cursor reads the next page. The token is {@code null}
+ * once the cursor has read the last page.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class Page implements CatalystSerializable {
+  private List<Object> items;
+  private Object next;
+
+  public Page() {
+  }
+
+  public Page(List<Object> items, Object next) {
+    this.items = Assert.notNull(items, "items");
+    this.next = next;
+  }
+
+  /**
+   * Returns the items in the page.
+   *
+   * @return The items in the page.
+   */
+  public List<Object> items() {
+    return items;
+  }
+
+  /**
+   * Returns the token from which to read the next page.
+   *
+   * @return The token from which to read the next page or {@code null} if this is the last page.
+   */
+  public Object next() {
+    return next;
+  }
+
+  @Override
+  public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+    buffer.writeInt(items.size());
+    for (Object item : items) {
+      serializer.writeObject(item, buffer);
+    }
+    serializer.writeObject(next, buffer);
+  }
+
+  @Override
+  public void readObject(BufferInput<?> buffer, Serializer serializer) {
+    int size = buffer.readInt();
+    items = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      items.add(serializer.readObject(buffer));
+    }
+    next = serializer.readObject(buffer);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[items=%d, next=%s]", getClass().getSimpleName(), items.size(), next);
+  }
+
+}
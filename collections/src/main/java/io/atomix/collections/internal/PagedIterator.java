@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.util.Assert;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Iterator that reads a collection from the cluster one {@link Page} at a time.
+ * <p>
+ * The next page is requested as soon as a page is received, so the iterator holds at most two pages in memory
+ * regardless of the size of the collection. If the next page has not yet been received once the current page is
+ * exhausted, {@link #hasNext()} blocks until it is. Iterators must therefore not be used on the client's event
+ * thread.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class PagedIterator<T> implements Iterator<T> {
+
+  /**
+   * The default number of items to read in each page.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 1000;
+
+  /**
+   * Opens a paged iterator.
+   *
+   * @param reader A function that reads the page following the given resume token, or the first page if the
+   *               token is {@code null}.
+   * @param <T> The iterator item type.
+   * @return A completable future to be completed with the iterator once the first page has been read.
+   */
+  public static <T> CompletableFuture<Iterator<T>> open(Function<Object, CompletableFuture<Page>> reader) {
+    Assert.notNull(reader, "reader");
+    return reader.apply(null).thenApply(page -> new PagedIterator<>(reader, page));
+  }
+
+  private final Function<Object, CompletableFuture<Page>> reader;
+  private Iterator<Object> items;
+  private CompletableFuture<Page> next;
+
+  private PagedIterator(Function<Object, CompletableFuture<Page>> reader, Page page) {
+    this.reader = reader;
+    advance(page);
+  }
+
+  /**
+   * Advances the iterator to the given page and requests the page that follows it.
+   */
+  private void advance(Page page) {
+    items = page.items().iterator();
+    next = page.next() != null ? reader.apply(page.next()) : null;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!items.hasNext()) {
+      if (next == null)
+        return false;
+      advance(next.join());
+    }
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    return (T) items.next();
+  }
+
+}
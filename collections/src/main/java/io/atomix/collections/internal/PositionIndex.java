@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index of the positions at which keys were inserted into a collection state machine.
+ * <p>
+ * Hash-based collections have no stable order from which a paged read can be resumed. The position index assigns
+ * each key a {@link Position} when it's inserted: the index of the commit that inserted the key and the key's offset
+ * among the keys inserted at that index. Positions are the same on every replica, so a cursor can resume from the
+ * position of the last key it read regardless of which replica serves the next page. A key keeps its position until
+ * it's removed, so updating a key never moves it past a cursor.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class PositionIndex {
+  private final NavigableMap<Position, Object> keys = new TreeMap<>();
+  private long index;
+  private int offset;
+
+  /**
+   * Adds a key at the next position for the given commit index.
+   *
+   * @param key The key to add.
+   * @param index The index of the commit inserting the key.
+   * @return The key's position.
+   */
+  public Position add(Object key, long index) {
+    if (index == this.index) {
+      offset++;
+    } else {
+      this.index = index;
+      this.offset = 0;
+    }
+    Position position = new Position(index, offset);
+    keys.put(position, key);
+    return position;
+  }
+
+  /**
+   * Adds a key at the given position.
+   * <p>
+   * This method should be used to restore positions from a snapshot.
+   *
+   * @param position The key's position.
+   * @param key The key to add.
+   */
+  public void put(Position position, Object key) {
+    keys.put(position, key);
+  }
+
+  /**
+   * Removes the key at the given position.
+   *
+   * @param position The position to remove.
+   */
+  public void remove(Position position) {
+    keys.remove(position);
+  }
+
+  /**
+   * Returns the keys positioned after the given position in position order.
+   *
+   * @param position The position after which to return keys, or {@code null} to return all keys.
+   * @return The keys positioned after the given position.
+   */
+  public NavigableMap<Position, Object> after(Position position) {
+    return position != null ? keys.tailMap(position, false) : keys;
+  }
+
+  /**
+   * Removes all positions from the index.
+   */
+  public void clear() {
+    keys.clear();
+  }
+
+  /**
+   * Key position.
+   */
+  public static class Position implements Comparable<Position>, CatalystSerializable {
+    private long index;
+    private int offset;
+
+    public Position() {
+    }
+
+    public Position(long index, int offset) {
+      this.index = index;
+      this.offset = offset;
+    }
+
+    /**
+     * Returns the index of the commit that inserted the key.
+     *
+     * @return The index of the commit that inserted the key.
+     */
+    public long index() {
+      return index;
+    }
+
+    /**
+     * Returns the offset of the key among the keys inserted at the same index.
+     *
+     * @return The offset of the key among the keys inserted at the same index.
+     */
+    public int offset() {
+      return offset;
+    }
+
+    @Override
+    public int compareTo(Position position) {
+      int compare = Long.compare(index, position.index);
+      return compare != 0 ? compare : Integer.compare(offset, position.offset);
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeLong(index).writeInt(offset);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      index = buffer.readLong();
+      offset = buffer.readInt();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (object instanceof Position) {
+        Position position = (Position) object;
+        return position.index == index && position.offset == offset;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Long.hashCode(index) + offset;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[index=%d, offset=%d]", getClass().getSimpleName(), index, offset);
+    }
+  }
+
+}
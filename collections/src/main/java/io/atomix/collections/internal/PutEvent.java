@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+
+/**
+ * Event published to a session waiting to {@link QueueCommands.Put put} a value into a full queue.
+ * <p>
+ * The event carries the client-assigned ID of the producer and whether its value was added to the queue,
+ * which is {@code false} if the producer timed out before space became available.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class PutEvent implements CatalystSerializable {
+  private long producer;
+  private boolean added;
+
+  public PutEvent() {
+  }
+
+  public PutEvent(long producer, boolean added) {
+    this.producer = producer;
+    this.added = added;
+  }
+
+  /**
+   * Returns the ID of the producer that was waiting.
+   *
+   * @return The producer ID.
+   */
+  public long producer() {
+    return producer;
+  }
+
+  /**
+   * Returns whether the producer's value was added to the queue.
+   *
+   * @return Whether the value was added, or {@code false} if the producer timed out.
+   */
+  public boolean added() {
+    return added;
+  }
+
+  @Override
+  public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+    buffer.writeLong(producer).writeBoolean(added);
+  }
+
+  @Override
+  public void readObject(BufferInput<?> buffer, Serializer serializer) {
+    producer = buffer.readLong();
+    added = buffer.readBoolean();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[producer=%d, added=%b]", getClass().getSimpleName(), producer, added);
+  }
+
+}
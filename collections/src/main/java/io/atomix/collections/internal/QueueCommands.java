@@ -21,9 +21,15 @@ import io.atomix.catalyst.serializer.CatalystSerializable;
 import io.atomix.catalyst.serializer.SerializableTypeResolver;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.serializer.SerializerRegistry;
+import io.atomix.catalyst.util.Assert;
 import io.atomix.collections.DistributedQueue;
 import io.atomix.copycat.Command;
 import io.atomix.copycat.Query;
+import io.atomix.resource.internal.OperationCodes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Distributed queue commands.
@@ -187,12 +193,134 @@ public class QueueCommands {
    * Offer
    */
   public static class Offer extends ValueCommand<Boolean> {
+    private long delay;
+
     public Offer() {
     }
 
     public Offer(Object value) {
       super(value);
     }
+
+    public Offer(Object value, long delay) {
+      super(value);
+      this.delay = Assert.argNot(delay, delay < 0, "delay cannot be negative");
+    }
+
+    /**
+     * Returns the number of milliseconds after which the value becomes visible.
+     *
+     * @return The number of milliseconds after which the value becomes visible, or {@code 0} if it's not delayed.
+     */
+    public long delay() {
+      return delay;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      buffer.writeLong(delay);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      delay = buffer.readLong();
+    }
+  }
+
+  /**
+   * Put command.
+   * <p>
+   * If the queue is at capacity, the command registers the submitting session as a producer and returns
+   * {@code null}. Whether the value was eventually added is delivered in a {@link PutEvent} carrying the
+   * command's ID.
+   */
+  public static class Put extends ValueCommand<Boolean> {
+    private long id;
+    private long timeout;
+
+    public Put() {
+    }
+
+    public Put(Object value, long id, long timeout) {
+      super(value);
+      this.id = id;
+      this.timeout = Assert.argNot(timeout, timeout < 0, "timeout cannot be negative");
+    }
+
+    /**
+     * Returns the client-assigned producer ID.
+     *
+     * @return The producer ID.
+     */
+    public long id() {
+      return id;
+    }
+
+    /**
+     * Returns the number of milliseconds to wait for space in the queue.
+     *
+     * @return The number of milliseconds to wait for space in the queue, or {@code 0} to wait indefinitely.
+     */
+    public long timeout() {
+      return timeout;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      buffer.writeLong(id).writeLong(timeout);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      id = buffer.readLong();
+      timeout = buffer.readLong();
+    }
+  }
+
+  /**
+   * Offer all command.
+   * <p>
+   * All values are added to the queue by a single commit and in the order in which they were provided.
+   */
+  public static class OfferAll extends QueueCommand<Boolean> {
+    private List<Object> values;
+
+    public OfferAll() {
+    }
+
+    public OfferAll(Collection<?> values) {
+      this.values = new ArrayList<>(Assert.notNull(values, "values"));
+    }
+
+    /**
+     * Returns the values to add.
+     *
+     * @return The values to add.
+     */
+    public List<Object> values() {
+      return values;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeInt(values.size());
+      for (Object value : values) {
+        serializer.writeObject(value, buffer);
+      }
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      int size = buffer.readInt();
+      values = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(serializer.readObject(buffer));
+      }
+    }
   }
 
   /**
@@ -212,6 +340,220 @@ public class QueueCommands {
     }
   }
 
+  /**
+   * Drain command.
+   * <p>
+   * Removes up to {@code max} values from the head of the queue by a single commit and returns them in order.
+   */
+  public static class Drain extends QueueCommand<List<Object>> {
+    private int max;
+
+    public Drain() {
+    }
+
+    public Drain(int max) {
+      this.max = Assert.argNot(max, max <= 0, "max must be positive");
+    }
+
+    /**
+     * Returns the maximum number of values to remove.
+     *
+     * @return The maximum number of values to remove.
+     */
+    public int max() {
+      return max;
+    }
+
+    @Override
+    public CompactionMode compaction() {
+      return CompactionMode.SEQUENTIAL;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeInt(max);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      max = buffer.readInt();
+    }
+  }
+
+  /**
+   * Lease command.
+   * <p>
+   * Removes up to {@code max} values from the head of the queue and holds them in flight until they're acknowledged
+   * or their visibility timeout expires.
+   */
+  public static class Lease extends QueueCommand<List<DistributedQueue.Task<Object>>> {
+
+    /**
+     * The maximum number of values that can be leased by a single command.
+     */
+    public static final int MAX_SIZE = 1 << QueueState.LEASE_ID_BITS;
+
+    private int max;
+    private long timeout;
+
+    public Lease() {
+    }
+
+    public Lease(int max, long timeout) {
+      this.max = Assert.argNot(max, max <= 0 || max > MAX_SIZE, "max must be between 1 and " + MAX_SIZE);
+      this.timeout = Assert.argNot(timeout, timeout <= 0, "timeout must be positive");
+    }
+
+    /**
+     * Returns the maximum number of values to lease.
+     *
+     * @return The maximum number of values to lease.
+     */
+    public int max() {
+      return max;
+    }
+
+    /**
+     * Returns the visibility timeout in milliseconds.
+     *
+     * @return The number of milliseconds after which unacknowledged values are returned to the queue.
+     */
+    public long timeout() {
+      return timeout;
+    }
+
+    @Override
+    public CompactionMode compaction() {
+      return CompactionMode.SEQUENTIAL;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeInt(max).writeLong(timeout);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      max = buffer.readInt();
+      timeout = buffer.readLong();
+    }
+  }
+
+  /**
+   * Abstract leased value command.
+   */
+  public static abstract class LeaseCommand extends QueueCommand<Boolean> {
+    private long id;
+
+    protected LeaseCommand() {
+    }
+
+    protected LeaseCommand(long id) {
+      this.id = id;
+    }
+
+    /**
+     * Returns the leased value ID.
+     *
+     * @return The leased value ID.
+     */
+    public long id() {
+      return id;
+    }
+
+    @Override
+    public CompactionMode compaction() {
+      return CompactionMode.SEQUENTIAL;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeLong(id);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      id = buffer.readLong();
+    }
+  }
+
+  /**
+   * Ack command.
+   */
+  public static class Ack extends LeaseCommand {
+    public Ack() {
+    }
+
+    public Ack(long id) {
+      super(id);
+    }
+  }
+
+  /**
+   * Nack command.
+   */
+  public static class Nack extends LeaseCommand {
+    public Nack() {
+    }
+
+    public Nack(long id) {
+      super(id);
+    }
+  }
+
+  /**
+   * Take command.
+   * <p>
+   * If the queue is empty, the command registers the submitting session as a waiter and returns {@code null}.
+   * The value eventually taken by the waiter is delivered in a {@link TakeEvent} carrying the command's ID.
+   */
+  public static class Take extends QueueCommand<Object> {
+    private long id;
+    private long timeout;
+
+    public Take() {
+    }
+
+    public Take(long id, long timeout) {
+      this.id = id;
+      this.timeout = Assert.argNot(timeout, timeout < 0, "timeout cannot be negative");
+    }
+
+    /**
+     * Returns the client-assigned waiter ID.
+     *
+     * @return The waiter ID.
+     */
+    public long id() {
+      return id;
+    }
+
+    /**
+     * Returns the number of milliseconds to wait for a value.
+     *
+     * @return The number of milliseconds to wait for a value, or {@code 0} to wait indefinitely.
+     */
+    public long timeout() {
+      return timeout;
+    }
+
+    @Override
+    public CompactionMode compaction() {
+      return CompactionMode.SEQUENTIAL;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeLong(id).writeLong(timeout);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      id = buffer.readLong();
+      timeout = buffer.readLong();
+    }
+  }
+
   /**
    * Element command.
    */
@@ -264,6 +606,18 @@ public class QueueCommands {
     }
   }
 
+  /**
+   * Stats query.
+   */
+  public static class Stats extends QueueQuery<DistributedQueue.Stats> {
+    public Stats() {
+    }
+
+    public Stats(ConsistencyLevel consistency) {
+      super(consistency);
+    }
+  }
+
   /**
    * Clear command.
    */
@@ -281,16 +635,29 @@ public class QueueCommands {
   public static class TypeResolver implements SerializableTypeResolver {
     @Override
     public void resolve(SerializerRegistry registry) {
-      registry.register(Contains.class, -90);
-      registry.register(Add.class, -91);
-      registry.register(Offer.class, -92);
-      registry.register(Peek.class, -93);
-      registry.register(Poll.class, -94);
-      registry.register(Element.class, -95);
-      registry.register(Remove.class, -96);
-      registry.register(IsEmpty.class, -97);
-      registry.register(Size.class, -98);
-      registry.register(Clear.class, -99);
+      OperationCodes.register(registry, Contains.class, -90);
+      OperationCodes.register(registry, Add.class, -91);
+      OperationCodes.register(registry, Offer.class, -92);
+      OperationCodes.register(registry, Peek.class, -93);
+      OperationCodes.register(registry, Poll.class, -94);
+      OperationCodes.register(registry, Element.class, -95);
+      OperationCodes.register(registry, Remove.class, -96);
+      OperationCodes.register(registry, IsEmpty.class, -97);
+      OperationCodes.register(registry, Size.class, -98);
+      OperationCodes.register(registry, Clear.class, -99);
+      OperationCodes.register(registry, Take.class, -164);
+      registry.register(TakeEvent.class, -165);
+      OperationCodes.register(registry, OfferAll.class, -166);
+      OperationCodes.register(registry, Drain.class, -167);
+      registry.register(DistributedQueue.ValuesEvent.class, -170);
+      OperationCodes.register(registry, Lease.class, -171);
+      OperationCodes.register(registry, Ack.class, -172);
+      OperationCodes.register(registry, Nack.class, -173);
+      OperationCodes.register(registry, Stats.class, -174);
+      registry.register(DistributedQueue.Task.class, -175);
+      registry.register(DistributedQueue.Stats.class, -176);
+      OperationCodes.register(registry, Put.class, -177);
+      registry.register(PutEvent.class, -178);
       registry.register(DistributedQueue.ValueEvent.class, -79);
     }
   }
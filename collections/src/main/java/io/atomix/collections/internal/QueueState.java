@@ -15,27 +15,336 @@
  */
 package io.atomix.collections.internal;
 
+import io.atomix.catalyst.concurrent.Scheduled;
+import io.atomix.catalyst.util.ConfigurationException;
+import io.atomix.collections.DistributedQueue;
 import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.Snapshottable;
+import io.atomix.copycat.server.session.ServerSession;
+import io.atomix.copycat.server.storage.snapshot.SnapshotReader;
+import io.atomix.copycat.server.storage.snapshot.SnapshotWriter;
 import io.atomix.resource.ResourceStateMachine;
 
+import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Properties;
 import java.util.Queue;
+import java.util.Set;
 
 import static io.atomix.collections.DistributedQueue.Events;
 import static io.atomix.collections.DistributedQueue.ValueEvent;
+import static io.atomix.collections.DistributedQueue.ValuesEvent;
 
 /**
- * Distributed set state machine.
+ * Distributed queue state machine.
+ * <p>
+ * Sessions that {@link QueueCommands.Take take} from an empty queue are registered as waiters. Values added while
+ * waiters are registered are handed directly to the oldest waiter in a {@link TakeEvent} rather than being queued,
+ * so waiting consumers don't need to poll the queue. Waiters are removed when they time out, when their session is
+ * closed, or when they receive a value. Timed out waiters receive a {@code null} value. Takes require snapshots to
+ * be enabled, since values handed to waiters aren't held in the log.
+ * <p>
+ * {@link QueueCommands.OfferAll Batch offers} and {@link QueueCommands.Drain drains} are applied by a single commit
+ * and publish a single {@link ValuesEvent} for all the values they add or remove. The values of a batch offer share
+ * the offer's commit, which is released once all of them have been removed from the queue.
+ * <p>
+ * {@link QueueCommands.Lease Leased} values are removed from the queue but held in flight until they're
+ * {@link QueueCommands.Ack acknowledged}. Values that are {@link QueueCommands.Nack rejected}, whose visibility
+ * timeout expires, or whose leasing session is closed are returned to the head of the queue to be redelivered.
+ * Each leased value is identified by the index of the lease commit shifted left by {@link #LEASE_ID_BITS} plus
+ * the value's position in the lease, so IDs are the same on every replica and across log replays. Leases require
+ * snapshots to be enabled, since the position of a returned value can't be recovered from a compacted log.
+ * <p>
+ * The {@link DistributedQueue.Order order} of the queue determines the structure that holds its values.
+ * {@link DistributedQueue.Order#PRIORITY Priority} queues hold values in a binary heap ordered by the configured
+ * comparator, breaking ties by the order in which values were added. {@link DistributedQueue.Order#DELAY Delay}
+ * queues hold values offered with a delay in a heap ordered by the time at which they become visible. A single
+ * timer scheduled on the state machine clock for the earliest visibility time moves values into the queue as they
+ * become visible and reschedules itself for the next, so delayed values are delivered to waiters without clients
+ * polling the queue.
+ * <p>
+ * When the {@link DistributedQueue.Config#withValueIndex() value index} is enabled, FIFO and delay queues hold
+ * their values in an {@link IndexedQueue} so that {@link QueueCommands.Contains contains} and
+ * {@link QueueCommands.Remove remove} of a specific value don't scan the queue.
+ * <p>
+ * A queue with a {@link DistributedQueue.Config#withCapacity(int) capacity} limits its depth: the number of values
+ * it holds in the queue, in flight and delayed, all of which hold commits in the log. Offers to a full queue are
+ * rejected, while sessions that {@link QueueCommands.Put put} values into a full queue are registered as producers
+ * and hold their value until the depth falls below the capacity. Producers are admitted in the order in which
+ * they were registered by the commands that remove or acknowledge values, and are notified by a {@link PutEvent}.
+ * Values handed directly to waiters don't count against the capacity.
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
-public class QueueState extends ResourceStateMachine {
-  private final Queue<Commit<? extends QueueCommands.ValueCommand>> queue = new ArrayDeque<>();
+public class QueueState extends ResourceStateMachine implements Snapshottable {
+  static final int LEASE_ID_BITS = 16;
+  private final DistributedQueue.Order order;
+  private final int capacity;
+  private final Queue<Value> queue;
+  private final Queue<Value> delayed = new PriorityQueue<>((a, b) -> {
+    int result = Long.compare(a.due, b.due);
+    return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+  });
+  private Scheduled delayTimer;
+  private long delayDue;
+  private long sequence;
+  private final Set<Waiter> waiters = new LinkedHashSet<>();
+  private final Set<Producer> producers = new LinkedHashSet<>();
+  private final Map<Long, Lease> leases = new LinkedHashMap<>();
+  private long deliveries;
+  private long redeliveries;
 
+  @SuppressWarnings("unchecked")
   public QueueState(Properties properties) {
     super(properties);
+    DistributedQueue.Config config = new DistributedQueue.Config(properties);
+    this.order = config.getOrder();
+    this.capacity = config.getCapacity();
+    if (config.isValueIndexEnabled()) {
+      if (order == DistributedQueue.Order.PRIORITY)
+        throw new ConfigurationException("value index is not supported by priority queues");
+      this.queue = new IndexedQueue<>(value -> value.value);
+    } else if (order == DistributedQueue.Order.PRIORITY) {
+      Comparator<Object> comparator = comparator(config.getComparator());
+      this.queue = new PriorityQueue<>((a, b) -> {
+        int result = comparator.compare(a.value, b.value);
+        return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+      });
+    } else {
+      this.queue = new ArrayDeque<>();
+    }
+  }
+
+  /**
+   * Instantiates the priority comparator, falling back to the natural order of values.
+   */
+  @SuppressWarnings("unchecked")
+  private static Comparator<Object> comparator(Class<? extends Comparator> type) {
+    if (type == null)
+      return (a, b) -> ((Comparable<Object>) a).compareTo(b);
+    try {
+      return type.newInstance();
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new ConfigurationException(e, "failed to instantiate comparator: %s", type.getName());
+    }
+  }
+
+  @Override
+  public void snapshot(SnapshotWriter writer) {
+    if (!isSnapshotEnabled())
+      return;
+
+    writer.writeInt(queue.size());
+    for (Value value : queue) {
+      writeValue(value, writer);
+    }
+
+    writer.writeInt(delayed.size());
+    for (Value value : delayed) {
+      writeValue(value, writer);
+      writer.writeLong(value.due);
+    }
+
+    writer.writeInt(waiters.size());
+    for (Waiter waiter : waiters) {
+      writer.writeLong(waiter.session.id());
+      writer.writeLong(waiter.id);
+      writer.writeLong(waiter.deadline);
+    }
+
+    writer.writeInt(producers.size());
+    for (Producer producer : producers) {
+      writer.writeLong(producer.session.id());
+      writer.writeLong(producer.id);
+      writer.writeLong(producer.deadline);
+      writeValue(producer.value, writer);
+    }
+
+    writer.writeInt(leases.size());
+    for (Lease lease : leases.values()) {
+      writer.writeLong(lease.id);
+      writer.writeLong(lease.session.id());
+      writer.writeLong(lease.deadline);
+      writeValue(lease.value, writer);
+    }
+    writer.writeLong(deliveries);
+    writer.writeLong(redeliveries);
+    writer.writeLong(sequence);
+  }
+
+  /**
+   * Writes a value to a snapshot.
+   */
+  private void writeValue(Value value, SnapshotWriter writer) {
+    writer.writeObject(value.value);
+    writer.writeInt(value.deliveries);
+    writer.writeLong(value.sequence);
+  }
+
+  /**
+   * Reads a value from a snapshot.
+   */
+  private Value readValue(SnapshotReader reader) {
+    Value value = new Value(reader.readObject(), (Batch) null);
+    value.deliveries = reader.readInt();
+    value.sequence = reader.readLong();
+    return value;
+  }
+
+  @Override
+  public void install(SnapshotReader reader) {
+    if (!isSnapshotEnabled())
+      return;
+
+    delete();
+
+    int size = reader.readInt();
+    for (int i = 0; i < size; i++) {
+      queue.add(readValue(reader));
+    }
+
+    int delayedCount = reader.readInt();
+    for (int i = 0; i < delayedCount; i++) {
+      Value value = readValue(reader);
+      value.due = reader.readLong();
+      delayed.add(value);
+    }
+
+    waiters.forEach(Waiter::close);
+    waiters.clear();
+    long now = executor.context().clock().millis();
+    int waiterCount = reader.readInt();
+    for (int i = 0; i < waiterCount; i++) {
+      ServerSession session = executor.context().sessions().session(reader.readLong());
+      long id = reader.readLong();
+      long deadline = reader.readLong();
+      if (session != null && session.state().active()) {
+        waiters.add(new Waiter(session, id, deadline, Math.max(deadline - now, 0)));
+      }
+    }
+
+    producers.forEach(Producer::close);
+    producers.clear();
+    int producerCount = reader.readInt();
+    for (int i = 0; i < producerCount; i++) {
+      ServerSession session = executor.context().sessions().session(reader.readLong());
+      long id = reader.readLong();
+      long deadline = reader.readLong();
+      Value value = readValue(reader);
+      if (session != null && session.state().active()) {
+        producers.add(new Producer(session, id, deadline, Math.max(deadline - now, 0), value));
+      }
+    }
+
+    List<Value> orphans = new ArrayList<>();
+    int leaseCount = reader.readInt();
+    for (int i = 0; i < leaseCount; i++) {
+      long id = reader.readLong();
+      ServerSession session = executor.context().sessions().session(reader.readLong());
+      long deadline = reader.readLong();
+      Value value = readValue(reader);
+      if (session != null && session.state().active()) {
+        leases.put(id, new Lease(id, session, value, deadline, Math.max(deadline - now, 0)));
+      } else {
+        orphans.add(value);
+      }
+    }
+    for (int i = orphans.size() - 1; i >= 0; i--) {
+      addFirst(orphans.get(i));
+    }
+    deliveries = reader.readLong();
+    redeliveries = reader.readLong();
+    sequence = reader.readLong();
+    scheduleDelayed();
+  }
+
+  /**
+   * Schedules a callback on the state machine clock.
+   */
+  private Scheduled schedule(long delay, Runnable callback) {
+    return executor.schedule(Duration.ofMillis(delay), callback);
+  }
+
+  /**
+   * Cancels a timer if set.
+   */
+  private void cancel(Scheduled timer) {
+    if (timer != null)
+      timer.cancel();
+  }
+
+  /**
+   * Adds a value to the head of a FIFO queue or to its position in a priority queue.
+   */
+  private void addFirst(Value value) {
+    if (queue instanceof Deque) {
+      ((Deque<Value>) queue).addFirst(value);
+    } else if (queue instanceof IndexedQueue) {
+      ((IndexedQueue<Value>) queue).addFirst(value);
+    } else {
+      queue.add(value);
+    }
+  }
+
+  /**
+   * Creates a queue value from the given commit.
+   */
+  private Value value(Commit<? extends QueueCommands.ValueCommand> commit) {
+    final Object value = commit.operation().value();
+    return new Value(value, retain(commit));
+  }
+
+  /**
+   * Returns whether the depth of the queue has reached its capacity.
+   */
+  private boolean full() {
+    return capacity > 0 && depth() >= capacity;
+  }
+
+  /**
+   * Returns the number of values held by the queue, in flight and delayed.
+   */
+  private int depth() {
+    return queue.size() + leases.size() + delayed.size();
+  }
+
+  /**
+   * Adds the values of waiting producers to the queue in the order in which they began waiting until the queue
+   * is full again.
+   */
+  private void admit() {
+    Iterator<Producer> iterator = producers.iterator();
+    while (iterator.hasNext() && !full()) {
+      Producer producer = iterator.next();
+      iterator.remove();
+      producer.complete();
+    }
+  }
+
+  /**
+   * Hands a value to the oldest waiter or adds it to the tail of the queue.
+   */
+  private void enqueue(Value value) {
+    notify(new ValueEvent<>(Events.ADD, value.value));
+    Iterator<Waiter> iterator = waiters.iterator();
+    if (iterator.hasNext()) {
+      Waiter waiter = iterator.next();
+      iterator.remove();
+      notify(new ValueEvent<>(Events.REMOVE, value.value));
+      waiter.complete(value.value);
+      value.close();
+    } else {
+      queue.add(value);
+    }
   }
 
   /**
@@ -43,8 +352,10 @@ public class QueueState extends ResourceStateMachine {
    */
   public boolean contains(Commit<QueueCommands.Contains> commit) {
     try {
-      for (Commit<? extends QueueCommands.ValueCommand> value : queue) {
-        if (value.operation().value().equals(commit.operation().value()))
+      if (queue instanceof IndexedQueue)
+        return ((IndexedQueue<Value>) queue).containsKey(commit.operation().value());
+      for (Value value : queue) {
+        if (value.value.equals(commit.operation().value()))
           return true;
       }
       return false;
@@ -57,13 +368,17 @@ public class QueueState extends ResourceStateMachine {
    * Handles an add commit.
    */
   public boolean add(Commit<QueueCommands.Add> commit) {
-    try {
-      queue.add(commit);
-      notify(new ValueEvent<>(Events.ADD, commit.command().value()));
-    } catch (Exception e) {
+    if (handoff(commit))
+      return true;
+
+    if (full()) {
       commit.release();
-      throw e;
+      return false;
     }
+
+    Value value = value(commit);
+    queue.add(value);
+    notify(new ValueEvent<>(Events.ADD, value.value));
     return true;
   }
 
@@ -71,17 +386,263 @@ public class QueueState extends ResourceStateMachine {
    * Handles an offer commit.
    */
   public boolean offer(Commit<QueueCommands.Offer> commit) {
+    if (commit.operation().delay() > 0)
+      return delay(commit);
+
+    if (handoff(commit))
+      return true;
+
+    if (full()) {
+      commit.release();
+      return false;
+    }
+
+    Value value = value(commit);
+    if (queue.offer(value)) {
+      notify(new ValueEvent<>(Events.ADD, value.value));
+      return true;
+    } else {
+      value.close();
+      return false;
+    }
+  }
+
+  /**
+   * Holds the value of a delayed offer until its delay has expired.
+   */
+  private boolean delay(Commit<QueueCommands.Offer> commit) {
+    if (order != DistributedQueue.Order.DELAY) {
+      commit.release();
+      throw new IllegalStateException("queue does not support delayed values");
+    }
+
+    if (full()) {
+      commit.release();
+      return false;
+    }
+
+    long due = executor.context().clock().millis() + commit.operation().delay();
+    Value value = value(commit);
+    value.due = due;
+    delayed.add(value);
+    scheduleDelayed();
+    return true;
+  }
+
+  /**
+   * Schedules the delay timer for the earliest visibility time unless it's already scheduled for it.
+   */
+  private void scheduleDelayed() {
+    Value next = delayed.peek();
+    if (next == null || (delayTimer != null && delayDue == next.due))
+      return;
+    cancel(delayTimer);
+    delayDue = next.due;
+    delayTimer = schedule(Math.max(next.due - executor.context().clock().millis(), 0), this::releaseDelayed);
+  }
+
+  /**
+   * Moves delayed values whose delay has expired into the queue or hands them to waiters, then reschedules the
+   * delay timer for the next visibility time.
+   */
+  private void releaseDelayed() {
+    delayTimer = null;
+    long now = executor.context().clock().millis();
+    while (!delayed.isEmpty() && delayed.peek().due <= now) {
+      enqueue(delayed.poll());
+    }
+    scheduleDelayed();
+  }
+
+  /**
+   * Handles a put commit.
+   * <p>
+   * If the queue is not full, the value is added to the queue. Otherwise, the value is held by a producer until
+   * the queue has space for it or the producer times out.
+   */
+  public Boolean put(Commit<QueueCommands.Put> commit) {
+    if (handoff(commit))
+      return true;
+
+    if (!full()) {
+      Value value = value(commit);
+      queue.add(value);
+      notify(new ValueEvent<>(Events.ADD, value.value));
+      return true;
+    }
+
+    long timeout = commit.operation().timeout();
+    long deadline = timeout > 0 ? executor.context().clock().millis() + timeout : 0;
+    producers.add(new Producer(commit.session(), commit.operation().id(), deadline, timeout, value(commit)));
+    return null;
+  }
+
+  /**
+   * Handles an offer all commit.
+   */
+  public boolean offerAll(Commit<QueueCommands.OfferAll> commit) {
+    List<Object> values = commit.operation().values();
+    if (values.isEmpty()) {
+      commit.release();
+      return false;
+    }
+
+    // Batches are all or nothing: values handed to waiters don't count against the capacity.
+    if (capacity > 0 && depth() + values.size() - Math.min(waiters.size(), values.size()) > capacity) {
+      commit.release();
+      return false;
+    }
+
+    notify(new ValuesEvent<>(Events.ADD, values));
+
+    int handoffs = 0;
+    Iterator<Waiter> iterator = waiters.iterator();
+    while (handoffs < values.size() && iterator.hasNext()) {
+      Waiter waiter = iterator.next();
+      iterator.remove();
+      waiter.complete(values.get(handoffs++));
+    }
+
+    if (handoffs > 0) {
+      notify(new ValuesEvent<>(Events.REMOVE, new ArrayList<>(values.subList(0, handoffs))));
+    }
+
+    if (handoffs == values.size()) {
+      commit.release();
+      return true;
+    }
+
+    Commit<?> retained = retain(commit);
+    Batch batch = retained != null ? new Batch(retained, values.size() - handoffs) : null;
+    for (int i = handoffs; i < values.size(); i++) {
+      queue.add(new Value(values.get(i), batch));
+    }
+    return true;
+  }
+
+  /**
+   * Handles a drain commit.
+   */
+  public List<Object> drain(Commit<QueueCommands.Drain> commit) {
     try {
-      if (queue.offer(commit)) {
-        notify(new ValueEvent<>(Events.ADD, commit.command().value()));
-        return true;
-      } else {
-        commit.release();
-        return false;
+      int max = commit.operation().max();
+      List<Object> values = new ArrayList<>(Math.min(max, queue.size()));
+      while (values.size() < max) {
+        Value value = queue.poll();
+        if (value == null)
+          break;
+        values.add(value.value);
+        value.close();
       }
-    } catch (Exception e) {
+
+      if (!values.isEmpty()) {
+        notify(new ValuesEvent<>(Events.REMOVE, values));
+        admit();
+      }
+      return values;
+    } finally {
+      commit.release();
+    }
+  }
+
+  /**
+   * Handles a lease commit.
+   * <p>
+   * Leases require snapshots to be {@link #isSnapshotEnabled() enabled}. Values that are returned to the head of
+   * the queue would otherwise be replayed from the log at the position of the commits that added them, so a
+   * replica recovering from a compacted log could deliver values in a different order than the others.
+   */
+  public List<DistributedQueue.Task<Object>> lease(Commit<QueueCommands.Lease> commit) {
+    if (!isSnapshotEnabled()) {
+      commit.release();
+      throw new ConfigurationException("leases require snapshots to be enabled");
+    }
+
+    int count = Math.min(commit.operation().max(), queue.size());
+    if (count == 0) {
+      commit.release();
+      return new ArrayList<>(0);
+    }
+
+    long timeout = commit.operation().timeout();
+    long deadline = executor.context().clock().millis() + timeout;
+    List<DistributedQueue.Task<Object>> tasks = new ArrayList<>(count);
+    List<Object> values = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Value value = queue.poll();
+      long id = (commit.index() << LEASE_ID_BITS) | i;
+      if (value.deliveries++ > 0)
+        redeliveries++;
+      deliveries++;
+      leases.put(id, new Lease(id, commit.session(), value, deadline, timeout));
+      tasks.add(new DistributedQueue.Task<>(id, value.value, value.deliveries));
+      values.add(value.value);
+    }
+
+    commit.release();
+    notify(new ValuesEvent<>(Events.REMOVE, values));
+    return tasks;
+  }
+
+  /**
+   * Handles an ack commit.
+   */
+  public boolean ack(Commit<QueueCommands.Ack> commit) {
+    try {
+      Lease lease = leases.remove(commit.operation().id());
+      if (lease == null)
+        return false;
+      lease.close();
+      lease.value.close();
+      admit();
+      return true;
+    } finally {
+      commit.release();
+    }
+  }
+
+  /**
+   * Handles a nack commit.
+   */
+  public boolean nack(Commit<QueueCommands.Nack> commit) {
+    try {
+      Lease lease = leases.remove(commit.operation().id());
+      if (lease == null)
+        return false;
+      lease.close();
+      requeue(lease.value);
+      return true;
+    } finally {
+      commit.release();
+    }
+  }
+
+  /**
+   * Returns a value that was leased to the head of the queue or hands it to the oldest waiter.
+   */
+  private void requeue(Value value) {
+    notify(new ValueEvent<>(Events.ADD, value.value));
+    Iterator<Waiter> iterator = waiters.iterator();
+    if (iterator.hasNext()) {
+      Waiter waiter = iterator.next();
+      iterator.remove();
+      notify(new ValueEvent<>(Events.REMOVE, value.value));
+      waiter.complete(value.value);
+      value.close();
+    } else {
+      addFirst(value);
+    }
+  }
+
+  /**
+   * Handles a stats commit.
+   */
+  public DistributedQueue.Stats stats(Commit<QueueCommands.Stats> commit) {
+    try {
+      long valueIndexBytes = queue instanceof IndexedQueue ? ((IndexedQueue<Value>) queue).indexBytes() : 0;
+      return new DistributedQueue.Stats(queue.size(), leases.size(), deliveries, redeliveries, delayed.size(), valueIndexBytes, capacity, producers.size());
+    } finally {
       commit.release();
-      throw e;
     }
   }
 
@@ -90,9 +651,9 @@ public class QueueState extends ResourceStateMachine {
    */
   public Object peek(Commit<QueueCommands.Peek> commit) {
     try {
-      Commit<? extends QueueCommands.ValueCommand> value = queue.peek();
+      Value value = queue.peek();
       if (value != null) {
-        return value.operation().value();
+        return value.value;
       }
       return null;
     } finally {
@@ -105,13 +666,14 @@ public class QueueState extends ResourceStateMachine {
    */
   public Object poll(Commit<QueueCommands.Poll> commit) {
     try {
-      Commit<? extends QueueCommands.ValueCommand> value = queue.poll();
+      Value value = queue.poll();
       if (value != null) {
         try {
-          notify(new ValueEvent<>(Events.REMOVE, value.command().value()));
-          return value.operation().value();
+          notify(new ValueEvent<>(Events.REMOVE, value.value));
+          return value.value;
         } finally {
-          value.release();
+          value.close();
+          admit();
         }
       }
       return null;
@@ -120,20 +682,73 @@ public class QueueState extends ResourceStateMachine {
     }
   }
 
+  /**
+   * Hands the value of the given commit to the oldest waiter if any.
+   * <p>
+   * The value is never stored in the queue, so the commit is released once the value has been handed off.
+   *
+   * @return Whether the value was handed to a waiter.
+   */
+  private boolean handoff(Commit<? extends QueueCommands.ValueCommand> commit) {
+    Iterator<Waiter> iterator = waiters.iterator();
+    if (!iterator.hasNext())
+      return false;
+
+    Waiter waiter = iterator.next();
+    iterator.remove();
+    Object value = commit.operation().value();
+    try {
+      notify(new ValueEvent<>(Events.ADD, value));
+      notify(new ValueEvent<>(Events.REMOVE, value));
+      waiter.complete(value);
+    } finally {
+      commit.release();
+    }
+    return true;
+  }
+
+  /**
+   * Handles a take commit.
+   * <p>
+   * If the queue is not empty, the head of the queue is removed and returned. Otherwise, the session is
+   * registered as a waiter until a value is handed to it or it times out.
+   * <p>
+   * Takes require snapshots to be {@link #isSnapshotEnabled() enabled}. Values handed to waiters are never
+   * stored, so their commits are released at once, and a replica replaying a compacted log would register the
+   * waiter again without the value that was handed to it.
+   */
+  public Object take(Commit<QueueCommands.Take> commit) {
+    if (!isSnapshotEnabled()) {
+      commit.release();
+      throw new ConfigurationException("take requires snapshots to be enabled");
+    }
+
+    Value value = queue.poll();
+    if (value != null) {
+      try {
+        notify(new ValueEvent<>(Events.REMOVE, value.value));
+        return value.value;
+      } finally {
+        value.close();
+        commit.release();
+        admit();
+      }
+    }
+
+    long timeout = commit.operation().timeout();
+    long deadline = timeout > 0 ? executor.context().clock().millis() + timeout : 0;
+    waiters.add(new Waiter(commit.session(), commit.operation().id(), deadline, timeout));
+    commit.release();
+    return null;
+  }
+
   /**
    * Handles an element commit.
    */
   public Object element(Commit<QueueCommands.Element> commit) {
     try {
-      Commit<? extends QueueCommands.ValueCommand> value = queue.element();
-      if (value != null) {
-        try {
-          return value.operation().value();
-        } finally {
-          value.release();
-        }
-      }
-      return null;
+      Value value = queue.element();
+      return value.value;
     } finally {
       commit.release();
     }
@@ -144,29 +759,36 @@ public class QueueState extends ResourceStateMachine {
    */
   public Object remove(Commit<QueueCommands.Remove> commit) {
     try {
-      if (commit.operation().value() != null) {
-        Iterator<Commit<? extends QueueCommands.ValueCommand>> iterator = queue.iterator();
+      if (commit.operation().value() != null && queue instanceof IndexedQueue) {
+        Value value = ((IndexedQueue<Value>) queue).removeFirst(commit.operation().value());
+        if (value == null)
+          return false;
+        notify(new ValueEvent<>(Events.REMOVE, value.value));
+        value.close();
+        admit();
+        return true;
+      } else if (commit.operation().value() != null) {
+        Iterator<Value> iterator = queue.iterator();
         while (iterator.hasNext()) {
-          Commit<? extends QueueCommands.ValueCommand> value = iterator.next();
-          if (value.operation().value().equals(commit.operation().value())) {
+          Value value = iterator.next();
+          if (value.value.equals(commit.operation().value())) {
             iterator.remove();
-            notify(new ValueEvent<>(Events.REMOVE, value.command().value()));
-            value.release();
+            notify(new ValueEvent<>(Events.REMOVE, value.value));
+            value.close();
+            admit();
             return true;
           }
         }
         return false;
       } else {
-        Commit<? extends QueueCommands.ValueCommand> value = queue.remove();
-        if (value != null) {
-          try {
-            notify(new ValueEvent<>(Events.REMOVE, value.command().value()));
-            return value.operation().value();
-          } finally {
-            value.release();
-          }
+        Value value = queue.remove();
+        try {
+          notify(new ValueEvent<>(Events.REMOVE, value.value));
+          return value.value;
+        } finally {
+          value.close();
+          admit();
         }
-        return null;
       }
     } finally {
       commit.release();
@@ -201,19 +823,245 @@ public class QueueState extends ResourceStateMachine {
   public void clear(Commit<QueueCommands.Clear> commit) {
     try {
       delete();
+      admit();
     } finally {
       commit.release();
     }
   }
 
+  @Override
+  public void close(ServerSession session) {
+    Iterator<Waiter> iterator = waiters.iterator();
+    while (iterator.hasNext()) {
+      Waiter waiter = iterator.next();
+      if (waiter.session.id() == session.id()) {
+        waiter.close();
+        iterator.remove();
+      }
+    }
+
+    Iterator<Producer> producerIterator = producers.iterator();
+    while (producerIterator.hasNext()) {
+      Producer producer = producerIterator.next();
+      if (producer.session.id() == session.id()) {
+        producer.close();
+        producerIterator.remove();
+      }
+    }
+
+    // Return the session's leased values in reverse order so the oldest ends up at the head of the queue.
+    List<Lease> expired = new ArrayList<>();
+    Iterator<Lease> leaseIterator = leases.values().iterator();
+    while (leaseIterator.hasNext()) {
+      Lease lease = leaseIterator.next();
+      if (lease.session.id() == session.id()) {
+        lease.close();
+        leaseIterator.remove();
+        expired.add(lease);
+      }
+    }
+    for (int i = expired.size() - 1; i >= 0; i--) {
+      requeue(expired.get(i).value);
+    }
+  }
+
   @Override
   public void delete() {
-    Iterator<Commit<? extends QueueCommands.ValueCommand>> iterator = queue.iterator();
+    for (Lease lease : leases.values()) {
+      lease.close();
+      lease.value.close();
+    }
+    leases.clear();
+
+    Iterator<Value> iterator = queue.iterator();
     while (iterator.hasNext()) {
-      Commit<? extends QueueCommands.ValueCommand> value = iterator.next();
-      value.release();
+      Value value = iterator.next();
+      value.close();
       iterator.remove();
     }
+
+    cancel(delayTimer);
+    delayTimer = null;
+    delayed.forEach(Value::close);
+    delayed.clear();
+  }
+
+  /**
+   * Session waiting to take a value from the queue.
+   */
+  private class Waiter {
+    private final ServerSession session;
+    private final long id;
+    private final long deadline;
+    private final Scheduled timer;
+
+    private Waiter(ServerSession session, long id, long deadline, long timeout) {
+      this.session = session;
+      this.id = id;
+      this.deadline = deadline;
+      this.timer = deadline > 0 ? schedule(timeout, this::expire) : null;
+    }
+
+    /**
+     * Hands a value to the waiter.
+     */
+    private void complete(Object value) {
+      cancel(timer);
+      publish(session, "take", new TakeEvent(id, value));
+    }
+
+    /**
+     * Removes the waiter once it has timed out.
+     */
+    private void expire() {
+      waiters.remove(this);
+      publish(session, "take", new TakeEvent(id, null));
+    }
+
+    /**
+     * Cancels the waiter's timer.
+     */
+    private void close() {
+      cancel(timer);
+    }
+  }
+
+  /**
+   * Session waiting to put a value into a full queue.
+   */
+  private class Producer {
+    private final ServerSession session;
+    private final long id;
+    private final long deadline;
+    private final Scheduled timer;
+    private final Value value;
+
+    private Producer(ServerSession session, long id, long deadline, long timeout, Value value) {
+      this.session = session;
+      this.id = id;
+      this.deadline = deadline;
+      this.value = value;
+      this.timer = deadline > 0 ? schedule(timeout, this::expire) : null;
+    }
+
+    /**
+     * Adds the producer's value to the queue.
+     */
+    private void complete() {
+      cancel(timer);
+      publish(session, "put", new PutEvent(id, true));
+      enqueue(value);
+    }
+
+    /**
+     * Removes the producer once it has timed out.
+     */
+    private void expire() {
+      producers.remove(this);
+      publish(session, "put", new PutEvent(id, false));
+      value.close();
+    }
+
+    /**
+     * Cancels the producer's timer and releases its value.
+     */
+    private void close() {
+      cancel(timer);
+      value.close();
+    }
+  }
+
+  /**
+   * Value leased to a session.
+   */
+  private class Lease {
+    private final long id;
+    private final ServerSession session;
+    private final Value value;
+    private final long deadline;
+    private final Scheduled timer;
+
+    private Lease(long id, ServerSession session, Value value, long deadline, long timeout) {
+      this.id = id;
+      this.session = session;
+      this.value = value;
+      this.deadline = deadline;
+      this.timer = schedule(timeout, this::expire);
+    }
+
+    /**
+     * Returns the value to the queue once its visibility timeout has expired.
+     */
+    private void expire() {
+      leases.remove(id);
+      requeue(value);
+    }
+
+    /**
+     * Cancels the lease's timer.
+     */
+    private void close() {
+      cancel(timer);
+    }
+  }
+
+  /**
+   * Commit shared by the values of a batch offer.
+   */
+  private static class Batch {
+    private final Commit<?> commit;
+    private int references;
+
+    private Batch(Commit<?> commit, int references) {
+      this.commit = commit;
+      this.references = references;
+    }
+
+    /**
+     * Releases the batch commit once all the batch's references have been released.
+     */
+    private void release() {
+      if (--references == 0)
+        commit.release();
+    }
+  }
+
+  /**
+   * Queue value.
+   * <p>
+   * Each value is assigned the next sequence number when it's created so that priority and delay queues can
+   * order values that compare equal by the order in which they were added.
+   */
+  private class Value {
+    private final Object value;
+    private final Commit<? extends QueueCommands.ValueCommand> commit;
+    private final Batch batch;
+    private long sequence = QueueState.this.sequence++;
+    private long due;
+    private int deliveries;
+
+    private Value(Object value, Commit<? extends QueueCommands.ValueCommand> commit) {
+      this.value = value;
+      this.commit = commit;
+      this.batch = null;
+    }
+
+    private Value(Object value, Batch batch) {
+      this.value = value;
+      this.commit = null;
+      this.batch = batch;
+    }
+
+    /**
+     * Releases the value's commit if retained.
+     */
+    private void close() {
+      if (commit != null) {
+        commit.release();
+      } else if (batch != null) {
+        batch.release();
+      }
+    }
   }
 
 }
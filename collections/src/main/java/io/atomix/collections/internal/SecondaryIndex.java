@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.util.Assert;
+import io.atomix.collections.DistributedMap;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Secondary index over the values of a map state machine.
+ * <p>
+ * The index maps the attribute {@link DistributedMap.ValueExtractor extracted} from each value to the keys whose
+ * values have that attribute. Values for which the extractor returns {@code null} or fails are not indexed. Sorted
+ * indexes hold attributes in natural order so they can serve range predicates, and require attributes to be
+ * mutually {@link Comparable}.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class SecondaryIndex {
+  private final String name;
+  private final DistributedMap.ValueExtractor extractor;
+  private final Map<Object, Set<Object>> keys;
+
+  public SecondaryIndex(String name, DistributedMap.ValueExtractor extractor, boolean sorted) {
+    this.name = Assert.notNull(name, "name");
+    this.extractor = Assert.notNull(extractor, "extractor");
+    this.keys = sorted ? new TreeMap<>() : new HashMap<>();
+  }
+
+  /**
+   * Returns the index name.
+   *
+   * @return The index name.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Returns a boolean indicating whether the index is sorted.
+   *
+   * @return Indicates whether the index is sorted.
+   */
+  public boolean isSorted() {
+    return keys instanceof NavigableMap;
+  }
+
+  /**
+   * Returns the number of distinct attributes in the index.
+   *
+   * @return The number of distinct attributes in the index.
+   */
+  public int size() {
+    return keys.size();
+  }
+
+  /**
+   * Extracts the indexed attribute from a value.
+   */
+  @SuppressWarnings("unchecked")
+  private Object extract(Object value) {
+    if (value == null)
+      return null;
+    try {
+      Object attribute = extractor.extract(value);
+      if (attribute != null && isSorted() && !(attribute instanceof Comparable))
+        return null;
+      return attribute;
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Adds a key to the index.
+   *
+   * @param key The key to add.
+   * @param value The key's value.
+   */
+  public void add(Object key, Object value) {
+    Object attribute = extract(value);
+    if (attribute != null) {
+      try {
+        keys.computeIfAbsent(attribute, a -> new LinkedHashSet<>()).add(key);
+      } catch (ClassCastException e) {
+        // Attributes that aren't comparable to the attributes in a sorted index are not indexed.
+      }
+    }
+  }
+
+  /**
+   * Removes a key from the index.
+   *
+   * @param key The key to remove.
+   * @param value The key's value.
+   */
+  public void remove(Object key, Object value) {
+    Object attribute = extract(value);
+    if (attribute != null) {
+      try {
+        Set<Object> attributeKeys = keys.get(attribute);
+        if (attributeKeys != null) {
+          attributeKeys.remove(key);
+          if (attributeKeys.isEmpty()) {
+            keys.remove(attribute);
+          }
+        }
+      } catch (ClassCastException e) {
+        // Attributes that aren't comparable to the attributes in a sorted index were never indexed.
+      }
+    }
+  }
+
+  /**
+   * Returns the keys whose values have the given attribute.
+   *
+   * @param attribute The attribute for which to return keys.
+   * @return The keys whose values have the given attribute.
+   */
+  public Collection<Object> equalTo(Object attribute) {
+    Set<Object> attributeKeys;
+    try {
+      attributeKeys = keys.get(attribute);
+    } catch (ClassCastException e) {
+      attributeKeys = null;
+    }
+    return attributeKeys != null ? attributeKeys : Collections.emptySet();
+  }
+
+  /**
+   * Returns the keys whose values have attributes in the given range, ordered by attribute.
+   *
+   * @param from The inclusive lower bound or {@code null} for no lower bound.
+   * @param to The exclusive upper bound or {@code null} for no upper bound.
+   * @return The sets of keys for each attribute in the range.
+   * @throws IllegalStateException if the index is not sorted
+   */
+  public Collection<Set<Object>> range(Object from, Object to) {
+    if (!isSorted())
+      throw new IllegalStateException("index " + name + " is not sorted");
+
+    NavigableMap<Object, Set<Object>> sorted = (NavigableMap<Object, Set<Object>>) keys;
+    if (from != null && to != null) {
+      return sorted.subMap(from, true, to, false).values();
+    } else if (from != null) {
+      return sorted.tailMap(from, true).values();
+    } else if (to != null) {
+      return sorted.headMap(to, false).values();
+    }
+    return sorted.values();
+  }
+
+  /**
+   * Removes all keys from the index.
+   */
+  public void clear() {
+    keys.clear();
+  }
+
+}
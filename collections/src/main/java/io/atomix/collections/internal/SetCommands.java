@@ -23,9 +23,11 @@ import io.atomix.catalyst.serializer.CatalystSerializable;
 import io.atomix.catalyst.serializer.SerializableTypeResolver;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.serializer.SerializerRegistry;
+import io.atomix.catalyst.util.Assert;
 import io.atomix.collections.DistributedSet;
 import io.atomix.copycat.Command;
 import io.atomix.copycat.Query;
+import io.atomix.resource.internal.OperationCodes;
 
 /**
  * Distributed set commands.
@@ -274,10 +276,64 @@ public class SetCommands {
   
   /**
    * Iterator query.
+   * <p>
+   * Returns the full set in a single response. Retained for clients that predate {@link Cursor}.
    */
+  @Deprecated
   public static class Iterator<V> extends SetQuery<Set<V>> {
   }
 
+  /**
+   * Cursor query.
+   * <p>
+   * Returns a {@link Page} of up to {@code limit} values following the given resume token.
+   */
+  public static class Cursor extends SetQuery<Page> {
+    protected Object position;
+    protected int limit;
+
+    public Cursor() {
+    }
+
+    public Cursor(Object position, int limit) {
+      this(position, limit, null);
+    }
+
+    public Cursor(Object position, int limit, ConsistencyLevel consistency) {
+      super(consistency);
+      this.position = position;
+      this.limit = Assert.argNot(limit, limit <= 0, "limit must be positive");
+    }
+
+    /**
+     * Returns the token from which to resume reading, or {@code null} to read the first page.
+     */
+    public Object position() {
+      return position;
+    }
+
+    /**
+     * Returns the maximum number of values to return.
+     */
+    public int limit() {
+      return limit;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      super.writeObject(buffer, serializer);
+      serializer.writeObject(position, buffer);
+      buffer.writeInt(limit);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      super.readObject(buffer, serializer);
+      position = serializer.readObject(buffer);
+      limit = buffer.readInt();
+    }
+  }
+
   /**
    * Clear command.
    */
@@ -294,13 +350,16 @@ public class SetCommands {
   public static class TypeResolver implements SerializableTypeResolver {
     @Override
     public void resolve(SerializerRegistry registry) {
-      registry.register(Contains.class, -100);
-      registry.register(Add.class, -101);
-      registry.register(Remove.class, -102);
-      registry.register(IsEmpty.class, -103);
-      registry.register(Size.class, -104);
-      registry.register(Clear.class, -105);
-      registry.register(Iterator.class, -106);
+      OperationCodes.register(registry, Contains.class, -100);
+      OperationCodes.register(registry, Add.class, -101);
+      OperationCodes.register(registry, Remove.class, -102);
+      OperationCodes.register(registry, IsEmpty.class, -103);
+      OperationCodes.register(registry, Size.class, -104);
+      OperationCodes.register(registry, Clear.class, -105);
+      OperationCodes.register(registry, Iterator.class, -106);
+      OperationCodes.register(registry, Cursor.class, -127);
+      registry.register(Page.class, -124);
+      registry.register(PositionIndex.Position.class, -125);
       registry.register(DistributedSet.ValueEvent.class, -48);
     }
   }
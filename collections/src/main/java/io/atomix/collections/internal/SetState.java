@@ -17,6 +17,9 @@ package io.atomix.collections.internal;
 
 import io.atomix.catalyst.concurrent.Scheduled;
 import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.Snapshottable;
+import io.atomix.copycat.server.storage.snapshot.SnapshotReader;
+import io.atomix.copycat.server.storage.snapshot.SnapshotWriter;
 import io.atomix.resource.ResourceStateMachine;
 
 import java.time.Duration;
@@ -27,16 +30,78 @@ import static io.atomix.collections.DistributedSet.ValueEvent;
 
 /**
  * Distributed set state machine.
+ * <p>
+ * The state machine tracks the {@link PositionIndex position} at which each value was added so that cursors
+ * can read the set in pages.
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
-public class SetState extends ResourceStateMachine {
+public class SetState extends ResourceStateMachine implements Snapshottable {
   private final Map<Object, Value> map = new HashMap<>();
+  private final PositionIndex positions = new PositionIndex();
 
   public SetState(Properties properties) {
     super(properties);
   }
 
+  @Override
+  public void snapshot(SnapshotWriter writer) {
+    if (!isSnapshotEnabled())
+      return;
+
+    writer.writeInt(map.size());
+    for (Map.Entry<Object, Value> entry : map.entrySet()) {
+      writer.writeObject(entry.getKey());
+      writer.writeLong(entry.getValue().expire);
+      writer.writeLong(entry.getValue().position.index());
+      writer.writeInt(entry.getValue().position.offset());
+    }
+  }
+
+  @Override
+  public void install(SnapshotReader reader) {
+    if (!isSnapshotEnabled())
+      return;
+
+    delete();
+
+    long now = executor.context().clock().millis();
+    int size = reader.readInt();
+    for (int i = 0; i < size; i++) {
+      Object value = reader.readObject();
+      long expire = reader.readLong();
+      Scheduled timer = expire > 0 ? schedule(value, Math.max(expire - now, 0)) : null;
+      PositionIndex.Position position = new PositionIndex.Position(reader.readLong(), reader.readInt());
+      positions.put(position, value);
+      map.put(value, new Value(expire, null, timer, position));
+    }
+  }
+
+  /**
+   * Schedules the expiration of a value.
+   */
+  private Scheduled schedule(Object value, long delay) {
+    return executor.schedule(Duration.ofMillis(delay), () -> {
+      Value removed = discard(value);
+      if (removed != null) {
+        removed.close();
+      }
+    });
+  }
+
+  /**
+   * Removes a value and its position from the set.
+   *
+   * @return The removed value or {@code null} if the value was not present.
+   */
+  private Value discard(Object value) {
+    Value removed = map.remove(value);
+    if (removed != null) {
+      positions.remove(removed.position);
+    }
+    return removed;
+  }
+
   /**
    * Handles a contains commit.
    */
@@ -52,20 +117,16 @@ public class SetState extends ResourceStateMachine {
    * Handles an add commit.
    */
   public boolean add(Commit<SetCommands.Add> commit) {
-    try {
-      Value value = map.get(commit.operation().value());
-      if (value == null) {
-        Scheduled timer = commit.operation().ttl() > 0 ? executor.schedule(Duration.ofMillis(commit.operation().ttl()), () -> {
-          map.remove(commit.operation().value()).commit.close();
-        }) : null;
-        map.put(commit.operation().value(), new Value(commit, timer));
-        notify(new ValueEvent<>(Events.ADD, commit.operation().value()));
-      } else {
-        commit.close();
-      }
-    } catch (Exception e) {
+    final Object value = commit.operation().value();
+    if (!map.containsKey(value)) {
+      final long ttl = commit.operation().ttl();
+      final long expire = ttl > 0 ? executor.context().clock().millis() + ttl : 0;
+      final Scheduled timer = ttl > 0 ? schedule(value, ttl) : null;
+      final PositionIndex.Position position = positions.add(value, commit.index());
+      map.put(value, new Value(expire, retain(commit), timer, position));
+      notify(new ValueEvent<>(Events.ADD, value));
+    } else {
       commit.close();
-      throw e;
     }
     return false;
   }
@@ -75,17 +136,11 @@ public class SetState extends ResourceStateMachine {
    */
   public boolean remove(Commit<SetCommands.Remove> commit) {
     try {
-      Value value = map.remove(commit.operation().value());
+      Value value = discard(commit.operation().value());
       if (value != null) {
-        try {
-          if (value.timer != null) {
-            value.timer.cancel();
-          }
-          notify(new ValueEvent<>(Events.REMOVE, commit.operation().value()));
-          return true;
-        } finally {
-          value.commit.close();
-        }
+        value.close();
+        notify(new ValueEvent<>(Events.REMOVE, commit.operation().value()));
+        return true;
       }
       return false;
     } finally {
@@ -126,6 +181,26 @@ public class SetState extends ResourceStateMachine {
     }
   }
 
+  /**
+   * Handles a cursor query.
+   */
+  public Page cursor(Commit<SetCommands.Cursor> commit) {
+    try {
+      final SetCommands.Cursor cursor = commit.operation();
+      final List<Object> values = new ArrayList<>(Math.min(cursor.limit(), map.size()));
+      Iterator<Map.Entry<PositionIndex.Position, Object>> iterator = positions.after((PositionIndex.Position) cursor.position()).entrySet().iterator();
+      PositionIndex.Position last = null;
+      while (values.size() < cursor.limit() && iterator.hasNext()) {
+        Map.Entry<PositionIndex.Position, Object> entry = iterator.next();
+        values.add(entry.getValue());
+        last = entry.getKey();
+      }
+      return new Page(values, iterator.hasNext() ? last : null);
+    } finally {
+      commit.close();
+    }
+  }
+
   /**
    * Handles a clear commit.
    */
@@ -142,24 +217,36 @@ public class SetState extends ResourceStateMachine {
     Iterator<Map.Entry<Object, Value>> iterator = map.entrySet().iterator();
     while (iterator.hasNext()) {
       Map.Entry<Object, Value> entry = iterator.next();
-      Value value = entry.getValue();
-      if (value.timer != null)
-        value.timer.cancel();
-      value.commit.close();
+      entry.getValue().close();
       iterator.remove();
     }
+    positions.clear();
   }
 
   /**
    * Set value.
    */
   private static class Value {
+    private final long expire;
     private final Commit<? extends SetCommands.TtlCommand> commit;
     private final Scheduled timer;
+    private final PositionIndex.Position position;
 
-    private Value(Commit<? extends SetCommands.TtlCommand> commit, Scheduled timer) {
+    private Value(long expire, Commit<? extends SetCommands.TtlCommand> commit, Scheduled timer, PositionIndex.Position position) {
+      this.expire = expire;
       this.commit = commit;
       this.timer = timer;
+      this.position = position;
+    }
+
+    /**
+     * Cancels the value's expiration timer and closes its commit if retained.
+     */
+    private void close() {
+      if (timer != null)
+        timer.cancel();
+      if (commit != null)
+        commit.close();
     }
   }
 
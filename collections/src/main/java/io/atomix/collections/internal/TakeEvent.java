@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+
+/**
+ * Event published to a session waiting to {@link QueueCommands.Take take} a value from a queue.
+ * <p>
+ * The event carries the client-assigned ID of the waiter and the value handed to it, or {@code null} if the
+ * waiter timed out before a value was added to the queue.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public class TakeEvent implements CatalystSerializable {
+  private long waiter;
+  private Object value;
+
+  public TakeEvent() {
+  }
+
+  public TakeEvent(long waiter, Object value) {
+    this.waiter = waiter;
+    this.value = value;
+  }
+
+  /**
+   * Returns the ID of the waiter to which the value was handed.
+   *
+   * @return The waiter ID.
+   */
+  public long waiter() {
+    return waiter;
+  }
+
+  /**
+   * Returns the value handed to the waiter.
+   *
+   * @return The value or {@code null} if the waiter timed out.
+   */
+  public Object value() {
+    return value;
+  }
+
+  @Override
+  public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+    buffer.writeLong(waiter);
+    serializer.writeObject(value, buffer);
+  }
+
+  @Override
+  public void readObject(BufferInput<?> buffer, Serializer serializer) {
+    waiter = buffer.readLong();
+    value = serializer.readObject(buffer);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[waiter=%d, value=%s]", getClass().getSimpleName(), waiter, value);
+  }
+
+}
@@ -15,15 +15,41 @@
  */
 package io.atomix.collections;
 
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.concurrent.Listener;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.collections.internal.MapCache;
+import io.atomix.copycat.client.CopycatClient;
+import io.atomix.copycat.server.CopycatServer;
 import io.atomix.resource.ReadConsistency;
+import io.atomix.resource.Resource;
 import io.atomix.testing.AbstractCopycatTest;
 import org.testng.annotations.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
 /**
  * Distributed map test.
  *
@@ -68,6 +94,144 @@ public class DistributedMapTest extends AbstractCopycatTest<DistributedMap> {
     await(10000);
   }
 
+  /**
+   * Tests putting and getting a value in a map that stores its state in snapshots.
+   */
+  public void testSnapshotMapPutGetRemove() throws Throwable {
+    createServers(3, new Resource.Config().withSnapshots());
+
+    DistributedMap<String, String> map = createResource();
+    threadAssertTrue(map.config().isSnapshotEnabled());
+
+    map.put("foo", "Hello world!").thenRun(this::resume);
+    await(10000);
+
+    map.put("foo", "Hello world again!").thenAccept(result -> {
+      threadAssertEquals(result, "Hello world!");
+      resume();
+    });
+    await(10000);
+
+    map.get("foo").thenAccept(result -> {
+      threadAssertEquals(result, "Hello world again!");
+      resume();
+    });
+    await(10000);
+
+    map.remove("foo").thenAccept(result -> {
+      threadAssertEquals(result, "Hello world again!");
+      resume();
+    });
+    await(10000);
+
+    map.get("foo").thenAccept(result -> {
+      threadAssertNull(result);
+      resume();
+    });
+    await(10000);
+  }
+
+  /**
+   * Tests a map that stores its values off-heap.
+   */
+  public void testOffHeapMap() throws Throwable {
+    createServers(3, new DistributedMap.Config()
+      .withValueStorage(DistributedMap.ValueStorage.OFF_HEAP)
+      .withOffHeapSlabSize(256)
+      .withValueIndex());
+
+    DistributedMap<String, String> map = createResource();
+    assertTrue(map.config().isSnapshotEnabled());
+    assertEquals(map.stats().get().offHeapBytes(), 0L);
+
+    for (int i = 0; i < 100; i++) {
+      map.put("key" + i, "Hello world " + i).join();
+    }
+    assertEquals(map.get("key42").get(), "Hello world 42");
+    assertEquals(map.put("key42", "Goodbye world").get(), "Hello world 42");
+    assertEquals(map.get("key42").get(), "Goodbye world");
+    assertTrue(map.containsValue("Goodbye world").get());
+    assertFalse(map.containsValue("Hello world 42").get());
+
+    long offHeapBytes = map.stats().get().offHeapBytes();
+    assertTrue(offHeapBytes > 0);
+
+    for (int i = 0; i < 90; i++) {
+      map.remove("key" + i).join();
+    }
+    assertTrue(map.stats().get().offHeapBytes() < offHeapBytes);
+    for (int i = 90; i < 100; i++) {
+      assertEquals(map.get("key" + i).get(), "Hello world " + i);
+    }
+
+    map.clear().join();
+    assertNull(map.get("key99").get());
+    assertEquals(map.size().get().intValue(), 0);
+  }
+
+  /**
+   * Tests evicting the least recently written entries from a map bounded by entries.
+   */
+  public void testBoundedMapLru() throws Throwable {
+    createServers(3, new DistributedMap.Config().withMaxEntries(3));
+
+    DistributedMap<String, String> map = createResource();
+    List<String> evicted = new ArrayList<>();
+    map.onRemove(event -> {
+      threadAssertTrue(event.isEvicted());
+      evicted.add(event.entry().getKey());
+      resume();
+    }).join();
+
+    map.put("a", "1").join();
+    map.put("b", "2").join();
+    map.put("c", "3").join();
+    map.put("a", "4").join();
+    map.put("d", "5").join();
+    await(5000);
+
+    assertEquals(evicted, Collections.singletonList("b"));
+    assertFalse(map.containsKey("b").get());
+    assertEquals(map.get("a").get(), "4");
+    assertEquals(map.size().get().intValue(), 3);
+    assertEquals(map.stats().get().evictionCount(), 1L);
+
+    map.putAll(new LinkedHashMap<String, String>() {{
+      put("e", "6");
+      put("f", "7");
+    }}).join();
+    await(5000, 2);
+    assertEquals(evicted, Arrays.asList("b", "c", "a"));
+    assertEquals(map.keySet().get(), new HashSet<>(Arrays.asList("d", "e", "f")));
+    assertEquals(map.stats().get().evictionCount(), 3L);
+  }
+
+  /**
+   * Tests evicting the least frequently written entries from a map bounded by bytes.
+   */
+  public void testBoundedMapLfu() throws Throwable {
+    createServers(3, new DistributedMap.Config()
+      .withMaxBytes(350)
+      .withEvictionPolicy(DistributedMap.EvictionPolicy.LFU));
+
+    DistributedMap<String, String> map = createResource();
+    assertTrue(map.config().isSnapshotEnabled());
+
+    String value = String.join("", Collections.nCopies(12, "01234567"));
+    map.put("a", value).join();
+    map.put("a", value).join();
+    map.put("b", value).join();
+    map.put("b", value).join();
+    map.put("c", value).join();
+    map.put("d", value).join();
+
+    assertTrue(map.containsKey("a").get());
+    assertTrue(map.containsKey("b").get());
+    assertFalse(map.containsKey("c").get());
+    assertTrue(map.containsKey("d").get());
+    assertEquals(map.stats().get().evictionCount(), 1L);
+  }
+
   /**
    * Tests the put if absent command.
    */
@@ -141,6 +305,47 @@ public class DistributedMapTest extends AbstractCopycatTest<DistributedMap> {
     await(10000);
   }
 
+  /**
+   * Tests versioned entries and version-conditional operations.
+   */
+  public void testMapVersionedEntries() throws Throwable {
+    createServers(3);
+
+    DistributedMap<String, String> map1 = createResource(new DistributedMap.Options().withLocalCache());
+    DistributedMap<String, String> map2 = createResource();
+
+    assertNull(map1.getWithVersion("foo").join());
+
+    List<Long> versions = new ArrayList<>();
+    map1.onUpdate(event -> {
+      versions.add(event.version());
+      resume();
+    }).join();
+
+    map2.put("foo", "Hello world!").join();
+    DistributedMap.Versioned<String> first = map2.getWithVersion("foo").join();
+    assertEquals(first.value(), "Hello world!");
+    assertTrue(first.version() > 0);
+
+    assertTrue(map2.replaceIfVersion("foo", first.version(), "Hello world again!").join());
+    assertFalse(map2.replaceIfVersion("foo", first.version(), "Goodbye world!").join());
+    await(5000);
+
+    DistributedMap.Versioned<String> second = map2.getWithVersion("foo").join();
+    assertEquals(second.value(), "Hello world again!");
+    assertTrue(second.version() > first.version());
+    assertEquals(versions, Collections.singletonList(second.version()));
+
+    DistributedMap.Versioned<String> cached = map1.getWithVersion("foo", ReadConsistency.LOCAL).join();
+    assertEquals(cached.value(), "Hello world again!");
+    assertEquals(cached.version(), second.version());
+
+    assertFalse(map2.removeIfVersion("foo", first.version()).join());
+    assertTrue(map2.removeIfVersion("foo", second.version()).join());
+    assertNull(map2.getWithVersion("foo").join());
+    assertFalse(map2.replaceIfVersion("foo", second.version(), "Hello world!").join());
+  }
+
   /**
    * Tests get or default.
    */
@@ -398,6 +603,44 @@ public class DistributedMapTest extends AbstractCopycatTest<DistributedMap> {
     await(5000);
   }
 
+  /**
+   * Tests reading through and evicting entries from a bounded local map cache.
+   */
+  public void testMapBoundedCache() throws Throwable {
+    createServers(3);
+
+    DistributedMap<String, String> map1 = createResource(new DistributedMap.Options()
+      .withLocalCache()
+      .withLocalCacheSize(2)
+      .withLocalCachePolicy(MapCache.Policy.LRU));
+    DistributedMap<String, String> map2 = createResource();
+
+    // Wait for the add events to be received so they don't race with reads through the cache.
+    map1.onAdd(event -> resume()).join();
+    map2.put("foo", "Hello world!").join();
+    map2.put("bar", "Hello world again!").join();
+    map2.put("baz", "Hello world again and again!").join();
+    await(5000, 3);
+
+    assertEquals(map1.get("foo", ReadConsistency.LOCAL).get(5, TimeUnit.SECONDS), "Hello world!");
+    assertEquals(map1.get("foo", ReadConsistency.LOCAL).get(5, TimeUnit.SECONDS), "Hello world!");
+    assertEquals(map1.get("bar", ReadConsistency.LOCAL).get(5, TimeUnit.SECONDS), "Hello world again!");
+    assertEquals(map1.get("baz", ReadConsistency.LOCAL).get(5, TimeUnit.SECONDS), "Hello world again and again!");
+
+    DistributedMap.CacheStats stats = map1.cacheStats();
+    assertEquals(stats.size(), 2);
+    assertEquals(stats.hitCount(), 1);
+    assertEquals(stats.missCount(), 3);
+    assertEquals(stats.evictionCount(), 1);
+
+    map1.onUpdate("bar", event -> resume()).join();
+    map2.put("bar", "Goodbye world!").thenRun(this::resume);
+    await(5000, 2);
+
+    assertEquals(map1.get("bar", ReadConsistency.LOCAL).get(5, TimeUnit.SECONDS), "Goodbye world!");
+    assertEquals(map1.cacheStats().hitCount(), 2);
+  }
+
   /**
    * Tests various map events.
    */
@@ -478,4 +721,632 @@ public class DistributedMapTest extends AbstractCopycatTest<DistributedMap> {
     await(5000, 3);
   }
 
+  /**
+   * Tests events published by a batch of commands being coalesced and unpacked in order.
+   */
+  public void testMapBatchedEvents() throws Throwable {
+    createServers(3);
+
+    DistributedMap<String, String> map1 = createResource();
+    DistributedMap<String, String> map2 = createResource(new DistributedMap.Options().withBatching(Duration.ofMillis(10), 20));
+
+    for (int i = 0; i < 10; i++) {
+      map2.put("foo" + i, "Hello world " + i).thenRun(this::resume);
+    }
+    await(5000, 10);
+
+    List<String> removed = new ArrayList<>();
+    map1.onRemove(event -> {
+      removed.add(event.entry().getKey());
+      resume();
+    }).thenRun(this::resume);
+    map1.onRemove("foo0", event -> {
+      threadAssertEquals(event.entry().getValue(), "Hello world 0");
+      resume();
+    }).thenRun(this::resume);
+    await(5000, 2);
+
+    for (int i = 0; i < 10; i++) {
+      map2.remove("foo" + i).thenRun(this::resume);
+    }
+    await(5000, 21);
+
+    for (int i = 0; i < 10; i++) {
+      threadAssertEquals(removed.get(i), "foo" + i);
+    }
+  }
+
+  /**
+   * Tests batching map commands.
+   */
+  public void testMapBatchedCommands() throws Throwable {
+    createServers(3);
+
+    DistributedMap<String, String> map = createResource(new DistributedMap.Options().withBatching(Duration.ofMillis(10), 10));
+
+    for (int i = 0; i < 25; i++) {
+      map.put("foo" + i, "Hello world " + i).thenRun(this::resume);
+    }
+    map.putIfAbsent("foo0", "Hello world again!").thenAccept(result -> {
+      threadAssertEquals(result, "Hello world 0");
+      resume();
+    });
+    await(10000, 26);
+
+    map.size().thenAccept(size -> {
+      threadAssertEquals(size, 25);
+      resume();
+    });
+    await(10000);
+
+    map.get("foo24").thenAccept(result -> {
+      threadAssertEquals(result, "Hello world 24");
+      resume();
+    });
+    await(10000);
+  }
+
+  /**
+   * Tests that a failed command in a batch completes with the exception thrown by the state machine.
+   */
+  public void testMapBatchedCommandErrors() throws Throwable {
+    for (CopycatServer server : createServers(3, new Resource.Config().withSnapshots())) {
+      registerProcessors(server.serializer());
+    }
+
+    CopycatClient client = createCopycatClient();
+    registerProcessors(client.serializer());
+    DistributedMap<String, Object> map = createResource(client, new DistributedMap.Options().withBatching(Duration.ofMillis(10), 10));
+
+    map.put("words", "foo").join();
+    CompletableFuture<Object> compute = map.compute("words", new Increment(1));
+    CompletableFuture<Object> count = map.compute("count", new Increment(1));
+    try {
+      compute.join();
+      fail();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      while (cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      assertTrue(cause instanceof ClassCastException);
+    }
+    assertEquals(count.get(), 1L);
+    assertEquals(map.get("words").get(), "foo");
+  }
+
+  /**
+   * Tests bulk map operations split into several commands.
+   */
+  public void testMapBulkOperations() throws Throwable {
+    createServers(3);
+
+    DistributedMap<String, String> map1 = createResource();
+    DistributedMap<String, String> map2 = createResource(new DistributedMap.Options().withMaxBulkSize(3));
+
+    List<String> added = new ArrayList<>();
+    map1.onAdd(event -> {
+      added.add(event.entry().getKey());
+      resume();
+    }).thenRun(this::resume);
+    await(5000);
+
+    Map<String, String> entries = new LinkedHashMap<>();
+    for (int i = 0; i < 10; i++) {
+      entries.put("foo" + i, "Hello world " + i);
+    }
+    map2.putAll(entries).thenRun(this::resume);
+    await(10000, 11);
+    threadAssertEquals(added, new ArrayList<>(entries.keySet()));
+
+    map2.getAll(Arrays.asList("foo1", "foo9", "bar")).thenAccept(result -> {
+      threadAssertEquals(result.size(), 2);
+      threadAssertEquals(result.get("foo1"), "Hello world 1");
+      threadAssertEquals(result.get("foo9"), "Hello world 9");
+      resume();
+    });
+    await(10000);
+
+    Map<String, String> more = new LinkedHashMap<>();
+    more.put("foo0", "Goodbye world 0");
+    more.put("bar", "Hello world!");
+    map2.putAllIfAbsent(more).thenAccept(result -> {
+      threadAssertEquals(result.size(), 1);
+      threadAssertEquals(result.get("foo0"), "Hello world 0");
+      resume();
+    });
+    await(10000, 2);
+
+    map2.removeAll(Arrays.asList("foo0", "foo1", "foo2", "foo3", "baz")).thenAccept(result -> {
+      threadAssertEquals(result.size(), 4);
+      threadAssertEquals(result.get("foo3"), "Hello world 3");
+      resume();
+    });
+    await(10000);
+
+    map1.size().thenAccept(size -> {
+      threadAssertEquals(size, 7);
+      resume();
+    });
+    await(10000);
+  }
+
+  /**
+   * Tests querying a map by secondary indexes and by scanning.
+   */
+  public void testMapQuery() throws Throwable {
+    DistributedMap.Config config = new DistributedMap.Config()
+      .withIndex("first", FirstLetter.class)
+      .withSortedIndex("length", Length.class);
+    for (CopycatServer server : createServers(3, config)) {
+      server.serializer().register(Contains.class, 1002);
+    }
+
+    CopycatClient client = createCopycatClient();
+    client.serializer().register(Contains.class, 1002);
+    DistributedMap<String, String> map = createResource(client, new Resource.Options());
+    map.put("a", "apple").join();
+    map.put("b", "banana").join();
+    map.put("c", "avocado").join();
+    map.put("d", "fig").join();
+    map.put("e", null).join();
+
+    assertEquals(map.query(DistributedMap.IndexPredicate.equalTo("first", "a"), 10).get().keySet(), new HashSet<>(Arrays.asList("a", "c")));
+    assertEquals(map.query(DistributedMap.IndexPredicate.equalTo("first", "a"), 1).get().size(), 1);
+    assertEquals(new ArrayList<>(map.query(DistributedMap.IndexPredicate.between("length", 3, 7), 10).get().keySet()), Arrays.asList("d", "a", "b"));
+    assertEquals(new ArrayList<>(map.query(DistributedMap.IndexPredicate.between("length", null, 6), 10).get().keySet()), Arrays.asList("d", "a"));
+
+    map.put("a", "cherry").join();
+    map.remove("c").join();
+    assertTrue(map.query(DistributedMap.IndexPredicate.equalTo("first", "a"), 10).get().isEmpty());
+    assertEquals(map.query(DistributedMap.IndexPredicate.equalTo("length", 6), 10).get().keySet(), new HashSet<>(Arrays.asList("a", "b")));
+
+    Map<String, String> result = map.query(new Contains("an"), 10, ReadConsistency.ATOMIC).get();
+    assertEquals(result.size(), 1);
+    assertEquals(result.get("b"), "banana");
+    assertEquals(map.query(new Contains("e"), 1).get().size(), 1);
+
+    try {
+      map.query(DistributedMap.IndexPredicate.equalTo("missing", "a"), 10).join();
+      fail();
+    } catch (CompletionException e) {
+    }
+    try {
+      map.query(DistributedMap.IndexPredicate.between("first", "a", "b"), 10).join();
+      fail();
+    } catch (CompletionException e) {
+    }
+  }
+
+  /**
+   * Tests listeners filtered on the server.
+   */
+  public void testMapFilteredListeners() throws Throwable {
+    for (CopycatServer server : createServers(3)) {
+      server.serializer().register(Contains.class, 1002);
+    }
+
+    DistributedMap<String, String> map1 = createResource();
+    CopycatClient client = createCopycatClient();
+    client.serializer().register(Contains.class, 1002);
+    DistributedMap<String, String> map2 = createResource(client, new Resource.Options());
+
+    List<String> added = new ArrayList<>();
+    List<String> updated = new ArrayList<>();
+    List<String> removed = new ArrayList<>();
+    map2.onAdd(new DistributedMap.KeyPrefix("foo"), event -> {
+      added.add(event.entry().getKey());
+      resume();
+    }).thenRun(this::resume);
+    map2.onUpdate(new DistributedMap.KeyRange("b", "d"), event -> {
+      updated.add(event.entry().getKey());
+      resume();
+    }).thenRun(this::resume);
+    Listener<DistributedMap.EntryEvent<String, String>> listener = map2.onRemove(new Contains("world"), event -> {
+      removed.add(event.entry().getKey());
+      resume();
+    }).get();
+    await(5000, 2);
+
+    map1.put("foo1", "Hello world!").join();
+    map1.put("bar", "Hello world!").join();
+    map1.put("foo2", "Hello world!").join();
+    await(5000, 2);
+    assertEquals(added, Arrays.asList("foo1", "foo2"));
+
+    map1.put("foo1", "Goodbye").join();
+    map1.put("bar", "Goodbye").join();
+    await(5000);
+    assertEquals(updated, Arrays.asList("bar"));
+
+    map1.remove("foo1").join();
+    map1.remove("foo2").join();
+    await(5000);
+    assertEquals(removed, Arrays.asList("foo2"));
+
+    listener.close();
+    map1.remove("bar").join();
+    map1.put("foo3", "Hello world!").join();
+    map1.remove("foo3").join();
+    await(5000);
+    assertEquals(added, Arrays.asList("foo1", "foo2", "foo3"));
+    assertEquals(removed, Arrays.asList("foo2"));
+  }
+
+  /**
+   * Extracts the first letter of a string value.
+   */
+  public static class FirstLetter implements DistributedMap.ValueExtractor<String, String> {
+    @Override
+    public String extract(String value) {
+      return value.isEmpty() ? null : value.substring(0, 1);
+    }
+  }
+
+  /**
+   * Extracts the length of a string value.
+   */
+  public static class Length implements DistributedMap.ValueExtractor<String, Integer> {
+    @Override
+    public Integer extract(String value) {
+      return value.length();
+    }
+  }
+
+  /**
+   * Predicate matching string values that contain a substring.
+   */
+  public static class Contains implements DistributedMap.EntryPredicate<String, String>, CatalystSerializable {
+    private String substring;
+
+    public Contains() {
+    }
+
+    public Contains(String substring) {
+      this.substring = substring;
+    }
+
+    @Override
+    public boolean test(String key, String value) {
+      return value != null && value.contains(substring);
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeString(substring);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      substring = buffer.readString();
+    }
+  }
+
+  /**
+   * Tests computing values with entry processors.
+   */
+  @SuppressWarnings("unchecked")
+  public void testMapEntryProcessors() throws Throwable {
+    for (CopycatServer server : createServers(3, new Resource.Config().withSnapshots())) {
+      registerProcessors(server.serializer());
+    }
+
+    CopycatClient client1 = createCopycatClient();
+    registerProcessors(client1.serializer());
+    DistributedMap<String, Object> map1 = createResource(client1, new Resource.Options());
+    CopycatClient client2 = createCopycatClient();
+    registerProcessors(client2.serializer());
+    DistributedMap<String, Object> map2 = createResource(client2, new Resource.Options());
+
+    List<CompletableFuture<Object>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(map1.compute("count", new Increment(1)));
+      futures.add(map2.compute("count", new Increment(2)));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).join();
+    assertEquals(map1.get("count").get(), 30L);
+
+    assertNull(map1.computeIfPresent("missing", new Increment(1)).get());
+    assertFalse(map1.containsKey("missing").get());
+    assertEquals(map1.computeIfAbsent("count", new Increment(1)).get(), 30L);
+    assertEquals(map1.computeIfAbsent("other", new Increment(5)).get(), 5L);
+    assertEquals(map2.computeIfPresent("other", new Increment(1)).get(), 6L);
+    assertNull(map2.compute("other", new Increment(-6)).get());
+    assertFalse(map1.containsKey("other").get());
+
+    assertEquals(map1.merge("words", "foo", new Concat()).get(), "foo");
+    assertEquals(map2.merge("words", "bar", new Concat()).get(), "foo,bar");
+    assertEquals(map1.get("words").get(), "foo,bar");
+
+    try {
+      map1.compute("words", new Increment(1)).join();
+      fail();
+    } catch (CompletionException e) {
+    }
+    assertEquals(map1.get("words").get(), "foo,bar");
+  }
+
+  /**
+   * Tests that entry processors are rejected by maps without snapshots.
+   */
+  public void testMapEntryProcessorsRequireSnapshots() throws Throwable {
+    for (CopycatServer server : createServers(3)) {
+      registerProcessors(server.serializer());
+    }
+
+    CopycatClient client = createCopycatClient();
+    registerProcessors(client.serializer());
+    DistributedMap<String, Object> map = createResource(client, new Resource.Options());
+
+    map.put("count", 1L).join();
+    try {
+      map.compute("count", new Increment(1)).join();
+      fail();
+    } catch (CompletionException e) {
+    }
+    try {
+      map.merge("words", "foo", new Concat()).join();
+      fail();
+    } catch (CompletionException e) {
+    }
+    assertEquals(map.get("count").get(), 1L);
+    assertFalse(map.containsKey("words").get());
+  }
+
+  /**
+   * Tests that merging a value into a key keeps the key's TTL.
+   */
+  public void testMapMergeTtl() throws Throwable {
+    for (CopycatServer server : createServers(3, new Resource.Config().withSnapshots())) {
+      registerProcessors(server.serializer());
+    }
+
+    CopycatClient client = createCopycatClient();
+    registerProcessors(client.serializer());
+    DistributedMap<String, Object> map = createResource(client, new Resource.Options());
+
+    map.put("words", "foo", Duration.ofSeconds(1)).join();
+    assertEquals(map.merge("words", "bar", new Concat()).get(), "foo,bar");
+    assertEquals(map.get("words").get(), "foo,bar");
+
+    Thread.sleep(3000);
+
+    assertNull(map.get("words").get());
+    assertEquals(map.size().get().intValue(), 0);
+  }
+
+  /**
+   * Registers the test entry processors with the given serializer.
+   */
+  private static void registerProcessors(Serializer serializer) {
+    serializer.register(Increment.class, 1000);
+    serializer.register(Concat.class, 1001);
+  }
+
+  /**
+   * Entry processor that adds a delta to a long value, removing the entry if the result is zero.
+   */
+  public static class Increment implements DistributedMap.EntryProcessor<String, Object>, CatalystSerializable {
+    private long delta;
+
+    public Increment() {
+    }
+
+    public Increment(long delta) {
+      this.delta = delta;
+    }
+
+    @Override
+    public Object process(String key, Object value) {
+      long result = value != null ? (Long) value + delta : delta;
+      return result != 0 ? result : null;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeLong(delta);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      delta = buffer.readLong();
+    }
+  }
+
+  /**
+   * Merge function that joins string values with commas.
+   */
+  public static class Concat implements DistributedMap.MergeFunction<Object>, CatalystSerializable {
+    @Override
+    public Object merge(Object oldValue, Object value) {
+      return oldValue + "," + value;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+    }
+  }
+
+  /**
+   * Tests putting entries in bulk with a TTL.
+   */
+  public void testMapPutAllTtl() throws Throwable {
+    createServers(3);
+
+    DistributedMap<String, String> map = createResource();
+    Map<String, String> entries = new HashMap<>();
+    entries.put("foo", "Hello world!");
+    entries.put("bar", "Hello world again!");
+    map.putAll(entries, Duration.ofSeconds(1)).thenRun(this::resume);
+    await(10000);
+
+    map.put("bar", "Goodbye world!").thenRun(this::resume);
+    await(10000);
+
+    Thread.sleep(3000);
+
+    map.getAll(entries.keySet()).thenAccept(result -> {
+      threadAssertEquals(result.size(), 1);
+      threadAssertEquals(result.get("bar"), "Goodbye world!");
+      resume();
+    });
+    await(10000);
+  }
+
+  /**
+   * Tests iterating over a map in several pages.
+   */
+  public void testMapPagedIterators() throws Throwable {
+    createServers(3);
+
+    DistributedMap<String, String> map = createResource();
+    Map<String, String> entries = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      entries.put("foo" + i, "Hello world " + i);
+    }
+    map.putAll(entries).join();
+
+    Iterator<String> keys = map.keyIterator(3).get();
+    map.put("foo0", "Goodbye world 0").join();
+    map.remove("foo9").join();
+
+    Set<String> keySet = new HashSet<>();
+    while (keys.hasNext()) {
+      threadAssertTrue(keySet.add(keys.next()));
+    }
+    for (int i = 0; i < 9; i++) {
+      threadAssertTrue(keySet.contains("foo" + i));
+    }
+
+    Map<String, String> result = new HashMap<>();
+    Iterator<Map.Entry<String, String>> iterator = map.entryIterator(4).get();
+    while (iterator.hasNext()) {
+      Map.Entry<String, String> entry = iterator.next();
+      result.put(entry.getKey(), entry.getValue());
+    }
+    entries.put("foo0", "Goodbye world 0");
+    entries.remove("foo9");
+    assertEquals(result, entries);
+
+    List<String> values = new ArrayList<>();
+    map.valueIterator(100).get().forEachRemaining(values::add);
+    assertEquals(values.size(), 9);
+  }
+
+  /**
+   * Tests iterating over a map with ordered keys in key order.
+   */
+  public void testOrderedMapPagedIterator() throws Throwable {
+    createServers(3, new DistributedMap.Config().withKeyOrder(DistributedMap.Order.NATURAL));
+
+    DistributedMap<String, String> map = createResource();
+    for (String key : new String[]{"c", "e", "a", "d", "b"}) {
+      map.put(key, key.toUpperCase()).join();
+    }
+
+    List<String> keys = new ArrayList<>();
+    map.keyIterator(2).get().forEachRemaining(keys::add);
+    assertEquals(keys, Arrays.asList("a", "b", "c", "d", "e"));
+  }
+
+  /**
+   * Tests checking for values with the value index enabled.
+   */
+  public void testMapValueIndex() throws Throwable {
+    createServers(3, new DistributedMap.Config().withValueIndex());
+
+    DistributedMap<String, String> map = createResource();
+    map.put("foo", "Hello world!").join();
+    map.put("bar", "Hello world!").join();
+    map.put("baz", "Hello world again!", Duration.ofSeconds(1)).join();
+    map.put("qux", null).join();
+
+    assertTrue(map.containsValue("Hello world!").get());
+    assertTrue(map.containsValue("Hello world again!").get());
+    assertEquals(map.stats().get().valueIndexSize(), 2);
+
+    map.remove("foo").join();
+    assertTrue(map.containsValue("Hello world!").get());
+    map.replace("bar", "Goodbye world!").join();
+    assertFalse(map.containsValue("Hello world!").get());
+    assertTrue(map.containsValue("Goodbye world!").get());
+
+    Thread.sleep(3000);
+
+    map.size().join();
+    assertFalse(map.containsValue("Hello world again!").get());
+
+    DistributedMap.Stats stats = map.stats().get();
+    assertEquals(stats.size(), 2);
+    assertEquals(stats.valueIndexSize(), 1);
+    assertTrue(stats.valueIndexBytes() > 0);
+  }
+
+  /**
+   * Tests range and prefix queries on a map with ordered keys.
+   */
+  public void testOrderedMapRangeQueries() throws Throwable {
+    createServers(3, new DistributedMap.Config().withKeyOrder(DistributedMap.Order.NATURAL));
+
+    DistributedMap<String, String> map = createResource();
+    for (String key : new String[]{"c", "a/2", "b", "a/1", "d", "a/3"}) {
+      map.put(key, key.toUpperCase()).thenRun(this::resume);
+    }
+    await(10000, 6);
+
+    map.subMap("a/2", "c").thenAccept(result -> {
+      threadAssertEquals(new ArrayList<>(result.keySet()), Arrays.asList("a/2", "a/3", "b"));
+      threadAssertEquals(result.get("b"), "B");
+      resume();
+    });
+    map.headMap("b", true, 2).thenAccept(result -> {
+      threadAssertEquals(new ArrayList<>(result.keySet()), Arrays.asList("a/1", "a/2"));
+      resume();
+    });
+    map.tailMap("b", false, 10).thenAccept(result -> {
+      threadAssertEquals(new ArrayList<>(result.keySet()), Arrays.asList("c", "d"));
+      resume();
+    });
+    map.prefix("a/", 10).thenAccept(result -> {
+      threadAssertEquals(new ArrayList<>(result.keySet()), Arrays.asList("a/1", "a/2", "a/3"));
+      resume();
+    });
+    map.firstKey().thenAccept(result -> {
+      threadAssertEquals(result, "a/1");
+      resume();
+    });
+    map.lastKey().thenAccept(result -> {
+      threadAssertEquals(result, "d");
+      resume();
+    });
+    map.floorEntry("bb").thenAccept(result -> {
+      threadAssertEquals(result.getKey(), "b");
+      threadAssertEquals(result.getValue(), "B");
+      resume();
+    });
+    map.ceilingEntry("e").thenAccept(result -> {
+      threadAssertNull(result);
+      resume();
+    });
+    await(10000, 8);
+  }
+
+  /**
+   * Tests that range queries are rejected on a map without ordered keys.
+   */
+  public void testUnorderedMapRangeQuery() throws Throwable {
+    createServers(3);
+
+    DistributedMap<String, String> map = createResource();
+    try {
+      map.subMap("a", "b");
+      fail();
+    } catch (IllegalStateException e) {
+    }
+  }
+
 }
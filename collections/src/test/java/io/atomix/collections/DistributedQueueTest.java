@@ -15,11 +15,23 @@
  */
 package io.atomix.collections;
 
+import io.atomix.resource.Resource;
 import io.atomix.testing.AbstractCopycatTest;
 import org.testng.annotations.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  * Distributed queue test.
@@ -222,4 +234,292 @@ public class DistributedQueueTest extends AbstractCopycatTest<DistributedQueue>
     await(5000, 2);
   }
 
+  /**
+   * Tests taking values from a queue and polling an empty queue with a timeout.
+   */
+  public void testQueueTakePoll() throws Throwable {
+    createServers(3, new Resource.Config().withSnapshots());
+
+    DistributedQueue<String> queue1 = createResource();
+    DistributedQueue<String> queue2 = createResource();
+
+    queue1.offer("foo").join();
+    assertEquals(queue2.take().get(), "foo");
+
+    CompletableFuture<String> first = queue2.take();
+    assertTrue(queue2.isEmpty().get());
+    CompletableFuture<String> second = queue1.take();
+    assertTrue(queue1.isEmpty().get());
+    assertFalse(first.isDone());
+
+    queue1.add("bar").join();
+    queue1.offer("baz").join();
+    assertEquals(first.get(), "bar");
+    assertEquals(second.get(), "baz");
+    assertTrue(queue1.isEmpty().get());
+
+    assertNull(queue2.poll(Duration.ofMillis(500)).get());
+    CompletableFuture<String> poll = queue2.poll(Duration.ofSeconds(30));
+    queue1.add("qux").join();
+    assertEquals(poll.get(), "qux");
+  }
+
+  /**
+   * Tests adding and removing batches of values.
+   */
+  public void testQueueBatches() throws Throwable {
+    createServers(3, new Resource.Config().withSnapshots());
+
+    DistributedQueue<String> queue1 = createResource();
+    DistributedQueue<String> queue2 = createResource();
+
+    List<String> added = new ArrayList<>();
+    List<String> removed = new ArrayList<>();
+    queue2.onAdd(event -> added.add(event.value())).join();
+    queue2.onRemove(event -> removed.add(event.value())).join();
+
+    CompletableFuture<String> take = queue2.take();
+    assertTrue(queue1.offerAll(Arrays.asList("a", "b", "c", "d", "e")).get());
+    assertEquals(take.get(), "a");
+    assertEquals(queue2.size().get(), Integer.valueOf(4));
+
+    assertEquals(queue2.poll(3).get(), Arrays.asList("b", "c", "d"));
+    List<String> drained = new ArrayList<>();
+    assertEquals(queue1.drainTo(drained, 10).get(), Integer.valueOf(1));
+    assertEquals(drained, Arrays.asList("e"));
+    assertTrue(queue1.poll(10).get().isEmpty());
+    assertFalse(queue1.offerAll(new ArrayList<>()).get());
+
+    queue1.offer("f").join();
+    assertEquals(queue1.poll().get(), "f");
+    assertNull(queue2.poll().get());
+    assertEquals(added, Arrays.asList("a", "b", "c", "d", "e", "f"));
+    assertEquals(removed, Arrays.asList("a", "b", "c", "d", "e", "f"));
+  }
+
+  /**
+   * Tests leasing, acknowledging and rejecting values.
+   */
+  public void testQueueLeaseAckNack() throws Throwable {
+    createServers(3, new Resource.Config().withSnapshots());
+
+    DistributedQueue<String> queue1 = createResource();
+    DistributedQueue<String> queue2 = createResource();
+
+    queue1.offerAll(Arrays.asList("a", "b", "c")).join();
+    List<DistributedQueue.Task<String>> tasks = queue2.lease(2, Duration.ofSeconds(30)).get();
+    assertEquals(tasks.size(), 2);
+    assertEquals(tasks.get(0).value(), "a");
+    assertEquals(tasks.get(1).value(), "b");
+    assertEquals(tasks.get(0).deliveries(), 1);
+    assertEquals(queue1.size().get(), Integer.valueOf(1));
+    assertEquals(queue1.stats().get().inFlight(), 2);
+
+    assertTrue(queue2.ack(tasks.get(0).id()).get());
+    assertFalse(queue2.ack(tasks.get(0).id()).get());
+    assertTrue(queue2.nack(tasks.get(1).id()).get());
+    assertEquals(queue1.peek().get(), "b");
+
+    List<DistributedQueue.Task<String>> redelivered = queue1.lease(10, Duration.ofSeconds(30)).get();
+    assertEquals(redelivered.size(), 2);
+    assertEquals(redelivered.get(0).value(), "b");
+    assertEquals(redelivered.get(0).deliveries(), 2);
+    assertEquals(redelivered.get(1).value(), "c");
+    assertTrue(queue1.lease(10, Duration.ofSeconds(30)).get().isEmpty());
+
+    DistributedQueue.Stats stats = queue2.stats().get();
+    assertEquals(stats.size(), 0);
+    assertEquals(stats.inFlight(), 2);
+    assertEquals(stats.deliveries(), 4);
+    assertEquals(stats.redeliveries(), 1);
+    assertEquals(stats.redeliveryRate(), 0.25);
+  }
+
+  /**
+   * Tests that leased values are returned to the queue when their visibility timeout expires or their
+   * session is closed.
+   */
+  public void testQueueLeaseExpiration() throws Throwable {
+    createServers(3, new Resource.Config().withSnapshots());
+
+    DistributedQueue<String> queue1 = createResource();
+    DistributedQueue<String> queue2 = createResource();
+
+    queue1.offerAll(Arrays.asList("a", "b")).join();
+    DistributedQueue.Task<String> task = queue1.lease(1, Duration.ofMillis(500)).get().get(0);
+    assertEquals(task.value(), "a");
+    assertEquals(queue2.poll(Duration.ofSeconds(30)).get(), "b");
+
+    assertEquals(queue2.take().get(), "a");
+    assertFalse(queue1.ack(task.id()).get());
+
+    queue1.offer("c").join();
+    assertEquals(queue2.lease(1, Duration.ofSeconds(30)).get().get(0).value(), "c");
+    assertTrue(queue1.isEmpty().get());
+    queue2.close().join();
+
+    assertEquals(queue1.poll(Duration.ofSeconds(30)).get(), "c");
+    assertEquals(queue1.stats().get().inFlight(), 0);
+  }
+
+  /**
+   * Tests that leases are rejected by queues without snapshots.
+   */
+  public void testQueueLeaseRequiresSnapshots() throws Throwable {
+    createServers(3);
+
+    DistributedQueue<String> queue = createResource();
+    queue.offer("a").join();
+    try {
+      queue.lease(1, Duration.ofSeconds(30)).join();
+      fail();
+    } catch (CompletionException e) {
+    }
+    assertEquals(queue.size().get().intValue(), 1);
+    assertEquals(queue.peek().get(), "a");
+  }
+
+  /**
+   * Tests that takes are rejected by queues without snapshots.
+   */
+  public void testQueueTakeRequiresSnapshots() throws Throwable {
+    createServers(3);
+
+    DistributedQueue<String> queue = createResource();
+    try {
+      queue.take().join();
+      fail();
+    } catch (CompletionException e) {
+    }
+    try {
+      queue.poll(Duration.ofSeconds(1)).join();
+      fail();
+    } catch (CompletionException e) {
+    }
+    queue.offer("a").join();
+    assertEquals(queue.poll().get(), "a");
+  }
+
+  /**
+   * Tests a priority queue.
+   */
+  public void testPriorityQueue() throws Throwable {
+    createServers(3, new DistributedQueue.Config().withComparator(Reverse.class).withSnapshots());
+
+    DistributedQueue<String> queue1 = createResource();
+    DistributedQueue<String> queue2 = createResource();
+    assertEquals(queue1.config().getOrder(), DistributedQueue.Order.PRIORITY);
+
+    queue1.offerAll(Arrays.asList("b", "d", "a")).join();
+    queue1.offer("c").join();
+    queue1.add("d").join();
+    assertEquals(queue2.peek().get(), "d");
+    assertEquals(queue2.poll(2).get(), Arrays.asList("d", "d"));
+
+    DistributedQueue.Task<String> task = queue2.lease(1, Duration.ofSeconds(30)).get().get(0);
+    assertEquals(task.value(), "c");
+    queue1.offer("a").join();
+    queue2.nack(task.id()).join();
+    assertEquals(queue2.poll(10).get(), Arrays.asList("c", "b", "a", "a"));
+  }
+
+  /**
+   * Tests a delay queue.
+   */
+  public void testDelayQueue() throws Throwable {
+    createServers(3, new DistributedQueue.Config().withOrder(DistributedQueue.Order.DELAY).withSnapshots());
+
+    DistributedQueue<String> queue1 = createResource();
+    DistributedQueue<String> queue2 = createResource();
+
+    queue1.offer("later", Duration.ofSeconds(2)).join();
+    queue1.offer("soon", Duration.ofMillis(500)).join();
+    queue1.offer("now").join();
+    assertEquals(queue2.size().get(), Integer.valueOf(1));
+    assertEquals(queue2.stats().get().delayed(), 2);
+
+    assertEquals(queue2.poll().get(), "now");
+    assertNull(queue2.poll().get());
+    assertEquals(queue2.take().get(), "soon");
+    assertEquals(queue2.poll(Duration.ofSeconds(30)).get(), "later");
+    assertEquals(queue2.stats().get().delayed(), 0);
+  }
+
+  /**
+   * Tests that delayed offers are rejected by queues that don't support them.
+   */
+  public void testDelayUnsupported() throws Throwable {
+    createServers(3);
+
+    DistributedQueue<String> queue = createResource();
+    try {
+      queue.offer("foo", Duration.ofSeconds(1));
+      fail();
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  /**
+   * Tests a queue with a value index.
+   */
+  public void testQueueValueIndex() throws Throwable {
+    createServers(3, new DistributedQueue.Config().withValueIndex());
+
+    DistributedQueue<String> queue1 = createResource();
+    DistributedQueue<String> queue2 = createResource();
+    assertTrue(queue1.config().isValueIndexEnabled());
+
+    queue1.offerAll(Arrays.asList("a", "b", "a", "c")).join();
+    assertTrue(queue2.contains("a").get());
+    assertFalse(queue2.contains("d").get());
+    assertTrue(queue2.stats().get().valueIndexBytes() > 0);
+
+    assertTrue(queue2.remove("a").get());
+    assertFalse(queue2.remove("d").get());
+    assertEquals(queue1.poll(10).get(), Arrays.asList("b", "a", "c"));
+    assertFalse(queue2.contains("a").get());
+    assertEquals(queue2.stats().get().valueIndexBytes(), 0);
+  }
+
+  /**
+   * Tests a queue with a capacity.
+   */
+  public void testBoundedQueue() throws Throwable {
+    createServers(3, new DistributedQueue.Config().withCapacity(2).withSnapshots());
+
+    DistributedQueue<String> queue1 = createResource();
+    DistributedQueue<String> queue2 = createResource();
+    assertEquals(queue1.config().getCapacity(), 2);
+
+    assertTrue(queue1.offer("a").get());
+    DistributedQueue.Task<String> task = queue1.lease(1, Duration.ofSeconds(30)).get().get(0);
+    assertTrue(queue1.put("b", Duration.ofSeconds(30)).get());
+    assertFalse(queue1.offer("c").get());
+    assertFalse(queue1.add("c").get());
+    assertFalse(queue1.offerAll(Arrays.asList("c", "d")).get());
+    assertFalse(queue1.put("c", Duration.ofMillis(500)).get());
+
+    CompletableFuture<Void> put = queue2.put("c");
+    DistributedQueue.Stats stats = queue2.stats().get();
+    assertEquals(stats.depth(), 2);
+    assertEquals(stats.capacity(), 2);
+    assertEquals(stats.blocked(), 1);
+    assertFalse(put.isDone());
+
+    assertTrue(queue1.ack(task.id()).get());
+    put.join();
+    assertEquals(queue1.poll(10).get(), Arrays.asList("b", "c"));
+    assertEquals(queue1.stats().get().blocked(), 0);
+  }
+
+  /**
+   * Comparator that orders strings in reverse natural order.
+   */
+  public static class Reverse implements Comparator<String> {
+    @Override
+    public int compare(String a, String b) {
+      return b.compareTo(a);
+    }
+  }
+
 }
@@ -18,11 +18,16 @@ package io.atomix.collections;
 import io.atomix.testing.AbstractCopycatTest;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -85,6 +90,35 @@ public class DistributedSetTest extends AbstractCopycatTest<DistributedSet> {
     await(10000);
   }
 
+  /**
+   * Tests iterating over a set in several pages.
+   */
+  public void testPagedIterator() throws Throwable {
+    createServers(3);
+
+    DistributedSet<String> set = createResource();
+    for (int i = 0; i < 10; i++) {
+      set.add("test" + i).thenRun(this::resume);
+    }
+    await(10, TimeUnit.SECONDS, 10);
+
+    Iterator<String> iterator = set.iterator(3).get();
+    set.remove("test9").join();
+    set.add("test0").join();
+
+    Set<String> values = new HashSet<>();
+    while (iterator.hasNext()) {
+      assertTrue(values.add(iterator.next()));
+    }
+    for (int i = 0; i < 9; i++) {
+      assertTrue(values.contains("test" + i));
+    }
+
+    List<String> remaining = new ArrayList<>();
+    set.iterator(3).get().forEachRemaining(remaining::add);
+    assertEquals(remaining.size(), 9);
+  }
+
   /**
    * Tests various set events.
    */
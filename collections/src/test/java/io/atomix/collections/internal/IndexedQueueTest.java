@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.testng.Assert.*;
+
+/**
+ * Indexed queue test.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+@Test
+public class IndexedQueueTest {
+
+  /**
+   * Tests that removing by key removes the element nearest the head and preserves queue order.
+   */
+  public void testRemoveFirst() {
+    IndexedQueue<String> queue = new IndexedQueue<>(value -> value);
+    queue.addAll(Arrays.asList("a", "b", "a", "c"));
+    queue.addFirst("c");
+    assertTrue(queue.containsKey("a"));
+    assertFalse(queue.containsKey("d"));
+
+    assertEquals(queue.removeFirst("a"), "a");
+    assertEquals(queue.removeFirst("c"), "c");
+    assertNull(queue.removeFirst("d"));
+    assertEquals(new ArrayList<>(queue), Arrays.asList("b", "a", "c"));
+
+    assertEquals(queue.removeFirst("a"), "a");
+    assertFalse(queue.containsKey("a"));
+    assertEquals(queue.poll(), "b");
+    assertEquals(queue.poll(), "c");
+    assertNull(queue.poll());
+    assertEquals(queue.indexBytes(), 0);
+  }
+
+  /**
+   * Tests removing elements through the iterator.
+   */
+  public void testIteratorRemove() {
+    IndexedQueue<String> queue = new IndexedQueue<>(value -> value);
+    queue.addAll(Arrays.asList("a", "b", "a"));
+    Iterator<String> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().equals("a")) {
+        iterator.remove();
+      }
+    }
+    assertEquals(queue.size(), 1);
+    assertFalse(queue.containsKey("a"));
+    assertEquals(queue.peek(), "b");
+  }
+
+}
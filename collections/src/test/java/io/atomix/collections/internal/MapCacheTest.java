@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import io.atomix.collections.DistributedMap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * Map cache test.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+@Test
+public class MapCacheTest {
+
+  /**
+   * Tests that changes to other keys don't prevent a read result from being loaded.
+   */
+  public void testLoadAfterOtherKeyChanged() {
+    MapCache<String, String> cache = new MapCache<>(10, MapCache.Policy.LRU);
+    long sequence = cache.begin();
+    cache.update("bar", "b", 5);
+    cache.invalidate("baz", 6);
+    cache.clear();
+    cache.load("foo", new DistributedMap.Versioned<>("a", 3), sequence);
+    cache.end();
+    assertNull(cache.get("foo"));
+
+    sequence = cache.begin();
+    cache.update("bar", "b", 7);
+    cache.invalidate("baz", 8);
+    cache.load("foo", new DistributedMap.Versioned<>("a", 3), sequence);
+    cache.load("qux", "q", sequence);
+    cache.end();
+    assertEquals(cache.get("foo"), "a");
+    assertEquals(cache.get("qux"), "q");
+  }
+
+  /**
+   * Tests that a read result is only loaded if it's newer than changes to its key received during the read.
+   */
+  public void testLoadAfterKeyChanged() {
+    MapCache<String, String> cache = new MapCache<>();
+    long sequence = cache.begin();
+    cache.invalidate("foo", 5);
+    cache.load("foo", new DistributedMap.Versioned<>("a", 4), sequence);
+    assertNull(cache.get("foo"));
+    cache.load("foo", new DistributedMap.Versioned<>("b", 6), sequence);
+    assertEquals(cache.get("foo"), "b");
+    cache.end();
+
+    sequence = cache.begin();
+    cache.update("foo", "c", 8);
+    cache.load("foo", new DistributedMap.Versioned<>("b", 7), sequence);
+    assertEquals(cache.getVersioned("foo").version(), 8);
+    cache.end();
+
+    // Results without an entry version are skipped if their key changed during the read.
+    sequence = cache.begin();
+    cache.invalidate("bar", 9);
+    cache.load("bar", "d", sequence);
+    assertNull(cache.get("bar"));
+    long next = cache.begin();
+    cache.load("bar", "e", next);
+    assertEquals(cache.get("bar"), "e");
+    cache.end();
+    cache.end();
+
+    // Changes with an unknown version invalidate any result read concurrently.
+    sequence = cache.begin();
+    cache.invalidate("baz");
+    cache.load("baz", new DistributedMap.Versioned<>("f", 100), sequence);
+    assertNull(cache.get("baz"));
+    cache.end();
+  }
+
+  /**
+   * Tests that changes are only tracked while reads are outstanding.
+   */
+  public void testChangesReleased() {
+    MapCache<String, String> cache = new MapCache<>();
+    cache.invalidate("foo", 5);
+    long sequence = cache.begin();
+    cache.load("foo", new DistributedMap.Versioned<>("a", 4), sequence);
+    cache.end();
+    assertEquals(cache.get("foo"), "a");
+  }
+
+}
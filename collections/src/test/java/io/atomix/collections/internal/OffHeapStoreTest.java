@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.collections.internal;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Off-heap store test.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+@Test
+public class OffHeapStoreTest {
+
+  /**
+   * Returns a record of the given length filled with the given byte.
+   */
+  private static byte[] record(int length, int fill) {
+    byte[] record = new byte[length];
+    for (int i = 0; i < length; i++) {
+      record[i] = (byte) fill;
+    }
+    return record;
+  }
+
+  /**
+   * Tests writing, reading and freeing records.
+   */
+  public void testWriteReadFree() {
+    OffHeapStore store = new OffHeapStore(64);
+    OffHeapStore.Slot first = store.write(record(10, 1));
+    OffHeapStore.Slot second = store.write(record(20, 2));
+    assertEquals(store.bytes(), 64);
+    assertEquals(store.liveBytes(), 30);
+    assertEquals(store.read(first), record(10, 1));
+    assertEquals(store.read(second), record(20, 2));
+
+    store.free(first);
+    store.free(first);
+    assertEquals(store.liveBytes(), 20);
+    assertEquals(store.read(second), record(20, 2));
+    try {
+      store.read(first);
+      fail();
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  /**
+   * Tests that empty slabs are released.
+   */
+  public void testReleaseSlabs() {
+    OffHeapStore store = new OffHeapStore(64);
+    List<OffHeapStore.Slot> slots = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      slots.add(store.write(record(32, i)));
+    }
+    assertEquals(store.bytes(), 256);
+
+    for (OffHeapStore.Slot slot : slots) {
+      store.free(slot);
+    }
+    assertEquals(store.liveBytes(), 0);
+    assertEquals(store.bytes(), 64);
+
+    store.write(record(64, 9));
+    assertEquals(store.bytes(), 64);
+  }
+
+  /**
+   * Tests that the remaining records of a mostly empty slab are moved to the current slab.
+   */
+  public void testCompaction() {
+    OffHeapStore store = new OffHeapStore(100);
+    List<OffHeapStore.Slot> slots = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      slots.add(store.write(record(10, i)));
+    }
+    OffHeapStore.Slot next = store.write(record(10, 10));
+    assertEquals(store.bytes(), 200);
+
+    for (int i = 0; i < 8; i++) {
+      store.free(slots.get(i));
+    }
+    assertEquals(store.bytes(), 100);
+    assertEquals(store.liveBytes(), 30);
+    assertEquals(store.read(slots.get(8)), record(10, 8));
+    assertEquals(store.read(slots.get(9)), record(10, 9));
+    assertEquals(store.read(next), record(10, 10));
+  }
+
+  /**
+   * Tests records larger than a slab.
+   */
+  public void testLargeRecords() {
+    OffHeapStore store = new OffHeapStore(16);
+    OffHeapStore.Slot small = store.write(record(8, 1));
+    OffHeapStore.Slot large = store.write(record(100, 2));
+    assertEquals(store.bytes(), 116);
+    assertEquals(store.read(large), record(100, 2));
+    assertEquals(store.read(small), record(8, 1));
+
+    store.free(large);
+    assertEquals(store.bytes(), 16);
+    assertEquals(store.read(small), record(8, 1));
+  }
+
+}
@@ -22,6 +22,7 @@ import io.atomix.catalyst.serializer.SerializableTypeResolver;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.serializer.SerializerRegistry;
 import io.atomix.copycat.Command;
+import io.atomix.resource.internal.OperationCodes;
 
 /**
  * Lock commands.
@@ -197,8 +198,8 @@ public final class LockCommands {
   public static class TypeResolver implements SerializableTypeResolver {
     @Override
     public void resolve(SerializerRegistry registry) {
-      registry.register(Lock.class, -143);
-      registry.register(Unlock.class, -144);
+      OperationCodes.register(registry, Lock.class, -143);
+      OperationCodes.register(registry, Unlock.class, -144);
       registry.register(LockEvent.class, -145);
     }
   }
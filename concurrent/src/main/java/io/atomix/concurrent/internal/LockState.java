@@ -17,8 +17,11 @@ package io.atomix.concurrent.internal;
 
 import io.atomix.catalyst.concurrent.Scheduled;
 import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.Snapshottable;
 import io.atomix.copycat.server.session.ServerSession;
 import io.atomix.copycat.server.session.SessionListener;
+import io.atomix.copycat.server.storage.snapshot.SnapshotReader;
+import io.atomix.copycat.server.storage.snapshot.SnapshotWriter;
 import io.atomix.resource.ResourceStateMachine;
 
 import java.time.Duration;
@@ -29,62 +32,161 @@ import java.util.*;
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
-public class LockState extends ResourceStateMachine implements SessionListener {
-  private Commit<LockCommands.Lock> lock;
-  private final Queue<Commit<LockCommands.Lock>> queue = new ArrayDeque<>();
-  private final Map<Long, Scheduled> timers = new HashMap<>();
+public class LockState extends ResourceStateMachine implements SessionListener, Snapshottable {
+  private Holder lock;
+  private final Set<Holder> queue = new LinkedHashSet<>();
 
   public LockState(Properties config) {
     super(config);
   }
 
+  @Override
+  public void snapshot(SnapshotWriter writer) {
+    if (!isSnapshotEnabled())
+      return;
+
+    writer.writeBoolean(lock != null);
+    if (lock != null) {
+      writeHolder(lock, writer);
+    }
+
+    writer.writeInt(queue.size());
+    for (Holder holder : queue) {
+      writeHolder(holder, writer);
+    }
+  }
+
+  /**
+   * Writes a lock holder to the given snapshot.
+   */
+  private void writeHolder(Holder holder, SnapshotWriter writer) {
+    writer.writeLong(holder.session.id());
+    writer.writeInt(holder.id);
+    writer.writeLong(holder.index);
+    writer.writeLong(holder.expire);
+  }
+
+  @Override
+  public void install(SnapshotReader reader) {
+    if (!isSnapshotEnabled())
+      return;
+
+    delete();
+    lock = null;
+
+    long now = executor.context().clock().millis();
+    if (reader.readBoolean()) {
+      lock = readHolder(reader);
+    }
+
+    int size = reader.readInt();
+    for (int i = 0; i < size; i++) {
+      Holder holder = readHolder(reader);
+      if (holder != null) {
+        queue.add(holder);
+        if (holder.expire > 0) {
+          holder.timer = schedule(holder, Math.max(holder.expire - now, 0));
+        }
+      }
+    }
+
+    // If the lock holder's session is no longer known to the resource, grant the lock to the next waiter.
+    if (lock == null) {
+      next();
+    }
+  }
+
+  /**
+   * Reads a lock holder from the given snapshot.
+   */
+  private Holder readHolder(SnapshotReader reader) {
+    ServerSession session = executor.context().sessions().session(reader.readLong());
+    int id = reader.readInt();
+    long index = reader.readLong();
+    long expire = reader.readLong();
+    return session != null ? new Holder(id, index, session, expire, null) : null;
+  }
+
   @Override
   public void close(ServerSession session) {
-    if (lock != null && lock.session().id() == session.id()) {
+    if (lock != null && lock.session.id() == session.id()) {
       lock.close();
-      lock = queue.poll();
-      while (lock != null) {
-        Scheduled timer = timers.remove(lock.index());
-        if (timer != null)
-          timer.cancel();
-
-        if (lock.session().state() == ServerSession.State.EXPIRED || lock.session().state() == ServerSession.State.CLOSED) {
-          lock = queue.poll();
-        } else {
-          lock.session().publish("lock", new LockCommands.LockEvent(lock.operation().id(), lock.index()));
-          break;
-        }
+      next();
+    }
+  }
+
+  /**
+   * Grants the lock to the next waiter in the queue.
+   */
+  private void next() {
+    lock = poll();
+    while (lock != null) {
+      lock.cancel();
+      if (lock.session.state() == ServerSession.State.EXPIRED || lock.session.state() == ServerSession.State.CLOSED) {
+        lock.close();
+        lock = poll();
+      } else {
+        lock.session.publish("lock", new LockCommands.LockEvent(lock.id, lock.index));
+        break;
       }
     }
   }
 
+  /**
+   * Removes and returns the oldest waiter in the queue.
+   * <p>
+   * Waiters are held in a linked hash set rather than a deque so that timed out waiters can be removed
+   * in constant time.
+   */
+  private Holder poll() {
+    Iterator<Holder> iterator = queue.iterator();
+    if (!iterator.hasNext())
+      return null;
+    Holder holder = iterator.next();
+    iterator.remove();
+    return holder;
+  }
+
+  /**
+   * Schedules the expiration of a lock attempt.
+   */
+  private Scheduled schedule(Holder holder, long delay) {
+    return executor.schedule(Duration.ofMillis(delay), () -> {
+      try {
+        holder.timer = null;
+        queue.remove(holder);
+        if (holder.session.state().active()) {
+          holder.session.publish("fail", new LockCommands.LockEvent(holder.id, holder.index));
+        }
+      } finally {
+        holder.close();
+      }
+    });
+  }
+
   /**
    * Applies a lock commit.
    */
   public void lock(Commit<LockCommands.Lock> commit) {
+    final ServerSession session = commit.session();
+    final int id = commit.operation().id();
+    final long index = commit.index();
+    final long timeout = commit.operation().timeout();
+
     if (lock == null) {
-      lock = commit;
-      commit.session().publish("lock", new LockCommands.LockEvent(commit.operation().id(), commit.index()));
-    } else if (commit.operation().timeout() == 0) {
+      lock = new Holder(id, index, session, 0, retain(commit));
+      session.publish("lock", new LockCommands.LockEvent(id, index));
+    } else if (timeout == 0) {
       try {
-        commit.session().publish("fail", new LockCommands.LockEvent(commit.operation().id(), commit.index()));
+        session.publish("fail", new LockCommands.LockEvent(id, index));
       } finally {
         commit.close();
       }
     } else {
-      queue.add(commit);
-      if (commit.operation().timeout() > 0) {
-        timers.put(commit.index(), executor.schedule(Duration.ofMillis(commit.operation().timeout()), () -> {
-          try {
-            timers.remove(commit.index());
-            queue.remove(commit);
-            if (commit.session().state().active()) {
-              commit.session().publish("fail", new LockCommands.LockEvent(commit.operation().id(), commit.index()));
-            }
-          } finally {
-            commit.close();
-          }
-        }));
+      Holder holder = new Holder(id, index, session, timeout > 0 ? executor.context().clock().millis() + timeout : 0, retain(commit));
+      queue.add(holder);
+      if (timeout > 0) {
+        holder.timer = schedule(holder, timeout);
       }
     }
   }
@@ -95,24 +197,11 @@ public class LockState extends ResourceStateMachine implements SessionListener {
   public void unlock(Commit<LockCommands.Unlock> commit) {
     try {
       if (lock != null) {
-        if (!lock.session().equals(commit.session()))
+        if (!lock.session.equals(commit.session()))
           return;
 
         lock.close();
-
-        lock = queue.poll();
-        while (lock != null) {
-          Scheduled timer = timers.remove(lock.index());
-          if (timer != null)
-            timer.cancel();
-
-          if (lock.session().state() == ServerSession.State.EXPIRED || lock.session().state() == ServerSession.State.CLOSED) {
-            lock = queue.poll();
-          } else {
-            lock.session().publish("lock", new LockCommands.LockEvent(lock.operation().id(), lock.index()));
-            break;
-          }
-        }
+        next();
       }
     } finally {
       commit.close();
@@ -125,11 +214,47 @@ public class LockState extends ResourceStateMachine implements SessionListener {
       lock.close();
     }
 
-    queue.forEach(Commit::close);
+    queue.forEach(Holder::close);
     queue.clear();
+  }
+
+  /**
+   * Lock holder or waiter.
+   */
+  private static class Holder {
+    private final int id;
+    private final long index;
+    private final ServerSession session;
+    private final long expire;
+    private final Commit<LockCommands.Lock> commit;
+    private Scheduled timer;
 
-    timers.values().forEach(Scheduled::cancel);
-    timers.clear();
+    private Holder(int id, long index, ServerSession session, long expire, Commit<LockCommands.Lock> commit) {
+      this.id = id;
+      this.index = index;
+      this.session = session;
+      this.expire = expire;
+      this.commit = commit;
+    }
+
+    /**
+     * Cancels the lock attempt's timeout timer.
+     */
+    private void cancel() {
+      if (timer != null) {
+        timer.cancel();
+        timer = null;
+      }
+    }
+
+    /**
+     * Cancels the lock attempt's timer and closes its commit if retained.
+     */
+    private void close() {
+      cancel();
+      if (commit != null)
+        commit.close();
+    }
   }
 
 }
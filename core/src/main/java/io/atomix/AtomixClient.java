@@ -101,7 +101,9 @@ public class AtomixClient extends Atomix {
     ClientOptions clientProperties = new ClientOptions(properties);
     return builder()
       .withTransport(clientProperties.transport())
-      .withSerializer(clientProperties.serializer());
+      .withSerializer(clientProperties.serializer())
+      .withPartitions(clientProperties.partitions())
+      .withPartitionPortStride(clientProperties.partitionPortStride());
   }
 
   /**
@@ -243,6 +245,35 @@ public class AtomixClient extends Atomix {
       return this;
     }
 
+    /**
+     * Sets the number of resource partitions.
+     * <p>
+     * Resources will be routed to partitions by a stable hash of their keys. The number of partitions
+     * must match the number of partitions configured on all servers in the cluster.
+     *
+     * @param partitions The number of resource partitions.
+     * @return The client builder.
+     * @throws IllegalArgumentException if {@code partitions} is not positive
+     */
+    public Builder withPartitions(int partitions) {
+      builder.withPartitions(partitions);
+      return this;
+    }
+
+    /**
+     * Sets the distance between the ports of consecutive resource partitions.
+     * <p>
+     * The stride must match the stride configured on all servers in the cluster.
+     *
+     * @param portStride The distance between the ports of consecutive partitions.
+     * @return The client builder.
+     * @throws IllegalArgumentException if {@code portStride} is not positive
+     */
+    public Builder withPartitionPortStride(int portStride) {
+      builder.withPartitionPortStride(portStride);
+      return this;
+    }
+
     /**
      * Sets the available resource types.
      *
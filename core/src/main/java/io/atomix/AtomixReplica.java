@@ -37,6 +37,7 @@ import io.atomix.manager.ResourceManagerException;
 import io.atomix.manager.ResourceServer;
 import io.atomix.manager.internal.ResourceManagerState;
 import io.atomix.manager.options.ServerOptions;
+import io.atomix.manager.resource.internal.InstanceQuery;
 import io.atomix.manager.util.ResourceManagerTypeResolver;
 import io.atomix.resource.Resource;
 import io.atomix.resource.ResourceRegistry;
@@ -45,7 +46,9 @@ import io.atomix.resource.ResourceType;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -925,8 +928,14 @@ public final class AtomixReplica extends Atomix {
         serverBuilder.withTransport(new CombinedServerTransport(new LocalTransport(localRegistry), serverTransport));
       }
 
-      // Set the server resource state machine.
-      serverBuilder.withStateMachine(ResourceManagerState::new);
+      // Set the server resource state machine. The most recently created state machine is tracked so that
+      // LOCAL queries submitted by the replica's client can be applied directly to it.
+      AtomicReference<ResourceManagerState> stateMachine = new AtomicReference<>();
+      serverBuilder.withStateMachine(() -> {
+        ResourceManagerState state = new ResourceManagerState();
+        stateMachine.set(state);
+        return state;
+      });
 
       CopycatServer server = serverBuilder.build();
       server.serializer().resolve(new ResourceManagerTypeResolver());
@@ -940,20 +949,28 @@ public final class AtomixReplica extends Atomix {
         }
       }
 
-      return new AtomixReplica(new ResourceClient(new CombinedCopycatClient(client, serverTransport)), new ResourceServer(server), clusterManager);
+      return new AtomixReplica(new ResourceClient(new CombinedCopycatClient(client, serverTransport, server, stateMachine::get)), new ResourceServer(server), clusterManager);
     }
   }
 
   /**
    * Copycat client wrapper.
+   * <p>
+   * Resource queries submitted with {@link io.atomix.resource.ReadConsistency#LOCAL} consistency are applied
+   * directly to the local server's state machine if the local server is running as a stateful member of the
+   * cluster. All other operations are submitted through the wrapped client.
    */
   private static final class CombinedCopycatClient implements CopycatClient {
     private final CopycatClient client;
     private final Transport transport;
+    private final CopycatServer server;
+    private final Supplier<ResourceManagerState> stateMachine;
 
-    CombinedCopycatClient(CopycatClient client, Transport transport) {
+    CombinedCopycatClient(CopycatClient client, Transport transport, CopycatServer server, Supplier<ResourceManagerState> stateMachine) {
       this.client = Assert.notNull(client, "client");
       this.transport = Assert.notNull(transport, "transport");
+      this.server = Assert.notNull(server, "server");
+      this.stateMachine = Assert.notNull(stateMachine, "stateMachine");
     }
 
     @Override
@@ -992,10 +1009,28 @@ public final class AtomixReplica extends Atomix {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> CompletableFuture<T> submit(Query<T> query) {
+      if (query instanceof InstanceQuery && ((InstanceQuery) query).local()) {
+        ResourceManagerState state = stateMachine.get();
+        Session session = client.session();
+        if (state != null && session != null && isStateful()) {
+          return state.query((InstanceQuery<?, T>) query, session.id(), client.context());
+        }
+      }
       return client.submit(query);
     }
 
+    /**
+     * Returns a boolean indicating whether the local server is running as a stateful member of the cluster.
+     */
+    private boolean isStateful() {
+      if (!server.isRunning())
+        return false;
+      Member.Type type = server.cluster().member().type();
+      return type == Member.Type.ACTIVE || type == Member.Type.PASSIVE;
+    }
+
     @Override
     public Listener<Void> onEvent(String event, Runnable callback) {
       return client.onEvent(event, callback);
@@ -24,6 +24,8 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
@@ -102,6 +104,47 @@ public class AtomixReplicaTest extends AbstractAtomixTest {
     await(10000);
   }
 
+  /**
+   * Tests submitting a query with LOCAL consistency to a replica's state machine.
+   */
+  public void testSubmitQueryWithLocalConsistency() throws Throwable {
+    Atomix replica = createReplicas(3, new ResourceType(TestResource.class)).iterator().next();
+
+    TestResource resource = replica.getResource("test", TestResource.class).get(5, TimeUnit.SECONDS);
+
+    resource.query("Hello world!", ReadConsistency.LOCAL).thenAccept(result -> {
+      threadAssertEquals(result, "Hello world!");
+      threadAssertTrue(resource.context().isCurrentContext());
+      resume();
+    });
+    await(10000);
+
+    resource.command("foo").get(5, TimeUnit.SECONDS);
+    List<String> values = resource.values(ReadConsistency.LOCAL).get(5, TimeUnit.SECONDS);
+    while (values.isEmpty()) {
+      Thread.sleep(10);
+      values = resource.values(ReadConsistency.LOCAL).get(5, TimeUnit.SECONDS);
+    }
+    assertEquals(values, Collections.singletonList("foo"));
+  }
+
+  /**
+   * Tests submitting a query with LOCAL consistency from a client without a local state machine.
+   */
+  public void testSubmitQueryWithLocalConsistencyFromClient() throws Throwable {
+    createReplicas(3, new ResourceType(TestResource.class));
+    Atomix client = createClient(new ResourceType(TestResource.class));
+
+    TestResource resource = client.getResource("test", TestResource.class).get(5, TimeUnit.SECONDS);
+
+    resource.command("foo").get(5, TimeUnit.SECONDS);
+    resource.values(ReadConsistency.LOCAL).thenAccept(result -> {
+      threadAssertEquals(result, Collections.singletonList("foo"));
+      resume();
+    });
+    await(10000);
+  }
+
   /**
    * Tests submitting a command through all nodes.
    */
@@ -184,6 +227,14 @@ public class AtomixReplicaTest extends AbstractAtomixTest {
       return client.submit(new TestQuery(value));
     }
 
+    public CompletableFuture<String> query(String value, ReadConsistency consistency) {
+      return submit(new TestQuery(value), consistency);
+    }
+
+    public CompletableFuture<List<String>> values(ReadConsistency consistency) {
+      return submit(new ValuesQuery(), consistency);
+    }
+
     /**
      * Test resource factory.
      */
@@ -204,17 +255,28 @@ public class AtomixReplicaTest extends AbstractAtomixTest {
    * Test state machine.
    */
   public static class TestStateMachine extends ResourceStateMachine {
+    private final List<String> values = new ArrayList<>();
+
     public TestStateMachine(Properties config) {
       super(config);
     }
 
     public String command(Commit<TestCommand> commit) {
+      values.add(commit.operation().value());
       return commit.operation().value();
     }
 
     public String query(Commit<TestQuery> commit) {
       return commit.operation().value();
     }
+
+    public List<String> values(Commit<ValuesQuery> commit) {
+      try {
+        return new ArrayList<>(values);
+      } finally {
+        commit.close();
+      }
+    }
   }
 
   /**
@@ -247,6 +309,12 @@ public class AtomixReplicaTest extends AbstractAtomixTest {
     }
   }
 
+  /**
+   * Values query.
+   */
+  public static class ValuesQuery implements Query<List<String>> {
+  }
+
   /**
    * Value resource.
    */
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix;
+
+import io.atomix.AtomixClientTest.ValueResource;
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.catalyst.transport.Address;
+import io.atomix.catalyst.transport.local.LocalTransport;
+import io.atomix.catalyst.util.ConfigurationException;
+import io.atomix.copycat.server.storage.Storage;
+import io.atomix.copycat.server.storage.StorageLevel;
+import io.atomix.manager.ResourceServer;
+import io.atomix.manager.util.ResourcePartitions;
+import io.atomix.resource.ResourceType;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.fail;
+
+/**
+ * Partitioned cluster test.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+@Test
+public class PartitionedClusterTest extends AbstractAtomixTest {
+  private static final int PARTITIONS = 2;
+  private List<ResourceServer> servers;
+
+  @BeforeMethod
+  protected void beforeMethod() {
+    init();
+    servers = new ArrayList<>();
+  }
+
+  @AfterMethod
+  protected void afterMethod() throws Throwable {
+    cleanup();
+    for (ResourceServer server : servers) {
+      server.shutdown().whenComplete((result, error) -> resume());
+      await(30000);
+    }
+  }
+
+  /**
+   * Creates a partitioned server.
+   */
+  private ResourceServer createServer(Address address) {
+    ResourceServer server = ResourceServer.builder(address)
+      .withTransport(new LocalTransport(registry))
+      .withStorage(new Storage(StorageLevel.MEMORY))
+      .withSerializer(new Serializer().disableWhitelist())
+      .withResourceTypes(new ResourceType(ValueResource.class))
+      .withPartitions(PARTITIONS)
+      .build();
+    servers.add(server);
+    return server;
+  }
+
+  /**
+   * Creates a partitioned client.
+   */
+  private Atomix createPartitionedClient() throws Throwable {
+    AtomixClient client = AtomixClient.builder()
+      .withTransport(new LocalTransport(registry))
+      .withSerializer(new Serializer().disableWhitelist())
+      .withResourceTypes(new ResourceType(ValueResource.class))
+      .withPartitions(PARTITIONS)
+      .build();
+    client.connect(members).thenRun(this::resume);
+    clients.add(client);
+    await(10000);
+    return client;
+  }
+
+  /**
+   * Returns a key that is routed to the given partition.
+   */
+  private static String key(int partition) {
+    for (int i = 0; ; i++) {
+      String key = "key-" + i;
+      if (ResourcePartitions.partition(key, PARTITIONS) == partition)
+        return key;
+    }
+  }
+
+  /**
+   * Tests starting a partitioned cluster on adjacent ports and routing resources to all partitions.
+   */
+  public void testPartitionedCluster() throws Throwable {
+    for (int i = 0; i < 3; i++) {
+      members.add(nextAddress());
+    }
+    for (Address member : members) {
+      createServer(member).bootstrap(members).thenRun(this::resume);
+    }
+    await(30000 * members.size(), members.size());
+    for (ResourceServer server : servers) {
+      threadAssertEquals(server.partitions().size(), PARTITIONS);
+    }
+
+    Atomix client1 = createPartitionedClient();
+    Atomix client2 = createPartitionedClient();
+
+    String key0 = key(0);
+    String key1 = key(1);
+    client1.getResource(key0, ValueResource.class).get(5, TimeUnit.SECONDS).set("foo").join();
+    client1.getResource(key1, ValueResource.class).get(5, TimeUnit.SECONDS).set("bar").join();
+
+    threadAssertEquals(client2.getResource(key0, ValueResource.class).get(5, TimeUnit.SECONDS).get().get(5, TimeUnit.SECONDS), "foo");
+    threadAssertEquals(client2.getResource(key1, ValueResource.class).get(5, TimeUnit.SECONDS).get().get(5, TimeUnit.SECONDS), "bar");
+    threadAssertEquals(client2.keys().get(5, TimeUnit.SECONDS).size(), 2);
+  }
+
+  /**
+   * Tests that a port stride that would overlap the partitions of adjacent members is rejected.
+   */
+  public void testOverlappingPartitions() throws Throwable {
+    ResourceServer server = ResourceServer.builder(new Address("localhost", 5000))
+      .withTransport(new LocalTransport(registry))
+      .withStorage(new Storage(StorageLevel.MEMORY))
+      .withPartitions(PARTITIONS)
+      .withPartitionPortStride(1)
+      .build();
+    try {
+      server.bootstrap(Arrays.asList(new Address("localhost", 5000), new Address("localhost", 5001)));
+      fail();
+    } catch (ConfigurationException e) {
+    }
+  }
+
+}
@@ -26,6 +26,7 @@ import io.atomix.copycat.Operation;
 import io.atomix.copycat.Query;
 import io.atomix.group.messaging.MessageProducer;
 import io.atomix.group.messaging.internal.GroupMessage;
+import io.atomix.resource.internal.OperationCodes;
 
 import java.util.Set;
 
@@ -560,12 +561,12 @@ public final class GroupCommands {
   public static class TypeResolver implements SerializableTypeResolver {
     @Override
     public void resolve(SerializerRegistry registry) {
-      registry.register(Join.class, -130);
-      registry.register(Leave.class, -131);
-      registry.register(Listen.class, -132);
-      registry.register(Message.class, -137);
-      registry.register(Reply.class, -138);
-      registry.register(Ack.class, -139);
+      OperationCodes.register(registry, Join.class, -130);
+      OperationCodes.register(registry, Leave.class, -131);
+      OperationCodes.register(registry, Listen.class, -132);
+      OperationCodes.register(registry, Message.class, -137);
+      OperationCodes.register(registry, Reply.class, -138);
+      OperationCodes.register(registry, Ack.class, -139);
       registry.register(GroupMessage.class, -140);
       registry.register(GroupMemberInfo.class, -158);
       registry.register(GroupStatus.class, -159);
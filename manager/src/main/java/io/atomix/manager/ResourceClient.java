@@ -29,6 +29,7 @@ import io.atomix.manager.options.ClientOptions;
 import io.atomix.manager.resource.internal.InstanceClient;
 import io.atomix.manager.resource.internal.ResourceInstance;
 import io.atomix.manager.util.ResourceManagerTypeResolver;
+import io.atomix.manager.util.ResourcePartitions;
 import io.atomix.resource.Resource;
 import io.atomix.resource.ResourceRegistry;
 import io.atomix.resource.ResourceType;
@@ -83,6 +84,14 @@ import java.util.stream.Collectors;
  * cluster for some arbitrary (but typically short) period of time. During that time, Atomix guarantees that the
  * client's session will not expire even if its timeout elapses. Once a new leader is elected, the client's session
  * timeout is reset.
+ * <p>
+ * <b>Partitioning</b>
+ * <p>
+ * Clients can be configured to spread resources across multiple independent Copycat groups via
+ * {@link Builder#withPartitions(int)}. Each resource key is mapped to a single partition through a stable hash
+ * of the key, and all operations on the resource are submitted to that partition's cluster. The client opens
+ * a separate session with each partition. The number of partitions must match the number of partitions
+ * configured on the {@link ResourceServer}s to which the client connects.
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
@@ -111,10 +120,14 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
     ClientOptions clientProperties = new ClientOptions(properties);
     return new Builder()
       .withTransport(clientProperties.transport())
-      .withSerializer(clientProperties.serializer());
+      .withSerializer(clientProperties.serializer())
+      .withPartitions(clientProperties.partitions())
+      .withPartitionPortStride(clientProperties.partitionPortStride());
   }
 
   private final CopycatClient client;
+  private final List<CopycatClient> partitions;
+  private final int portStride;
   private final Map<Class<? extends Resource<?>>, ResourceType> types = new ConcurrentHashMap<>();
   private final Map<String, Resource<?>> instances = new ConcurrentHashMap<>();
   private final Map<String, CompletableFuture> futures = new ConcurrentHashMap<>();
@@ -123,11 +136,33 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
    * @throws NullPointerException if {@code client} or {@code registry} are null
    */
   public ResourceClient(CopycatClient client) {
-    this.client = Assert.notNull(client, "client");
+    this(Collections.singletonList(Assert.notNull(client, "client")));
+  }
+
+  /**
+   * @throws NullPointerException if {@code partitions} is null
+   * @throws IllegalArgumentException if {@code partitions} is empty
+   */
+  public ResourceClient(List<CopycatClient> partitions) {
+    this(partitions, ResourcePartitions.DEFAULT_PORT_STRIDE);
+  }
+
+  /**
+   * @throws NullPointerException if {@code partitions} is null
+   * @throws IllegalArgumentException if {@code partitions} is empty or {@code portStride} is not positive
+   */
+  public ResourceClient(List<CopycatClient> partitions, int portStride) {
+    Assert.notNull(partitions, "partitions");
+    Assert.argNot(partitions.isEmpty(), "partitions cannot be empty");
+    this.partitions = Collections.unmodifiableList(new ArrayList<>(partitions));
+    this.client = this.partitions.get(0);
+    this.portStride = Assert.argNot(portStride, portStride <= 0, "portStride must be positive");
   }
 
   /**
    * Returns the underlying Copycat client.
+   * <p>
+   * If the client is partitioned, the client for the first partition is returned.
    *
    * @return The underlying Copycat client.
    */
@@ -135,6 +170,25 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
     return client;
   }
 
+  /**
+   * Returns the underlying Copycat clients for all partitions.
+   *
+   * @return The underlying Copycat clients, indexed by partition.
+   */
+  public List<CopycatClient> partitions() {
+    return partitions;
+  }
+
+  /**
+   * Returns the Copycat client for the partition to which the given resource key belongs.
+   *
+   * @param key The resource key.
+   * @return The Copycat client for the key's partition.
+   */
+  public CopycatClient partition(String key) {
+    return partitions.get(ResourcePartitions.partition(key, partitions.size()));
+  }
+
   @Override
   public ThreadContext context() {
     return client.context();
@@ -152,12 +206,12 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
 
   @Override
   public CompletableFuture<Boolean> exists(String key) {
-    return client.submit(new ResourceExists(key));
+    return partition(key).submit(new ResourceExists(key));
   }
 
   @Override
   public CompletableFuture<Set<String>> keys() {
-    return client.submit(new GetResourceKeys());
+    return keys(new GetResourceKeys());
   }
 
   @Override
@@ -168,7 +222,27 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
 
   @Override
   public CompletableFuture<Set<String>> keys(ResourceType type) {
-    return client.submit(new GetResourceKeys(Assert.notNull(type, "type").id()));
+    return keys(new GetResourceKeys(Assert.notNull(type, "type").id()));
+  }
+
+  /**
+   * Submits the given keys query to all partitions and merges the results.
+   */
+  private CompletableFuture<Set<String>> keys(GetResourceKeys query) {
+    if (partitions.size() == 1)
+      return client.submit(query);
+
+    List<CompletableFuture<Set<String>>> futures = new ArrayList<>(partitions.size());
+    for (CopycatClient partition : partitions) {
+      futures.add(partition.submit(query));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).thenApply(v -> {
+      Set<String> keys = new HashSet<>();
+      for (CompletableFuture<Set<String>> future : futures) {
+        keys.addAll(future.join());
+      }
+      return keys;
+    });
   }
 
   @Override
@@ -226,7 +300,7 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
     Resource<?> check = instances.get(key);
     if (check == null) {
       ResourceInstance instance = new ResourceInstance(key, type, config, this::close);
-      InstanceClient client = new InstanceClient(instance, this.client);
+      InstanceClient client = new InstanceClient(instance, partition(key));
       try {
         check = type.factory().newInstance().createInstance(client, options);
         instances.put(key, check);
@@ -282,9 +356,18 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
    *
    * @param cluster The cluster configuration to which to connect the client.
    * @return A completable future to be completed once the client is connected.
+   * @throws ConfigurationException if the partitions of two members would bind the same address
    */
   public CompletableFuture<ResourceClient> connect(Collection<Address> cluster) {
-    return client.connect(cluster).thenApply(v -> this);
+    if (partitions.size() == 1)
+      return client.connect(cluster).thenApply(v -> this);
+
+    ResourcePartitions.validate(cluster, partitions.size(), portStride);
+    CompletableFuture<?>[] futures = new CompletableFuture[partitions.size()];
+    for (int i = 0; i < partitions.size(); i++) {
+      futures[i] = partitions.get(i).connect(ResourcePartitions.addresses(cluster, i, portStride));
+    }
+    return CompletableFuture.allOf(futures).thenApply(v -> this);
   }
 
   /**
@@ -298,7 +381,13 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
     for (Resource<?> instance : instances.values()) {
       futures[i++] = instance.close();
     }
-    return CompletableFuture.allOf(futures).thenCompose(v -> client.close());
+    return CompletableFuture.allOf(futures).thenCompose(v -> {
+      CompletableFuture<?>[] closeFutures = new CompletableFuture[partitions.size()];
+      for (int j = 0; j < partitions.size(); j++) {
+        closeFutures[j] = partitions.get(j).close();
+      }
+      return CompletableFuture.allOf(closeFutures);
+    });
   }
 
   @Override
@@ -323,6 +412,9 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
     private final ResourceRegistry registry = new ResourceRegistry();
     private CopycatClient.Builder clientBuilder;
     private Transport transport;
+    private Serializer serializer;
+    private int partitions = 1;
+    private int portStride = ResourcePartitions.DEFAULT_PORT_STRIDE;
 
     protected Builder() {
       clientBuilder = CopycatClient.builder()
@@ -370,6 +462,38 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
      */
     public Builder withSerializer(Serializer serializer) {
       clientBuilder.withSerializer(serializer);
+      this.serializer = serializer;
+      return this;
+    }
+
+    /**
+     * Sets the number of resource partitions.
+     * <p>
+     * The client will open a separate session with each partition's cluster, and resources will be routed
+     * to partitions by a stable hash of their keys. The number of partitions must match the number of
+     * partitions configured on all servers in the cluster. Defaults to {@code 1}.
+     *
+     * @param partitions The number of resource partitions.
+     * @return The client builder.
+     * @throws IllegalArgumentException if {@code partitions} is not positive
+     */
+    public Builder withPartitions(int partitions) {
+      this.partitions = Assert.argNot(partitions, partitions <= 0, "partitions must be positive");
+      return this;
+    }
+
+    /**
+     * Sets the distance between the ports of consecutive partitions.
+     * <p>
+     * The stride must match the {@link ResourceServer.Builder#withPartitionPortStride(int) stride} configured on
+     * all servers in the cluster. Defaults to {@link ResourcePartitions#DEFAULT_PORT_STRIDE}.
+     *
+     * @param portStride The distance between the ports of consecutive partitions.
+     * @return The client builder.
+     * @throws IllegalArgumentException if {@code portStride} is not positive
+     */
+    public Builder withPartitionPortStride(int portStride) {
+      this.portStride = Assert.argNot(portStride, portStride <= 0, "portStride must be positive");
       return this;
     }
 
@@ -446,18 +570,30 @@ public class ResourceClient implements ResourceManager<ResourceClient> {
         }
       }
 
-      CopycatClient client = clientBuilder.build();
-      client.serializer().resolve(new ResourceManagerTypeResolver());
+      // Build a separate client for each partition. Partitions each get their own serializer
+      // since Copycat clients register internal types on their serializers.
+      List<CopycatClient> clients = new ArrayList<>(partitions);
+      for (int i = 0; i < partitions; i++) {
+        if (i == 0 && serializer != null) {
+          clientBuilder.withSerializer(serializer);
+        } else {
+          clientBuilder.withSerializer(serializer != null ? serializer.clone() : new Serializer());
+        }
 
-      for (ResourceType type : registry.types()) {
-        try {
-          type.factory().newInstance().createSerializableTypeResolver().resolve(client.serializer().registry());
-        } catch (InstantiationException | IllegalAccessException e) {
-          throw new ResourceManagerException(e);
+        CopycatClient client = clientBuilder.build();
+        client.serializer().resolve(new ResourceManagerTypeResolver());
+
+        for (ResourceType type : registry.types()) {
+          try {
+            type.factory().newInstance().createSerializableTypeResolver().resolve(client.serializer().registry());
+          } catch (InstantiationException | IllegalAccessException e) {
+            throw new ResourceManagerException(e);
+          }
         }
+        clients.add(client);
       }
 
-      return new ResourceClient(client);
+      return new ResourceClient(clients, portStride);
     }
   }
 
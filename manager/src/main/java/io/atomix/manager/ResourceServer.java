@@ -27,15 +27,16 @@ import io.atomix.copycat.server.storage.Storage;
 import io.atomix.manager.internal.ResourceManagerState;
 import io.atomix.manager.options.ServerOptions;
 import io.atomix.manager.util.ResourceManagerTypeResolver;
+import io.atomix.manager.util.ResourcePartitions;
 import io.atomix.resource.Resource;
 import io.atomix.resource.ResourceRegistry;
 import io.atomix.resource.ResourceType;
 
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Properties;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -76,6 +77,16 @@ import java.util.stream.Collectors;
  * servers in the cluster but does not participate in elections or other quorum-based aspects of the
  * underlying consensus algorithm. Once the joining server is caught up with the rest of the cluster, the
  * leader will promote it to a full voting member.
+ * <p>
+ * <b>Partitioning</b>
+ * <p>
+ * Servers can host multiple independent Copycat groups, or <em>partitions</em>, configured via
+ * {@link Builder#withPartitions(int)}. Each partition runs a separate Raft instance with its own leader, log,
+ * and resource state, allowing writes to different resources to be replicated and applied in parallel.
+ * Partition {@code n} listens on the configured client and server ports plus {@code n} times the
+ * {@link Builder#withPartitionPortStride(int) port stride}, and its logs are
+ * named with the partition number so that all partitions can share a single {@link Storage} directory.
+ * All servers and clients in the cluster must be configured with the same number of partitions.
  *
  * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
  */
@@ -147,6 +158,8 @@ public final class ResourceServer {
         .withCompactionThreshold(options.compactionThreshold())
         .build())
       .withSerializer(options.serializer())
+      .withPartitions(options.partitions())
+      .withPartitionPortStride(options.partitionPortStride())
       .withResourceTypes(options.resourceTypes())
       .withElectionTimeout(options.electionTimeout())
       .withHeartbeatInterval(options.heartbeatInterval())
@@ -154,12 +167,34 @@ public final class ResourceServer {
   }
 
   private final CopycatServer server;
+  private final List<CopycatServer> partitions;
+  private final int portStride;
 
   /**
    * @throws NullPointerException if {@code server} is null
    */
   public ResourceServer(CopycatServer server) {
-    this.server = Assert.notNull(server, "server");
+    this(Collections.singletonList(Assert.notNull(server, "server")));
+  }
+
+  /**
+   * @throws NullPointerException if {@code partitions} is null
+   * @throws IllegalArgumentException if {@code partitions} is empty
+   */
+  public ResourceServer(List<CopycatServer> partitions) {
+    this(partitions, ResourcePartitions.DEFAULT_PORT_STRIDE);
+  }
+
+  /**
+   * @throws NullPointerException if {@code partitions} is null
+   * @throws IllegalArgumentException if {@code partitions} is empty or {@code portStride} is not positive
+   */
+  public ResourceServer(List<CopycatServer> partitions, int portStride) {
+    Assert.notNull(partitions, "partitions");
+    Assert.argNot(partitions.isEmpty(), "partitions cannot be empty");
+    this.partitions = Collections.unmodifiableList(new ArrayList<>(partitions));
+    this.server = this.partitions.get(0);
+    this.portStride = Assert.argNot(portStride, portStride <= 0, "portStride must be positive");
   }
 
   /**
@@ -186,6 +221,8 @@ public final class ResourceServer {
 
   /**
    * Returns the underlying Copycat server.
+   * <p>
+   * If the server is partitioned, the server for the first partition is returned.
    *
    * @return The underlying Copycat server.
    */
@@ -193,6 +230,26 @@ public final class ResourceServer {
     return server;
   }
 
+  /**
+   * Returns the underlying Copycat servers for all partitions.
+   *
+   * @return The underlying Copycat servers, indexed by partition.
+   */
+  public List<CopycatServer> partitions() {
+    return partitions;
+  }
+
+  /**
+   * Applies the given function to all partitions, completing the returned future once all partitions complete.
+   */
+  private CompletableFuture<Void> all(BiFunction<CopycatServer, Integer, CompletableFuture<?>> function) {
+    CompletableFuture<?>[] futures = new CompletableFuture[partitions.size()];
+    for (int i = 0; i < partitions.size(); i++) {
+      futures[i] = function.apply(partitions.get(i), i);
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
   /**
    * Bootstraps a single-node cluster.
    * <p>
@@ -218,7 +275,7 @@ public final class ResourceServer {
    */
   @SuppressWarnings("unchecked")
   public CompletableFuture<ResourceServer> bootstrap() {
-    return server.bootstrap().thenApply(v -> this);
+    return all((server, partition) -> server.bootstrap()).thenApply(v -> this);
   }
 
   /**
@@ -274,9 +331,11 @@ public final class ResourceServer {
    *
    * @param cluster The bootstrap cluster configuration.
    * @return A completable future to be completed once the cluster has been bootstrapped.
+   * @throws ConfigurationException if the partitions of two members would bind the same address
    */
   public CompletableFuture<ResourceServer> bootstrap(Collection<Address> cluster) {
-    return server.bootstrap(cluster).thenApply(v -> this);
+    ResourcePartitions.validate(cluster, partitions.size(), portStride);
+    return all((server, partition) -> server.bootstrap(ResourcePartitions.addresses(cluster, partition, portStride))).thenApply(v -> this);
   }
 
   /**
@@ -342,9 +401,11 @@ public final class ResourceServer {
    *
    * @param cluster A collection of cluster member addresses to join.
    * @return A completable future to be completed once the local server has joined the cluster.
+   * @throws ConfigurationException if the partitions of two members would bind the same address
    */
   public CompletableFuture<ResourceServer> join(Collection<Address> cluster) {
-    return server.join(cluster).thenApply(v -> this);
+    ResourcePartitions.validate(cluster, partitions.size(), portStride);
+    return all((server, partition) -> server.join(ResourcePartitions.addresses(cluster, partition, portStride))).thenApply(v -> this);
   }
 
   /**
@@ -353,7 +414,11 @@ public final class ResourceServer {
    * @return Indicates whether the server is running.
    */
   public boolean isRunning() {
-    return server.isRunning();
+    for (CopycatServer server : partitions) {
+      if (!server.isRunning())
+        return false;
+    }
+    return true;
   }
 
   /**
@@ -362,7 +427,7 @@ public final class ResourceServer {
    * @return A completable future to be completed once the server has been shutdown.
    */
   public CompletableFuture<Void> shutdown() {
-    return server.shutdown();
+    return all((server, partition) -> server.shutdown());
   }
 
   /**
@@ -371,7 +436,7 @@ public final class ResourceServer {
    * @return A completable future to be completed once the server has left the cluster.
    */
   public CompletableFuture<Void> leave() {
-    return server.leave();
+    return all((server, partition) -> server.leave());
   }
 
   /**
@@ -399,11 +464,25 @@ public final class ResourceServer {
    */
   public static class Builder implements io.atomix.catalyst.util.Builder<ResourceServer> {
     private static final String SERVER_NAME = "atomix";
-    private final CopycatServer.Builder builder;
+    private final Address clientAddress;
+    private final Address serverAddress;
     private final ResourceRegistry registry = new ResourceRegistry();
+    private final List<Consumer<CopycatServer.Builder>> configurators = new ArrayList<>();
+    private Serializer serializer;
+    private int partitions = 1;
+    private int portStride = ResourcePartitions.DEFAULT_PORT_STRIDE;
 
     private Builder(Address clientAddress, Address serverAddress) {
-      this.builder = CopycatServer.builder(clientAddress, serverAddress).withName(SERVER_NAME);
+      this.clientAddress = Assert.notNull(clientAddress, "clientAddress");
+      this.serverAddress = Assert.notNull(serverAddress, "serverAddress");
+    }
+
+    /**
+     * Records a configuration to be applied to the Copycat server builder of every partition.
+     */
+    private Builder configure(Consumer<CopycatServer.Builder> configurator) {
+      configurators.add(configurator);
+      return this;
     }
 
     /**
@@ -418,8 +497,8 @@ public final class ResourceServer {
      * @throws NullPointerException if {@code transport} is null
      */
     public Builder withTransport(Transport transport) {
-      builder.withTransport(transport);
-      return this;
+      Assert.notNull(transport, "transport");
+      return configure(builder -> builder.withTransport(transport));
     }
 
     /**
@@ -434,8 +513,8 @@ public final class ResourceServer {
      * @throws NullPointerException if {@code transport} is null
      */
     public Builder withClientTransport(Transport transport) {
-      builder.withClientTransport(transport);
-      return this;
+      Assert.notNull(transport, "transport");
+      return configure(builder -> builder.withClientTransport(transport));
     }
 
     /**
@@ -450,8 +529,8 @@ public final class ResourceServer {
      * @throws NullPointerException if {@code transport} is null
      */
     public Builder withServerTransport(Transport transport) {
-      builder.withServerTransport(transport);
-      return this;
+      Assert.notNull(transport, "transport");
+      return configure(builder -> builder.withServerTransport(transport));
     }
 
     /**
@@ -464,7 +543,7 @@ public final class ResourceServer {
      * @throws NullPointerException if {@code serializer} is null
      */
     public Builder withSerializer(Serializer serializer) {
-      builder.withSerializer(serializer);
+      this.serializer = Assert.notNull(serializer, "serializer");
       return this;
     }
 
@@ -498,8 +577,8 @@ public final class ResourceServer {
      * @throws NullPointerException if {@code storage} is null
      */
     public Builder withStorage(Storage storage) {
-      builder.withStorage(storage);
-      return this;
+      Assert.notNull(storage, "storage");
+      return configure(builder -> builder.withStorage(storage));
     }
 
     /**
@@ -514,8 +593,8 @@ public final class ResourceServer {
      * @throws NullPointerException if {@code electionTimeout} is null
      */
     public Builder withElectionTimeout(Duration electionTimeout) {
-      builder.withElectionTimeout(electionTimeout);
-      return this;
+      Assert.notNull(electionTimeout, "electionTimeout");
+      return configure(builder -> builder.withElectionTimeout(electionTimeout));
     }
 
     /**
@@ -530,8 +609,8 @@ public final class ResourceServer {
      * @throws NullPointerException if {@code heartbeatInterval} is null
      */
     public Builder withHeartbeatInterval(Duration heartbeatInterval) {
-      builder.withHeartbeatInterval(heartbeatInterval);
-      return this;
+      Assert.notNull(heartbeatInterval, "heartbeatInterval");
+      return configure(builder -> builder.withHeartbeatInterval(heartbeatInterval));
     }
 
     /**
@@ -547,7 +626,39 @@ public final class ResourceServer {
      * @throws NullPointerException if {@code sessionTimeout} is null
      */
     public Builder withSessionTimeout(Duration sessionTimeout) {
-      builder.withSessionTimeout(sessionTimeout);
+      Assert.notNull(sessionTimeout, "sessionTimeout");
+      return configure(builder -> builder.withSessionTimeout(sessionTimeout));
+    }
+
+    /**
+     * Sets the number of resource partitions, returning the server builder for method chaining.
+     * <p>
+     * The server will run a separate Copycat server for each partition. Partition {@code n} binds the configured
+     * client and server ports plus {@code n} times the {@link #withPartitionPortStride(int) port stride}. All servers
+     * and clients in the cluster must be configured with the same number of partitions. Defaults to {@code 1}.
+     *
+     * @param partitions The number of resource partitions.
+     * @return The server builder.
+     * @throws IllegalArgumentException if {@code partitions} is not positive
+     */
+    public Builder withPartitions(int partitions) {
+      this.partitions = Assert.argNot(partitions, partitions <= 0, "partitions must be positive");
+      return this;
+    }
+
+    /**
+     * Sets the distance between the ports of consecutive partitions, returning the server builder for method chaining.
+     * <p>
+     * The stride must be larger than the span of the ports used by the members of the cluster on a host so that
+     * the partitions of one member don't bind the ports of another. All servers and clients in the cluster must
+     * be configured with the same stride. Defaults to {@link ResourcePartitions#DEFAULT_PORT_STRIDE}.
+     *
+     * @param portStride The distance between the ports of consecutive partitions.
+     * @return The server builder.
+     * @throws IllegalArgumentException if {@code portStride} is not positive
+     */
+    public Builder withPartitionPortStride(int portStride) {
+      this.portStride = Assert.argNot(portStride, portStride <= 0, "portStride must be positive");
       return this;
     }
 
@@ -620,18 +731,32 @@ public final class ResourceServer {
     public ResourceServer build() {
       // Construct the underlying CopycatServer. The server should have been configured with a CombinedTransport
       // that facilitates the local client connecting directly to the server.
-      CopycatServer server = builder.withStateMachine(ResourceManagerState::new).build();
-      server.serializer().resolve(new ResourceManagerTypeResolver());
-
-      for (ResourceType type : registry.types()) {
-        try {
-          type.factory().newInstance().createSerializableTypeResolver().resolve(server.serializer().registry());
-        } catch (InstantiationException | IllegalAccessException e) {
-          throw new ResourceManagerException(e);
+      ResourcePartitions.validate(Arrays.asList(clientAddress, serverAddress), partitions, portStride);
+      List<CopycatServer> servers = new ArrayList<>(partitions);
+      for (int i = 0; i < partitions; i++) {
+        CopycatServer.Builder builder = CopycatServer.builder(ResourcePartitions.address(clientAddress, i, portStride), ResourcePartitions.address(serverAddress, i, portStride))
+          .withName(ResourcePartitions.name(SERVER_NAME, i));
+        configurators.forEach(c -> c.accept(builder));
+
+        // Each partition gets its own serializer since Copycat servers register internal types on their serializers.
+        if (serializer != null) {
+          builder.withSerializer(i == 0 ? serializer : serializer.clone());
+        }
+
+        CopycatServer server = builder.withStateMachine(ResourceManagerState::new).build();
+        server.serializer().resolve(new ResourceManagerTypeResolver());
+
+        for (ResourceType type : registry.types()) {
+          try {
+            type.factory().newInstance().createSerializableTypeResolver().resolve(server.serializer().registry());
+          } catch (InstantiationException | IllegalAccessException e) {
+            throw new ResourceManagerException(e);
+          }
         }
+        servers.add(server);
       }
 
-      return new ResourceServer(server);
+      return new ResourceServer(servers, portStride);
     }
   }
 
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.manager.internal;
+
+import io.atomix.catalyst.util.Assert;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map keyed by primitive longs.
+ * <p>
+ * Resources and sessions are identified by log indexes, which are rarely small enough to be cached by
+ * {@link Long#valueOf(long)}, so looking them up in a {@link java.util.HashMap} boxes the key on every operation.
+ * This map holds keys in a primitive array with open addressing and linear probing, so {@link #get(long)} doesn't
+ * allocate. Removed entries are back-filled by the entries that follow them rather than marked, so lookups never
+ * probe past deleted slots. Values must not be {@code null}. The map is not thread safe.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+class LongMap<V> {
+  private static final int INITIAL_CAPACITY = 16;
+  private long[] keys = new long[INITIAL_CAPACITY];
+  private Object[] values = new Object[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Returns the slot at which to begin probing for the given key.
+   */
+  private static int slot(long key, int mask) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  /**
+   * Returns the slot holding the given key, or {@code -1} if the key is not present.
+   */
+  private int find(long key) {
+    int mask = keys.length - 1;
+    int slot = slot(key, mask);
+    while (values[slot] != null) {
+      if (keys[slot] == key)
+        return slot;
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the number of entries in the map.
+   *
+   * @return The number of entries in the map.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether the map contains the given key.
+   *
+   * @param key The key to check.
+   * @return Whether the map contains the key.
+   */
+  public boolean containsKey(long key) {
+    return find(key) != -1;
+  }
+
+  /**
+   * Returns the value for the given key.
+   *
+   * @param key The key to look up.
+   * @return The value for the key or {@code null} if the key is not present.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int slot = find(key);
+    return slot != -1 ? (V) values[slot] : null;
+  }
+
+  /**
+   * Sets the value for the given key.
+   *
+   * @param key The key to set.
+   * @param value The value to set.
+   * @return The previous value for the key or {@code null} if the key was not present.
+   * @throws NullPointerException if {@code value} is {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    Assert.notNull(value, "value");
+    int mask = keys.length - 1;
+    int slot = slot(key, mask);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > keys.length >> 1) {
+      resize(keys.length << 1);
+    }
+    return null;
+  }
+
+  /**
+   * Removes the given key from the map.
+   *
+   * @param key The key to remove.
+   * @return The removed value or {@code null} if the key was not present.
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int slot = find(key);
+    if (slot == -1)
+      return null;
+
+    V value = (V) values[slot];
+    int mask = keys.length - 1;
+    int next = (slot + 1) & mask;
+    while (values[next] != null) {
+      // Move the entry into the empty slot unless its probe sequence starts after the empty slot.
+      int home = slot(keys[next], mask);
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        keys[slot] = keys[next];
+        values[slot] = values[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    values[slot] = null;
+    size--;
+    return value;
+  }
+
+  /**
+   * Resizes the map's tables, reinserting all entries.
+   */
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new long[capacity];
+    values = new Object[capacity];
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = slot(oldKeys[i], mask);
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Returns a view of the map's values.
+   * <p>
+   * The map must not be modified while the view is being iterated.
+   *
+   * @return The map's values.
+   */
+  public Collection<V> values() {
+    return new AbstractCollection<V>() {
+      @Override
+      public Iterator<V> iterator() {
+        return new Iterator<V>() {
+          private int slot = advance(0);
+
+          /**
+           * Returns the first occupied slot at or after the given slot.
+           */
+          private int advance(int slot) {
+            while (slot < values.length && values[slot] == null) {
+              slot++;
+            }
+            return slot;
+          }
+
+          @Override
+          public boolean hasNext() {
+            return slot < values.length;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public V next() {
+            if (!hasNext())
+              throw new NoSuchElementException();
+            V value = (V) values[slot];
+            slot = advance(slot + 1);
+            return value;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+}
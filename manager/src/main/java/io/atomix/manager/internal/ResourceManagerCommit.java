@@ -24,6 +24,10 @@ import java.time.Instant;
 
 /**
  * Resource commit.
+ * <p>
+ * Commits are returned to their {@link ResourceManagerCommitPool pool} once the last reference to the parent commit
+ * has been released or the commit is closed by its last holder. A recycled commit fails with an
+ * {@link IllegalStateException}.
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
@@ -47,41 +51,69 @@ class ResourceManagerCommit implements Commit {
     this.session = session;
   }
 
+  /**
+   * Returns the commit to its pool.
+   */
+  private void recycle() {
+    commit = null;
+    session = null;
+    pool.release(this);
+  }
+
+  /**
+   * Returns the parent commit, failing if the commit has been recycled.
+   */
+  private Commit<InstanceOperation<?, ?>> commit() {
+    if (commit == null)
+      throw new IllegalStateException("commit has been released");
+    return commit;
+  }
+
   @Override
   public long index() {
-    return commit.index();
+    return commit().index();
   }
 
   @Override
   public ServerSession session() {
+    commit();
     return session;
   }
 
   @Override
   public Instant time() {
-    return commit.time();
+    return commit().time();
+  }
+
+  /**
+   * Returns the operation code of the resource operation.
+   *
+   * @return The operation code of the resource operation.
+   */
+  int code() {
+    return commit().operation().code();
   }
 
   @Override
   public Class<?> type() {
-    return commit.operation().operation().getClass();
+    return commit().operation().operation().getClass();
   }
 
   @Override
   public Operation<?> operation() {
-    return commit.operation().operation();
+    return commit().operation().operation();
   }
 
   @Override
   public Commit acquire() {
-    commit.acquire();
+    commit().acquire();
     return this;
   }
 
   @Override
   public boolean release() {
-    if (commit.release()) {
-      pool.release(this);
+    if (commit != null && commit.release()) {
+      recycle();
       return true;
     }
     return false;
@@ -89,17 +121,24 @@ class ResourceManagerCommit implements Commit {
 
   @Override
   public int references() {
-    return commit.references();
+    return commit != null ? commit.references() : 0;
   }
 
   @Override
   public void close() {
-    commit.close();
-    pool.release(this);
+    if (commit != null) {
+      boolean last = commit.references() <= 1;
+      commit.close();
+      if (last) {
+        recycle();
+      }
+    }
   }
 
   @Override
   public String toString() {
+    if (commit == null)
+      return String.format("%s[released]", getClass().getSimpleName());
     return String.format("%s[index=%d, session=%s, time=%s, operation=%s]", getClass().getSimpleName(), index(), session(), time(), operation());
   }
 
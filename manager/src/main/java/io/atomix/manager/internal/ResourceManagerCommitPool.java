@@ -18,16 +18,19 @@ package io.atomix.manager.internal;
 import io.atomix.copycat.server.Commit;
 import io.atomix.copycat.server.session.ServerSession;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 /**
  * Resource commit pool.
+ * <p>
+ * The pool is backed by an array deque rather than a linked queue so that acquiring and releasing
+ * commits does not allocate once the pool has grown to its steady-state size.
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
 class ResourceManagerCommitPool {
-  private final Queue<ResourceManagerCommit> pool = new ConcurrentLinkedQueue<>();
+  private final Deque<ResourceManagerCommit> pool = new ArrayDeque<>();
 
   /**
    * Acquires a commit from the pool.
@@ -37,7 +40,7 @@ class ResourceManagerCommitPool {
    * @return The acquired resource commit.
    */
   @SuppressWarnings("unchecked")
-  public ResourceManagerCommit acquire(Commit commit, ServerSession session) {
+  public synchronized ResourceManagerCommit acquire(Commit commit, ServerSession session) {
     ResourceManagerCommit resourceCommit = pool.poll();
     if (resourceCommit == null) {
       resourceCommit = new ResourceManagerCommit(this);
@@ -51,8 +54,8 @@ class ResourceManagerCommitPool {
    *
    * @param commit The commit to release.
    */
-  public void release(ResourceManagerCommit commit) {
-    pool.add(commit);
+  public synchronized void release(ResourceManagerCommit commit) {
+    pool.push(commit);
   }
 
 }
@@ -29,7 +29,8 @@ import java.util.*;
  */
 public class ResourceManagerSessions implements Sessions, AutoCloseable {
   private ManagedResourceSession first;
-  private final Map<Long, ManagedResourceSession> sessions = new HashMap<>();
+  private final LongMap<ManagedResourceSession> sessions = new LongMap<>();
+  private final LongMap<ManagedResourceSession> transientSessions = new LongMap<>();
   private final Set<SessionListener> listeners = new HashSet<>();
 
   @Override
@@ -37,11 +38,36 @@ public class ResourceManagerSessions implements Sessions, AutoCloseable {
     return sessions.get(sessionId);
   }
 
+  /**
+   * Returns the resource session for the given parent session.
+   * <p>
+   * If the parent session has not opened the resource, a transient session is returned. Transient sessions are
+   * cached until the parent session is closed or registered with the resource so that operations submitted by
+   * sessions that don't hold an instance of the resource don't allocate a new session on every commit.
+   *
+   * @param resource The resource ID.
+   * @param parent The parent session.
+   * @return The resource session.
+   */
+  ManagedResourceSession session(long resource, ServerSession parent) {
+    ManagedResourceSession session = sessions.get(parent.id());
+    if (session == null) {
+      session = transientSessions.get(parent.id());
+      if (session == null) {
+        session = new ManagedResourceSession(resource, null, parent);
+        transientSessions.put(parent.id(), session);
+      }
+    }
+    return session;
+  }
+
   void register(ManagedResourceSession session) {
     // If this is the first registered session, store it so it can be removed once all sessions are removed.
     if (first == null)
       first = session;
 
+    transientSessions.remove(session.id());
+
     // If a session was already registered for the session ID, release the new commit.
     if (sessions.containsKey(session.id())) {
       session.commit.close();
@@ -72,6 +98,7 @@ public class ResourceManagerSessions implements Sessions, AutoCloseable {
   }
 
   void close(long sessionId) {
+    transientSessions.remove(sessionId);
     ManagedResourceSession session = sessions.remove(sessionId);
     if (session != null) {
       for (SessionListener listener : listeners) {
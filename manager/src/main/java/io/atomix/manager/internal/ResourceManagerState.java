@@ -15,6 +15,7 @@
  */
 package io.atomix.manager.internal;
 
+import io.atomix.catalyst.concurrent.ThreadContext;
 import io.atomix.copycat.server.Commit;
 import io.atomix.copycat.server.Snapshottable;
 import io.atomix.copycat.server.StateMachine;
@@ -25,11 +26,14 @@ import io.atomix.copycat.server.storage.snapshot.SnapshotReader;
 import io.atomix.copycat.server.storage.snapshot.SnapshotWriter;
 import io.atomix.manager.ResourceManagerException;
 import io.atomix.manager.resource.internal.InstanceOperation;
+import io.atomix.manager.resource.internal.InstanceQuery;
 import io.atomix.resource.Resource;
 import io.atomix.resource.ResourceStateMachine;
 import io.atomix.resource.ResourceType;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -41,7 +45,7 @@ import java.util.stream.Collectors;
 public class ResourceManagerState extends StateMachine implements SessionListener, Snapshottable {
   private StateMachineExecutor executor;
   private final Map<String, Long> keys = new HashMap<>();
-  private final Map<Long, ResourceHolder> resources = new HashMap<>();
+  private final LongMap<ResourceHolder> resources = new LongMap<>();
   private final ResourceManagerCommitPool commits = new ResourceManagerCommitPool();
 
   @Override
@@ -78,6 +82,51 @@ public class ResourceManagerState extends StateMachine implements SessionListene
     }
   }
 
+  /**
+   * Applies a query directly to the local state machine.
+   * <p>
+   * The query is applied on the state machine thread between commits, bypassing the Raft log and the transport.
+   * The query observes the state of the local replica, which may lag behind the state of the cluster. The result
+   * is returned without being serialized, so it may be shared with the state machine and must not be mutated by
+   * the caller. State machines should return results that don't expose their internal state. The returned future
+   * is completed on the given client {@link ThreadContext}. Queries applied locally are not associated with a
+   * session unless the given session is known to the local state machine.
+   *
+   * @param query The query to apply.
+   * @param sessionId The ID of the session submitting the query.
+   * @param context The client thread context on which to complete the returned future.
+   * @param <T> The query result type.
+   * @return A completable future to be completed with the query result.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> query(InstanceQuery<?, T> query, long sessionId, ThreadContext context) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    executor.executor().execute(() -> {
+      try {
+        T result = (T) queryResource(query, sessionId);
+        context.executor().execute(() -> future.complete(result));
+      } catch (Exception e) {
+        context.executor().execute(() -> future.completeExceptionally(e));
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Applies a local query to a resource.
+   */
+  private Object queryResource(InstanceQuery<?, ?> query, long sessionId) {
+    ResourceHolder resource = resources.get(query.resource());
+    if (resource == null) {
+      throw new ResourceManagerException("unknown resource: " + query.resource());
+    }
+
+    ServerSession session = executor.context().sessions().session(sessionId);
+    ManagedResourceSession resourceSession = session != null ? resource.executor.context.sessions.session(query.resource(), session) : null;
+    LocalCommit commit = new LocalCommit(executor.context().index(), executor.context().clock().instant(), session, query);
+    return resource.executor.execute(commits.acquire(commit, resourceSession));
+  }
+
   /**
    * Performs an operation on a resource.
    */
@@ -90,13 +139,9 @@ public class ResourceManagerState extends StateMachine implements SessionListene
       throw new ResourceManagerException("unknown resource: " + resourceId);
     }
 
-    // If the session exists for the resource, use the existing session.
-    ManagedResourceSession resourceSession = resource.executor.context.sessions.session(commit.session().id());
-
-    // If the session is not open for this resource, add the commit session to the resource.
-    if (resourceSession == null) {
-      resourceSession = new ManagedResourceSession(resourceId, commit, commit.session());
-    }
+    // If the session exists for the resource, use the existing session. If the session is not open
+    // for this resource, a cached transient session is used.
+    ManagedResourceSession resourceSession = resource.executor.context.sessions.session(resourceId, commit.session());
 
     // Execute the operation.
     return resource.executor.execute(commits.acquire(commit, resourceSession));
@@ -230,10 +275,10 @@ public class ResourceManagerState extends StateMachine implements SessionListene
         return new HashSet<>(keys.keySet());
       }
 
-      return new HashSet<>(resources.entrySet()
+      return new HashSet<>(resources.values()
         .stream()
-        .filter(e -> e.getValue().type.id() == commit.operation().type())
-        .map(e -> e.getValue().key)
+        .filter(resource -> resource.type.id() == commit.operation().type())
+        .map(resource -> resource.key)
         .collect(Collectors.toSet()));
     } finally {
       commit.close();
@@ -265,6 +310,76 @@ public class ResourceManagerState extends StateMachine implements SessionListene
     }
   }
 
+  /**
+   * Commit for queries applied directly to the local state machine.
+   */
+  private static class LocalCommit implements Commit<InstanceOperation<?, ?>> {
+    private final long index;
+    private final Instant time;
+    private final ServerSession session;
+    private final InstanceOperation<?, ?> operation;
+    private int references = 1;
+
+    private LocalCommit(long index, Instant time, ServerSession session, InstanceOperation<?, ?> operation) {
+      this.index = index;
+      this.time = time;
+      this.session = session;
+      this.operation = operation;
+    }
+
+    @Override
+    public long index() {
+      return index;
+    }
+
+    @Override
+    public ServerSession session() {
+      return session;
+    }
+
+    @Override
+    public Instant time() {
+      return time;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<InstanceOperation<?, ?>> type() {
+      return (Class<InstanceOperation<?, ?>>) operation.getClass();
+    }
+
+    @Override
+    public InstanceOperation<?, ?> operation() {
+      return operation;
+    }
+
+    @Override
+    public Commit<InstanceOperation<?, ?>> acquire() {
+      references++;
+      return this;
+    }
+
+    @Override
+    public boolean release() {
+      return references > 0 && --references == 0;
+    }
+
+    @Override
+    public int references() {
+      return references;
+    }
+
+    @Override
+    public void close() {
+      references = 0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[index=%d, operation=%s]", getClass().getSimpleName(), index, operation);
+    }
+  }
+
   /**
    * Resource holder.
    */
@@ -22,13 +22,12 @@ import io.atomix.catalyst.util.Assert;
 import io.atomix.copycat.Operation;
 import io.atomix.copycat.server.Commit;
 import io.atomix.copycat.server.StateMachineExecutor;
+import io.atomix.resource.internal.OperationCodes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -38,6 +37,11 @@ import java.util.function.Supplier;
 
 /**
  * Resource state machine executor.
+ * <p>
+ * Resource state machines hold their timers in the {@link io.atomix.resource.ResourceStateMachineExecutor}'s
+ * timing wheel, so the tasks scheduled on this executor are limited to the wheel's driver. Pending tasks are
+ * tracked until they're cancelled or, for one-shot tasks, until they run, and any still pending are cancelled
+ * when the executor is closed.
  *
  * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
  */
@@ -45,8 +49,8 @@ class ResourceManagerStateMachineExecutor implements StateMachineExecutor {
   final StateMachineExecutor parent;
   final ResourceManagerStateMachineContext context;
   private final Logger logger;
-  private final Map<Class, Function> operations = new HashMap<>();
-  private final Set<Scheduled> tasks = new HashSet<>();
+  private final OperationCodes.Table<Function> operations = new OperationCodes.Table<>();
+  private final Set<Task> tasks = new HashSet<>();
 
   ResourceManagerStateMachineExecutor(long resource, StateMachineExecutor parent) {
     this.parent = parent;
@@ -88,10 +92,9 @@ class ResourceManagerStateMachineExecutor implements StateMachineExecutor {
    * Executes the given commit on the state machine.
    */
   @SuppressWarnings("unchecked")
-  <T extends Operation<U>, U> U execute(Commit<T> commit) {
-    // Get the function registered for the operation. If no function is registered, attempt to
-    // use a global function if available.
-    Function function = operations.get(commit.type());
+  <U> U execute(ResourceManagerCommit commit) {
+    // Get the function registered for the operation by the operation code carried by the instance operation.
+    Function function = operations.get(commit.code(), commit.operation());
 
     if (function == null) {
       throw new IllegalStateException("unknown state machine operation: " + commit.type());
@@ -104,14 +107,20 @@ class ResourceManagerStateMachineExecutor implements StateMachineExecutor {
 
   @Override
   public Scheduled schedule(Duration delay, Runnable callback) {
-    Scheduled task = parent.schedule(delay, callback);
+    Assert.notNull(callback, "callback");
+    Task task = new Task();
+    task.scheduled = parent.schedule(delay, () -> {
+      tasks.remove(task);
+      callback.run();
+    });
     tasks.add(task);
     return task;
   }
 
   @Override
   public Scheduled schedule(Duration initialDelay, Duration interval, Runnable callback) {
-    Scheduled task = parent.schedule(initialDelay, interval, callback);
+    Task task = new Task();
+    task.scheduled = parent.schedule(initialDelay, interval, callback);
     tasks.add(task);
     return task;
   }
@@ -120,7 +129,7 @@ class ResourceManagerStateMachineExecutor implements StateMachineExecutor {
   public <T extends Operation<Void>> StateMachineExecutor register(Class<T> type, Consumer<Commit<T>> callback) {
     Assert.notNull(type, "type");
     Assert.notNull(callback, "callback");
-    operations.put(type, (Function<Commit<T>, Void>) commit -> {
+    operations.register(type, (Function<Commit<T>, Void>) commit -> {
       callback.accept(commit);
       return null;
     });
@@ -131,14 +140,28 @@ class ResourceManagerStateMachineExecutor implements StateMachineExecutor {
   public <T extends Operation<U>, U> StateMachineExecutor register(Class<T> type, Function<Commit<T>, U> callback) {
     Assert.notNull(type, "type");
     Assert.notNull(callback, "callback");
-    operations.put(type, callback);
+    operations.register(type, callback);
     return this;
   }
 
   @Override
   public void close() {
-    tasks.forEach(Scheduled::cancel);
+    tasks.forEach(task -> task.scheduled.cancel());
+    tasks.clear();
     context.close();
   }
 
+  /**
+   * Scheduled task which stops being tracked by the executor once cancelled.
+   */
+  private class Task implements Scheduled {
+    private Scheduled scheduled;
+
+    @Override
+    public void cancel() {
+      tasks.remove(this);
+      scheduled.cancel();
+    }
+  }
+
 }
@@ -18,6 +18,7 @@ package io.atomix.manager.options;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.util.PropertiesReader;
 import io.atomix.catalyst.util.QualifiedProperties;
+import io.atomix.manager.util.ResourcePartitions;
 
 import java.util.Properties;
 
@@ -28,6 +29,10 @@ import java.util.Properties;
  */
 public abstract class AtomixOptions {
   public static final String SERIALIZER = "serializer";
+  public static final String PARTITIONS = "cluster.partitions";
+  public static final String PARTITION_PORT_STRIDE = "cluster.partitionPortStride";
+
+  private static final int DEFAULT_PARTITIONS = 1;
 
   protected final PropertiesReader reader;
 
@@ -44,4 +49,22 @@ public abstract class AtomixOptions {
     return new Serializer(new QualifiedProperties(reader.properties(), SERIALIZER));
   }
 
+  /**
+   * Returns the number of resource partitions.
+   *
+   * @return The number of resource partitions.
+   */
+  public int partitions() {
+    return reader.getInteger(PARTITIONS, DEFAULT_PARTITIONS);
+  }
+
+  /**
+   * Returns the distance between the ports of consecutive resource partitions.
+   *
+   * @return The partition port stride.
+   */
+  public int partitionPortStride() {
+    return reader.getInteger(PARTITION_PORT_STRIDE, ResourcePartitions.DEFAULT_PORT_STRIDE);
+  }
+
 }
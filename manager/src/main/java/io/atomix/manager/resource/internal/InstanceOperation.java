@@ -21,6 +21,7 @@ import io.atomix.catalyst.serializer.CatalystSerializable;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.copycat.Operation;
 import io.atomix.resource.Resource;
+import io.atomix.resource.internal.OperationCodes;
 
 /**
  * Instance-level resource operation.
@@ -34,6 +35,7 @@ import io.atomix.resource.Resource;
 public abstract class InstanceOperation<T extends Operation<U>, U> implements Operation<U>, CatalystSerializable {
   protected long resource;
   protected T operation;
+  protected int code;
 
   protected InstanceOperation() {
   }
@@ -41,6 +43,7 @@ public abstract class InstanceOperation<T extends Operation<U>, U> implements Op
   protected InstanceOperation(long resource, T operation) {
     this.resource = resource;
     this.operation = operation;
+    this.code = OperationCodes.code(operation.getClass());
   }
 
   /**
@@ -61,15 +64,26 @@ public abstract class InstanceOperation<T extends Operation<U>, U> implements Op
     return operation;
   }
 
+  /**
+   * Returns the operation code of the resource operation.
+   *
+   * @return The operation code or {@link OperationCodes#NONE} if the operation has no code.
+   */
+  public int code() {
+    return code;
+  }
+
   @Override
   public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
     buffer.writeLong(resource);
+    buffer.writeShort((short) code);
     serializer.writeObject(operation, buffer);
   }
 
   @Override
   public void readObject(BufferInput<?> buffer, Serializer serializer) {
     resource = buffer.readLong();
+    code = buffer.readShort();
     operation = serializer.readObject(buffer);
   }
 
@@ -17,6 +17,7 @@ package io.atomix.manager.resource.internal;
 
 import io.atomix.copycat.Query;
 import io.atomix.resource.Resource;
+import io.atomix.resource.internal.ResourceQuery;
 
 /**
  * Instance-level resource query.
@@ -41,6 +42,16 @@ public final class InstanceQuery<T extends Query<U>, U> extends InstanceOperatio
     return operation.consistency();
   }
 
+  /**
+   * Returns a boolean indicating whether the query may be applied to a co-located state machine.
+   *
+   * @return Indicates whether the query may be applied to a co-located state machine.
+   * @see ResourceQuery#local()
+   */
+  public boolean local() {
+    return operation instanceof ResourceQuery && ((ResourceQuery) operation).local();
+  }
+
   @Override
   public String toString() {
     return String.format("%s[resource=%d, query=%s, consistency=%s]", getClass().getSimpleName(), resource, operation, consistency());
@@ -20,6 +20,7 @@ import io.atomix.catalyst.serializer.SerializerRegistry;
 import io.atomix.manager.internal.*;
 import io.atomix.manager.resource.internal.InstanceTypeResolver;
 import io.atomix.resource.ResourceType;
+import io.atomix.resource.internal.OperationCodes;
 import io.atomix.resource.internal.ResourceCommand;
 import io.atomix.resource.internal.ResourceQuery;
 
@@ -36,11 +37,13 @@ public class ResourceManagerTypeResolver implements SerializableTypeResolver {
     registry.resolve(new InstanceTypeResolver());
 
     // Register resource state machine types.
-    registry.register(ResourceCommand.class, -50);
-    registry.register(ResourceQuery.class, -51);
-    registry.register(ResourceQuery.Config.class, -52);
-    registry.register(ResourceCommand.Delete.class, -53);
+    OperationCodes.register(registry, ResourceCommand.class, -50);
+    OperationCodes.register(registry, ResourceQuery.class, -51);
+    OperationCodes.register(registry, ResourceQuery.Config.class, -52);
+    OperationCodes.register(registry, ResourceCommand.Delete.class, -53);
     registry.register(ResourceType.class, -54);
+    OperationCodes.register(registry, ResourceCommand.Batch.class, -47);
+    registry.register(ResourceCommand.Error.class, -46);
 
     // Register resource manager types.
     registry.register(GetResource.class, -58);
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.manager.util;
+
+import io.atomix.catalyst.transport.Address;
+import io.atomix.catalyst.util.Assert;
+import io.atomix.catalyst.util.ConfigurationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resource partitioning utilities.
+ * <p>
+ * Resources can be spread across a number of independent Copycat groups, or <em>partitions</em>. Each
+ * partition is a separate Raft cluster with its own leader, log, and state machine. Resource keys are
+ * mapped to partitions by a stable hash of the key, so every client resolves a given key to the same
+ * partition regardless of the order in which resources are created.
+ * <p>
+ * Partitions share the host of the addresses through which they're configured. Partition {@code n}
+ * listens on the configured port plus {@code n} times the <em>port stride</em>, so with the
+ * {@link #DEFAULT_PORT_STRIDE default stride} a three partition server configured on port {@code 5000} binds
+ * ports {@code 5000}, {@code 5100}, and {@code 5200}. The stride must be larger than the span of ports used by
+ * the members of a cluster on a host, which {@link #validate(Collection, int, int)} checks. Partition {@code 0}
+ * is always the configured address, making a single partition cluster identical to an unpartitioned cluster.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+public final class ResourcePartitions {
+
+  /**
+   * The default distance between the ports of consecutive partitions.
+   */
+  public static final int DEFAULT_PORT_STRIDE = 100;
+
+  private static final int MAX_PORT = 65535;
+
+  private ResourcePartitions() {
+  }
+
+  /**
+   * Returns the partition to which the given resource key belongs.
+   *
+   * @param key The resource key.
+   * @param partitions The total number of partitions.
+   * @return The partition for the given key.
+   * @throws NullPointerException if {@code key} is null
+   * @throws IllegalArgumentException if {@code partitions} is not positive
+   */
+  public static int partition(String key, int partitions) {
+    Assert.notNull(key, "key");
+    Assert.argNot(partitions <= 0, "partitions must be positive");
+    if (partitions == 1)
+      return 0;
+    return Math.floorMod(hash(key), partitions);
+  }
+
+  /**
+   * Computes a stable hash for the given key.
+   * <p>
+   * The hash is based on {@link String#hashCode()}, which is specified by the JDK and therefore stable
+   * across processes, mixed with the murmur3 finalizer to spread keys that share long prefixes.
+   */
+  private static int hash(String key) {
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /**
+   * Returns the address of the given partition.
+   *
+   * @param address The base address.
+   * @param partition The partition.
+   * @param stride The distance between the ports of consecutive partitions.
+   * @return The partition address.
+   * @throws IllegalArgumentException if {@code partition} is negative or {@code stride} is not positive
+   */
+  public static Address address(Address address, int partition, int stride) {
+    Assert.notNull(address, "address");
+    Assert.argNot(partition < 0, "partition cannot be negative");
+    Assert.argNot(stride <= 0, "stride must be positive");
+    return partition == 0 ? address : new Address(address.host(), address.port() + partition * stride);
+  }
+
+  /**
+   * Returns the addresses of the given partition.
+   *
+   * @param addresses The base addresses.
+   * @param partition The partition.
+   * @param stride The distance between the ports of consecutive partitions.
+   * @return The partition addresses.
+   */
+  public static List<Address> addresses(Collection<Address> addresses, int partition, int stride) {
+    Assert.notNull(addresses, "addresses");
+    List<Address> results = new ArrayList<>(addresses.size());
+    for (Address address : addresses) {
+      results.add(address(address, partition, stride));
+    }
+    return results;
+  }
+
+  /**
+   * Validates that the partitions of the given base addresses bind distinct, valid ports.
+   * <p>
+   * Partition addresses collide when the ports of the members of a cluster on a host span at least the
+   * port stride, for instance members on ports {@code 5000} and {@code 5001} with a stride of {@code 1}.
+   * Duplicate base addresses, such as a server whose client and server addresses are the same, are checked once.
+   *
+   * @param addresses The base addresses.
+   * @param partitions The number of partitions.
+   * @param stride The distance between the ports of consecutive partitions.
+   * @throws ConfigurationException if a partition port is out of range or two partition addresses collide
+   */
+  public static void validate(Collection<Address> addresses, int partitions, int stride) {
+    Assert.notNull(addresses, "addresses");
+    Assert.argNot(partitions <= 0, "partitions must be positive");
+    Assert.argNot(stride <= 0, "stride must be positive");
+    Map<Address, String> bound = new HashMap<>();
+    for (Address address : new LinkedHashSet<>(addresses)) {
+      for (int i = 0; i < partitions; i++) {
+        if ((long) address.port() + (long) i * stride > MAX_PORT)
+          throw new ConfigurationException("partition " + i + " of " + address + " exceeds the maximum port");
+        String owner = "partition " + i + " of " + address;
+        String existing = bound.put(address(address, i, stride), owner);
+        if (existing != null)
+          throw new ConfigurationException(owner + " collides with " + existing + "; increase the partition port stride");
+      }
+    }
+  }
+
+  /**
+   * Returns the name of the given partition.
+   * <p>
+   * Partition names are used to name the logs of each partition so that all partitions can share a
+   * single {@link io.atomix.copycat.server.storage.Storage} directory.
+   *
+   * @param name The base name.
+   * @param partition The partition.
+   * @return The partition name.
+   */
+  public static String name(String name, int partition) {
+    return partition == 0 ? name : String.format("%s-%d", name, partition);
+  }
+
+}
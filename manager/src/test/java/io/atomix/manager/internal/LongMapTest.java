@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.manager.internal;
+
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+/**
+ * Long map test.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+@Test
+public class LongMapTest {
+
+  /**
+   * Tests putting, getting and removing entries.
+   */
+  public void testPutGetRemove() {
+    LongMap<String> map = new LongMap<>();
+    assertNull(map.put(1000, "a"));
+    assertEquals(map.put(1000, "b"), "a");
+    assertEquals(map.get(1000), "b");
+    assertTrue(map.containsKey(1000));
+    assertNull(map.get(1001));
+    assertEquals(map.size(), 1);
+    assertEquals(map.remove(1000), "b");
+    assertNull(map.remove(1000));
+    assertFalse(map.containsKey(1000));
+    assertEquals(map.size(), 0);
+  }
+
+  /**
+   * Tests the map against a hash map with random operations.
+   */
+  public void testRandomOperations() {
+    LongMap<Long> map = new LongMap<>();
+    Map<Long, Long> expected = new HashMap<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100000; i++) {
+      long key = random.nextInt(1000) * 4096L;
+      if (random.nextInt(3) == 0) {
+        assertEquals(map.remove(key), expected.remove(key));
+      } else {
+        assertEquals(map.put(key, (long) i), expected.put(key, (long) i));
+      }
+      assertEquals(map.size(), expected.size());
+    }
+    for (long key = 0; key < 1000 * 4096L; key += 4096) {
+      assertEquals(map.get(key), expected.get(key));
+    }
+    assertEquals(new HashSet<>(map.values()), new HashSet<>(expected.values()));
+  }
+
+}
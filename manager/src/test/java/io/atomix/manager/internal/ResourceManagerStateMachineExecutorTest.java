@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.manager.internal;
+
+import io.atomix.catalyst.concurrent.Scheduled;
+import io.atomix.copycat.server.StateMachineExecutor;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Resource manager state machine executor test.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+@Test
+public class ResourceManagerStateMachineExecutorTest {
+
+  /**
+   * Tests that a one-shot task is no longer tracked once it has run.
+   */
+  public void testTaskReleasedOnRun() {
+    StateMachineExecutor parent = mock(StateMachineExecutor.class);
+    Scheduled scheduled = mock(Scheduled.class);
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    when(parent.schedule(any(Duration.class), captor.capture())).thenReturn(scheduled);
+
+    ResourceManagerStateMachineExecutor executor = new ResourceManagerStateMachineExecutor(1, parent);
+    Runnable callback = mock(Runnable.class);
+    executor.schedule(Duration.ofMillis(100), callback);
+    captor.getValue().run();
+    verify(callback).run();
+
+    executor.close();
+    verify(scheduled, never()).cancel();
+  }
+
+  /**
+   * Tests that a task is no longer tracked once it has been cancelled.
+   */
+  public void testTaskReleasedOnCancel() {
+    StateMachineExecutor parent = mock(StateMachineExecutor.class);
+    Scheduled scheduled = mock(Scheduled.class);
+    when(parent.schedule(any(Duration.class), any(Duration.class), any(Runnable.class))).thenReturn(scheduled);
+
+    ResourceManagerStateMachineExecutor executor = new ResourceManagerStateMachineExecutor(1, parent);
+    executor.schedule(Duration.ofMillis(100), Duration.ofMillis(100), mock(Runnable.class)).cancel();
+    verify(scheduled).cancel();
+
+    executor.close();
+    verify(scheduled, times(1)).cancel();
+  }
+
+  /**
+   * Tests that pending tasks are cancelled when the executor is closed.
+   */
+  public void testPendingTasksCancelledOnClose() {
+    StateMachineExecutor parent = mock(StateMachineExecutor.class);
+    Scheduled scheduled = mock(Scheduled.class);
+    when(parent.schedule(any(Duration.class), any(Duration.class), any(Runnable.class))).thenReturn(scheduled);
+
+    ResourceManagerStateMachineExecutor executor = new ResourceManagerStateMachineExecutor(1, parent);
+    executor.schedule(Duration.ofMillis(100), Duration.ofMillis(100), mock(Runnable.class));
+    executor.close();
+    verify(scheduled).cancel();
+  }
+
+}
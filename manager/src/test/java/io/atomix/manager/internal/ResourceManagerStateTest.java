@@ -0,0 +1,312 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.manager.internal;
+
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.concurrent.Listener;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.copycat.Command;
+import io.atomix.copycat.Operation;
+import io.atomix.copycat.client.CopycatClient;
+import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.StateMachineContext;
+import io.atomix.copycat.server.StateMachineExecutor;
+import io.atomix.copycat.server.session.ServerSession;
+import io.atomix.copycat.server.session.Sessions;
+import io.atomix.copycat.session.Session;
+import io.atomix.manager.resource.internal.InstanceCommand;
+import io.atomix.manager.resource.internal.InstanceOperation;
+import io.atomix.resource.AbstractResource;
+import io.atomix.resource.ResourceFactory;
+import io.atomix.resource.ResourceStateMachine;
+import io.atomix.resource.ResourceType;
+import io.atomix.resource.internal.OperationCodes;
+import io.atomix.resource.internal.ResourceCommand;
+import org.mockito.ArgumentCaptor;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Resource manager state test.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+@Test
+@SuppressWarnings("unchecked")
+public class ResourceManagerStateTest {
+  private static final int ITERATIONS = 100000;
+  private static final long MAX_ALLOCATED_BYTES = 1024 * 64;
+  private static final long RESOURCE_ID = 100000;
+  private static final long OWNER_ID = 200000;
+  private static final long SESSION_ID = 300000;
+
+  /**
+   * Tests that applying resource commands through the resource manager does not allocate once the commit pools
+   * and transient session cache are warm.
+   */
+  public void testOperateResourceAllocation() throws Throwable {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      throw new SkipException("thread allocation counters are not supported");
+    }
+
+    com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+    if (!allocation.isThreadAllocatedMemorySupported() || !allocation.isThreadAllocatedMemoryEnabled()) {
+      throw new SkipException("thread allocation counters are not enabled");
+    }
+
+    Serializer serializer = new Serializer();
+    OperationCodes.register(serializer.registry(), TestCommand.class, 2001);
+
+    StateMachineExecutor parent = mock(StateMachineExecutor.class);
+    when(parent.context()).thenReturn(new TestContext());
+    when(parent.serializer()).thenReturn(serializer);
+
+    ResourceManagerState state = new ResourceManagerState();
+    state.init(parent);
+    ArgumentCaptor<Function> operations = ArgumentCaptor.forClass(Function.class);
+    verify(parent).register(eq(InstanceOperation.class), operations.capture());
+    ArgumentCaptor<Function> getResource = ArgumentCaptor.forClass(Function.class);
+    verify(parent).register(eq(GetResource.class), getResource.capture());
+
+    ServerSession owner = new TestSession(OWNER_ID);
+    GetResource get = new GetResource("test", new ResourceType(1000, TestFactory.class), new Properties());
+    assertEquals(getResource.getValue().apply(new TestCommit<>(RESOURCE_ID, owner, get)), RESOURCE_ID);
+
+    // Commands are submitted by a session that hasn't opened the resource, so they're applied with a cached
+    // transient session.
+    Function<Commit<InstanceOperation>, Object> operate = operations.getValue();
+    TestCommit<InstanceOperation> commit = new TestCommit<>(RESOURCE_ID + 1, new TestSession(SESSION_ID),
+      new InstanceCommand<>(RESOURCE_ID, new ResourceCommand<>(new TestCommand())));
+    assertTrue(operate.apply(commit) instanceof TestCommand);
+    for (int i = 0; i < ITERATIONS; i++) {
+      commit.references = 1;
+      operate.apply(commit);
+    }
+
+    long threadId = Thread.currentThread().getId();
+    long start = allocation.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < ITERATIONS; i++) {
+      commit.references = 1;
+      operate.apply(commit);
+    }
+    long allocated = allocation.getThreadAllocatedBytes(threadId) - start;
+    assertTrue(allocated < MAX_ALLOCATED_BYTES, "allocated " + allocated + " bytes in " + ITERATIONS + " commands");
+  }
+
+  /**
+   * Test state machine context.
+   * <p>
+   * The context and sessions are implemented directly rather than mocked, since recording calls to mocks
+   * allocates.
+   */
+  private static class TestContext implements StateMachineContext {
+    private final Clock clock = Clock.systemUTC();
+    private final Sessions sessions = mock(Sessions.class);
+
+    @Override
+    public long index() {
+      return 0;
+    }
+
+    @Override
+    public Clock clock() {
+      return clock;
+    }
+
+    @Override
+    public Sessions sessions() {
+      return sessions;
+    }
+  }
+
+  /**
+   * Test session.
+   */
+  private static class TestSession implements ServerSession {
+    private final long id;
+
+    private TestSession(long id) {
+      this.id = id;
+    }
+
+    @Override
+    public long id() {
+      return id;
+    }
+
+    @Override
+    public State state() {
+      return State.OPEN;
+    }
+
+    @Override
+    public Listener<State> onStateChange(Consumer<State> callback) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Session publish(String event) {
+      return this;
+    }
+
+    @Override
+    public Session publish(String event, Object message) {
+      return this;
+    }
+  }
+
+  /**
+   * Test commit.
+   */
+  private static class TestCommit<T extends Operation> implements Commit<T> {
+    private final long index;
+    private final ServerSession session;
+    private final T operation;
+    private final Instant time = Instant.now();
+    private int references = 1;
+
+    private TestCommit(long index, ServerSession session, T operation) {
+      this.index = index;
+      this.session = session;
+      this.operation = operation;
+    }
+
+    @Override
+    public long index() {
+      return index;
+    }
+
+    @Override
+    public ServerSession session() {
+      return session;
+    }
+
+    @Override
+    public Instant time() {
+      return time;
+    }
+
+    @Override
+    public Class<T> type() {
+      return (Class<T>) operation.getClass();
+    }
+
+    @Override
+    public T operation() {
+      return operation;
+    }
+
+    @Override
+    public Commit<T> acquire() {
+      references++;
+      return this;
+    }
+
+    @Override
+    public boolean release() {
+      return --references == 0;
+    }
+
+    @Override
+    public int references() {
+      return references;
+    }
+
+    @Override
+    public void close() {
+      references = 0;
+    }
+  }
+
+  /**
+   * Test resource.
+   */
+  public static class TestResource extends AbstractResource<TestResource> {
+    public TestResource(CopycatClient client, Properties options) {
+      super(client, options);
+    }
+  }
+
+  /**
+   * Test resource factory.
+   */
+  public static class TestFactory implements ResourceFactory<TestResource> {
+    @Override
+    public ResourceStateMachine createStateMachine(Properties config) {
+      return new TestStateMachine(config);
+    }
+
+    @Override
+    public TestResource createInstance(CopycatClient client, Properties options) {
+      return new TestResource(client, options);
+    }
+  }
+
+  /**
+   * Test state machine.
+   * <p>
+   * The command is registered explicitly, since operations dispatched by reflection allocate an argument array.
+   */
+  public static class TestStateMachine extends ResourceStateMachine {
+    public TestStateMachine(Properties config) {
+      super(config);
+    }
+
+    @Override
+    protected void configure(StateMachineExecutor executor) {
+      executor.register(TestCommand.class, this::command);
+    }
+
+    private Object command(Commit<TestCommand> commit) {
+      try {
+        return commit.operation();
+      } finally {
+        commit.close();
+      }
+    }
+  }
+
+  /**
+   * Test command.
+   */
+  public static class TestCommand implements Command<Object>, CatalystSerializable {
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+    }
+  }
+
+}
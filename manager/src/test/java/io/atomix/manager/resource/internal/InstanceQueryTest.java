@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.manager.resource.internal;
+
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.copycat.Query;
+import io.atomix.manager.util.ResourceManagerTypeResolver;
+import io.atomix.resource.internal.ResourceQuery;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * Instance query test.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+@Test
+public class InstanceQueryTest {
+
+  /**
+   * Tests that only queries submitted with LOCAL consistency are local.
+   */
+  public void testLocal() {
+    assertTrue(new InstanceQuery<>(1, new ResourceQuery<>(new TestQuery(), true)).local());
+    assertFalse(new InstanceQuery<>(1, new ResourceQuery<>(new TestQuery(), false)).local());
+    assertFalse(new InstanceQuery<>(1, new ResourceQuery<>(new TestQuery())).local());
+    assertFalse(new InstanceQuery<>(1, new TestQuery()).local());
+  }
+
+  /**
+   * Tests that the local flag is not serialized.
+   */
+  public void testLocalNotSerialized() {
+    Serializer serializer = new Serializer().disableWhitelist();
+    serializer.resolve(new ResourceManagerTypeResolver());
+
+    InstanceQuery<?, ?> query = serializer.copy(new InstanceQuery<>(1, new ResourceQuery<>(new TestQuery(), true)));
+    assertEquals(query.resource(), 1);
+    assertFalse(query.local());
+  }
+
+  /**
+   * Test query.
+   */
+  public static class TestQuery implements Query<String> {
+  }
+
+}
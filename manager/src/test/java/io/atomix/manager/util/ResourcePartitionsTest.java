@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.manager.util;
+
+import io.atomix.catalyst.transport.Address;
+import io.atomix.catalyst.util.ConfigurationException;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+/**
+ * Resource partitions test.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+@Test
+public class ResourcePartitionsTest {
+
+  /**
+   * Tests that keys are routed to stable partitions spread across all partitions.
+   */
+  public void testPartition() {
+    assertEquals(ResourcePartitions.partition("foo", 1), 0);
+
+    Set<Integer> partitions = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      String key = "key-" + i;
+      int partition = ResourcePartitions.partition(key, 4);
+      assertTrue(partition >= 0 && partition < 4);
+      assertEquals(ResourcePartitions.partition(new String(key), 4), partition);
+      partitions.add(partition);
+    }
+    assertEquals(partitions.size(), 4);
+  }
+
+  /**
+   * Tests computing partition addresses.
+   */
+  public void testAddresses() {
+    Address address = new Address("localhost", 5000);
+    assertSame(ResourcePartitions.address(address, 0, 100), address);
+    assertEquals(ResourcePartitions.address(address, 2, 100), new Address("localhost", 5200));
+
+    List<Address> addresses = ResourcePartitions.addresses(Arrays.asList(address, new Address("localhost", 5001)), 1, 100);
+    assertEquals(addresses, Arrays.asList(new Address("localhost", 5100), new Address("localhost", 5101)));
+  }
+
+  /**
+   * Tests validating the partition addresses of adjacent ports.
+   */
+  public void testValidate() {
+    List<Address> members = Arrays.asList(new Address("localhost", 5000), new Address("localhost", 5001), new Address("localhost", 5002));
+    ResourcePartitions.validate(members, 3, ResourcePartitions.DEFAULT_PORT_STRIDE);
+    ResourcePartitions.validate(Arrays.asList(new Address("localhost", 5000), new Address("localhost", 5000)), 3, 1);
+
+    try {
+      ResourcePartitions.validate(members, 2, 1);
+      fail();
+    } catch (ConfigurationException e) {
+    }
+
+    try {
+      ResourcePartitions.validate(Arrays.asList(new Address("localhost", 5000), new Address("localhost", 5001)), 2, 1);
+      fail();
+    } catch (ConfigurationException e) {
+    }
+
+    try {
+      ResourcePartitions.validate(Arrays.asList(new Address("localhost", 65000)), 2, 1000);
+      fail();
+    } catch (ConfigurationException e) {
+    }
+  }
+
+}
@@ -19,7 +19,9 @@ import io.atomix.catalyst.concurrent.Listener;
 import io.atomix.catalyst.concurrent.ThreadContext;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.util.Assert;
+import io.atomix.copycat.Query;
 import io.atomix.copycat.client.CopycatClient;
+import io.atomix.resource.internal.OperationCodes;
 import io.atomix.resource.internal.ResourceCommand;
 import io.atomix.resource.internal.ResourceCopycatClient;
 import io.atomix.resource.internal.ResourceEvent;
@@ -42,6 +44,7 @@ import java.util.function.Consumer;
 public abstract class AbstractResource<T extends Resource<T>> implements Resource<T> {
   private final ResourceType type;
   protected final CopycatClient client;
+  private final ResourceCopycatClient resourceClient;
   protected volatile Config config;
   protected final Options options;
   private volatile State state;
@@ -55,20 +58,25 @@ public abstract class AbstractResource<T extends Resource<T>> implements Resourc
   }
 
   protected AbstractResource(CopycatClient client, ResourceType type, Properties options) {
-    this.client = new ResourceCopycatClient(Assert.notNull(client, "client"));
+    this.options = new Options(Assert.notNull(options, "options"));
+    this.resourceClient = new ResourceCopycatClient(Assert.notNull(client, "client"), this.options.getBatchWindow(), this.options.getMaxBatchSize());
+    this.client = resourceClient;
     if (type == null)
       type = new ResourceType(getClass());
     this.type = type;
 
-    client.serializer().register(ResourceCommand.class, -50);
-    client.serializer().register(ResourceQuery.class, -51);
-    client.serializer().register(ResourceQuery.Config.class, -52);
-    client.serializer().register(ResourceCommand.Delete.class, -53);
+    OperationCodes.register(client.serializer().registry(), ResourceCommand.class, -50);
+    OperationCodes.register(client.serializer().registry(), ResourceQuery.class, -51);
+    OperationCodes.register(client.serializer().registry(), ResourceQuery.Config.class, -52);
+    OperationCodes.register(client.serializer().registry(), ResourceCommand.Delete.class, -53);
     client.serializer().register(ResourceType.class, -54);
     client.serializer().register(ResourceEvent.class, -49);
+    OperationCodes.register(client.serializer().registry(), ResourceCommand.Batch.class, -47);
+    client.serializer().register(ResourceCommand.Error.class, -46);
+    // Copycat reserves serializer IDs -18 to -45 (-45 is NoOpCommand).
+    client.serializer().register(ResourceEvent.Batch.class, -64);
 
     this.config = new Config();
-    this.options = new Options(Assert.notNull(options, "options"));
     client.onStateChange(this::onStateChange);
   }
 
@@ -117,6 +125,23 @@ public abstract class AbstractResource<T extends Resource<T>> implements Resourc
     });
   }
 
+  /**
+   * Submits a query to the cluster with the given read consistency.
+   * <p>
+   * Resource implementations should use this method to submit queries for which the user specified a
+   * {@link ReadConsistency}. When the resource is opened on an Atomix replica, {@link ReadConsistency#LOCAL}
+   * queries are applied directly to the replica's state machine, otherwise queries are submitted to the cluster
+   * with the query's {@link Query#consistency() consistency level}.
+   *
+   * @param query The query to submit.
+   * @param consistency The read consistency specified for the query.
+   * @param <U> The query result type.
+   * @return A completable future to be completed with the query result.
+   */
+  protected <U> CompletableFuture<U> submit(Query<U> query, ReadConsistency consistency) {
+    return resourceClient.submit(query, consistency);
+  }
+
   /**
    * Handles an event from the cluster.
    */
@@ -193,6 +218,7 @@ public abstract class AbstractResource<T extends Resource<T>> implements Resourc
       .thenCompose(v -> client.submit(new ResourceQuery.Config()))
       .thenApply(config -> {
         this.config = new Config(config);
+        resourceClient.snapshot(this.config.isSnapshotEnabled());
         client.<ResourceEvent>onEvent("event", this::onEvent);
         return (T) this;
       });
@@ -74,6 +74,11 @@ public enum ReadConsistency {
    * using {@code LOCAL} read consistency, cached resources will attempt to service the read from the local cache and
    * fall back to {@link #SEQUENTIAL} communication with the cluster. State changes in the local cache must be similarly
    * guaranteed to occur in sequential order.
+   * <p>
+   * When a resource is opened on an {@code AtomixReplica} that is an active or passive member of the cluster,
+   * {@code LOCAL} reads that are not serviced by a cache are applied directly to the replica's own state machine,
+   * bypassing the transport and the Copycat query path. Such reads observe the replica's local state, which may
+   * lag behind the state of the cluster, and their results are not serialized, so they must not be mutated.
    */
   LOCAL(Query.ConsistencyLevel.SEQUENTIAL);
 
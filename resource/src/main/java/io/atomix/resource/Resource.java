@@ -18,12 +18,14 @@ package io.atomix.resource;
 import io.atomix.catalyst.concurrent.Listener;
 import io.atomix.catalyst.concurrent.ThreadContext;
 import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.catalyst.util.Assert;
 import io.atomix.catalyst.util.Managed;
 import io.atomix.copycat.Command;
 import io.atomix.copycat.Query;
 import io.atomix.copycat.session.Session;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
@@ -57,6 +59,8 @@ public interface Resource<T extends Resource<T>> extends Managed<T> {
    * These options might include a maximum collection size or the order of values in a multi-map.
    */
   class Config extends Properties implements Serializable {
+    private static final String SNAPSHOT = "snapshot";
+
     public Config() {
     }
 
@@ -66,6 +70,41 @@ public interface Resource<T extends Resource<T>> extends Managed<T> {
         setProperty(property, defaults.getProperty(property));
       }
     }
+
+    /**
+     * Enables snapshot-based storage for the resource.
+     * <p>
+     * By default, resource state machines retain the {@link io.atomix.copycat.server.Commit commits} that make up
+     * their state, so the log grows with the resource's live data and is replayed in full on recovery. When snapshots
+     * are enabled, state machines copy keys and values out of commits, release commits as soon as they're applied,
+     * and persist their state in snapshots of the state machine. Disk usage and recovery time then track the size of
+     * the resource's state rather than its history.
+     *
+     * @return The resource configuration.
+     */
+    public Config withSnapshots() {
+      return withSnapshots(true);
+    }
+
+    /**
+     * Sets whether to enable snapshot-based storage for the resource.
+     *
+     * @param enableSnapshots Whether to enable snapshot-based storage.
+     * @return The resource configuration.
+     */
+    public Config withSnapshots(boolean enableSnapshots) {
+      setProperty(SNAPSHOT, String.valueOf(enableSnapshots));
+      return this;
+    }
+
+    /**
+     * Returns whether snapshot-based storage is enabled for the resource.
+     *
+     * @return Whether snapshot-based storage is enabled.
+     */
+    public boolean isSnapshotEnabled() {
+      return Boolean.parseBoolean(getProperty(SNAPSHOT, "false"));
+    }
   }
 
   /**
@@ -76,12 +115,72 @@ public interface Resource<T extends Resource<T>> extends Managed<T> {
    * instance. Those initial options configure the behavior of the resource instance on the local node only.
    */
   class Options extends Properties {
+    private static final String BATCH_WINDOW = "batch.window";
+    private static final String BATCH_SIZE = "batch.size";
+
     public Options() {
     }
 
     public Options(Properties defaults) {
       super(defaults);
     }
+
+    /**
+     * Enables client-side command batching.
+     * <p>
+     * When batching is enabled, commands submitted by the resource instance are buffered for up to the given
+     * {@code window} or until {@code maxSize} commands have been buffered, whichever comes first. Buffered
+     * commands are then submitted to the cluster as a single command that's logged, replicated, and applied
+     * as one entry. Commands within a batch are applied in the order in which they were submitted, and the
+     * result of each command is returned to the caller that submitted it. Submitting a query flushes any
+     * buffered commands first, so batching does not affect the ordering of operations within the instance.
+     * <p>
+     * Batching trades latency for throughput: commands may be delayed by up to the batch window before being
+     * submitted to the cluster.
+     *
+     * @param window The maximum amount of time for which to buffer commands.
+     * @param maxSize The maximum number of commands in a batch.
+     * @return The resource options.
+     * @throws NullPointerException if {@code window} is null
+     * @throws IllegalArgumentException if {@code window} is negative or {@code maxSize} is not positive
+     */
+    public Options withBatching(Duration window, int maxSize) {
+      Assert.notNull(window, "window");
+      Assert.argNot(window.isNegative(), "window cannot be negative");
+      Assert.argNot(maxSize <= 0, "maxSize must be positive");
+      setProperty(BATCH_WINDOW, String.valueOf(window.toMillis()));
+      setProperty(BATCH_SIZE, String.valueOf(maxSize));
+      return this;
+    }
+
+    /**
+     * Returns the client-side command batch window.
+     *
+     * @return The client-side command batch window.
+     */
+    public Duration getBatchWindow() {
+      return Duration.ofMillis(Long.parseLong(getProperty(BATCH_WINDOW, "0")));
+    }
+
+    /**
+     * Returns the maximum number of commands in a client-side batch.
+     * <p>
+     * A maximum batch size of {@code 1} indicates batching is disabled.
+     *
+     * @return The maximum number of commands in a client-side batch.
+     */
+    public int getMaxBatchSize() {
+      return Integer.parseInt(getProperty(BATCH_SIZE, "1"));
+    }
+
+    /**
+     * Returns whether client-side command batching is enabled.
+     *
+     * @return Whether client-side command batching is enabled.
+     */
+    public boolean isBatching() {
+      return getMaxBatchSize() > 1;
+    }
   }
 
   /**
@@ -21,8 +21,10 @@ import io.atomix.copycat.server.StateMachine;
 import io.atomix.copycat.server.StateMachineExecutor;
 import io.atomix.copycat.server.session.ServerSession;
 import io.atomix.copycat.server.session.SessionListener;
+import io.atomix.resource.internal.OperationCodes;
 import io.atomix.resource.internal.ResourceCommand;
 import io.atomix.resource.internal.ResourceEvent;
+import io.atomix.resource.internal.ResourceEventBuffer;
 import io.atomix.resource.internal.ResourceQuery;
 
 import java.util.*;
@@ -112,22 +114,30 @@ import java.util.*;
 public abstract class ResourceStateMachine extends StateMachine implements SessionListener {
   protected final Properties config;
   private final Map<Integer, Set<ServerSession>> eventListeners = new HashMap<>();
+  private final boolean snapshot;
+  private ResourceEventBuffer events;
 
   protected ResourceStateMachine(Properties config) {
     this.config = Assert.notNull(config, "config");
+    this.snapshot = new Resource.Config(config).isSnapshotEnabled();
   }
 
   @Override
   public final void init(StateMachineExecutor executor) {
-    executor.serializer().register(ResourceCommand.class, -50);
-    executor.serializer().register(ResourceQuery.class, -51);
-    executor.serializer().register(ResourceQuery.Config.class, -52);
-    executor.serializer().register(ResourceCommand.Delete.class, -53);
+    OperationCodes.register(executor.serializer().registry(), ResourceCommand.class, -50);
+    OperationCodes.register(executor.serializer().registry(), ResourceQuery.class, -51);
+    OperationCodes.register(executor.serializer().registry(), ResourceQuery.Config.class, -52);
+    OperationCodes.register(executor.serializer().registry(), ResourceCommand.Delete.class, -53);
     executor.serializer().register(ResourceEvent.class, -49);
+    OperationCodes.register(executor.serializer().registry(), ResourceCommand.Batch.class, -47);
+    executor.serializer().register(ResourceCommand.Error.class, -46);
+    // Copycat reserves serializer IDs -18 to -45 (-45 is NoOpCommand).
+    executor.serializer().register(ResourceEvent.Batch.class, -64);
 
     executor.context().sessions().addListener(this);
 
-    ResourceStateMachineExecutor wrappedExecutor = new ResourceStateMachineExecutor(executor);
+    ResourceStateMachineExecutor wrappedExecutor = new ResourceStateMachineExecutor(executor, snapshot);
+    events = wrappedExecutor.events;
     wrappedExecutor.register(ResourceQuery.Config.class, this::config);
     wrappedExecutor.<ResourceCommand.Register>register(ResourceCommand.Register.class, this::register);
     wrappedExecutor.<ResourceCommand.Unregister>register(ResourceCommand.Unregister.class, this::unregister);
@@ -160,11 +170,60 @@ public abstract class ResourceStateMachine extends StateMachine implements Sessi
     Set<ServerSession> sessions = eventListeners.get(event.type().id());
     if (sessions != null) {
       for (ServerSession session : sessions) {
-        session.publish("event", new ResourceEvent(event.type().id(), event));
+        publish(session, "event", new ResourceEvent(event.type().id(), event));
       }
     }
   }
 
+  /**
+   * Publishes an event to the given session.
+   * <p>
+   * Events published while a command is applied are coalesced with other events published to the same
+   * session by the command and delivered to the session as a single batch once the command completes.
+   * State machines should prefer this method to {@link ServerSession#publish(String, Object)} for events
+   * that may be published to many sessions or many times by a single command.
+   *
+   * @param session The session to which to publish the event.
+   * @param event The event name.
+   * @param message The event message.
+   */
+  protected void publish(ServerSession session, String event, Object message) {
+    events.publish(session, event, message);
+  }
+
+  /**
+   * Returns a boolean indicating whether the resource stores its state in snapshots.
+   * <p>
+   * Snapshots are enabled by the resource's {@link Resource.Config#withSnapshots() configuration}. When snapshots
+   * are enabled, clients submit the resource's commands with {@link io.atomix.copycat.Command.CompactionMode#SNAPSHOT}
+   * compaction, so the state machine must implement {@link io.atomix.copycat.server.Snapshottable} and persist any
+   * state it holds in its snapshots.
+   *
+   * @return Indicates whether the resource stores its state in snapshots.
+   */
+  protected boolean isSnapshotEnabled() {
+    return snapshot;
+  }
+
+  /**
+   * Retains a commit that contributes to the state machine's state.
+   * <p>
+   * When snapshots are {@link #isSnapshotEnabled() enabled}, the commit is closed immediately and {@code null}
+   * is returned, so state machines must copy any state they need out of the commit before retaining it. Otherwise,
+   * the commit is returned and must be closed by the state machine once it no longer contributes to its state.
+   *
+   * @param commit The commit to retain.
+   * @param <T> The commit type.
+   * @return The retained commit or {@code null} if snapshots are enabled.
+   */
+  protected <T extends Commit<?>> T retain(T commit) {
+    if (snapshot) {
+      commit.close();
+      return null;
+    }
+    return commit;
+  }
+
   /**
    * Returns the resource configuration.
    */
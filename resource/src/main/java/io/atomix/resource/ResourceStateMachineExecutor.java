@@ -18,18 +18,24 @@ package io.atomix.resource;
 import io.atomix.catalyst.concurrent.Scheduled;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.util.Assert;
+import io.atomix.catalyst.util.ConfigurationException;
+import io.atomix.copycat.Command;
 import io.atomix.copycat.Operation;
 import io.atomix.copycat.server.Commit;
 import io.atomix.copycat.server.StateMachineContext;
 import io.atomix.copycat.server.StateMachineExecutor;
+import io.atomix.resource.internal.OperationCodes;
+import io.atomix.resource.internal.ResourceBatchCommit;
 import io.atomix.resource.internal.ResourceCommand;
-import io.atomix.resource.internal.ResourceCommit;
+import io.atomix.resource.internal.ResourceCommitPool;
+import io.atomix.resource.internal.ResourceEventBuffer;
 import io.atomix.resource.internal.ResourceOperation;
 import io.atomix.resource.internal.ResourceQuery;
+import io.atomix.resource.internal.TimingWheel;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -40,18 +46,44 @@ import org.slf4j.Logger;
  * Custom executor for executing {@link ResourceStateMachine} {@link ResourceOperation operations}.
  * <p>
  * This is a special executor used by Atomix to execute resource state machines to unwrap
- * resource {@link ResourceCommand commands} and {@link ResourceQuery queries}.
+ * resource {@link ResourceCommand commands} and {@link ResourceQuery queries}. Operations are dispatched
+ * by the {@link OperationCodes operation code} carried by the resource operation wrapper.
+ * <p>
+ * Session events published by the state machine through the executor's {@link ResourceEventBuffer} while
+ * a command, a batch of commands, or a scheduled callback is executed are coalesced per session and published
+ * once execution completes.
+ * <p>
+ * Tasks scheduled by the resource state machine are held in a {@link TimingWheel} rather than being scheduled
+ * individually on the parent executor, so resources with many timers (e.g. TTLs or session timeouts) don't pay
+ * for sorted insertion and removal in the parent's task list. The wheel is advanced to the state machine clock
+ * before each command is applied and by a single periodic task on the parent executor which runs every
+ * {@link #TICK} milliseconds. The periodic task defers the advance to the parent's {@link #execute(Runnable)}
+ * queue, which runs once the clock has been set to the time of the entry being applied. Because the wheel is
+ * owned by this executor, scheduled callbacks may schedule and cancel other tasks.
+ * <p>
+ * The compaction mode of a resource command is determined by the snapshot flag the client wrote into the log,
+ * but whether the state machine retains commits is determined by the resource configuration on the server.
+ * Commands whose compaction mode disagrees with the server's configuration are rejected rather than applied,
+ * since the log could otherwise compact them away while the state machine still depends on them.
  *
  * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
  */
 public final class ResourceStateMachineExecutor implements StateMachineExecutor {
   private final StateMachineExecutor parent;
-  private final Map<Class, Function> callbacks = new HashMap<>();
+  private final OperationCodes.Table<Function> callbacks = new OperationCodes.Table<>();
+  private final ResourceCommitPool commits = new ResourceCommitPool();
+  private final boolean snapshot;
+  final ResourceEventBuffer events = new ResourceEventBuffer();
+  static final long TICK = 10;
+  private TimingWheel wheel;
+  private Scheduled driver;
 
-  ResourceStateMachineExecutor(StateMachineExecutor parent) {
+  ResourceStateMachineExecutor(StateMachineExecutor parent, boolean snapshot) {
     this.parent = Assert.notNull(parent, "parent");
+    this.snapshot = snapshot;
     parent.register(ResourceCommand.class, (Function<Commit<ResourceCommand>, Object>) this::executeCommand);
     parent.register(ResourceQuery.class, (Function<Commit<ResourceQuery>, Object>) this::executeQuery);
+    parent.register(ResourceCommand.Batch.class, (Function<Commit<ResourceCommand.Batch>, List<Object>>) this::executeBatch);
   }
 
   @Override
@@ -79,9 +111,21 @@ public final class ResourceStateMachineExecutor implements StateMachineExecutor
    */
   @SuppressWarnings("unchecked")
   private Object executeCommand(Commit<ResourceCommand> commit) {
-    Function<Commit<?>, ?> function = callbacks.get(commit.operation().operation().getClass());
+    ResourceCommand command = commit.operation();
+    if (command.compaction() != command.compaction(snapshot)) {
+      commit.close();
+      throw new ConfigurationException("command compaction mode does not match the resource snapshot configuration");
+    }
+
+    Function<Commit<?>, ?> function = callbacks.get(command.code(), command.operation());
     if (function != null) {
-      return function.apply(new ResourceCommit(commit));
+      advance();
+      events.open();
+      try {
+        return function.apply(commits.acquire(commit));
+      } finally {
+        events.close();
+      }
     }
     throw new IllegalStateException("unknown operation type: " + commit.operation().operation().getClass());
   }
@@ -91,13 +135,59 @@ public final class ResourceStateMachineExecutor implements StateMachineExecutor
    */
   @SuppressWarnings("unchecked")
   private Object executeQuery(Commit<ResourceQuery> commit) {
-    Function<Commit<?>, ?> function = callbacks.get(commit.operation().operation().getClass());
+    ResourceQuery query = commit.operation();
+    Function<Commit<?>, ?> function = callbacks.get(query.code(), query.operation());
     if (function != null) {
-      return function.apply(new ResourceCommit(commit));
+      return function.apply(commits.acquire(commit));
     }
     throw new IllegalStateException("unknown operation type: " + commit.operation().operation().getClass());
   }
 
+  /**
+   * Executes a batch of resource commands.
+   * <p>
+   * Commands are applied in the order in which they were batched. Each command is applied with its own
+   * {@link ResourceBatchCommit} holding a reference to the batch commit, so the batch is only released once
+   * all of its commands have been released. A command that fails does not prevent subsequent commands in
+   * the batch from being applied; its failure is returned in place of its result.
+   */
+  @SuppressWarnings("unchecked")
+  private List<Object> executeBatch(Commit<ResourceCommand.Batch> commit) {
+    ResourceCommand.Batch batch = commit.operation();
+    if (batch.compaction() != batch.compaction(snapshot)) {
+      commit.close();
+      throw new ConfigurationException("batch compaction mode does not match the resource snapshot configuration");
+    }
+
+    List<Command<?>> commands = batch.commands();
+    List<Object> results = new ArrayList<>(commands.size());
+    advance();
+    events.open();
+    try {
+      for (int i = 0; i < commands.size(); i++) {
+        Command<?> command = commands.get(i);
+        Function<Commit<?>, ?> function = callbacks.get(batch.code(i), command);
+        if (function == null) {
+          results.add(new ResourceCommand.Error(new IllegalStateException("unknown operation type: " + command.getClass())));
+          continue;
+        }
+
+        commit.acquire();
+        ResourceBatchCommit<?> batchCommit = new ResourceBatchCommit<>(commit, command);
+        try {
+          results.add(function.apply(batchCommit));
+        } catch (Exception e) {
+          batchCommit.close();
+          results.add(new ResourceCommand.Error(e));
+        }
+      }
+    } finally {
+      commit.release();
+      events.close();
+    }
+    return results;
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public <T extends Operation<Void>> StateMachineExecutor register(Class<T> type, Consumer<Commit<T>> callback) {
@@ -110,18 +200,64 @@ public final class ResourceStateMachineExecutor implements StateMachineExecutor
   @Override
   @SuppressWarnings("unchecked")
   public <T extends Operation<U>, U> StateMachineExecutor register(Class<T> type, Function<Commit<T>, U> callback) {
-    callbacks.put(type, Assert.notNull(callback, "callback"));
+    callbacks.register(type, Assert.notNull(callback, "callback"));
     return this;
   }
 
   @Override
   public Scheduled schedule(Duration delay, Runnable callback) {
-    return parent.schedule(delay, callback);
+    Assert.notNull(delay, "delay");
+    return wheel().schedule(context().clock().millis() + delay.toMillis(), 0, buffered(callback));
   }
 
   @Override
   public Scheduled schedule(Duration initialDelay, Duration interval, Runnable callback) {
-    return parent.schedule(initialDelay, interval, callback);
+    Assert.notNull(initialDelay, "initialDelay");
+    Assert.notNull(interval, "interval");
+    return wheel().schedule(context().clock().millis() + initialDelay.toMillis(), interval.toMillis(), buffered(callback));
+  }
+
+  /**
+   * Returns the timing wheel, creating it and scheduling its driver on the parent executor if necessary.
+   */
+  private TimingWheel wheel() {
+    if (wheel == null) {
+      wheel = new TimingWheel(TICK, context().clock().millis());
+      driver = parent.schedule(Duration.ofMillis(TICK), Duration.ofMillis(TICK), () -> parent.execute(this::advance));
+    }
+    return wheel;
+  }
+
+  /**
+   * Advances the timing wheel to the state machine clock, firing any tasks whose delay has expired.
+   */
+  private void advance() {
+    if (wheel != null) {
+      wheel.advance(context().clock().millis());
+    }
+  }
+
+  /**
+   * Wraps a scheduled callback to coalesce the events it publishes.
+   */
+  private Runnable buffered(Runnable callback) {
+    Assert.notNull(callback, "callback");
+    return () -> {
+      events.open();
+      try {
+        callback.run();
+      } finally {
+        events.close();
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    if (wheel != null) {
+      driver.cancel();
+      wheel.clear();
+    }
   }
 
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.resource.internal;
+
+import io.atomix.catalyst.serializer.SerializerRegistry;
+import io.atomix.catalyst.util.Assert;
+import io.atomix.copycat.Operation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Operation code registry.
+ * <p>
+ * Operation codes are compact numeric identifiers for {@link Operation} types. An operation's code is the
+ * serializable type ID with which the operation is registered, so codes are assigned in the same place as
+ * serializer IDs:
+ * <pre>
+ *   {@code
+ *   public void resolve(SerializerRegistry registry) {
+ *     OperationCodes.register(registry, Put.class, -67);
+ *   }
+ *   }
+ * </pre>
+ * Resource operation wrappers carry the code of the operation they wrap, allowing state machine executors
+ * to dispatch operations through a flat {@link Table} without hashing or looking up the operation's class
+ * on every commit.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+public final class OperationCodes {
+
+  /**
+   * Code for operations that were not registered with an operation code.
+   */
+  public static final int NONE = 0;
+
+  private static final Map<Class<?>, Integer> CODES = new ConcurrentHashMap<>();
+
+  private OperationCodes() {
+  }
+
+  /**
+   * Registers an operation type with the given serializer registry and assigns the type ID as its operation code.
+   *
+   * @param registry The serializer registry.
+   * @param type The operation type.
+   * @param id The serializable type ID and operation code.
+   * @return The serializer registry.
+   * @throws IllegalArgumentException if {@code id} is {@code 0} or does not fit in a {@code short}
+   */
+  public static SerializerRegistry register(SerializerRegistry registry, Class<? extends Operation> type, int id) {
+    Assert.notNull(registry, "registry");
+    Assert.notNull(type, "type");
+    Assert.argNot(id == NONE || id < Short.MIN_VALUE || id > Short.MAX_VALUE, "invalid operation code: %d", id);
+    registry.register(type, id);
+    CODES.put(type, id);
+    return registry;
+  }
+
+  /**
+   * Returns the operation code for the given operation type.
+   *
+   * @param type The operation type.
+   * @return The operation code or {@link #NONE} if the type was not registered with an operation code.
+   */
+  public static int code(Class<?> type) {
+    Integer code = CODES.get(type);
+    return code != null ? code : NONE;
+  }
+
+  /**
+   * Maps an operation code to a dense non-negative table index.
+   * <p>
+   * Codes are zig-zag encoded so that the negative IDs used by Atomix and the positive IDs used by
+   * user types both map to small indexes.
+   */
+  private static int index(int code) {
+    return (code << 1) ^ (code >> 31);
+  }
+
+  /**
+   * Operation dispatch table.
+   * <p>
+   * The table maps operation codes to values through a flat array. Operations that were not registered with
+   * an operation code fall back to a lookup by class.
+   *
+   * @param <T> The table value type.
+   */
+  public static final class Table<T> {
+    private final Map<Class<?>, T> types = new HashMap<>();
+    private Object[] values = new Object[0];
+
+    /**
+     * Registers a value for the given operation type.
+     *
+     * @param type The operation type.
+     * @param value The value.
+     */
+    public void register(Class<?> type, T value) {
+      Assert.notNull(type, "type");
+      Assert.notNull(value, "value");
+      types.put(type, value);
+      int code = code(type);
+      if (code != NONE) {
+        put(code, value);
+      }
+    }
+
+    /**
+     * Stores a value in the flat array.
+     */
+    private void put(int code, T value) {
+      int index = index(code);
+      if (index >= values.length) {
+        values = Arrays.copyOf(values, Math.max(index + 1, values.length * 2));
+      }
+      values[index] = value;
+    }
+
+    /**
+     * Returns the value for the given operation.
+     * <p>
+     * If the operation code is known, the value is read directly from the flat array. Otherwise, the value is
+     * looked up by the operation's class. Operation types whose codes were registered after the value was added
+     * to the table are moved into the flat array the first time they're looked up.
+     *
+     * @param code The operation code.
+     * @param operation The operation.
+     * @return The registered value or {@code null} if no value is registered for the operation.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int code, Object operation) {
+      if (code != NONE) {
+        int index = index(code);
+        if (index < values.length) {
+          Object value = values[index];
+          if (value != null) {
+            return (T) value;
+          }
+        }
+      }
+
+      T value = types.get(operation.getClass());
+      if (value != null && code != NONE && code(operation.getClass()) == code) {
+        put(code, value);
+      }
+      return value;
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.resource.internal;
+
+import io.atomix.catalyst.util.Assert;
+import io.atomix.copycat.Operation;
+import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.session.ServerSession;
+
+import java.time.Instant;
+
+/**
+ * Wrapper for a single command within a {@link ResourceCommand.Batch} commit.
+ * <p>
+ * All commands in a batch share the same parent commit. Each batch commit holds its own references to the
+ * parent, so the parent commit is only released once every command in the batch has been released by the
+ * state machine. Closing a batch commit releases only the references held by that commit.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+public class ResourceBatchCommit<T extends Operation> implements Commit<T> {
+  private final Commit<?> parent;
+  private final T operation;
+  private int references;
+
+  /**
+   * @param parent The parent batch commit. A reference to the parent must already be held for this commit.
+   * @param operation The batched operation.
+   */
+  public ResourceBatchCommit(Commit<?> parent, T operation) {
+    this.parent = Assert.notNull(parent, "parent");
+    this.operation = Assert.notNull(operation, "operation");
+    this.references = 1;
+  }
+
+  @Override
+  public long index() {
+    return parent.index();
+  }
+
+  @Override
+  public ServerSession session() {
+    return parent.session();
+  }
+
+  @Override
+  public Instant time() {
+    return parent.time();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Class<T> type() {
+    return (Class<T>) operation.getClass();
+  }
+
+  @Override
+  public T operation() {
+    return operation;
+  }
+
+  @Override
+  public Commit<T> acquire() {
+    references++;
+    parent.acquire();
+    return this;
+  }
+
+  @Override
+  public boolean release() {
+    if (references > 0) {
+      references--;
+      parent.release();
+    }
+    return references == 0;
+  }
+
+  @Override
+  public int references() {
+    return references;
+  }
+
+  @Override
+  public void close() {
+    while (references > 0) {
+      release();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[index=%d, operation=%s]", getClass().getSimpleName(), index(), operation);
+  }
+
+}
@@ -21,12 +21,16 @@ import io.atomix.catalyst.serializer.CatalystSerializable;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.copycat.Command;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Wrapper for resource commands.
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
 public final class ResourceCommand<T extends Command<U>, U> extends ResourceOperation<T, U> implements Command<U> {
+  private boolean snapshot;
 
   public ResourceCommand() {
   }
@@ -35,24 +39,59 @@ public final class ResourceCommand<T extends Command<U>, U> extends ResourceOper
     super(command);
   }
 
+  public ResourceCommand(T command, boolean snapshot) {
+    super(command);
+    this.snapshot = snapshot;
+  }
+
+  /**
+   * Returns the compaction mode for a resource command.
+   * <p>
+   * Commands submitted to resources that store their state in snapshots are compacted via
+   * {@link CompactionMode#SNAPSHOT snapshots}. Resource lifecycle and event registration commands are
+   * not part of the resource's snapshotted state and always use their own compaction mode.
+   *
+   * @param command The command for which to return the compaction mode.
+   * @param snapshot Whether the resource stores its state in snapshots.
+   * @return The command compaction mode.
+   */
+  static CompactionMode compaction(Command<?> command, boolean snapshot) {
+    if (snapshot && !(command instanceof Register || command instanceof Unregister || command instanceof Delete)) {
+      return CompactionMode.SNAPSHOT;
+    }
+    return command.compaction();
+  }
+
   @Override
   public CompactionMode compaction() {
-    return operation.compaction();
+    return compaction(snapshot);
+  }
+
+  /**
+   * Returns the command compaction mode for a resource with the given snapshot configuration.
+   *
+   * @param snapshot Whether the resource stores its state in snapshots.
+   * @return The command compaction mode.
+   */
+  public CompactionMode compaction(boolean snapshot) {
+    return compaction(operation, snapshot);
   }
 
   @Override
   public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
     super.writeObject(buffer, serializer);
+    buffer.writeBoolean(snapshot);
   }
 
   @Override
   public void readObject(BufferInput<?> buffer, Serializer serializer) {
     super.readObject(buffer, serializer);
+    snapshot = buffer.readBoolean();
   }
 
   @Override
   public String toString() {
-    return String.format("%s[command=%s]", getClass().getSimpleName(), operation);
+    return String.format("%s[command=%s, snapshot=%b]", getClass().getSimpleName(), operation, snapshot);
   }
 
   /**
@@ -131,6 +170,145 @@ public final class ResourceCommand<T extends Command<U>, U> extends ResourceOper
     }
   }
 
+  /**
+   * Resource command batch.
+   * <p>
+   * Batches are submitted by {@link ResourceCopycatClient} when client-side batching is enabled. The commands
+   * in a batch are applied to the resource state machine in order as part of a single commit, and the result
+   * of the batch is a list of the results of each command. Commands that fail are represented in the result
+   * list by an {@link Error}.
+   */
+  public static class Batch implements Command<List<Object>>, CatalystSerializable {
+    private List<Command<?>> commands;
+    private int[] codes;
+    private boolean snapshot;
+
+    public Batch() {
+    }
+
+    public Batch(List<Command<?>> commands) {
+      this(commands, false);
+    }
+
+    public Batch(List<Command<?>> commands, boolean snapshot) {
+      this.commands = commands;
+      this.snapshot = snapshot;
+      this.codes = new int[commands.size()];
+      for (int i = 0; i < codes.length; i++) {
+        codes[i] = OperationCodes.code(commands.get(i).getClass());
+      }
+    }
+
+    /**
+     * Returns the batched commands.
+     *
+     * @return The batched commands.
+     */
+    public List<Command<?>> commands() {
+      return commands;
+    }
+
+    /**
+     * Returns the operation code of the command at the given position in the batch.
+     *
+     * @param index The position of the command in the batch.
+     * @return The operation code of the command.
+     */
+    public int code(int index) {
+      return codes[index];
+    }
+
+    /**
+     * Returns the batch compaction mode.
+     * <p>
+     * If all commands in the batch share a compaction mode then that mode is used for the batch. Otherwise,
+     * the batch falls back to {@link CompactionMode#SEQUENTIAL}, the most conservative compaction mode.
+     */
+    @Override
+    public CompactionMode compaction() {
+      return compaction(snapshot);
+    }
+
+    /**
+     * Returns the batch compaction mode for a resource with the given snapshot configuration.
+     *
+     * @param snapshot Whether the resource stores its state in snapshots.
+     * @return The batch compaction mode.
+     */
+    public CompactionMode compaction(boolean snapshot) {
+      CompactionMode mode = null;
+      for (Command<?> command : commands) {
+        CompactionMode commandMode = ResourceCommand.compaction(command, snapshot);
+        if (mode == null) {
+          mode = commandMode;
+        } else if (mode != commandMode) {
+          return CompactionMode.SEQUENTIAL;
+        }
+      }
+      return mode != null ? mode : CompactionMode.QUORUM;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeBoolean(snapshot);
+      buffer.writeInt(commands.size());
+      for (int i = 0; i < codes.length; i++) {
+        buffer.writeShort((short) codes[i]);
+        serializer.writeObject(commands.get(i), buffer);
+      }
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      snapshot = buffer.readBoolean();
+      int size = buffer.readInt();
+      commands = new ArrayList<>(size);
+      codes = new int[size];
+      for (int i = 0; i < size; i++) {
+        codes[i] = buffer.readShort();
+        commands.add(serializer.readObject(buffer));
+      }
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[commands=%d]", getClass().getSimpleName(), commands.size());
+    }
+  }
+
+  /**
+   * Batched command error.
+   */
+  public static class Error implements CatalystSerializable {
+    private Throwable error;
+
+    public Error() {
+    }
+
+    public Error(Throwable error) {
+      this.error = error;
+    }
+
+    /**
+     * Returns the error thrown by the batched command.
+     *
+     * @return The error thrown by the batched command.
+     */
+    public Throwable error() {
+      return error;
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      serializer.writeObject(error, buffer);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      error = serializer.readObject(buffer);
+    }
+  }
+
   /**
    * Resource delete command.
    */
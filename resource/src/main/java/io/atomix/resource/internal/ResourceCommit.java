@@ -24,67 +24,116 @@ import java.time.Instant;
 
 /**
  * Wrapper for resource commits.
+ * <p>
+ * Resource commits acquired from a {@link ResourceCommitPool} are returned to the pool once the last reference
+ * to the parent commit has been released or the commit is closed by its last holder. A commit that was closed
+ * while other holders still referenced it is not returned to the pool. State machines must not use a commit
+ * after it has been closed or released, and a recycled commit fails with an {@link IllegalStateException}.
  *
  * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
  */
 public class ResourceCommit<T extends Operation> implements Commit<T> {
-  private final Commit<? extends ResourceOperation> parent;
+  private final ResourceCommitPool pool;
+  private Commit<? extends ResourceOperation> parent;
 
   public ResourceCommit(Commit<? extends ResourceOperation> parent) {
+    this.pool = null;
     this.parent = Assert.notNull(parent, "parent");
   }
 
+  ResourceCommit(ResourceCommitPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Resets the resource commit.
+   *
+   * @param parent The parent commit.
+   */
+  void reset(Commit<? extends ResourceOperation> parent) {
+    this.parent = parent;
+  }
+
+  /**
+   * Returns the commit to its pool, if any.
+   */
+  private void recycle() {
+    if (pool != null) {
+      parent = null;
+      pool.release(this);
+    }
+  }
+
+  /**
+   * Returns the parent commit, failing if the commit has been recycled.
+   */
+  private Commit<? extends ResourceOperation> parent() {
+    if (parent == null)
+      throw new IllegalStateException("commit has been released");
+    return parent;
+  }
+
   @Override
   public long index() {
-    return parent.index();
+    return parent().index();
   }
 
   @Override
   public ServerSession session() {
-    return parent.session();
+    return parent().session();
   }
 
   @Override
   public Instant time() {
-    return parent.time();
+    return parent().time();
   }
 
   @Override
   @SuppressWarnings("unchecked")
   public Class<T> type() {
-    return (Class<T>) parent.operation().getClass();
+    return (Class<T>) parent().operation().operation().getClass();
   }
 
   @Override
   @SuppressWarnings("unchecked")
   public T operation() {
-    return (T) parent.operation().operation();
+    return (T) parent().operation().operation();
   }
 
   @Override
   public Commit<T> acquire() {
-    parent.acquire();
+    parent().acquire();
     return this;
   }
 
   @Override
   public boolean release() {
-    return parent.release();
+    if (parent != null && parent.release()) {
+      recycle();
+      return true;
+    }
+    return false;
   }
 
   @Override
   public int references() {
-    return parent.references();
+    return parent != null ? parent.references() : 0;
   }
 
   @Override
   public void close() {
-    parent.close();
+    if (parent != null) {
+      boolean last = parent.references() <= 1;
+      parent.close();
+      if (last) {
+        recycle();
+      }
+    }
   }
 
   @Override
   public String toString() {
-    return parent.toString();
+    return String.valueOf(parent);
   }
 
 }
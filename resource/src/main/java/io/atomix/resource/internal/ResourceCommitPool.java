@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.resource.internal;
+
+import io.atomix.copycat.server.Commit;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Resource commit pool.
+ * <p>
+ * Resource commits are returned to the pool once they've been fully released by the state machine, so
+ * wrapping a commit does not allocate once the pool has grown to its steady-state size.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+public class ResourceCommitPool {
+  private final Deque<ResourceCommit> pool = new ArrayDeque<>();
+
+  /**
+   * Acquires a commit from the pool.
+   *
+   * @param parent The parent commit to wrap.
+   * @return The acquired resource commit.
+   */
+  public synchronized ResourceCommit acquire(Commit<? extends ResourceOperation> parent) {
+    ResourceCommit commit = pool.poll();
+    if (commit == null) {
+      commit = new ResourceCommit(this);
+    }
+    commit.reset(parent);
+    return commit;
+  }
+
+  /**
+   * Releases a commit to the pool.
+   *
+   * @param commit The commit to release.
+   */
+  public synchronized void release(ResourceCommit commit) {
+    pool.push(commit);
+  }
+
+}
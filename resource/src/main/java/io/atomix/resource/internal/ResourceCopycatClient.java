@@ -15,6 +15,7 @@
  */
 package io.atomix.resource.internal;
 
+import io.atomix.catalyst.concurrent.Scheduled;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.transport.Address;
 import io.atomix.catalyst.transport.Transport;
@@ -25,22 +26,66 @@ import io.atomix.copycat.Command;
 import io.atomix.copycat.Query;
 import io.atomix.copycat.client.CopycatClient;
 import io.atomix.copycat.session.Session;
+import io.atomix.resource.ReadConsistency;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.Consumer;
 
 /**
  * Special {@link io.atomix.copycat.client.CopycatClient} implementation that wraps commands
  * and queries in {@link ResourceCommand} and {@link ResourceQuery} objects respectively.
+ * <p>
+ * If constructed with a batch window and a maximum batch size greater than {@code 1}, the client
+ * buffers commands and submits them to the cluster in {@link ResourceCommand.Batch batches}. A batch
+ * is flushed when the batch window elapses, when the batch is full, or before any query is submitted
+ * to preserve the ordering of operations submitted through the client.
+ * <p>
+ * Events published by the resource state machine may be coalesced into {@link ResourceEvent.Batch batches}.
+ * The client unpacks event batches and dispatches each event to the listeners registered for the event's
+ * name, so event listeners receive events in the same way regardless of whether they were batched.
  *
  * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
  */
 public class ResourceCopycatClient implements CopycatClient {
   private final CopycatClient client;
+  private final Duration batchWindow;
+  private final int maxBatchSize;
+  private volatile boolean snapshot;
+  private List<Command<?>> batch = new ArrayList<>();
+  private List<CompletableFuture<Object>> batchFutures = new ArrayList<>();
+  private Scheduled batchTimer;
+  private final Map<String, Set<EventListener>> eventListeners = new ConcurrentHashMap<>();
+  private Listener<ResourceEvent.Batch> batchListener;
 
   public ResourceCopycatClient(CopycatClient client) {
+    this(client, Duration.ZERO, 1);
+  }
+
+  public ResourceCopycatClient(CopycatClient client, Duration batchWindow, int maxBatchSize) {
     this.client = Assert.notNull(client, "client");
+    this.batchWindow = Assert.notNull(batchWindow, "batchWindow");
+    this.maxBatchSize = Assert.argNot(maxBatchSize, maxBatchSize <= 0, "maxBatchSize must be positive");
+  }
+
+  /**
+   * Sets whether the resource stores its state in snapshots.
+   * <p>
+   * When snapshots are enabled, commands submitted through this client are marked for
+   * {@link Command.CompactionMode#SNAPSHOT snapshot} compaction. The flag must match the resource
+   * configuration on the server, which rejects commands whose compaction mode disagrees with it.
+   *
+   * @param snapshot Whether the resource stores its state in snapshots.
+   */
+  public void snapshot(boolean snapshot) {
+    this.snapshot = snapshot;
   }
 
   @Override
@@ -75,22 +120,134 @@ public class ResourceCopycatClient implements CopycatClient {
 
   @Override
   public <T> CompletableFuture<T> submit(Command<T> command) {
-    return client.submit(new ResourceCommand<>(command));
+    if (maxBatchSize > 1 && !(command instanceof ResourceCommand.Delete)) {
+      return batch(command);
+    }
+    flush();
+    return client.submit(new ResourceCommand<>(command, snapshot));
   }
 
   @Override
   public <T> CompletableFuture<T> submit(Query<T> query) {
+    flush();
     return client.submit(new ResourceQuery<>(query));
   }
 
+  /**
+   * Submits a query with the given read consistency.
+   * <p>
+   * Queries submitted with {@link ReadConsistency#LOCAL} consistency are marked as {@link ResourceQuery#local() local},
+   * allowing clients co-located with a replica to apply the query directly to the replica's state machine.
+   *
+   * @param query The query to submit.
+   * @param consistency The read consistency with which the query was submitted.
+   * @param <T> The query result type.
+   * @return A completable future to be completed with the query result.
+   */
+  public <T> CompletableFuture<T> submit(Query<T> query, ReadConsistency consistency) {
+    Assert.notNull(consistency, "consistency");
+    flush();
+    return client.submit(new ResourceQuery<>(query, consistency == ReadConsistency.LOCAL));
+  }
+
+  /**
+   * Adds a command to the current batch.
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized <T> CompletableFuture<T> batch(Command<T> command) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    batch.add(command);
+    batchFutures.add((CompletableFuture<Object>) future);
+    if (batch.size() >= maxBatchSize) {
+      flush();
+    } else if (batchTimer == null) {
+      batchTimer = client.context().schedule(batchWindow, this::flush);
+    }
+    return future;
+  }
+
+  /**
+   * Flushes the current batch to the cluster.
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized void flush() {
+    if (batchTimer != null) {
+      batchTimer.cancel();
+      batchTimer = null;
+    }
+
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    List<Command<?>> commands = batch;
+    List<CompletableFuture<Object>> futures = batchFutures;
+    batch = new ArrayList<>();
+    batchFutures = new ArrayList<>();
+
+    // Avoid the overhead of a batch if only a single command was submitted during the batch window.
+    if (commands.size() == 1) {
+      CompletableFuture<Object> future = futures.get(0);
+      client.submit(new ResourceCommand<>((Command<Object>) commands.get(0), snapshot)).whenComplete((result, error) -> {
+        if (error == null) {
+          future.complete(result);
+        } else {
+          future.completeExceptionally(error);
+        }
+      });
+      return;
+    }
+
+    client.submit(new ResourceCommand.Batch(commands, snapshot)).whenComplete((results, error) -> {
+      if (error == null) {
+        for (int i = 0; i < futures.size(); i++) {
+          Object result = results.get(i);
+          if (result instanceof ResourceCommand.Error) {
+            futures.get(i).completeExceptionally(((ResourceCommand.Error) result).error());
+          } else {
+            futures.get(i).complete(result);
+          }
+        }
+      } else {
+        futures.forEach(f -> f.completeExceptionally(error));
+      }
+    });
+  }
+
   @Override
   public Listener<Void> onEvent(String event, Runnable callback) {
-    return client.onEvent(event, callback);
+    Assert.notNull(callback, "callback");
+    return onEvent(event, v -> callback.run());
   }
 
   @Override
-  public <T> Listener<T> onEvent(String event, Consumer<T> callback) {
-    return client.onEvent(event, callback);
+  public synchronized <T> Listener<T> onEvent(String event, Consumer<T> callback) {
+    Assert.notNull(event, "event");
+    Assert.notNull(callback, "callback");
+
+    // Register a single listener for event batches the first time any event listener is registered.
+    if (batchListener == null) {
+      batchListener = client.onEvent(ResourceEvent.Batch.EVENT, this::onEvents);
+    }
+
+    EventListener<T> listener = new EventListener<>(event, callback, client.onEvent(event, callback));
+    eventListeners.computeIfAbsent(event, e -> new CopyOnWriteArraySet<>()).add(listener);
+    return listener;
+  }
+
+  /**
+   * Unpacks a batch of events and dispatches each event to the listeners registered for its name.
+   */
+  @SuppressWarnings("unchecked")
+  private void onEvents(ResourceEvent.Batch batch) {
+    for (int i = 0; i < batch.size(); i++) {
+      Set<EventListener> listeners = eventListeners.get(batch.event(i));
+      if (listeners != null) {
+        for (EventListener listener : listeners) {
+          listener.accept(batch.message(i));
+        }
+      }
+    }
   }
 
   @Override
@@ -105,6 +262,37 @@ public class ResourceCopycatClient implements CopycatClient {
 
   @Override
   public CompletableFuture<Void> close() {
+    flush();
     return client.close();
   }
+
+  /**
+   * Resource event listener.
+   */
+  private class EventListener<T> implements Listener<T> {
+    private final String event;
+    private final Consumer<T> callback;
+    private final Listener<T> parent;
+
+    private EventListener(String event, Consumer<T> callback, Listener<T> parent) {
+      this.event = event;
+      this.callback = callback;
+      this.parent = parent;
+    }
+
+    @Override
+    public void accept(T message) {
+      callback.accept(message);
+    }
+
+    @Override
+    public void close() {
+      Set<EventListener> listeners = eventListeners.get(event);
+      if (listeners != null) {
+        listeners.remove(this);
+      }
+      parent.close();
+    }
+  }
+
 }
@@ -20,6 +20,9 @@ import io.atomix.catalyst.buffer.BufferOutput;
 import io.atomix.catalyst.serializer.CatalystSerializable;
 import io.atomix.catalyst.serializer.Serializer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Resource event wrapper.
  *
@@ -72,4 +75,90 @@ public class ResourceEvent implements CatalystSerializable {
     return String.format("%s[id=%d, event=%s]", getClass().getSimpleName(), eventId, event);
   }
 
+  /**
+   * Batch of session events.
+   * <p>
+   * Events published to a session while a single command is applied are coalesced into a batch and published
+   * to the session as a single {@link #EVENT} message. Clients unpack the batch and dispatch each event to the
+   * listeners registered for the event's name in the order in which the events were published.
+   */
+  public static class Batch implements CatalystSerializable {
+
+    /**
+     * The session event name with which event batches are published.
+     */
+    public static final String EVENT = "events";
+
+    private final List<String> events;
+    private final List<Object> messages;
+
+    public Batch() {
+      this.events = new ArrayList<>();
+      this.messages = new ArrayList<>();
+    }
+
+    /**
+     * Adds an event to the batch.
+     *
+     * @param event The event name.
+     * @param message The event message.
+     */
+    public void add(String event, Object message) {
+      events.add(event);
+      messages.add(message);
+    }
+
+    /**
+     * Returns the number of events in the batch.
+     *
+     * @return The number of events in the batch.
+     */
+    public int size() {
+      return events.size();
+    }
+
+    /**
+     * Returns the name of the event at the given position.
+     *
+     * @param index The event position.
+     * @return The event name.
+     */
+    public String event(int index) {
+      return events.get(index);
+    }
+
+    /**
+     * Returns the message of the event at the given position.
+     *
+     * @param index The event position.
+     * @return The event message.
+     */
+    public Object message(int index) {
+      return messages.get(index);
+    }
+
+    @Override
+    public void writeObject(BufferOutput<?> output, Serializer serializer) {
+      output.writeInt(events.size());
+      for (int i = 0; i < events.size(); i++) {
+        output.writeString(events.get(i));
+        serializer.writeObject(messages.get(i), output);
+      }
+    }
+
+    @Override
+    public void readObject(BufferInput<?> input, Serializer serializer) {
+      int size = input.readInt();
+      for (int i = 0; i < size; i++) {
+        events.add(input.readString());
+        messages.add(serializer.readObject(input));
+      }
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s[size=%d]", getClass().getSimpleName(), events.size());
+    }
+  }
+
 }
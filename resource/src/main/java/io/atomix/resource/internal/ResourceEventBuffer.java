@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.resource.internal;
+
+import io.atomix.catalyst.util.Assert;
+import io.atomix.copycat.server.session.ServerSession;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-session resource event buffer.
+ * <p>
+ * While the buffer is open, events published through the buffer are collected per session rather than being
+ * published immediately. Once the outermost {@link #open()} is {@link #close() closed}, each session's events
+ * are published to the session as a single {@link ResourceEvent.Batch}. Sessions to which only a single event
+ * was published receive the event as is. Events published while the buffer is not open are published to the
+ * session immediately.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+public class ResourceEventBuffer {
+  private final Map<Long, SessionEvents> sessions = new LinkedHashMap<>();
+  private int depth;
+
+  /**
+   * Opens the buffer.
+   * <p>
+   * Calls to {@code open()} may be nested. Events are flushed once the outermost call is closed.
+   */
+  public void open() {
+    depth++;
+  }
+
+  /**
+   * Closes the buffer, flushing buffered events if this closes the outermost call to {@link #open()}.
+   */
+  public void close() {
+    // Avoid Assert.state here since its varargs parameter allocates on every call.
+    if (depth == 0)
+      throw new IllegalStateException("buffer not open");
+    if (--depth == 0) {
+      flush();
+    }
+  }
+
+  /**
+   * Publishes an event to the given session.
+   *
+   * @param session The session to which to publish the event.
+   * @param event The event name.
+   * @param message The event message.
+   */
+  public void publish(ServerSession session, String event, Object message) {
+    Assert.notNull(session, "session");
+    Assert.notNull(event, "event");
+    if (depth == 0) {
+      session.publish(event, message);
+    } else {
+      SessionEvents events = sessions.get(session.id());
+      if (events == null) {
+        events = new SessionEvents(session, event, message);
+        sessions.put(session.id(), events);
+      } else {
+        events.add(event, message);
+      }
+    }
+  }
+
+  /**
+   * Publishes buffered events to their sessions.
+   */
+  private void flush() {
+    if (sessions.isEmpty())
+      return;
+
+    for (SessionEvents events : sessions.values()) {
+      if (events.session.state().active()) {
+        events.publish();
+      }
+    }
+    sessions.clear();
+  }
+
+  /**
+   * Events buffered for a single session.
+   */
+  private static class SessionEvents {
+    private final ServerSession session;
+    private final String event;
+    private final Object message;
+    private ResourceEvent.Batch batch;
+
+    private SessionEvents(ServerSession session, String event, Object message) {
+      this.session = session;
+      this.event = event;
+      this.message = message;
+    }
+
+    /**
+     * Adds an event, converting the buffered events to a batch if necessary.
+     */
+    private void add(String event, Object message) {
+      if (batch == null) {
+        batch = new ResourceEvent.Batch();
+        batch.add(this.event, this.message);
+      }
+      batch.add(event, message);
+    }
+
+    /**
+     * Publishes the buffered events to the session.
+     */
+    private void publish() {
+      if (batch == null) {
+        session.publish(event, message);
+      } else {
+        session.publish(ResourceEvent.Batch.EVENT, batch);
+      }
+    }
+  }
+
+}
@@ -30,12 +30,23 @@ import io.atomix.copycat.Operation;
  */
 public abstract class ResourceOperation<T extends Operation<U>, U> implements Operation<U>, CatalystSerializable {
   protected T operation;
+  protected int code;
 
   protected ResourceOperation() {
   }
 
   protected ResourceOperation(T operation) {
     this.operation = operation;
+    this.code = OperationCodes.code(operation.getClass());
+  }
+
+  /**
+   * Returns the operation code of the wrapped operation.
+   *
+   * @return The operation code or {@link OperationCodes#NONE} if the operation has no code.
+   */
+  public int code() {
+    return code;
   }
 
   /**
@@ -49,11 +60,13 @@ public abstract class ResourceOperation<T extends Operation<U>, U> implements Op
 
   @Override
   public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+    buffer.writeShort((short) code);
     serializer.writeObject(operation, buffer);
   }
 
   @Override
   public void readObject(BufferInput<?> buffer, Serializer serializer) {
+    code = buffer.readShort();
     operation = serializer.readObject(buffer);
   }
 
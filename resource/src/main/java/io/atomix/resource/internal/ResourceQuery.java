@@ -33,6 +33,8 @@ import java.util.Properties;
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
 public final class ResourceQuery<T extends Query<U>, U> extends ResourceOperation<T, U> implements Query<U> {
+  private boolean local;
+
   public ResourceQuery() {
   }
 
@@ -40,14 +42,32 @@ public final class ResourceQuery<T extends Query<U>, U> extends ResourceOperatio
     super(query);
   }
 
+  public ResourceQuery(T query, boolean local) {
+    super(query);
+    this.local = local;
+  }
+
   @Override
   public ConsistencyLevel consistency() {
     return operation.consistency();
   }
 
+  /**
+   * Returns a boolean indicating whether the query may be applied to a co-located state machine.
+   * <p>
+   * Local queries were submitted with {@link io.atomix.resource.ReadConsistency#LOCAL} consistency. The flag
+   * is not serialized: if no state machine is available locally, the query is submitted to the cluster with
+   * its {@link #consistency()}.
+   *
+   * @return Indicates whether the query may be applied to a co-located state machine.
+   */
+  public boolean local() {
+    return local;
+  }
+
   @Override
   public String toString() {
-    return String.format("%s[query=%s]", getClass().getSimpleName(), operation);
+    return String.format("%s[query=%s, local=%b]", getClass().getSimpleName(), operation, local);
   }
 
   /**
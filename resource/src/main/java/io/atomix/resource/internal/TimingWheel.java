@@ -0,0 +1,270 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.atomix.resource.internal;
+
+import io.atomix.catalyst.concurrent.Scheduled;
+import io.atomix.catalyst.util.Assert;
+
+/**
+ * Hierarchical timing wheel.
+ * <p>
+ * The wheel divides time into ticks of a fixed number of milliseconds and holds timers in {@code 4} levels of
+ * {@code 64} slots each. Level {@code 0} holds timers that expire within {@code 64} ticks, and each level above it
+ * covers {@code 64} times the span of the level below. As the wheel advances, the timers in a slot of a higher level
+ * are cascaded into lower levels, so each timer is moved at most three times before it fires. Timers that expire
+ * beyond the span of the top level are held in the top level and cascaded until they're within range.
+ * <p>
+ * Scheduling and cancelling timers take constant time, and fired timers are removed from the wheel. Timers never
+ * fire before their deadline, and fire at most one tick after it once the wheel has been advanced past it. Timers
+ * that expire in the same tick fire in the order in which they were scheduled.
+ * <p>
+ * The wheel is driven entirely by the time passed to {@link #advance(long)} and is not thread safe. Callbacks may
+ * schedule and cancel timers.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+public final class TimingWheel {
+  private static final int LEVELS = 4;
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final long MAX_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+  private final long tick;
+  private final Bucket[][] levels = new Bucket[LEVELS][SLOTS];
+  private long current;
+  private int size;
+
+  /**
+   * @param tick The length of a tick in milliseconds.
+   * @param time The current time in milliseconds.
+   */
+  public TimingWheel(long tick, long time) {
+    this.tick = Assert.argNot(tick, tick <= 0, "tick must be positive");
+    this.current = time / tick;
+    for (Bucket[] level : levels) {
+      for (int i = 0; i < SLOTS; i++) {
+        level[i] = new Bucket();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of timers in the wheel.
+   *
+   * @return The number of timers in the wheel.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Schedules a timer.
+   *
+   * @param deadline The time in milliseconds at which to run the callback.
+   * @param interval The interval in milliseconds at which to repeat the callback, or {@code 0} to run it once.
+   * @param callback The callback to run.
+   * @return The scheduled timer.
+   */
+  public Scheduled schedule(long deadline, long interval, Runnable callback) {
+    Timer timer = new Timer(Math.max(ticks(deadline), current + 1), interval > 0 ? ticks(interval) : 0, callback);
+    insert(timer);
+    size++;
+    return timer;
+  }
+
+  /**
+   * Converts the given number of milliseconds to ticks, rounding up.
+   */
+  private long ticks(long millis) {
+    return millis / tick + (millis % tick > 0 ? 1 : 0);
+  }
+
+  /**
+   * Inserts a timer into the slot for its expiration relative to the current tick.
+   */
+  private void insert(Timer timer) {
+    long expiration = Math.min(timer.expiration, current + MAX_TICKS - 1);
+    long delta = expiration - current;
+    int level = 0;
+    while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    levels[level][(int) (expiration >>> (SLOT_BITS * level)) & SLOT_MASK].add(timer);
+  }
+
+  /**
+   * Advances the wheel to the given time, firing all timers whose deadline has passed.
+   *
+   * @param time The current time in milliseconds.
+   */
+  public void advance(long time) {
+    long target = time / tick;
+    while (current < target) {
+      if (size == 0) {
+        current = target;
+        return;
+      }
+
+      current++;
+      for (int level = 1; level < LEVELS && (current & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+        cascade(levels[level][(int) (current >>> (SLOT_BITS * level)) & SLOT_MASK]);
+      }
+
+      Timer timer = levels[0][(int) current & SLOT_MASK].clear();
+      while (timer != null) {
+        Timer next = timer.next;
+        timer.next = null;
+        timer.prev = null;
+        fire(timer);
+        timer = next;
+      }
+    }
+  }
+
+  /**
+   * Moves the timers in the given bucket into lower levels.
+   */
+  private void cascade(Bucket bucket) {
+    Timer timer = bucket.clear();
+    while (timer != null) {
+      Timer next = timer.next;
+      timer.next = null;
+      timer.prev = null;
+      insert(timer);
+      timer = next;
+    }
+  }
+
+  /**
+   * Fires a timer that has been removed from its bucket.
+   */
+  private void fire(Timer timer) {
+    if (timer.cancelled)
+      return;
+
+    if (timer.interval > 0) {
+      timer.expiration = current + timer.interval;
+      insert(timer);
+    } else {
+      timer.cancelled = true;
+      size--;
+    }
+    timer.callback.run();
+  }
+
+  /**
+   * Cancels all timers and removes them from the wheel.
+   */
+  public void clear() {
+    for (Bucket[] level : levels) {
+      for (Bucket bucket : level) {
+        Timer timer = bucket.clear();
+        while (timer != null) {
+          timer.cancelled = true;
+          timer = timer.next;
+        }
+      }
+    }
+    size = 0;
+  }
+
+  /**
+   * Doubly linked list of timers in a slot.
+   */
+  private static final class Bucket {
+    private Timer head;
+    private Timer tail;
+
+    /**
+     * Appends a timer to the bucket.
+     */
+    private void add(Timer timer) {
+      timer.bucket = this;
+      if (tail == null) {
+        head = tail = timer;
+      } else {
+        tail.next = timer;
+        timer.prev = tail;
+        tail = timer;
+      }
+    }
+
+    /**
+     * Removes a timer from the bucket.
+     */
+    private void remove(Timer timer) {
+      if (timer.prev != null) {
+        timer.prev.next = timer.next;
+      } else {
+        head = timer.next;
+      }
+      if (timer.next != null) {
+        timer.next.prev = timer.prev;
+      } else {
+        tail = timer.prev;
+      }
+      timer.prev = null;
+      timer.next = null;
+      timer.bucket = null;
+    }
+
+    /**
+     * Removes all timers from the bucket.
+     *
+     * @return The first timer in the bucket, linked to the remaining timers in order.
+     */
+    private Timer clear() {
+      Timer timer = head;
+      for (Timer t = head; t != null; t = t.next) {
+        t.bucket = null;
+      }
+      head = tail = null;
+      return timer;
+    }
+  }
+
+  /**
+   * Timer.
+   */
+  private final class Timer implements Scheduled {
+    private long expiration;
+    private final long interval;
+    private final Runnable callback;
+    private Bucket bucket;
+    private Timer prev;
+    private Timer next;
+    private boolean cancelled;
+
+    private Timer(long expiration, long interval, Runnable callback) {
+      this.expiration = expiration;
+      this.interval = interval;
+      this.callback = callback;
+    }
+
+    @Override
+    public void cancel() {
+      if (cancelled)
+        return;
+      cancelled = true;
+      if (bucket != null) {
+        bucket.remove(this);
+      }
+      size--;
+    }
+  }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.resource;
+
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.copycat.Command;
+import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.StateMachineExecutor;
+import io.atomix.copycat.server.session.ServerSession;
+import io.atomix.resource.internal.OperationCodes;
+import io.atomix.resource.internal.ResourceCommand;
+import io.atomix.resource.internal.ResourceCommit;
+import org.mockito.ArgumentCaptor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Resource state machine executor apply loop benchmark.
+ * <p>
+ * Compares dispatching resource commands through a class-keyed map, as the executor did before operation
+ * codes were introduced, with dispatching through the {@link OperationCodes} table. Run with:
+ * <pre>
+ *   {@code
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=io.atomix.resource.ResourceStateMachineExecutorBenchmark
+ *   }
+ * </pre>
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@SuppressWarnings("unchecked")
+public class ResourceStateMachineExecutorBenchmark {
+  private static final int COMMITS = 1024;
+  private static final Class<?>[] TYPES = new Class<?>[]{
+    Op0.class, Op1.class, Op2.class, Op3.class, Op4.class, Op5.class, Op6.class, Op7.class,
+    Op8.class, Op9.class, Op10.class, Op11.class, Op12.class, Op13.class, Op14.class, Op15.class
+  };
+
+  private final Map<Class, Function> classCallbacks = new HashMap<>();
+  private Function<Commit<ResourceCommand>, Object> executor;
+  private BenchmarkCommit[] commits;
+
+  @Setup
+  public void setup() throws Exception {
+    Serializer serializer = new Serializer();
+    for (int i = 0; i < TYPES.length; i++) {
+      OperationCodes.register(serializer.registry(), (Class<? extends Command>) TYPES[i], 1000 + i);
+    }
+
+    StateMachineExecutor parent = mock(StateMachineExecutor.class);
+    ResourceStateMachineExecutor resourceExecutor = new ResourceStateMachineExecutor(parent, false);
+    ArgumentCaptor<Function> captor = ArgumentCaptor.forClass(Function.class);
+    verify(parent).register(eq(ResourceCommand.class), captor.capture());
+    executor = captor.getValue();
+
+    Function<Commit<Op>, Object> callback = commit -> commit.operation().value;
+    for (Class<?> type : TYPES) {
+      resourceExecutor.register((Class<Op>) type, callback);
+      classCallbacks.put(type, callback);
+    }
+
+    commits = new BenchmarkCommit[COMMITS];
+    for (int i = 0; i < COMMITS; i++) {
+      Op op = (Op) TYPES[i % TYPES.length].newInstance();
+      op.value = i;
+      commits[i] = new BenchmarkCommit(i + 1, new ResourceCommand<>(op));
+    }
+  }
+
+  /**
+   * Dispatches commits through a map keyed by operation class.
+   */
+  @Benchmark
+  @OperationsPerInvocation(COMMITS)
+  public void classDispatch(Blackhole blackhole) {
+    for (BenchmarkCommit commit : commits) {
+      Function function = classCallbacks.get(commit.operation().operation().getClass());
+      blackhole.consume(function.apply(new ResourceCommit(commit)));
+    }
+  }
+
+  /**
+   * Dispatches commits through the resource state machine executor's operation code table.
+   */
+  @Benchmark
+  @OperationsPerInvocation(COMMITS)
+  public void opcodeDispatch(Blackhole blackhole) {
+    for (BenchmarkCommit commit : commits) {
+      blackhole.consume(executor.apply(commit));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(ResourceStateMachineExecutorBenchmark.class.getSimpleName())
+      .build()).run();
+  }
+
+  /**
+   * Benchmark commit.
+   */
+  private static class BenchmarkCommit implements Commit<ResourceCommand> {
+    private final long index;
+    private final ResourceCommand command;
+    private final Instant time = Instant.now();
+
+    private BenchmarkCommit(long index, ResourceCommand command) {
+      this.index = index;
+      this.command = command;
+    }
+
+    @Override
+    public long index() {
+      return index;
+    }
+
+    @Override
+    public ServerSession session() {
+      return null;
+    }
+
+    @Override
+    public Instant time() {
+      return time;
+    }
+
+    @Override
+    public Class<ResourceCommand> type() {
+      return ResourceCommand.class;
+    }
+
+    @Override
+    public ResourceCommand operation() {
+      return command;
+    }
+
+    @Override
+    public Commit<ResourceCommand> acquire() {
+      return this;
+    }
+
+    @Override
+    public boolean release() {
+      return false;
+    }
+
+    @Override
+    public int references() {
+      return 1;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Benchmark operation.
+   */
+  public static abstract class Op implements Command<Object>, CatalystSerializable {
+    int value;
+
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+      buffer.writeInt(value);
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+      value = buffer.readInt();
+    }
+  }
+
+  public static class Op0 extends Op {}
+  public static class Op1 extends Op {}
+  public static class Op2 extends Op {}
+  public static class Op3 extends Op {}
+  public static class Op4 extends Op {}
+  public static class Op5 extends Op {}
+  public static class Op6 extends Op {}
+  public static class Op7 extends Op {}
+  public static class Op8 extends Op {}
+  public static class Op9 extends Op {}
+  public static class Op10 extends Op {}
+  public static class Op11 extends Op {}
+  public static class Op12 extends Op {}
+  public static class Op13 extends Op {}
+  public static class Op14 extends Op {}
+  public static class Op15 extends Op {}
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.resource;
+
+import io.atomix.catalyst.buffer.BufferInput;
+import io.atomix.catalyst.buffer.BufferOutput;
+import io.atomix.catalyst.serializer.CatalystSerializable;
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.catalyst.util.ConfigurationException;
+import io.atomix.copycat.Command;
+import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.StateMachineExecutor;
+import io.atomix.copycat.server.session.ServerSession;
+import io.atomix.resource.internal.OperationCodes;
+import io.atomix.resource.internal.ResourceCommand;
+import org.mockito.ArgumentCaptor;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.function.Function;
+
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Resource state machine executor test.
+ *
+ * @author <a href="http://github.com/kuujo>Jordan Halterman</a>
+ */
+@Test
+@SuppressWarnings("unchecked")
+public class ResourceStateMachineExecutorTest {
+  private static final int ITERATIONS = 100000;
+  private static final long MAX_ALLOCATED_BYTES = 1024 * 64;
+
+  /**
+   * Tests that resource commits are recycled once closed by the state machine.
+   */
+  public void testCommitRecycledOnClose() throws Throwable {
+    Function<Commit<ResourceCommand>, Object> executor = executor(commit -> {
+      commit.close();
+      return commit;
+    });
+
+    TestCommit commit = new TestCommit(new ResourceCommand<>(new TestCommand()));
+    Object first = executor.apply(commit);
+    Object second = executor.apply(commit);
+    assertSame(first, second);
+  }
+
+  /**
+   * Tests that a commit closed while other holders still reference it is not recycled.
+   */
+  public void testCommitNotRecycledWhileReferenced() throws Throwable {
+    Function<Commit<ResourceCommand>, Object> executor = executor(commit -> {
+      commit.acquire();
+      commit.close();
+      return commit;
+    });
+
+    Object first = executor.apply(new TestCommit(new ResourceCommand<>(new TestCommand())));
+    Object second = executor.apply(new TestCommit(new ResourceCommand<>(new TestCommand())));
+    assertNotSame(first, second);
+  }
+
+  /**
+   * Tests that a recycled commit can't be used.
+   */
+  public void testRecycledCommitFails() throws Throwable {
+    Function<Commit<ResourceCommand>, Object> executor = executor(commit -> {
+      commit.close();
+      return commit;
+    });
+
+    Commit<?> commit = (Commit<?>) executor.apply(new TestCommit(new ResourceCommand<>(new TestCommand())));
+    assertEquals(commit.references(), 0);
+    try {
+      commit.operation();
+      fail();
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  /**
+   * Tests that commands whose compaction mode disagrees with the resource configuration are rejected.
+   */
+  public void testMismatchedCompactionRejected() throws Throwable {
+    Function<Commit<ResourceCommand>, Object> executor = executor(false, commit -> {
+      fail();
+      return null;
+    });
+
+    TestCommit commit = new TestCommit(new ResourceCommand<>(new TestCommand(), true));
+    try {
+      executor.apply(commit);
+      fail();
+    } catch (ConfigurationException e) {
+    }
+    assertEquals(commit.references(), 0);
+  }
+
+  /**
+   * Tests that applying resource commands does not allocate once the commit pool is warm.
+   */
+  public void testApplyCommandAllocation() throws Throwable {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      throw new SkipException("thread allocation counters are not supported");
+    }
+
+    com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+    if (!allocation.isThreadAllocatedMemorySupported() || !allocation.isThreadAllocatedMemoryEnabled()) {
+      throw new SkipException("thread allocation counters are not enabled");
+    }
+
+    Function<Commit<ResourceCommand>, Object> executor = executor(commit -> {
+      Object operation = commit.operation();
+      commit.close();
+      return operation;
+    });
+
+    TestCommit commit = new TestCommit(new ResourceCommand<>(new TestCommand()));
+    for (int i = 0; i < ITERATIONS; i++) {
+      executor.apply(commit);
+    }
+
+    long threadId = Thread.currentThread().getId();
+    long start = allocation.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < ITERATIONS; i++) {
+      executor.apply(commit);
+    }
+    long allocated = allocation.getThreadAllocatedBytes(threadId) - start;
+    assertTrue(allocated < MAX_ALLOCATED_BYTES, "allocated " + allocated + " bytes in " + ITERATIONS + " commands");
+  }
+
+  /**
+   * Creates a resource state machine executor and returns the function it registers for resource commands.
+   */
+  private Function<Commit<ResourceCommand>, Object> executor(Function<Commit<TestCommand>, Object> callback) {
+    return executor(false, callback);
+  }
+
+  /**
+   * Creates a resource state machine executor with the given snapshot configuration and returns the function
+   * it registers for resource commands.
+   */
+  private Function<Commit<ResourceCommand>, Object> executor(boolean snapshot, Function<Commit<TestCommand>, Object> callback) {
+    OperationCodes.register(new Serializer().registry(), TestCommand.class, 2000);
+
+    StateMachineExecutor parent = mock(StateMachineExecutor.class);
+    ResourceStateMachineExecutor executor = new ResourceStateMachineExecutor(parent, snapshot);
+    ArgumentCaptor<Function> captor = ArgumentCaptor.forClass(Function.class);
+    verify(parent).register(eq(ResourceCommand.class), captor.capture());
+    executor.register(TestCommand.class, callback);
+    return captor.getValue();
+  }
+
+  /**
+   * Test commit.
+   */
+  private static class TestCommit implements Commit<ResourceCommand> {
+    private final ResourceCommand command;
+    private final Instant time = Instant.now();
+    private int references = 1;
+
+    private TestCommit(ResourceCommand command) {
+      this.command = command;
+    }
+
+    @Override
+    public long index() {
+      return 1;
+    }
+
+    @Override
+    public ServerSession session() {
+      return null;
+    }
+
+    @Override
+    public Instant time() {
+      return time;
+    }
+
+    @Override
+    public Class<ResourceCommand> type() {
+      return ResourceCommand.class;
+    }
+
+    @Override
+    public ResourceCommand operation() {
+      return command;
+    }
+
+    @Override
+    public Commit<ResourceCommand> acquire() {
+      references++;
+      return this;
+    }
+
+    @Override
+    public boolean release() {
+      return references > 0 && --references == 0;
+    }
+
+    @Override
+    public int references() {
+      return references;
+    }
+
+    @Override
+    public void close() {
+      references = 0;
+    }
+  }
+
+  /**
+   * Test command.
+   */
+  public static class TestCommand implements Command<Object>, CatalystSerializable {
+    @Override
+    public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+    }
+
+    @Override
+    public void readObject(BufferInput<?> buffer, Serializer serializer) {
+    }
+  }
+
+}
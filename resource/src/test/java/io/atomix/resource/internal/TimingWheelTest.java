@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package io.atomix.resource.internal;
+
+import io.atomix.catalyst.concurrent.Scheduled;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Timing wheel test.
+ *
+ * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
+ */
+@Test
+public class TimingWheelTest {
+
+  /**
+   * Tests that timers fire in deadline order and never before their deadline.
+   */
+  public void testFireOrder() {
+    TimingWheel wheel = new TimingWheel(10, 0);
+    List<Integer> fired = new ArrayList<>();
+    wheel.schedule(300, 0, () -> fired.add(3));
+    wheel.schedule(100, 0, () -> fired.add(1));
+    wheel.schedule(200, 0, () -> fired.add(2));
+    wheel.schedule(200, 0, () -> fired.add(4));
+    assertEquals(wheel.size(), 4);
+
+    wheel.advance(99);
+    assertTrue(fired.isEmpty());
+    wheel.advance(100);
+    assertEquals(fired, Arrays.asList(1));
+    wheel.advance(250);
+    assertEquals(fired, Arrays.asList(1, 2, 4));
+    wheel.advance(1000);
+    assertEquals(fired, Arrays.asList(1, 2, 4, 3));
+    assertEquals(wheel.size(), 0);
+  }
+
+  /**
+   * Tests that deadlines are rounded up to the next tick.
+   */
+  public void testDeadlineRoundsUp() {
+    TimingWheel wheel = new TimingWheel(10, 0);
+    AtomicInteger fired = new AtomicInteger();
+    wheel.schedule(15, 0, fired::incrementAndGet);
+    wheel.advance(19);
+    assertEquals(fired.get(), 0);
+    wheel.advance(20);
+    assertEquals(fired.get(), 1);
+  }
+
+  /**
+   * Tests cancelling timers.
+   */
+  public void testCancel() {
+    TimingWheel wheel = new TimingWheel(10, 0);
+    AtomicInteger fired = new AtomicInteger();
+    Scheduled first = wheel.schedule(100, 0, fired::incrementAndGet);
+    wheel.schedule(100, 0, fired::incrementAndGet);
+    Scheduled last = wheel.schedule(100000, 0, fired::incrementAndGet);
+    first.cancel();
+    first.cancel();
+    last.cancel();
+    assertEquals(wheel.size(), 1);
+    wheel.advance(200000);
+    assertEquals(fired.get(), 1);
+    assertEquals(wheel.size(), 0);
+  }
+
+  /**
+   * Tests periodic timers.
+   */
+  public void testPeriodic() {
+    TimingWheel wheel = new TimingWheel(10, 0);
+    AtomicInteger fired = new AtomicInteger();
+    Scheduled timer = wheel.schedule(100, 50, fired::incrementAndGet);
+    wheel.advance(100);
+    assertEquals(fired.get(), 1);
+    wheel.advance(149);
+    assertEquals(fired.get(), 1);
+    wheel.advance(300);
+    assertEquals(fired.get(), 5);
+    assertEquals(wheel.size(), 1);
+    timer.cancel();
+    wheel.advance(1000);
+    assertEquals(fired.get(), 5);
+    assertEquals(wheel.size(), 0);
+  }
+
+  /**
+   * Tests timers that are cascaded from higher levels of the wheel.
+   */
+  public void testCascade() {
+    TimingWheel wheel = new TimingWheel(1, 12345);
+    List<Long> fired = new ArrayList<>();
+    long[] deadlines = {12345 + 63, 12345 + 64, 12345 + 4095, 12345 + 4096, 12345 + 262144 + 7, 12345 + 20000000};
+    for (long deadline : deadlines) {
+      wheel.schedule(deadline, 0, () -> fired.add(deadline));
+    }
+    for (long deadline : deadlines) {
+      wheel.advance(deadline - 1);
+      assertFalse(fired.contains(deadline));
+      wheel.advance(deadline);
+      assertTrue(fired.contains(deadline));
+    }
+    assertEquals(wheel.size(), 0);
+  }
+
+  /**
+   * Tests that callbacks can schedule and cancel timers.
+   */
+  public void testScheduleAndCancelFromCallback() {
+    TimingWheel wheel = new TimingWheel(10, 0);
+    List<String> fired = new ArrayList<>();
+    Scheduled[] cancelled = new Scheduled[1];
+    wheel.schedule(100, 0, () -> {
+      fired.add("a");
+      cancelled[0].cancel();
+      wheel.schedule(100, 0, () -> fired.add("c"));
+      wheel.schedule(200, 0, () -> fired.add("d"));
+    });
+    cancelled[0] = wheel.schedule(100, 0, () -> fired.add("b"));
+    wheel.advance(100);
+    assertEquals(fired, Arrays.asList("a"));
+    wheel.advance(110);
+    assertEquals(fired, Arrays.asList("a", "c"));
+    wheel.advance(200);
+    assertEquals(fired, Arrays.asList("a", "c", "d"));
+    assertEquals(wheel.size(), 0);
+  }
+
+  /**
+   * Tests clearing the wheel.
+   */
+  public void testClear() {
+    TimingWheel wheel = new TimingWheel(10, 0);
+    AtomicInteger fired = new AtomicInteger();
+    Scheduled timer = wheel.schedule(100, 0, fired::incrementAndGet);
+    wheel.schedule(1000000, 10, fired::incrementAndGet);
+    wheel.clear();
+    assertEquals(wheel.size(), 0);
+    timer.cancel();
+    assertEquals(wheel.size(), 0);
+    wheel.advance(2000000);
+    assertEquals(fired.get(), 0);
+  }
+
+}
@@ -84,7 +84,7 @@ public abstract class AbstractDistributedValue<T extends AbstractDistributedValu
    * @return A completable future to be completed with the current value.
    */
   public CompletableFuture<U> get(ReadConsistency consistency) {
-    return client.submit(new ValueCommands.Get<>(consistency.level()));
+    return submit(new ValueCommands.Get<>(consistency.level()), consistency);
   }
 
   /**
@@ -17,7 +17,10 @@ package io.atomix.variables.internal;
 
 import io.atomix.catalyst.concurrent.Scheduled;
 import io.atomix.copycat.server.Commit;
+import io.atomix.copycat.server.Snapshottable;
 import io.atomix.copycat.server.session.ServerSession;
+import io.atomix.copycat.server.storage.snapshot.SnapshotReader;
+import io.atomix.copycat.server.storage.snapshot.SnapshotWriter;
 import io.atomix.resource.ResourceStateMachine;
 
 import java.time.Duration;
@@ -30,22 +33,53 @@ import java.util.Set;
  *
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
-public class AbstractValueState<T> extends ResourceStateMachine {
+public class AbstractValueState<T> extends ResourceStateMachine implements Snapshottable {
   protected final Set<ServerSession> listeners = new HashSet<>();
   protected T value;
   protected Commit<? extends ValueCommands.ValueCommand<?>> current;
+  protected long expire;
   protected Scheduled timer;
 
   public AbstractValueState(Properties config) {
     super(config);
   }
 
+  @Override
+  public void snapshot(SnapshotWriter writer) {
+    if (!isSnapshotEnabled())
+      return;
+
+    writer.writeObject(value);
+    writer.writeLong(expire);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void install(SnapshotReader reader) {
+    if (!isSnapshotEnabled())
+      return;
+
+    cleanCurrent();
+    value = reader.readObject();
+    expire = reader.readLong();
+    timer = expire > 0 ? schedule(Math.max(expire - executor.context().clock().millis(), 0)) : null;
+  }
+
+  /**
+   * Called when the value is changed by a command.
+   *
+   * @param oldValue The previous value.
+   * @param newValue The updated value.
+   */
+  protected void change(T oldValue, T newValue) {
+  }
+
   /**
    * Handles a get commit.
    */
   public T get(Commit<ValueCommands.Get<T>> commit) {
     try {
-      return current != null ? value : null;
+      return value;
     } finally {
       commit.close();
     }
@@ -55,34 +89,54 @@ public class AbstractValueState<T> extends ResourceStateMachine {
    * Cleans the current commit.
    */
   private void cleanCurrent() {
+    if (timer != null) {
+      timer.cancel();
+      timer = null;
+    }
     if (current != null) {
-      if (timer != null) {
-        timer.cancel();
-        timer = null;
-      }
       current.close();
+      current = null;
     }
+    expire = 0;
   }
 
   /**
    * Sets the current commit.
+   * <p>
+   * The commit is {@link #retain(Commit) retained} as the current commit, so callers must not access
+   * the commit once it has been set.
    */
   private void setCurrent(Commit<? extends ValueCommands.ValueCommand<?>> commit) {
-    timer = commit.operation().ttl() > 0 ? executor.schedule(Duration.ofMillis(commit.operation().ttl()), () -> {
+    long ttl = commit.operation().ttl();
+    expire = ttl > 0 ? executor.context().clock().millis() + ttl : 0;
+    timer = ttl > 0 ? schedule(ttl) : null;
+    current = retain(commit);
+  }
+
+  /**
+   * Schedules the expiration of the value.
+   */
+  private Scheduled schedule(long delay) {
+    return executor.schedule(Duration.ofMillis(delay), () -> {
       value = null;
-      current.close();
-      current = null;
-    }) : null;
-    current = commit;
+      expire = 0;
+      timer = null;
+      if (current != null) {
+        current.close();
+        current = null;
+      }
+    });
   }
 
   /**
    * Applies a set commit.
    */
   public void set(Commit<ValueCommands.Set<T>> commit) {
+    T oldValue = value;
     cleanCurrent();
     value = commit.operation().value();
     setCurrent(commit);
+    change(oldValue, value);
   }
 
   /**
@@ -90,9 +144,11 @@ public class AbstractValueState<T> extends ResourceStateMachine {
    */
   public boolean compareAndSet(Commit<ValueCommands.CompareAndSet<T>> commit) {
     if ((value == null && commit.operation().expect() == null) || (value != null && commit.operation().expect() != null && value.equals(commit.operation().expect()))) {
+      T oldValue = value;
       value = commit.operation().update();
       cleanCurrent();
       setCurrent(commit);
+      change(oldValue, value);
       return true;
     } else {
       commit.close();
@@ -104,24 +160,18 @@ public class AbstractValueState<T> extends ResourceStateMachine {
    * Handles a get and set commit.
    */
   public T getAndSet(Commit<ValueCommands.GetAndSet<T>> commit) {
-    T result = value;
+    T oldValue = value;
     value = commit.operation().value();
     cleanCurrent();
     setCurrent(commit);
-    return result;
+    change(oldValue, value);
+    return oldValue;
   }
 
   @Override
   public void delete() {
-    if (current != null) {
-      current.close();
-      current = null;
-      value = null;
-    }
-    if (timer != null) {
-      timer.cancel();
-      timer = null;
-    }
+    cleanCurrent();
+    value = null;
   }
 
 }
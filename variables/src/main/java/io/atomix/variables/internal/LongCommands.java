@@ -22,6 +22,7 @@ import io.atomix.catalyst.serializer.SerializableTypeResolver;
 import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.serializer.SerializerRegistry;
 import io.atomix.copycat.Command;
+import io.atomix.resource.internal.OperationCodes;
 import io.atomix.variables.DistributedValue;
 
 /**
@@ -143,19 +144,19 @@ public final class LongCommands {
   public static class TypeResolver implements SerializableTypeResolver {
     @Override
     public void resolve(SerializerRegistry registry) {
-      registry.register(ValueCommands.CompareAndSet.class, -110);
-      registry.register(ValueCommands.Get.class, -111);
-      registry.register(ValueCommands.GetAndSet.class, -112);
-      registry.register(ValueCommands.Set.class, -113);
-      registry.register(IncrementAndGet.class, -114);
-      registry.register(DecrementAndGet.class, -115);
-      registry.register(GetAndIncrement.class, -116);
-      registry.register(GetAndDecrement.class, -117);
-      registry.register(AddAndGet.class, -118);
-      registry.register(GetAndAdd.class, -119);
+      OperationCodes.register(registry, ValueCommands.CompareAndSet.class, -110);
+      OperationCodes.register(registry, ValueCommands.Get.class, -111);
+      OperationCodes.register(registry, ValueCommands.GetAndSet.class, -112);
+      OperationCodes.register(registry, ValueCommands.Set.class, -113);
+      OperationCodes.register(registry, IncrementAndGet.class, -114);
+      OperationCodes.register(registry, DecrementAndGet.class, -115);
+      OperationCodes.register(registry, GetAndIncrement.class, -116);
+      OperationCodes.register(registry, GetAndDecrement.class, -117);
+      OperationCodes.register(registry, AddAndGet.class, -118);
+      OperationCodes.register(registry, GetAndAdd.class, -119);
       registry.register(DistributedValue.ChangeEvent.class, -120);
-      registry.register(ValueCommands.Register.class, -121);
-      registry.register(ValueCommands.Unregister.class, -122);
+      OperationCodes.register(registry, ValueCommands.Register.class, -121);
+      OperationCodes.register(registry, ValueCommands.Unregister.class, -122);
     }
   }
 
@@ -23,6 +23,7 @@ import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.serializer.SerializerRegistry;
 import io.atomix.copycat.Command;
 import io.atomix.copycat.Query;
+import io.atomix.resource.internal.OperationCodes;
 import io.atomix.variables.DistributedValue;
 
 /**
@@ -279,13 +280,13 @@ public class ValueCommands {
   public static class TypeResolver implements SerializableTypeResolver {
     @Override
     public void resolve(SerializerRegistry registry) {
-      registry.register(ValueCommands.CompareAndSet.class, -110);
-      registry.register(ValueCommands.Get.class, -111);
-      registry.register(ValueCommands.GetAndSet.class, -112);
-      registry.register(ValueCommands.Set.class, -113);
+      OperationCodes.register(registry, ValueCommands.CompareAndSet.class, -110);
+      OperationCodes.register(registry, ValueCommands.Get.class, -111);
+      OperationCodes.register(registry, ValueCommands.GetAndSet.class, -112);
+      OperationCodes.register(registry, ValueCommands.Set.class, -113);
       registry.register(DistributedValue.ChangeEvent.class, -120);
-      registry.register(Register.class, -121);
-      registry.register(Unregister.class, -122);
+      OperationCodes.register(registry, Register.class, -121);
+      OperationCodes.register(registry, Unregister.class, -122);
     }
   }
 
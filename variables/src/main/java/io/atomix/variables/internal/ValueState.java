@@ -15,11 +15,8 @@
  */
 package io.atomix.variables.internal;
 
-import io.atomix.catalyst.concurrent.Scheduled;
-import io.atomix.copycat.server.Commit;
 import io.atomix.variables.DistributedValue;
 
-import java.time.Duration;
 import java.util.Properties;
 
 /**
@@ -28,101 +25,14 @@ import java.util.Properties;
  * @author <a href="http://github.com/kuujo">Jordan Halterman</a>
  */
 public class ValueState<T> extends AbstractValueState<T> {
-  protected T value;
-  protected Commit<? extends ValueCommands.ValueCommand<?>> current;
-  protected Scheduled timer;
 
   public ValueState(Properties config) {
     super(config);
   }
 
-  /**
-   * Handles a get commit.
-   */
-  public T get(Commit<ValueCommands.Get<T>> commit) {
-    try {
-      return current != null ? value : null;
-    } finally {
-      commit.close();
-    }
-  }
-
-  /**
-   * Cleans the current commit.
-   */
-  private void cleanCurrent() {
-    if (current != null) {
-      if (timer != null) {
-        timer.cancel();
-        timer = null;
-      }
-      current.close();
-    }
-  }
-
-  /**
-   * Sets the current commit.
-   */
-  private void setCurrent(Commit<? extends ValueCommands.ValueCommand<?>> commit) {
-    timer = commit.operation().ttl() > 0 ? executor.schedule(Duration.ofMillis(commit.operation().ttl()), () -> {
-      value = null;
-      current.close();
-      current = null;
-    }) : null;
-    current = commit;
-  }
-
-  /**
-   * Applies a set commit.
-   */
-  public void set(Commit<ValueCommands.Set<T>> commit) {
-    cleanCurrent();
-    T oldValue = value;
-    value = commit.operation().value();
-    setCurrent(commit);
-    notify(new DistributedValue.ChangeEvent<>(oldValue, value));
-  }
-
-  /**
-   * Handles a compare and set commit.
-   */
-  public boolean compareAndSet(Commit<ValueCommands.CompareAndSet<T>> commit) {
-    if ((value == null && commit.operation().expect() == null) || (value != null && commit.operation().expect() != null && value.equals(commit.operation().expect()))) {
-      T oldValue = value;
-      value = commit.operation().update();
-      cleanCurrent();
-      setCurrent(commit);
-      notify(new DistributedValue.ChangeEvent<>(oldValue, value));
-      return true;
-    } else {
-      commit.close();
-      return false;
-    }
-  }
-
-  /**
-   * Handles a get and set commit.
-   */
-  public T getAndSet(Commit<ValueCommands.GetAndSet<T>> commit) {
-    T oldValue = value;
-    value = commit.operation().value();
-    cleanCurrent();
-    setCurrent(commit);
-    notify(new DistributedValue.ChangeEvent<>(oldValue, value));
-    return oldValue;
-  }
-
   @Override
-  public void delete() {
-    if (current != null) {
-      current.close();
-      current = null;
-      value = null;
-    }
-    if (timer != null) {
-      timer.cancel();
-      timer = null;
-    }
+  protected void change(T oldValue, T newValue) {
+    notify(new DistributedValue.ChangeEvent<>(oldValue, newValue));
   }
 
 }